@@ -2,6 +2,7 @@ package es.timebee;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación TimeBee.
@@ -10,8 +11,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * Al ejecutarse, inicializa todo el contexto de la aplicación,
  * arranca los componentes, configura las dependencias,
  * y, en resumen, pone en marcha toda la maquinaria.
+ * <p>
+ * También activa las tareas programadas, como el cierre automático de fichajes olvidados.
  */
 @SpringBootApplication
+@EnableScheduling
 public class TimeBeeApplication {
 
 	/**
@@ -0,0 +1,83 @@
+package es.timebee.almacenamiento;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Almacén de los PDF de las nóminas, fuera de la base de datos.
+ * <p>
+ * El almacén es direccionable por contenido: cada archivo se guarda bajo su SHA-256,
+ * y en la fila de la nómina solo queda esa huella. Un mismo contenido ocupa por tanto
+ * un único archivo, y un archivo guardado nunca cambia.
+ * <p>
+ * Cuántas nóminas usan cada contenido se lleva en la base de datos con
+ * {@link ReferenciasContenido}; el almacén solo guarda, sirve y borra archivos.
+ */
+public interface AlmacenNominas {
+
+    /**
+     * Lee un contenido del flujo hasta el final y lo escribe en el almacén, sin hacerlo
+     * visible todavía bajo su huella.
+     *
+     * @param contenido el flujo con el contenido (no se cierra)
+     * @return el contenido preparado, que el llamante debe publicar o cerrar
+     * @throws IOException si falla la lectura o la escritura
+     */
+    ContenidoPreparado preparar(InputStream contenido) throws IOException;
+
+    /**
+     * Guarda un contenido leyéndolo del flujo hasta el final y lo publica en el momento.
+     * <p>
+     * El contenido no es visible bajo su huella hasta que se ha escrito entero; si ya
+     * existía, no se vuelve a escribir. No registra ninguna referencia: las nóminas
+     * guardan sus PDF con {@link ReferenciasContenido#referenciar(ContenidoPreparado)}.
+     *
+     * @param contenido el flujo con el contenido (no se cierra)
+     * @return la huella y el tamaño del contenido guardado
+     * @throws IOException si falla la lectura o la escritura
+     */
+    default ContenidoAlmacenado guardar(InputStream contenido) throws IOException {
+        try (ContenidoPreparado preparado = preparar(contenido)) {
+            preparado.publicar();
+            return preparado.contenido();
+        }
+    }
+
+    /**
+     * Abre un contenido guardado para leerlo.
+     *
+     * @param huella la huella del contenido
+     * @return un flujo con el contenido (descomprimido si se guardó comprimido), que el llamante debe cerrar
+     * @throws IOException si el contenido no existe o no se puede leer
+     */
+    InputStream abrir(String huella) throws IOException;
+
+    /**
+     * Devuelve un contenido guardado como {@link Resource}, sin abrirlo todavía.
+     * <p>
+     * Si el almacén es un sistema de archivos, el recurso es un archivo
+     * ({@link Resource#isFile()}) y puede enviarse sin pasar por la memoria de la aplicación.
+     *
+     * @param huella la huella del contenido
+     * @return el recurso
+     */
+    Resource recurso(String huella);
+
+    /**
+     * Indica si un contenido está guardado.
+     *
+     * @param huella la huella del contenido
+     * @return true si existe
+     */
+    boolean existe(String huella);
+
+    /**
+     * Elimina un contenido, si existe.
+     *
+     * @param huella la huella del contenido
+     * @throws IOException si no se puede eliminar
+     */
+    void eliminar(String huella) throws IOException;
+}
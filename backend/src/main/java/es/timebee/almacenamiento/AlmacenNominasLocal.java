@@ -0,0 +1,235 @@
+package es.timebee.almacenamiento;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link AlmacenNominas} sobre el sistema de archivos local (o un volumen compartido
+ * montado en todas las instancias).
+ * <p>
+ * Un contenido con huella {@code abcdef…} se guarda en {@code raiz/ab/cd/abcdef…}: dos
+ * niveles de subdirectorios para que ninguno acabe con cientos de miles de archivos.
+ * Se escribe primero en {@code raiz/tmp} calculando el SHA-256 a la vez, se fuerza a
+ * disco y solo entonces se renombra a su sitio. El renombrado es atómico, así que quien
+ * abre una huella ve el archivo completo o no lo ve.
+ * <p>
+ * Muchos PDF ya van comprimidos por dentro, pero otros (los generados sin compresión o
+ * con imágenes en bruto) no. Si la compresión está activada, los contenidos de al menos
+ * {@code umbralCompresion} se comprimen con gzip y se guardan como {@code abcdef….gz},
+ * solo si así ocupan al menos un 10 % menos. Al leerlos se descomprimen sin que se note:
+ * la huella y el tamaño son siempre los del PDF original.
+ */
+@Component
+public class AlmacenNominasLocal implements AlmacenNominas {
+
+    private static final String ALGORITMO = "SHA-256";
+    private static final Pattern HUELLA = Pattern.compile("[0-9a-f]{64}");
+    private static final String EXTENSION_COMPRIMIDO = ".gz";
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Path raiz;
+    private final Path temporales;
+    private final boolean comprimir;
+    private final long umbralCompresion;
+
+    /**
+     * Constructor que prepara los directorios del almacén.
+     *
+     * @param directorio       directorio raíz del almacén
+     * @param comprimir        si se comprimen los contenidos grandes
+     * @param umbralCompresion tamaño a partir del cual se intenta comprimir
+     * @throws IOException si no se pueden crear los directorios
+     */
+    public AlmacenNominasLocal(@Value("${timebee.nominas.almacen.directorio:nominas}") String directorio,
+                               @Value("${timebee.nominas.almacen.compresion.activa:true}") boolean comprimir,
+                               @Value("${timebee.nominas.almacen.compresion.umbral:512KB}") DataSize umbralCompresion) throws IOException {
+        this.raiz = Path.of(directorio).toAbsolutePath();
+        this.temporales = raiz.resolve("tmp");
+        this.comprimir = comprimir;
+        this.umbralCompresion = umbralCompresion.toBytes();
+        Files.createDirectories(temporales);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * El contenido se escribe en {@code raiz/tmp} calculando su SHA-256 y se fuerza a disco;
+     * si procede, se comprime en otro temporal.
+     */
+    @Override
+    public ContenidoPreparado preparar(InputStream contenido) throws IOException {
+        MessageDigest sha256 = nuevoResumen();
+        Path temporal = Files.createTempFile(temporales, "subida-", ".tmp");
+        try {
+            long tamano;
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE);
+                 OutputStream destino = new DigestOutputStream(Channels.newOutputStream(canal), sha256)) {
+                tamano = contenido.transferTo(destino);
+                destino.flush();
+                canal.force(true);
+            }
+            ContenidoAlmacenado almacenado = new ContenidoAlmacenado(HexFormat.of().formatHex(sha256.digest()), tamano);
+            if (comprimir && tamano >= umbralCompresion) {
+                Path comprimido = comprimirTemporal(temporal, tamano);
+                if (comprimido != null) {
+                    Files.delete(temporal);
+                    return new Preparado(almacenado, comprimido, true);
+                }
+            }
+            return new Preparado(almacenado, temporal, false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+
+    /**
+     * Comprime un temporal con gzip en otro temporal.
+     *
+     * @return el temporal comprimido, o {@code null} si no ahorra al menos un 10 %
+     */
+    private Path comprimirTemporal(Path temporal, long tamano) throws IOException {
+        Path comprimido = Files.createTempFile(temporales, "subida-", ".gz.tmp");
+        try {
+            try (InputStream origen = Files.newInputStream(temporal);
+                 FileChannel canal = FileChannel.open(comprimido, StandardOpenOption.WRITE)) {
+                GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(canal), TAMANO_BUFFER);
+                origen.transferTo(gzip);
+                gzip.finish();
+                gzip.flush();
+                canal.force(true);
+            }
+            if (Files.size(comprimido) * 10 <= tamano * 9) {
+                return comprimido;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(comprimido);
+            throw e;
+        }
+        Files.delete(comprimido);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream abrir(String huella) throws IOException {
+        try {
+            return Files.newInputStream(ruta(huella));
+        } catch (NoSuchFileException e) {
+            return new GZIPInputStream(Files.newInputStream(rutaComprimida(huella)), TAMANO_BUFFER);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Resource recurso(String huella) {
+        Path ruta = ruta(huella);
+        Path rutaComprimida = rutaComprimida(huella);
+        if (!Files.exists(ruta) && Files.exists(rutaComprimida)) {
+            return new RecursoComprimido(rutaComprimida);
+        }
+        return new FileSystemResource(ruta);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean existe(String huella) {
+        return Files.exists(ruta(huella)) || Files.exists(rutaComprimida(huella));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eliminar(String huella) throws IOException {
+        Files.deleteIfExists(ruta(huella));
+        Files.deleteIfExists(rutaComprimida(huella));
+    }
+
+    /**
+     * Ruta de un contenido dentro del almacén. La huella se valida antes de usarla
+     * para construir la ruta, de modo que nunca puede salirse de la raíz.
+     */
+    Path ruta(String huella) {
+        if (huella == null || !HUELLA.matcher(huella).matches()) {
+            throw new IllegalArgumentException("Huella de contenido no válida: " + huella);
+        }
+        return raiz.resolve(huella.substring(0, 2)).resolve(huella.substring(2, 4)).resolve(huella);
+    }
+
+    private Path rutaComprimida(String huella) {
+        Path ruta = ruta(huella);
+        return ruta.resolveSibling(ruta.getFileName() + EXTENSION_COMPRIMIDO);
+    }
+
+    /**
+     * Un contenido escrito en {@code raiz/tmp}, comprimido o no, a la espera de publicarse.
+     */
+    private final class Preparado implements ContenidoPreparado {
+
+        private final ContenidoAlmacenado contenido;
+        private final Path temporal;
+        private final boolean comprimido;
+
+        private Preparado(ContenidoAlmacenado contenido, Path temporal, boolean comprimido) {
+            this.contenido = contenido;
+            this.temporal = temporal;
+            this.comprimido = comprimido;
+        }
+
+        @Override
+        public ContenidoAlmacenado contenido() {
+            return contenido;
+        }
+
+        @Override
+        public void publicar() throws IOException {
+            if (existe(contenido.huella())) {
+                return;
+            }
+            Path destino = comprimido ? rutaComprimida(contenido.huella()) : ruta(contenido.huella());
+            Files.createDirectories(destino.getParent());
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static MessageDigest nuevoResumen() {
+        try {
+            return MessageDigest.getInstance(ALGORITMO);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITMO + " no disponible", e);
+        }
+    }
+}
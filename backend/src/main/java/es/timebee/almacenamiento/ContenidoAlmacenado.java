@@ -0,0 +1,10 @@
+package es.timebee.almacenamiento;
+
+/**
+ * Resultado de guardar un contenido en el {@link AlmacenNominas}.
+ *
+ * @param huella el SHA-256 del contenido en hexadecimal, que es también su dirección en el almacén
+ * @param tamano el tamaño del contenido en bytes
+ */
+public record ContenidoAlmacenado(String huella, long tamano) {
+}
@@ -0,0 +1,22 @@
+package es.timebee.almacenamiento;
+
+import java.io.IOException;
+
+/**
+ * Se lanza mientras se lee un contenido que no es lo que dice ser (por ejemplo, un
+ * archivo que no empieza como un PDF) o que supera el tamaño permitido.
+ * <p>
+ * Es una {@link IOException} para que corte la escritura en curso igual que un fallo
+ * de lectura: el almacén descarta lo que llevaba escrito.
+ */
+public class ContenidoNoValidoException extends IOException {
+
+    /**
+     * Constructor con el motivo del rechazo.
+     *
+     * @param mensaje el motivo, apto para mostrarse al usuario
+     */
+    public ContenidoNoValidoException(String mensaje) {
+        super(mensaje);
+    }
+}
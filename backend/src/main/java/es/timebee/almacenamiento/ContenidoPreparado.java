@@ -0,0 +1,35 @@
+package es.timebee.almacenamiento;
+
+import java.io.IOException;
+
+/**
+ * Un contenido ya leído y escrito en el almacén, pero todavía no visible bajo su huella.
+ * <p>
+ * Separar la escritura de la publicación permite registrar la referencia al contenido
+ * en la base de datos antes de que aparezca en el almacén (ver {@link ReferenciasContenido}).
+ * Si no se publica, al cerrarlo se descarta.
+ */
+public interface ContenidoPreparado extends AutoCloseable {
+
+    /**
+     * La huella y el tamaño (sin comprimir) del contenido.
+     *
+     * @return el contenido
+     */
+    ContenidoAlmacenado contenido();
+
+    /**
+     * Hace visible el contenido bajo su huella. Si ya existía, no se vuelve a escribir.
+     *
+     * @throws IOException si no se puede mover a su sitio
+     */
+    void publicar() throws IOException;
+
+    /**
+     * Borra lo que quede del contenido sin publicar.
+     *
+     * @throws IOException si no se puede borrar
+     */
+    @Override
+    void close() throws IOException;
+}
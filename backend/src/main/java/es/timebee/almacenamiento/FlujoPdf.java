@@ -0,0 +1,106 @@
+package es.timebee.almacenamiento;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flujo que valida un PDF a medida que se lee, sin tenerlo entero en memoria.
+ * <p>
+ * Comprueba que los primeros bytes son la firma {@code %PDF-} (en lugar de fiarse de la
+ * cabecera {@code Content-Type} que manda el cliente) y que no se pasa del tamaño máximo.
+ * Si algo no cuadra, la lectura falla con {@link ContenidoNoValidoException}.
+ */
+public class FlujoPdf extends FilterInputStream {
+
+    private static final byte[] FIRMA = {'%', 'P', 'D', 'F', '-'};
+
+    private final long tamanoMaximo;
+    private long leidos;
+
+    /**
+     * Constructor.
+     *
+     * @param entrada      el flujo original
+     * @param tamanoMaximo el tamaño máximo permitido, en bytes
+     */
+    public FlujoPdf(InputStream entrada, long tamanoMaximo) {
+        super(entrada);
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        byte[] uno = new byte[1];
+        int n = read(uno, 0, 1);
+        return n < 0 ? -1 : uno[0] & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] destino, int desde, int longitud) throws IOException {
+        int n = in.read(destino, desde, longitud);
+        if (n < 0) {
+            if (leidos < FIRMA.length) {
+                throw new ContenidoNoValidoException("El archivo no es PDF");
+            }
+            return n;
+        }
+        for (int i = 0; i < n && leidos + i < FIRMA.length; i++) {
+            if (destino[desde + i] != FIRMA[(int) leidos + i]) {
+                throw new ContenidoNoValidoException("El archivo no es PDF");
+            }
+        }
+        leidos += n;
+        if (leidos > tamanoMaximo) {
+            throw new ContenidoNoValidoException("El archivo supera el tamaño máximo de " + tamanoMaximo + " bytes");
+        }
+        return n;
+    }
+
+    /**
+     * Salta bytes leyéndolos, para que también pasen por la validación.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long saltados = 0;
+        while (saltados < n) {
+            int leido = read(buffer, 0, (int) Math.min(buffer.length, n - saltados));
+            if (leido < 0) {
+                break;
+            }
+            saltados += leido;
+        }
+        return saltados;
+    }
+
+    /**
+     * No se admite {@code mark}/{@code reset}: volver atrás dejaría la cuenta de bytes mal.
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * No se admite {@code mark}/{@code reset}.
+     */
+    @Override
+    public synchronized void mark(int limite) {
+        // Sin marca
+    }
+
+    /**
+     * No se admite {@code mark}/{@code reset}.
+     */
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset no admitido");
+    }
+}
@@ -0,0 +1,56 @@
+package es.timebee.almacenamiento;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Un contenido del almacén guardado con gzip, visto como el PDF original.
+ * <p>
+ * Al leerlo se descomprime, y su tamaño es el del PDF sin comprimir: gzip lo guarda en
+ * los cuatro últimos bytes del archivo (módulo 2<sup>32</sup>, que sobra para una nómina).
+ * No es un {@link #isFile() archivo}, porque lo que hay en disco no es lo que se sirve.
+ */
+final class RecursoComprimido extends AbstractResource {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final int BYTES_TAMANO = 4;
+
+    private final Path ruta;
+
+    RecursoComprimido(Path ruta) {
+        this.ruta = ruta;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(ruta);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new GZIPInputStream(Files.newInputStream(ruta), TAMANO_BUFFER);
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            ByteBuffer tamano = ByteBuffer.allocate(BYTES_TAMANO).order(ByteOrder.LITTLE_ENDIAN);
+            canal.read(tamano, canal.size() - BYTES_TAMANO);
+            return Integer.toUnsignedLong(tamano.getInt(0));
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "PDF comprimido [" + ruta + "]";
+    }
+}
@@ -0,0 +1,171 @@
+package es.timebee.almacenamiento;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cuenta en la tabla {@code contenido_nomina} cuántas nóminas usan cada contenido del
+ * {@link AlmacenNominas}, para poder borrar los que ya no usa ninguna.
+ * <p>
+ * La fila de cada huella hace también de cerrojo entre quien sube un PDF y quien lo borra.
+ * Al subir, primero se suma la referencia (lo que bloquea la fila hasta el final de la
+ * transacción) y después se publica el archivo; al borrar, se bloquea la fila, se comprueba
+ * que sigue sin referencias y se borran el archivo y la fila. Así, si alguien vuelve a subir
+ * un PDF justo cuando se está borrando, espera a que termine el borrado y lo publica de nuevo.
+ * <p>
+ * Si la transacción que publicó un archivo se deshace, su fila desaparece con ella y la
+ * limpieza nunca lo vería; por eso, al deshacerse, se borra el archivo si ninguna otra
+ * nómina llegó a crear la fila de esa huella.
+ */
+@Component
+public class ReferenciasContenido {
+
+    private static final String REFERENCIAR = """
+            INSERT INTO contenido_nomina (huella, tamano, referencias, fecha_sin_referencias) VALUES (?, ?, 1, NULL)
+            ON DUPLICATE KEY UPDATE referencias = referencias + 1, fecha_sin_referencias = NULL""";
+
+    // MySQL asigna de izquierda a derecha: el IF ya ve el contador descontado.
+    private static final String LIBERAR = """
+            UPDATE contenido_nomina
+            SET referencias = referencias - 1, fecha_sin_referencias = IF(referencias = 0, NOW(6), NULL)
+            WHERE huella = ? AND referencias > 0""";
+
+    private static final String SIN_REFERENCIAS = """
+            SELECT huella FROM contenido_nomina
+            WHERE fecha_sin_referencias < DATE_SUB(NOW(6), INTERVAL ? SECOND)
+            ORDER BY fecha_sin_referencias
+            LIMIT ?""";
+
+    private static final String BLOQUEAR_SIN_REFERENCIAS = """
+            SELECT huella FROM contenido_nomina WHERE huella = ? AND referencias = 0 FOR UPDATE""";
+
+    // Lectura con bloqueo: si la fila no existe, el bloqueo del hueco impide que otra subida
+    // la cree (y publique el mismo archivo) mientras se borra.
+    private static final String BLOQUEAR = """
+            SELECT huella FROM contenido_nomina WHERE huella = ? FOR UPDATE""";
+
+    private static final String BORRAR = """
+            DELETE FROM contenido_nomina WHERE huella = ?""";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenciasContenido.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AlmacenNominas almacenNominas;
+    private final TransactionTemplate transaccionNueva;
+
+    /**
+     * Constructor que inyecta las dependencias.
+     *
+     * @param jdbcTemplate       plantilla JDBC de Spring
+     * @param almacenNominas     almacén de los PDF
+     * @param transactionManager gestor de transacciones, para limpiar tras un rollback
+     */
+    public ReferenciasContenido(JdbcTemplate jdbcTemplate, AlmacenNominas almacenNominas,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.almacenNominas = almacenNominas;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Suma una referencia al contenido y lo publica en el almacén. Debe llamarse dentro de
+     * la transacción que guarda la nómina, para que la referencia y la nómina vayan juntas.
+     * <p>
+     * Si una misma transacción referencia varios contenidos, conviene hacerlo en orden de
+     * huella: dos subidas con PDF comunes se bloquean entonces en el mismo orden y no se cruzan.
+     * <p>
+     * Si la transacción acaba deshaciéndose, el archivo publicado se borra al terminar.
+     *
+     * @param preparado el contenido escrito en el almacén y aún sin publicar
+     * @throws IOException si no se puede publicar
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void referenciar(ContenidoPreparado preparado) throws IOException {
+        ContenidoAlmacenado contenido = preparado.contenido();
+        jdbcTemplate.update(REFERENCIAR, contenido.huella(), contenido.tamano());
+        preparado.publicar();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    descartarPublicado(contenido.huella());
+                }
+            }
+        });
+    }
+
+    /**
+     * Borra el archivo de una huella publicada por una transacción que se ha deshecho, salvo
+     * que la fila exista: entonces lo usa otra nómina (o ya lo vigila la limpieza).
+     */
+    private void descartarPublicado(String huella) {
+        try {
+            transaccionNueva.executeWithoutResult(estado -> {
+                if (!jdbcTemplate.queryForList(BLOQUEAR, String.class, huella).isEmpty()) {
+                    return;
+                }
+                try {
+                    almacenNominas.eliminar(huella);
+                } catch (IOException e) {
+                    logger.warn("No se pudo borrar el contenido {} de una subida deshecha", huella, e);
+                }
+            });
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo comprobar el contenido {} de una subida deshecha; se conserva el archivo", huella, e);
+        }
+    }
+
+    /**
+     * Resta una referencia al contenido, dentro de la transacción que elimina la nómina.
+     * Si era la última, el contenido queda pendiente de la limpieza.
+     *
+     * @param huella la huella del contenido
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void liberar(String huella) {
+        jdbcTemplate.update(LIBERAR, huella);
+    }
+
+    /**
+     * Lista los contenidos que no usa ninguna nómina desde hace al menos {@code gracia}.
+     *
+     * @param gracia tiempo mínimo sin referencias
+     * @param limite número máximo de huellas
+     * @return las huellas, empezando por las que llevan más tiempo sin usarse
+     */
+    public List<String> sinReferencias(Duration gracia, int limite) {
+        return jdbcTemplate.queryForList(SIN_REFERENCIAS, String.class, gracia.toSeconds(), limite);
+    }
+
+    /**
+     * Borra del almacén y de la tabla un contenido, si sigue sin referencias.
+     *
+     * @param huella la huella del contenido
+     * @return true si se ha borrado
+     * @throws IOException si no se puede borrar el archivo (la fila se conserva para reintentarlo)
+     */
+    @Transactional
+    public boolean eliminarSinReferencias(String huella) throws IOException {
+        if (jdbcTemplate.queryForList(BLOQUEAR_SIN_REFERENCIAS, String.class, huella).isEmpty()) {
+            return false;
+        }
+        almacenNominas.eliminar(huella);
+        jdbcTemplate.update(BORRAR, huella);
+        return true;
+    }
+}
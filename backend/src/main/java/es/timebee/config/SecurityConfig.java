@@ -1,6 +1,7 @@
 // src/main/java/es/timebee/security/SecurityConfig.java
 package es.timebee.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -51,6 +52,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable) // Desactivamos CSRF porque usamos JWT
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Los despachos ASYNC (fin de SSE y descargas en streaming) y ERROR siguen a una
+                        // petición ya autorizada; sin JWT ni sesión no tendrían autenticación y fallarían.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/auth/login", "/registro/empresa", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/formasjuridicas", "/generos", "/permisos").permitAll() // Estas rutas son públicas
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,32 @@
+package es.timebee.config;
+
+import es.timebee.idempotencia.IdempotenciaInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * {@code WebConfig} es la configuración de Spring MVC de TimeBee.
+ * <p>
+ * Registra los interceptores que se aplican a los endpoints, como el de las
+ * claves de idempotencia.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final IdempotenciaInterceptor idempotenciaInterceptor;
+
+    /**
+     * Constructor que inyecta los interceptores.
+     *
+     * @param idempotenciaInterceptor interceptor de la cabecera {@code Idempotency-Key}
+     */
+    public WebConfig(IdempotenciaInterceptor idempotenciaInterceptor) {
+        this.idempotenciaInterceptor = idempotenciaInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(idempotenciaInterceptor);
+    }
+}
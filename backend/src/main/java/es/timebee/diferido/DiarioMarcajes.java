@@ -0,0 +1,240 @@
+package es.timebee.diferido;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diario local de solo añadido con los marcajes aceptados por la escritura diferida.
+ * <p>
+ * Un marcaje solo se confirma al trabajador cuando su línea está en disco ({@code fsync}).
+ * Para no pagar un {@code fsync} por marcaje, las escrituras concurrentes se agrupan: quien
+ * sincroniza lleva a disco todo lo escrito hasta ese momento y los demás ya no lo repiten.
+ * <p>
+ * Cada línea empieza por el CRC32 del marcaje. Al abrir el diario se lee hasta la primera
+ * línea incompleta o con el CRC incorrecto (un corte en mitad de una escritura, o disco dañado)
+ * y se descarta desde ahí, para que las nuevas líneas no se mezclen con restos.
+ * <p>
+ * Si una escritura falla a medias, se recorta lo escrito para que la siguiente línea no quede
+ * detrás de un resto (al abrir se descartaría todo lo posterior, aunque estuviera confirmado).
+ * Si ni siquiera se puede recortar, el diario deja de admitir marcajes.
+ * <p>
+ * Cuando todo lo escrito está ya en la base de datos, el diario se vacía.
+ */
+public class DiarioMarcajes implements Closeable {
+
+    private static final char SEPARADOR_CRC = '\t';
+    private static final int BASE_HEXADECIMAL = 16;
+
+    private final FileChannel canal;
+    private final List<MarcajeDiferido> leidos;
+    private final Object bloqueoEscritura = new Object();
+    private final Object bloqueoSincronizacion = new Object();
+
+    private long ultimaSecuencia;
+    private volatile long ultimaSincronizada;
+    private boolean inservible;
+
+    /**
+     * Abre (o crea) el diario y lee los marcajes que contiene.
+     *
+     * @param archivo          ruta del diario
+     * @param secuenciaMinima  secuencia a partir de la que continuar si el diario está vacío
+     * @throws IOException si no se puede leer o abrir el archivo
+     */
+    public DiarioMarcajes(Path archivo, long secuenciaMinima) throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        List<MarcajeDiferido> marcajes = new ArrayList<>();
+        long bytesValidos = 0;
+        if (Files.exists(archivo)) {
+            byte[] contenido = Files.readAllBytes(archivo);
+            int inicio = 0;
+            int fin;
+            while ((fin = siguienteSalto(contenido, inicio)) >= 0) {
+                try {
+                    marcajes.add(leerRegistro(new String(contenido, inicio, fin - inicio, StandardCharsets.UTF_8)));
+                } catch (RuntimeException e) {
+                    break;
+                }
+                inicio = fin + 1;
+                bytesValidos = inicio;
+            }
+        }
+        this.leidos = List.copyOf(marcajes);
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.canal.truncate(bytesValidos);
+        this.canal.position(bytesValidos);
+        long ultimaLeida = marcajes.isEmpty() ? 0 : marcajes.get(marcajes.size() - 1).secuencia();
+        this.ultimaSecuencia = Math.max(ultimaLeida, secuenciaMinima);
+        this.ultimaSincronizada = ultimaSecuencia;
+    }
+
+    /**
+     * Marcajes que había en el diario al abrirlo, en orden.
+     *
+     * @return los marcajes leídos
+     */
+    public List<MarcajeDiferido> leidos() {
+        return leidos;
+    }
+
+    /**
+     * Añade un marcaje al diario asignándole la siguiente secuencia.
+     * <p>
+     * {@code alEscribir} se ejecuta dentro del mismo bloqueo, así que recibe los marcajes en
+     * orden de secuencia. El marcaje todavía no está en disco: hay que llamar a {@link #sincronizar(long)}.
+     *
+     * @param marcaje    el marcaje (sin secuencia)
+     * @param alEscribir acción a ejecutar con el marcaje ya numerado (por ejemplo, encolarlo)
+     * @return el marcaje con su secuencia
+     * @throws IOException si falla la escritura (no queda nada de ella en el diario)
+     *                     o el diario ya no admite marcajes
+     */
+    public MarcajeDiferido anadir(MarcajeDiferido marcaje, Consumer<MarcajeDiferido> alEscribir) throws IOException {
+        synchronized (bloqueoEscritura) {
+            if (inservible) {
+                throw new IOException("El diario de marcajes no admite más escrituras tras un fallo");
+            }
+            MarcajeDiferido numerado = marcaje.conSecuencia(ultimaSecuencia + 1);
+            ByteBuffer buffer = ByteBuffer.wrap(registro(numerado).getBytes(StandardCharsets.UTF_8));
+            long posicion = canal.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+            } catch (IOException e) {
+                recortar(posicion, e);
+                throw e;
+            }
+            ultimaSecuencia = numerado.secuencia();
+            alEscribir.accept(numerado);
+            return numerado;
+        }
+    }
+
+    /**
+     * Deshace una escritura fallida dejando el diario como estaba antes de ella.
+     * Si tampoco se puede, el diario queda inservible para no añadir nada detrás del resto.
+     */
+    private void recortar(long posicion, IOException causa) {
+        try {
+            canal.truncate(posicion);
+            canal.position(posicion);
+        } catch (IOException e) {
+            causa.addSuppressed(e);
+            inservible = true;
+        }
+    }
+
+    /**
+     * Garantiza que el marcaje con esa secuencia (y todos los anteriores) está en disco.
+     *
+     * @param secuencia la secuencia del marcaje
+     * @throws IOException si falla la sincronización
+     */
+    public void sincronizar(long secuencia) throws IOException {
+        if (ultimaSincronizada >= secuencia) {
+            return;
+        }
+        synchronized (bloqueoSincronizacion) {
+            if (ultimaSincronizada >= secuencia) {
+                return;
+            }
+            long hasta;
+            synchronized (bloqueoEscritura) {
+                hasta = ultimaSecuencia;
+            }
+            canal.force(false);
+            ultimaSincronizada = hasta;
+        }
+    }
+
+    /**
+     * Vacía el diario si todo lo escrito ya está confirmado en la base de datos.
+     *
+     * @param confirmada última secuencia guardada en la base de datos
+     * @return true si se ha vaciado
+     * @throws IOException si falla el truncado
+     */
+    public boolean vaciarSiConfirmado(long confirmada) throws IOException {
+        synchronized (bloqueoSincronizacion) {
+            synchronized (bloqueoEscritura) {
+                if (ultimaSecuencia != confirmada || canal.size() == 0) {
+                    return false;
+                }
+                canal.truncate(0);
+                canal.position(0);
+                canal.force(true);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Cierra el diario.
+     *
+     * @throws IOException si falla el cierre
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Construye la línea del diario de un marcaje: su CRC32 en hexadecimal, un tabulador,
+     * el marcaje y un salto de línea.
+     *
+     * @param marcaje el marcaje
+     * @return la línea
+     */
+    static String registro(MarcajeDiferido marcaje) {
+        String linea = marcaje.linea();
+        return Long.toHexString(crc(linea)) + SEPARADOR_CRC + linea + "\n";
+    }
+
+    /**
+     * Lee un marcaje de una línea del diario comprobando su CRC.
+     *
+     * @param registro la línea, sin salto de línea
+     * @return el marcaje
+     * @throws IllegalArgumentException si la línea está incompleta o el CRC no coincide
+     */
+    static MarcajeDiferido leerRegistro(String registro) {
+        int separador = registro.indexOf(SEPARADOR_CRC);
+        if (separador < 0) {
+            throw new IllegalArgumentException("Línea de diario sin CRC");
+        }
+        String linea = registro.substring(separador + 1);
+        if (Long.parseLong(registro.substring(0, separador), BASE_HEXADECIMAL) != crc(linea)) {
+            throw new IllegalArgumentException("CRC incorrecto en la línea de diario");
+        }
+        return MarcajeDiferido.deLinea(linea);
+    }
+
+    /** Posición del siguiente salto de línea; una línea sin él es un corte en mitad de una escritura. */
+    private static int siguienteSalto(byte[] contenido, int desde) {
+        for (int i = desde; i < contenido.length; i++) {
+            if (contenido[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long crc(String linea) {
+        CRC32 crc = new CRC32();
+        crc.update(linea.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
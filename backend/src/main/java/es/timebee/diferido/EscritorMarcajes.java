@@ -0,0 +1,162 @@
+package es.timebee.diferido;
+
+import es.timebee.domain.entity.Fichaje;
+import es.timebee.domain.entity.PuntoControlDiario;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+import es.timebee.domain.enumeration.TipoMarcaje;
+import es.timebee.domain.evento.FichajeEvento;
+import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.domain.repository.FichajeRepository;
+import es.timebee.domain.repository.PuntoControlDiarioRepository;
+import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.registro.RegistroFichajesAbiertos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Convierte lotes de marcajes diferidos en fichajes de la base de datos.
+ * <p>
+ * Cada lote es una transacción: una consulta para los fichajes abiertos de los trabajadores
+ * que salen, los cierres y las altas en lotes JDBC, y la actualización del punto de control
+ * del diario. Por cada marcaje se publica el mismo evento que publicaría el camino síncrono,
+ * así que el resumen de horas y el registro de fichajes abiertos se mantienen igual.
+ */
+@Component
+@ConditionalOnExpression(EscrituraDiferidaFichajes.ACTIVA)
+public class EscritorMarcajes {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscritorMarcajes.class);
+
+    /**
+     * Lo que un marcaje ha hecho con un fichaje, para publicar su evento cuando el fichaje ya tiene id.
+     */
+    private record Accion(TipoEventoFichaje tipo, MarcajeDiferido marcaje, Fichaje fichaje) {
+    }
+
+    private final FichajeRepository fichajeRepository;
+    private final TrabajadorRepository trabajadorRepository;
+    private final EmpresaRepository empresaRepository;
+    private final PuntoControlDiarioRepository puntoControlDiarioRepository;
+    private final RegistroFichajesAbiertos registroFichajesAbiertos;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param fichajeRepository            repositorio de fichajes
+     * @param trabajadorRepository         repositorio de trabajadores
+     * @param empresaRepository            repositorio de empresas
+     * @param puntoControlDiarioRepository repositorio de puntos de control del diario
+     * @param registroFichajesAbiertos     registro en memoria de fichajes abiertos
+     * @param eventPublisher               publicador de los eventos de fichaje
+     */
+    public EscritorMarcajes(FichajeRepository fichajeRepository,
+                            TrabajadorRepository trabajadorRepository,
+                            EmpresaRepository empresaRepository,
+                            PuntoControlDiarioRepository puntoControlDiarioRepository,
+                            RegistroFichajesAbiertos registroFichajesAbiertos,
+                            ApplicationEventPublisher eventPublisher) {
+        this.fichajeRepository = fichajeRepository;
+        this.trabajadorRepository = trabajadorRepository;
+        this.empresaRepository = empresaRepository;
+        this.puntoControlDiarioRepository = puntoControlDiarioRepository;
+        this.registroFichajesAbiertos = registroFichajesAbiertos;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Obtiene la última secuencia del diario de un nodo que ya está en la base de datos.
+     *
+     * @param nodo el nombre del nodo
+     * @return la secuencia, o 0 si el nodo nunca ha escrito
+     */
+    @Transactional(readOnly = true)
+    public long confirmada(String nodo) {
+        return puntoControlDiarioRepository.findById(nodo).map(PuntoControlDiario::getSecuencia).orElse(0L);
+    }
+
+    /**
+     * Escribe un lote de marcajes, en orden, y avanza el punto de control hasta el último.
+     * <p>
+     * Una entrada de alguien que ya tiene un fichaje abierto, o una salida de alguien que no
+     * lo tiene, no se puede aplicar: se descarta y queda en el log.
+     *
+     * @param nodo     el nombre del nodo dueño del diario
+     * @param marcajes los marcajes, en orden de secuencia
+     */
+    @Transactional
+    public void escribir(String nodo, List<MarcajeDiferido> marcajes) {
+        Set<Long> conSalida = marcajes.stream()
+                .filter(m -> m.tipo() == TipoMarcaje.SALIDA)
+                .map(MarcajeDiferido::trabajadorId)
+                .collect(Collectors.toSet());
+        Map<Long, Fichaje> abiertos = new HashMap<>();
+        if (!conSalida.isEmpty()) {
+            fichajeRepository.findByTrabajadorAbiertoIn(conSalida)
+                    .forEach(f -> abiertos.put(f.getTrabajadorAbierto(), f));
+        }
+
+        List<Fichaje> nuevos = new ArrayList<>();
+        List<Accion> acciones = new ArrayList<>(marcajes.size());
+        for (MarcajeDiferido m : marcajes) {
+            if (m.tipo() == TipoMarcaje.ENTRADA) {
+                if (abiertos.containsKey(m.trabajadorId())) {
+                    logger.warn("Marcaje {} descartado: el trabajador {} ya tiene un fichaje abierto", m.secuencia(), m.trabajadorId());
+                    registroFichajesAbiertos.liberarReserva(m.trabajadorId());
+                    continue;
+                }
+                Fichaje f = new Fichaje();
+                f.setTrabajador(trabajadorRepository.getReferenceById(m.trabajadorId()));
+                f.setEmpresa(empresaRepository.getReferenceById(m.empresaId()));
+                f.setFechaInicio(m.momento());
+                nuevos.add(f);
+                abiertos.put(m.trabajadorId(), f);
+                acciones.add(new Accion(TipoEventoFichaje.INICIADO, m, f));
+            } else {
+                Fichaje f = abiertos.remove(m.trabajadorId());
+                if (f == null) {
+                    logger.warn("Marcaje {} descartado: el trabajador {} no tiene fichaje abierto", m.secuencia(), m.trabajadorId());
+                    continue;
+                }
+                f.setFechaFin(m.momento());
+                acciones.add(new Accion(TipoEventoFichaje.FINALIZADO, m, f));
+            }
+        }
+
+        // Primero los cierres: si no, el alta de la nueva entrada de alguien que acaba de salir
+        // chocaría con su fichaje anterior, todavía abierto en la base de datos.
+        fichajeRepository.flush();
+        fichajeRepository.saveAll(nuevos);
+
+        for (Accion accion : acciones) {
+            MarcajeDiferido m = accion.marcaje();
+            Fichaje f = accion.fichaje();
+            eventPublisher.publishEvent(new FichajeEvento(accion.tipo(), m.resumen(f.getId(), f.getFechaInicio(),
+                    accion.tipo() == TipoEventoFichaje.FINALIZADO ? m.momento() : null)));
+        }
+        confirmar(nodo, marcajes.get(marcajes.size() - 1).secuencia());
+    }
+
+    /**
+     * Avanza el punto de control del diario de un nodo sin escribir fichajes
+     * (por ejemplo, para saltar un marcaje que no se puede aplicar).
+     *
+     * @param nodo      el nombre del nodo
+     * @param secuencia la nueva última secuencia confirmada
+     */
+    @Transactional
+    public void confirmar(String nodo, long secuencia) {
+        puntoControlDiarioRepository.save(new PuntoControlDiario(nodo, secuencia));
+    }
+}
@@ -0,0 +1,545 @@
+package es.timebee.diferido;
+
+import es.timebee.domain.dto.TrabajadorIdentidadDto;
+import es.timebee.domain.enumeration.TipoMarcaje;
+import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.exception.ProcesoException;
+import es.timebee.registro.FichajeAbierto;
+import es.timebee.registro.RegistroFichajesAbiertos;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.exception.JDBCConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritura diferida (write-behind) de entradas y salidas, para absorber los picos de
+ * los cambios de turno.
+ * <p>
+ * En este modo, un marcaje se confirma al trabajador en cuanto está en el diario local
+ * ({@link DiarioMarcajes}, con {@code fsync}) y en una cola en memoria sin bloqueos y con
+ * capacidad limitada. Un único hilo escritor vacía la cola en la base de datos por lotes
+ * ({@link EscritorMarcajes}), así que la latencia del marcaje ya no depende de lo que tarde
+ * la base de datos en escribir. Si la cola está llena o el modo aún no ha arrancado, el
+ * marcaje sigue el camino síncrono de siempre.
+ * <p>
+ * Además, con el modo sin conexión activado, cuando la base de datos no está disponible
+ * (un reinicio o un cambio de servidor de MySQL) las entradas y salidas se siguen aceptando
+ * por este mismo camino, validadas solo contra el registro de fichajes abiertos y con la
+ * identidad del trabajador guardada en memoria. Se escriben en orden cuando la base de datos vuelve.
+ * <p>
+ * Al arrancar se reproducen los marcajes del diario posteriores al punto de control
+ * guardado en la base de datos: ni se pierden ni se duplican. Los marcajes pendientes
+ * se publican como la métrica {@code timebee.marcajes.pendientes}.
+ * <p>
+ * Cada instancia tiene su propio diario y su propio punto de control, identificados por
+ * {@code timebee.fichajes.escritura-diferida.nodo}. Si dos instancias compartieran nodo,
+ * una confirmaría secuencias de la otra y al reproducir se perderían o duplicarían marcajes,
+ * así que el nodo es obligatorio y no arranca sin él.
+ */
+@Component
+@ConditionalOnExpression(EscrituraDiferidaFichajes.ACTIVA)
+public class EscrituraDiferidaFichajes {
+
+    /** Condición de activación: escritura diferida siempre o solo sin conexión. */
+    public static final String ACTIVA = "${timebee.fichajes.escritura-diferida.activa:false} or ${timebee.fichajes.sin-conexion.activa:false}";
+
+    private static final Logger logger = LoggerFactory.getLogger(EscrituraDiferidaFichajes.class);
+    private static final Duration ESPERA_CIERRE = Duration.ofSeconds(30);
+    private static final Duration ESPERA_REINTENTO = Duration.ofSeconds(1);
+    private static final Duration ESPERA_CONFIRMACION = Duration.ofSeconds(10);
+    private static final int REINTENTOS_TRANSITORIOS = 3;
+    private static final String SIN_CONEXION = "No hay conexión con la base de datos; inténtalo de nuevo en unos minutos";
+    private static final String SIN_CONFIRMAR = "No se pudo confirmar el marcaje; se guardará en cuanto responda la base de datos";
+    private static final String NODO_POR_DEFECTO = "local";
+
+    private final EscritorMarcajes escritor;
+    private final RegistroFichajesAbiertos registroFichajesAbiertos;
+    private final TrabajadorRepository trabajadorRepository;
+    private final boolean siempre;
+    private final boolean sinConexion;
+    private final Path archivo;
+    private final String nodo;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final Duration espera;
+
+    private final Queue<MarcajeDiferido> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final Map<Long, TrabajadorIdentidadDto> identidades = new ConcurrentHashMap<>();
+
+    private volatile DiarioMarcajes diario;
+    private volatile boolean aceptando;
+    private volatile boolean detenida;
+    private Thread hiloEscritor;
+    // Última secuencia confirmada en la base de datos; solo la escribe el hilo escritor.
+    private volatile long ultimaEscrita;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración.
+     *
+     * @param escritor                 escritor de lotes de marcajes
+     * @param registroFichajesAbiertos registro en memoria de fichajes abiertos
+     * @param trabajadorRepository     repositorio de trabajadores
+     * @param meterRegistry            registro de métricas
+     * @param siempre                  si todas las entradas y salidas se escriben en diferido
+     * @param sinConexion              si se aceptan entradas y salidas cuando la base de datos no responde
+     * @param directorio               directorio del diario local
+     * @param nodo                     nombre de esta instancia, único entre todas (identifica su diario y su punto de control)
+     * @param capacidad                marcajes pendientes como máximo en la cola
+     * @param tamanoLote               marcajes que se escriben por transacción
+     * @param espera                   pausa del escritor cuando la cola está vacía o la base de datos no responde
+     */
+    public EscrituraDiferidaFichajes(EscritorMarcajes escritor,
+                                     RegistroFichajesAbiertos registroFichajesAbiertos,
+                                     TrabajadorRepository trabajadorRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${timebee.fichajes.escritura-diferida.activa:false}") boolean siempre,
+                                     @Value("${timebee.fichajes.sin-conexion.activa:false}") boolean sinConexion,
+                                     @Value("${timebee.fichajes.escritura-diferida.directorio:diario}") Path directorio,
+                                     @Value("${timebee.fichajes.escritura-diferida.nodo:}") String nodo,
+                                     @Value("${timebee.fichajes.escritura-diferida.capacidad:100000}") int capacidad,
+                                     @Value("${timebee.fichajes.escritura-diferida.tamano-lote:500}") int tamanoLote,
+                                     @Value("${timebee.fichajes.escritura-diferida.espera:PT0.02S}") Duration espera) {
+        if (nodo.isBlank() || NODO_POR_DEFECTO.equalsIgnoreCase(nodo.strip())) {
+            throw new IllegalStateException("La escritura diferida y el modo sin conexión necesitan un nodo único por instancia: "
+                    + "configura timebee.fichajes.escritura-diferida.nodo (por ejemplo, con el nombre del servidor)");
+        }
+        nodo = nodo.strip();
+        this.escritor = escritor;
+        this.registroFichajesAbiertos = registroFichajesAbiertos;
+        this.trabajadorRepository = trabajadorRepository;
+        this.siempre = siempre;
+        this.sinConexion = sinConexion;
+        this.archivo = directorio.resolve("marcajes-" + nodo + ".diario");
+        this.nodo = nodo;
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.espera = espera;
+        Gauge.builder("timebee.marcajes.pendientes", pendientes, AtomicInteger::get)
+                .description("Marcajes aceptados que aún no están escritos en la base de datos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre el diario, reproduce los marcajes pendientes y arranca el hilo escritor.
+     * <p>
+     * Se ejecuta cuando el registro de fichajes abiertos ya está cargado, para aplicarle
+     * encima los marcajes reproducidos.
+     *
+     * @throws IOException si no se puede abrir el diario
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void arrancar() throws IOException {
+        long confirmada = escritor.confirmada(nodo);
+        diario = new DiarioMarcajes(archivo, confirmada);
+
+        int reproducidos = 0;
+        for (MarcajeDiferido m : diario.leidos()) {
+            if (m.secuencia() > confirmada) {
+                aplicarAlRegistro(m);
+                cola.add(m);
+                pendientes.incrementAndGet();
+                reproducidos++;
+            }
+        }
+        if (reproducidos > 0) {
+            logger.info("Escritura diferida: {} marcajes reproducidos desde {}", reproducidos, archivo);
+        }
+
+        ultimaEscrita = confirmada;
+        cargarIdentidades();
+        hiloEscritor = Thread.ofPlatform().name("escritor-marcajes").start(this::escribirCola);
+        aceptando = true;
+    }
+
+    /**
+     * Refresca la identidad de los trabajadores activos, que es lo que permite aceptar
+     * marcajes sin consultar la base de datos. Si no responde, se conserva la que había.
+     */
+    @Scheduled(fixedDelayString = "${timebee.fichajes.sin-conexion.refresco-identidades:PT10M}",
+            initialDelayString = "${timebee.fichajes.sin-conexion.refresco-identidades:PT10M}")
+    public void cargarIdentidades() {
+        if (!sinConexion) {
+            return;
+        }
+        try {
+            trabajadorRepository.findIdentidadesActivas().forEach(this::recordar);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo refrescar la identidad de los trabajadores", e);
+        }
+    }
+
+    /**
+     * Indica si todas las entradas y salidas se escriben en diferido, aunque la base de datos responda.
+     *
+     * @return true si la escritura diferida está activada para todo
+     */
+    public boolean siempre() {
+        return siempre;
+    }
+
+    /**
+     * Indica si, ante este error, la entrada o salida se debe aceptar sin conexión:
+     * el modo está activado y el error es que la base de datos no está disponible.
+     *
+     * @param error el error del camino síncrono
+     * @return true si hay que aceptarla sin conexión
+     */
+    public boolean aceptaSinConexion(Throwable error) {
+        return sinConexion && aceptando && esBaseDeDatosNoDisponible(error);
+    }
+
+    /**
+     * Acepta la entrada de un trabajador sin consultar la base de datos.
+     *
+     * @param trabajadorId id del trabajador
+     * @return true si se acepta
+     * @throws ProcesoException si el trabajador no es conocido, ya tiene un fichaje abierto o la cola está llena
+     */
+    public Boolean entradaSinConexion(Long trabajadorId) {
+        TrabajadorIdentidadDto trabajador = identidad(trabajadorId);
+        if (!registroFichajesAbiertos.reservar(trabajador.getId())) {
+            throw new ProcesoException("Ya existe un fichaje abierto para el trabajador");
+        }
+        if (!encolar(TipoMarcaje.ENTRADA, trabajador, LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES))) {
+            registroFichajesAbiertos.liberarReserva(trabajador.getId());
+            throw new ProcesoException(SIN_CONEXION);
+        }
+        return true;
+    }
+
+    /**
+     * Acepta la salida de un trabajador sin consultar la base de datos.
+     *
+     * @param trabajadorId id del trabajador
+     * @return true si se acepta
+     * @throws ProcesoException si el trabajador no es conocido, no tiene un fichaje abierto o la cola está llena
+     */
+    public Boolean salidaSinConexion(Long trabajadorId) {
+        TrabajadorIdentidadDto trabajador = identidad(trabajadorId);
+        Optional<FichajeAbierto> retirado = registroFichajesAbiertos.retirar(trabajador.getId());
+        if (retirado.isEmpty()) {
+            throw new ProcesoException("No hay fichajes abiertos para el trabajador");
+        }
+        if (!encolar(TipoMarcaje.SALIDA, trabajador, LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES))) {
+            registroFichajesAbiertos.registrar(retirado.get());
+            throw new ProcesoException(SIN_CONEXION);
+        }
+        return true;
+    }
+
+    /**
+     * Acepta un marcaje: lo escribe en el diario, lo sincroniza con el disco y lo encola.
+     * <p>
+     * Quien llama ya ha validado el marcaje contra el {@link RegistroFichajesAbiertos}.
+     *
+     * @param tipo       entrada o salida
+     * @param trabajador el trabajador que ficha
+     * @param momento    la fecha y hora del marcaje
+     * @return true si se ha aceptado; false si hay que seguir el camino síncrono
+     * @throws ProcesoException si no se puede sincronizar el diario y el marcaje tampoco llega
+     *                          a tiempo a la base de datos (queda en la cola y se guardará después)
+     */
+    public boolean encolar(TipoMarcaje tipo, TrabajadorIdentidadDto trabajador, LocalDateTime momento) {
+        if (!aceptando) {
+            return false;
+        }
+        if (pendientes.incrementAndGet() > capacidad) {
+            pendientes.decrementAndGet();
+            return false;
+        }
+        recordar(trabajador);
+        MarcajeDiferido marcaje;
+        try {
+            marcaje = diario.anadir(new MarcajeDiferido(0, tipo, trabajador.getId(), trabajador.getEmpresaId(),
+                    trabajador.getNombre(), trabajador.getApellidos(), momento), cola::add);
+        } catch (IOException e) {
+            pendientes.decrementAndGet();
+            logger.error("No se pudo escribir en el diario de marcajes; se sigue en modo síncrono", e);
+            return false;
+        }
+        try {
+            diario.sincronizar(marcaje.secuencia());
+        } catch (IOException e) {
+            // Tras un fallo de fsync el diario no es fiable: se deja de aceptar en diferido y este
+            // marcaje, que ya está en la cola (no se puede devolver sin duplicarlo), solo se da
+            // por aceptado cuando el escritor lo guarde en la base de datos.
+            aceptando = false;
+            logger.error("No se pudo sincronizar el diario de marcajes con el disco; se sigue en modo síncrono", e);
+            esperarEscritura(marcaje);
+        }
+        return true;
+    }
+
+    /**
+     * Espera a que el hilo escritor guarde el marcaje en la base de datos.
+     *
+     * @param marcaje el marcaje
+     * @throws ProcesoException si no se guarda en {@link #ESPERA_CONFIRMACION} o la aplicación se detiene
+     */
+    private void esperarEscritura(MarcajeDiferido marcaje) {
+        long limite = System.nanoTime() + ESPERA_CONFIRMACION.toNanos();
+        while (ultimaEscrita < marcaje.secuencia()) {
+            if (detenida || System.nanoTime() - limite > 0) {
+                throw new ProcesoException(SIN_CONFIRMAR);
+            }
+            LockSupport.parkNanos(espera.toNanos());
+        }
+    }
+
+    /**
+     * Número de marcajes aceptados que aún no están en la base de datos.
+     *
+     * @return los marcajes pendientes
+     */
+    public int pendientes() {
+        return pendientes.get();
+    }
+
+    /**
+     * Deja de aceptar marcajes y espera a que el escritor vacíe la cola (con un límite).
+     * Lo que no llegue a escribirse sigue en el diario y se reproducirá al arrancar.
+     *
+     * @throws IOException si falla el cierre del diario
+     */
+    @PreDestroy
+    public void detener() throws IOException {
+        aceptando = false;
+        detenida = true;
+        if (hiloEscritor != null) {
+            LockSupport.unpark(hiloEscritor);
+            try {
+                hiloEscritor.join(ESPERA_CIERRE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (diario != null) {
+            diario.close();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: saca lotes de la cola y los escribe hasta que se detiene
+     * la aplicación y la cola queda vacía.
+     * <p>
+     * Un error inesperado no puede matar el hilo, porque es el único escritor: se anota,
+     * se espera un poco y se reintenta el mismo lote, sin los marcajes que ya estén
+     * confirmados en la base de datos (se vuelve a leer el punto de control por si el
+     * error llegó después de confirmar).
+     */
+    private void escribirCola() {
+        List<MarcajeDiferido> lote = new ArrayList<>(tamanoLote);
+        boolean comprobarConfirmada = false;
+        while (!detenida || !cola.isEmpty() || !lote.isEmpty()) {
+            try {
+                if (comprobarConfirmada) {
+                    if (!reintentando(() -> ultimaEscrita = Math.max(ultimaEscrita, escritor.confirmada(nodo)), lote.size())) {
+                        return;
+                    }
+                    comprobarConfirmada = false;
+                    retirarEscritos(lote);
+                }
+                MarcajeDiferido m;
+                while (lote.size() < tamanoLote && (m = cola.poll()) != null) {
+                    lote.add(m);
+                }
+                if (lote.isEmpty()) {
+                    LockSupport.parkNanos(espera.toNanos());
+                    continue;
+                }
+                if (!escribirLote(lote)) {
+                    return;
+                }
+                retirarEscritos(lote);
+                if (cola.isEmpty()) {
+                    try {
+                        diario.vaciarSiConfirmado(ultimaEscrita);
+                    } catch (IOException e) {
+                        logger.warn("No se pudo vaciar el diario de marcajes", e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (detenida) {
+                    logger.error("Error en el escritor de marcajes al detenerse; lo pendiente se reproducirá desde el diario", e);
+                    return;
+                }
+                logger.error("Error inesperado en el escritor de marcajes; se reintenta el lote de {}", lote.size(), e);
+                comprobarConfirmada = true;
+                LockSupport.parkNanos(ESPERA_REINTENTO.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Quita del lote los marcajes que ya están confirmados en la base de datos y los
+     * descuenta de los pendientes.
+     */
+    private void retirarEscritos(List<MarcajeDiferido> lote) {
+        int antes = lote.size();
+        lote.removeIf(m -> m.secuencia() <= ultimaEscrita);
+        pendientes.addAndGet(lote.size() - antes);
+    }
+
+    /**
+     * Escribe un lote, reintentando mientras la base de datos no esté disponible.
+     * Si el lote falla por otro motivo, se escriben sus marcajes de uno en uno para
+     * descartar solo los que no se pueden aplicar.
+     *
+     * @param lote los marcajes, en orden
+     * @return false si la aplicación se detiene antes de poder escribirlo
+     */
+    private boolean escribirLote(List<MarcajeDiferido> lote) {
+        try {
+            if (!reintentando(() -> escritor.escribir(nodo, lote), lote.size())) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            if (lote.size() > 1) {
+                for (MarcajeDiferido m : lote) {
+                    if (!escribirLote(List.of(m))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return descartar(lote.get(0), e);
+        }
+        ultimaEscrita = lote.get(lote.size() - 1).secuencia();
+        return true;
+    }
+
+    /**
+     * Descarta un marcaje que no se puede aplicar: avanza el punto de control para no
+     * reproducirlo y libera la reserva de su entrada.
+     *
+     * @return false si la aplicación se detiene antes de poder avanzar el punto de control
+     */
+    private boolean descartar(MarcajeDiferido marcaje, RuntimeException causa) {
+        logger.error("Marcaje {} del trabajador {} descartado", marcaje.secuencia(), marcaje.trabajadorId(), causa);
+        if (!reintentando(() -> escritor.confirmar(nodo, marcaje.secuencia()), 1)) {
+            return false;
+        }
+        ultimaEscrita = marcaje.secuencia();
+        if (marcaje.tipo() == TipoMarcaje.ENTRADA) {
+            registroFichajesAbiertos.liberarReserva(marcaje.trabajadorId());
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta una escritura en la base de datos, reintentándola mientras no esté disponible.
+     * Un error transitorio con la base de datos en marcha (un interbloqueo, una espera de
+     * bloqueo o una consulta que tarda demasiado) se reintenta unas pocas veces; si se repite,
+     * se propaga como cualquier otro error para que el lote se parta y no se reintente sin fin.
+     *
+     * @param escritura la escritura
+     * @param marcajes  marcajes afectados, para el log
+     * @return false si la aplicación se detiene antes de poder escribir
+     */
+    private boolean reintentando(Runnable escritura, int marcajes) {
+        int transitorios = 0;
+        while (true) {
+            try {
+                escritura.run();
+                return true;
+            } catch (RuntimeException e) {
+                if (esBaseDeDatosNoDisponible(e)) {
+                    if (detenida) {
+                        return false;
+                    }
+                    logger.warn("Base de datos no disponible para escribir {} marcajes; se reintenta", marcajes, e);
+                } else if (e instanceof TransientDataAccessException && ++transitorios < REINTENTOS_TRANSITORIOS) {
+                    logger.warn("Error transitorio al escribir {} marcajes; se reintenta", marcajes, e);
+                } else {
+                    throw e;
+                }
+                LockSupport.parkNanos(ESPERA_REINTENTO.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Aplica al registro de fichajes abiertos un marcaje reproducido del diario.
+     */
+    private void aplicarAlRegistro(MarcajeDiferido marcaje) {
+        if (marcaje.tipo() == TipoMarcaje.ENTRADA) {
+            registroFichajesAbiertos.reservar(marcaje.trabajadorId());
+        } else {
+            registroFichajesAbiertos.retirar(marcaje.trabajadorId());
+        }
+    }
+
+    /**
+     * Busca la identidad de un trabajador por su id.
+     *
+     * @throws ProcesoException si no se conoce
+     */
+    private TrabajadorIdentidadDto identidad(Long trabajadorId) {
+        TrabajadorIdentidadDto trabajador = identidades.get(trabajadorId);
+        if (trabajador == null) {
+            throw new ProcesoException(SIN_CONEXION);
+        }
+        return trabajador;
+    }
+
+    private void recordar(TrabajadorIdentidadDto trabajador) {
+        if (sinConexion) {
+            identidades.put(trabajador.getId(), trabajador);
+        }
+    }
+
+    /**
+     * Indica si un error (o alguna de sus causas) significa que la base de datos no está disponible,
+     * y no que la operación sea inválida.
+     * <p>
+     * Solo cuentan los fallos de conexión: un interbloqueo o una espera de bloqueo agotada
+     * ocurren con la base de datos en marcha, y aceptar el marcaje sin conexión por ellos
+     * lo confirmaría al trabajador sin motivo.
+     *
+     * @param error el error
+     * @return true si la base de datos no está disponible
+     */
+    static boolean esBaseDeDatosNoDisponible(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof CannotCreateTransactionException
+                    || causa instanceof DataAccessResourceFailureException
+                    || causa instanceof JDBCConnectionException
+                    || causa instanceof SQLTransientConnectionException
+                    || causa instanceof SQLNonTransientConnectionException
+                    || causa instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package es.timebee.diferido;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.enumeration.TipoMarcaje;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un marcaje (entrada o salida) aceptado pero todavía no escrito en la base de datos.
+ * <p>
+ * En el diario se guarda como una línea de campos separados por tabuladores.
+ * Los tabuladores y saltos de línea del nombre o los apellidos se sustituyen por espacios.
+ *
+ * @param secuencia    posición del marcaje en el diario (creciente y sin repetición)
+ * @param tipo         entrada o salida
+ * @param trabajadorId el id del trabajador
+ * @param empresaId    el id de la empresa del trabajador
+ * @param nombre       el nombre del trabajador
+ * @param apellidos    los apellidos del trabajador
+ * @param momento      la fecha y hora del marcaje
+ */
+public record MarcajeDiferido(long secuencia, TipoMarcaje tipo, Long trabajadorId, Long empresaId,
+                              String nombre, String apellidos, LocalDateTime momento) {
+
+    private static final String SEPARADOR = "\t";
+    private static final int CAMPOS = 7;
+
+    /**
+     * Devuelve una copia del marcaje con la secuencia indicada.
+     *
+     * @param secuencia la secuencia asignada por el diario
+     * @return el marcaje con su secuencia
+     */
+    public MarcajeDiferido conSecuencia(long secuencia) {
+        return new MarcajeDiferido(secuencia, tipo, trabajadorId, empresaId, nombre, apellidos, momento);
+    }
+
+    /**
+     * Convierte el marcaje en una línea del diario (sin salto de línea).
+     *
+     * @return la línea
+     */
+    public String linea() {
+        return secuencia + SEPARADOR + tipo + SEPARADOR + trabajadorId + SEPARADOR + empresaId + SEPARADOR
+                + momento + SEPARADOR + limpiar(nombre) + SEPARADOR + limpiar(apellidos);
+    }
+
+    /**
+     * Lee un marcaje de una línea del diario.
+     *
+     * @param linea la línea, sin salto de línea
+     * @return el marcaje
+     * @throws IllegalArgumentException si la línea está incompleta o no es válida
+     */
+    public static MarcajeDiferido deLinea(String linea) {
+        String[] campos = linea.split(SEPARADOR, -1);
+        if (campos.length != CAMPOS) {
+            throw new IllegalArgumentException("Línea de diario incompleta: " + linea);
+        }
+        return new MarcajeDiferido(Long.parseLong(campos[0]), TipoMarcaje.valueOf(campos[1]),
+                Long.valueOf(campos[2]), Long.valueOf(campos[3]), campos[5], campos[6],
+                LocalDateTime.parse(campos[4]));
+    }
+
+    /**
+     * Construye el resumen de un fichaje de este trabajador para publicarlo en un evento.
+     *
+     * @param fichajeId   el id del fichaje
+     * @param fechaInicio la fecha de entrada
+     * @param fechaFin    la fecha de salida (nula si sigue abierto)
+     * @return el resumen del fichaje
+     */
+    FichajeResumenDto resumen(Long fichajeId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return FichajeResumenDto.builder()
+                .id(fichajeId)
+                .trabajadorId(trabajadorId)
+                .empresaId(empresaId)
+                .nombre(nombre)
+                .apellidos(apellidos)
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .build();
+    }
+
+    private static String limpiar(String valor) {
+        return valor == null ? "" : valor.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
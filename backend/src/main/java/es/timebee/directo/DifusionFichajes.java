@@ -0,0 +1,187 @@
+package es.timebee.directo;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+import es.timebee.domain.evento.FichajeEvento;
+import es.timebee.domain.evento.FichajeSondeadoEvento;
+import es.timebee.exception.ProcesoException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difunde en directo los cambios de fichajes a los paneles de cada empresa (Server-Sent Events).
+ * <p>
+ * Cada {@link FichajeEvento} confirmado ({@link TransactionPhase#AFTER_COMMIT}) se entrega a las
+ * conexiones abiertas de su empresa, así que el panel no necesita volver a pedir el histórico
+ * de fichajes cada pocos segundos. Publicar no bloquea nunca: cada conexión tiene su cola acotada
+ * y su propio hilo virtual, de modo que miles de paneles abiertos no ocupan hilos de plataforma.
+ * <p>
+ * Los cambios confirmados en otras instancias llegan como {@link FichajeSondeadoEvento}, unos
+ * segundos más tarde. El sondeo también devuelve los cambios de esta instancia, así que se
+ * recuerda el último estado entregado de cada fichaje y no se repite uno que ya se ha enviado.
+ */
+@Component
+public class DifusionFichajes {
+
+    /** Fichajes cuyo último estado entregado se recuerda para no repetirlo al sondear. */
+    private static final int RECORDADOS = 10_000;
+
+    private final Map<Long, Set<SuscripcionFichajes>> suscripciones = new ConcurrentHashMap<>();
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private final int capacidad;
+    private final int maximoConexiones;
+    private final Duration latido;
+    private final Duration duracion;
+    private final Map<Long, Entregado> entregados = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entregado> mayor) {
+            return size() > RECORDADOS;
+        }
+    };
+
+    /**
+     * Constructor con la configuración de las conexiones.
+     *
+     * @param capacidad        eventos pendientes que admite cada conexión antes de pedirle que se resincronice
+     * @param maximoConexiones número máximo de conexiones abiertas en esta instancia
+     * @param latido           tiempo máximo sin escribir en una conexión
+     * @param duracion         duración de una conexión; al terminar, el cliente se vuelve a conectar
+     */
+    public DifusionFichajes(@Value("${timebee.directo.capacidad:256}") int capacidad,
+                            @Value("${timebee.directo.maximo-conexiones:10000}") int maximoConexiones,
+                            @Value("${timebee.directo.latido:PT25S}") Duration latido,
+                            @Value("${timebee.directo.duracion:PT30M}") Duration duracion) {
+        this.capacidad = capacidad;
+        this.maximoConexiones = maximoConexiones;
+        this.latido = latido;
+        this.duracion = duracion;
+    }
+
+    /**
+     * Abre una conexión al feed en directo de una empresa.
+     *
+     * @param empresaId id de la empresa
+     * @return la conexión SSE
+     * @throws ProcesoException si se ha alcanzado el máximo de conexiones
+     */
+    public SseEmitter suscribir(Long empresaId) {
+        if (conexiones.incrementAndGet() > maximoConexiones) {
+            conexiones.decrementAndGet();
+            throw new ProcesoException("Se ha alcanzado el máximo de conexiones en directo; inténtalo más tarde");
+        }
+        SseEmitter emitter = new SseEmitter(duracion.toMillis());
+        SuscripcionFichajes suscripcion = new SuscripcionFichajes(emitter, capacidad);
+        suscripciones.compute(empresaId, (id, actuales) -> {
+            Set<SuscripcionFichajes> deLaEmpresa = actuales == null ? ConcurrentHashMap.newKeySet() : actuales;
+            deLaEmpresa.add(suscripcion);
+            return deLaEmpresa;
+        });
+
+        Runnable baja = () -> quitar(empresaId, suscripcion);
+        emitter.onCompletion(baja);
+        emitter.onTimeout(baja);
+        emitter.onError(e -> baja.run());
+        Thread.ofVirtual().name("directo-empresa-" + empresaId).start(() -> suscripcion.enviar(latido, baja));
+        return emitter;
+    }
+
+    /**
+     * Entrega un cambio de fichaje ya confirmado a las conexiones de su empresa.
+     *
+     * @param evento el evento del fichaje
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void difundir(FichajeEvento evento) {
+        recordar(evento);
+        entregar(evento);
+    }
+
+    /**
+     * Entrega un cambio leído por el sondeo, salvo que ya se haya entregado ese mismo estado
+     * del fichaje (porque se hizo en esta instancia o porque el sondeo lo repite).
+     *
+     * @param evento el cambio leído
+     */
+    @EventListener
+    public void difundir(FichajeSondeadoEvento evento) {
+        if (!suscripciones.containsKey(evento.cambio().fichaje().getEmpresaId()) || !recordar(evento.cambio())) {
+            return;
+        }
+        entregar(evento.cambio());
+    }
+
+    /**
+     * Número de conexiones abiertas en esta instancia.
+     *
+     * @return las conexiones abiertas
+     */
+    public int conexiones() {
+        return conexiones.get();
+    }
+
+    /**
+     * Cierra todas las conexiones al parar la aplicación.
+     */
+    @PreDestroy
+    public void cerrar() {
+        suscripciones.forEach((empresaId, deLaEmpresa) -> deLaEmpresa.forEach(s -> quitar(empresaId, s)));
+    }
+
+    private void entregar(FichajeEvento evento) {
+        Set<SuscripcionFichajes> deLaEmpresa = suscripciones.get(evento.fichaje().getEmpresaId());
+        if (deLaEmpresa != null) {
+            deLaEmpresa.forEach(suscripcion -> suscripcion.ofrecer(evento));
+        }
+    }
+
+    /**
+     * Apunta el estado que deja el evento en su fichaje.
+     *
+     * @return false si ya era el último estado entregado
+     */
+    private boolean recordar(FichajeEvento evento) {
+        FichajeResumenDto fichaje = evento.fichaje();
+        Entregado estado = evento.tipo() == TipoEventoFichaje.ELIMINADO
+                ? new Entregado(fichaje.getTrabajadorId(), null, null, true)
+                : new Entregado(fichaje.getTrabajadorId(), fichaje.getFechaInicio(), fichaje.getFechaFin(), false);
+        synchronized (entregados) {
+            return !estado.equals(entregados.put(fichaje.getId(), estado));
+        }
+    }
+
+    /**
+     * Quita una conexión de su empresa (y la empresa del mapa si era la última) y la cierra.
+     * Se puede llamar varias veces para la misma conexión: solo la primera hace algo.
+     */
+    private void quitar(Long empresaId, SuscripcionFichajes suscripcion) {
+        AtomicBoolean quitada = new AtomicBoolean();
+        suscripciones.computeIfPresent(empresaId, (id, actuales) -> {
+            quitada.set(actuales.remove(suscripcion));
+            return actuales.isEmpty() ? null : actuales;
+        });
+        if (quitada.get()) {
+            conexiones.decrementAndGet();
+            suscripcion.cerrar();
+        }
+    }
+
+    /**
+     * Último estado entregado de un fichaje.
+     */
+    private record Entregado(Long trabajadorId, LocalDateTime fechaInicio, LocalDateTime fechaFin, boolean eliminado) {
+    }
+}
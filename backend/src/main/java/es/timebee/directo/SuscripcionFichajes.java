@@ -0,0 +1,103 @@
+package es.timebee.directo;
+
+import es.timebee.domain.evento.FichajeEvento;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Una conexión abierta al feed en directo de fichajes de una empresa.
+ * <p>
+ * Los eventos se dejan en una cola acotada y un hilo virtual propio los envía al cliente
+ * a su ritmo: un cliente lento solo se retrasa a sí mismo. Si su cola se llena, se descartan
+ * los eventos pendientes y se le envía {@value #RESINCRONIZAR} para que recargue el listado,
+ * en lugar de acumular memoria sin límite.
+ */
+class SuscripcionFichajes {
+
+    /** Evento que pide al cliente recargar el listado porque se ha perdido algún cambio. */
+    static final String RESINCRONIZAR = "RESINCRONIZAR";
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<FichajeEvento> cola;
+    private final AtomicBoolean desbordada = new AtomicBoolean();
+    private volatile boolean cerrada;
+    private volatile Thread hilo;
+
+    /**
+     * Crea la suscripción.
+     *
+     * @param emitter   la conexión SSE
+     * @param capacidad número máximo de eventos pendientes de enviar
+     */
+    SuscripcionFichajes(SseEmitter emitter, int capacidad) {
+        this.emitter = emitter;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    /**
+     * Deja un evento pendiente de enviar, sin bloquear nunca a quien lo publica.
+     *
+     * @param evento el evento
+     */
+    void ofrecer(FichajeEvento evento) {
+        if (!cola.offer(evento)) {
+            desbordada.set(true);
+        }
+    }
+
+    /**
+     * Envía los eventos al cliente hasta que se cierre la conexión. Si no hay eventos,
+     * envía un latido cada cierto tiempo para detectar clientes que se han ido.
+     *
+     * @param latido tiempo máximo sin escribir nada en la conexión
+     * @param baja   acción a ejecutar cuando el cliente ya no está
+     */
+    void enviar(Duration latido, Runnable baja) {
+        hilo = Thread.currentThread();
+        try {
+            emitter.send(SseEmitter.event().comment("conectado"));
+            while (!cerrada) {
+                if (desbordada.getAndSet(false)) {
+                    cola.clear();
+                    emitter.send(SseEmitter.event().name(RESINCRONIZAR).data("Se han perdido eventos; recarga el listado"));
+                    continue;
+                }
+                FichajeEvento evento = cola.poll(latido.toMillis(), TimeUnit.MILLISECONDS);
+                if (evento == null) {
+                    emitter.send(SseEmitter.event().comment("latido"));
+                } else {
+                    emitter.send(SseEmitter.event().name(evento.tipo().name()).data(evento, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // El cliente se ha desconectado o la conexión ya está cerrada
+        } finally {
+            baja.run();
+        }
+    }
+
+    /**
+     * Cierra la conexión y despierta al hilo que envía.
+     */
+    void cerrar() {
+        cerrada = true;
+        Thread enviando = hilo;
+        if (enviando != null) {
+            enviando.interrupt();
+        }
+        try {
+            emitter.complete();
+        } catch (IllegalStateException e) {
+            // Ya estaba completada
+        }
+    }
+}
@@ -23,6 +23,13 @@ public final class BaseDeDatos {
         public static final String FICHAJE = "FICHAJE";
         public static final String PERMISO = "PERMISO";
         public static final String NOMINA = "NOMINA";
+        public static final String HORAS_TRABAJADOR_DIA = "HORAS_TRABAJADOR_DIA";
+        public static final String HORAS_EMPRESA_DIA = "HORAS_EMPRESA_DIA";
+        public static final String BLOQUEO_TAREA = "BLOQUEO_TAREA";
+        public static final String PUNTO_CONTROL_DIARIO = "PUNTO_CONTROL_DIARIO";
+        public static final String RESPUESTA_IDEMPOTENTE = "RESPUESTA_IDEMPOTENTE";
+        public static final String ELIMINACION = "ELIMINACION";
+        public static final String CONTENIDO_NOMINA = "CONTENIDO_NOMINA";
     }
 
     /**
@@ -63,5 +70,73 @@ public final class BaseDeDatos {
         public static final String EMPRESA_ID = "EMPRESA_ID";
         public static final String TRABAJADOR_ID = "TRABAJADOR_ID";
         public static final String ESTADO = "ESTADO";
+        public static final String TRABAJADOR_ABIERTO = "TRABAJADOR_ABIERTO";
+        public static final String MINUTOS = "MINUTOS";
+        public static final String HORAS_CIERRE_AUTOMATICO = "HORAS_CIERRE_AUTOMATICO";
+        public static final String CERRADO_AUTOMATICAMENTE = "CERRADO_AUTOMATICAMENTE";
+        public static final String PROPIETARIO = "PROPIETARIO";
+        public static final String HASTA = "HASTA";
+        public static final String NODO = "NODO";
+        public static final String SECUENCIA = "SECUENCIA";
+        public static final String CLAVE = "CLAVE";
+        public static final String CODIGO = "CODIGO";
+        public static final String CUERPO = "CUERPO";
+        public static final String FECHA_CREACION = "FECHA_CREACION";
+        public static final String FECHA_RENOVACION = "FECHA_RENOVACION";
+        public static final String HUELLA_PETICION = "HUELLA_PETICION";
+        public static final String FECHA_MODIFICACION = "FECHA_MODIFICACION";
+        public static final String ENTIDAD = "ENTIDAD";
+        public static final String ENTIDAD_ID = "ENTIDAD_ID";
+        public static final String HUELLA = "HUELLA";
+        public static final String REFERENCIAS = "REFERENCIAS";
+        public static final String FECHA_SIN_REFERENCIAS = "FECHA_SIN_REFERENCIAS";
+    }
+
+    /**
+     * {@code Restricciones} agrupa los nombres de las restricciones e índices
+     * que se declaran en las entidades.
+     */
+    public static final class Restricciones {
+        public static final String UK_FICHAJE_ABIERTO_TRABAJADOR = "UK_FICHAJE_ABIERTO_TRABAJADOR";
+        public static final String IDX_HORAS_TRABAJADOR_DIA_EMPRESA = "IDX_HORAS_TRABAJADOR_DIA_EMPRESA";
+        public static final String IDX_FICHAJE_TRABAJADOR_INICIO = "IDX_FICHAJE_TRABAJADOR_INICIO";
+        public static final String IDX_FICHAJE_EMPRESA_INICIO = "IDX_FICHAJE_EMPRESA_INICIO";
+        public static final String IDX_RESPUESTA_IDEMPOTENTE_FECHA = "IDX_RESPUESTA_IDEMPOTENTE_FECHA";
+        public static final String IDX_FICHAJE_EMPRESA_MODIFICACION = "IDX_FICHAJE_EMPRESA_MODIFICACION";
+        public static final String IDX_FICHAJE_TRABAJADOR_MODIFICACION = "IDX_FICHAJE_TRABAJADOR_MODIFICACION";
+        public static final String IDX_FICHAJE_MODIFICACION = "IDX_FICHAJE_MODIFICACION";
+        public static final String IDX_PERMISO_MODIFICACION = "IDX_PERMISO_MODIFICACION";
+        public static final String IDX_NOMINA_EMPRESA_MODIFICACION = "IDX_NOMINA_EMPRESA_MODIFICACION";
+        public static final String IDX_NOMINA_HUELLA = "IDX_NOMINA_HUELLA";
+        public static final String IDX_NOMINA_EMPRESA_PERIODO = "IDX_NOMINA_EMPRESA_PERIODO";
+        public static final String IDX_CONTENIDO_NOMINA_SIN_REFERENCIAS = "IDX_CONTENIDO_NOMINA_SIN_REFERENCIAS";
+        public static final String IDX_ELIMINACION_EMPRESA = "IDX_ELIMINACION_EMPRESA";
+        public static final String IDX_ELIMINACION_FECHA = "IDX_ELIMINACION_FECHA";
+    }
+
+    /**
+     * {@code Secuencias} agrupa los generadores de identificadores de las entidades.
+     * <p>
+     * Cada entidad reserva sus ids en bloques de {@link #TAMANO_RESERVA} (optimizador
+     * {@code pooled} de Hibernate), así que insertar muchas filas no obliga a consultar
+     * el generador por cada una y Hibernate puede agrupar los inserts en lotes JDBC,
+     * cosa que {@code IDENTITY} impide. En MySQL, que no tiene secuencias, Hibernate
+     * las emula con una tabla por generador.
+     * <p>
+     * Los ids empiezan en {@link #VALOR_INICIAL} para no chocar con los datos de ejemplo.
+     */
+    public static final class Secuencias {
+        public static final String EMPRESA = "EMPRESA_SEQ";
+        public static final String TRABAJADOR = "TRABAJADOR_SEQ";
+        public static final String FICHAJE = "FICHAJE_SEQ";
+        public static final String PERMISO = "PERMISO_SEQ";
+        public static final String NOMINA = "NOMINA_SEQ";
+        public static final String ELIMINACION = "ELIMINACION_SEQ";
+
+        /** Número de ids que se reservan de golpe en cada consulta al generador. */
+        public static final int TAMANO_RESERVA = Numeros.CINCUENTA;
+
+        /** Primer id que entrega cada generador. */
+        public static final int VALOR_INICIAL = Numeros.MIL;
     }
 }
@@ -11,10 +11,16 @@ package es.timebee.domain.constantes;
  * Desde tamaños máximos hasta valores de referencia, aquí están todos reunidos.
  */
 public class Numeros {
+    public static final int CUATRO = 4;
     public static final int NUEVE = 9;
     public static final int DOCE = 12;
     public static final int CATORCE = 14;
     public static final int DIECISIETE = 17;
     public static final int VEINTICUATRO = 24 ;
+    public static final int TREINTA_Y_UNO = 31;
+    public static final int CINCUENTA = 50;
     public static final int DOSCIENTOSCINCUENTAYCINCO = 255;
+    public static final int QUINIENTOS = 500;
+    public static final int MIL = 1000;
+    public static final int CINCO_MIL = 5000;
 }
@@ -0,0 +1,40 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * {@code CambiosDto} es un Data Transfer Object (DTO) genérico con los cambios
+ * de una entidad desde un token de sincronización.
+ * <p>
+ * {@code modificados} trae las filas creadas o modificadas (en su estado actual) y
+ * {@code eliminados} los ids de las que se han borrado. El cliente aplica ambas listas
+ * y guarda el nuevo {@code token}; si {@code hayMas} es cierto, debe pedir otra vez
+ * enseguida con ese token hasta vaciar la cola.
+ *
+ * @param <T> el tipo de las filas modificadas
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambiosDto<T> {
+
+    /** Las filas creadas o modificadas desde el token recibido. */
+    private List<T> modificados;
+
+    /** Los ids de las filas eliminadas desde el token recibido. */
+    private List<Long> eliminados;
+
+    /** El token que el cliente debe enviar en la próxima sincronización. */
+    private String token;
+
+    /** Indica si quedan cambios por entregar después de estos. */
+    private boolean hayMas;
+}
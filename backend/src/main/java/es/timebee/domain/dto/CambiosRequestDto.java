@@ -0,0 +1,27 @@
+package es.timebee.domain.dto;
+
+import es.timebee.domain.constantes.Numeros;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * {@code CambiosRequestDto} es un Data Transfer Object (DTO)
+ * que encapsula los parámetros para pedir los cambios de una entidad
+ * (fichajes, permisos o nóminas) desde la última sincronización.
+ * <p>
+ * El cliente guarda el {@code token} de la respuesta anterior y lo devuelve
+ * tal cual: el servidor solo le manda lo que se ha creado, modificado o
+ * eliminado desde entonces. Sin token se recibe todo desde el principio.
+ */
+@Data
+public class CambiosRequestDto {
+
+    /** El token devuelto por la sincronización anterior (nulo para empezar desde cero). */
+    private String token;
+
+    /** El número máximo de cambios que se quieren recibir (entre 1 y 5000, por defecto 500). */
+    @Min(value = 1, message = "El tamaño mínimo es 1")
+    @Max(value = Numeros.CINCO_MIL, message = "El tamaño máximo es 5000")
+    private Integer tamano;
+}
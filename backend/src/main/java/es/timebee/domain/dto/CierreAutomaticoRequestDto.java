@@ -0,0 +1,22 @@
+package es.timebee.domain.dto;
+
+import es.timebee.domain.constantes.Numeros;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * {@code CierreAutomaticoRequestDto} es un Data Transfer Object (DTO)
+ * con el que una empresa configura el cierre automático de fichajes olvidados.
+ * <p>
+ * Si un fichaje sigue abierto pasadas estas horas, la tarea programada lo cierra
+ * con una duración igual al límite. Enviar {@code null} vuelve al valor por defecto.
+ */
+@Data
+public class CierreAutomaticoRequestDto {
+
+    /** Horas máximas que puede estar abierto un fichaje (entre 1 y 24, o nulo). */
+    @Min(value = 1, message = "El mínimo es 1 hora")
+    @Max(value = Numeros.VEINTICUATRO, message = "El máximo es 24 horas")
+    private Integer horas;
+}
@@ -54,6 +54,9 @@ public class EmpresaDto implements Serializable {
     /** Indica si la empresa está activa (true) o desactivada (false). */
     private boolean activo;
 
+    /** Horas tras las que se cierra automáticamente un fichaje abierto (nulo: valor por defecto). */
+    private Integer horasCierreAutomatico;
+
     /**
      * Constructor vacío requerido por frameworks de serialización/deserialización.
      */
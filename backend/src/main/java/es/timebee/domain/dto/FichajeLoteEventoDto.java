@@ -0,0 +1,30 @@
+package es.timebee.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code FichajeLoteEventoDto} es un Data Transfer Object (DTO)
+ * que representa un único evento dentro de un lote de fichajes
+ * enviado por un terminal o quiosco de fichaje.
+ * <p>
+ * No lleva empresa: todos los eventos de un lote pertenecen a la empresa autenticada.
+ * Tampoco se valida con anotaciones, porque un evento incorrecto no debe rechazar
+ * el lote completo; cada evento se valida por separado y recibe su propio resultado.
+ */
+@Data
+public class FichajeLoteEventoDto {
+
+    /** El identificador del trabajador que ficha. */
+    private Long trabajadorId;
+
+    /** La fecha y hora de inicio del fichaje (en formato ISO: yyyy-MM-dd'T'HH:mm:ss). */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaInicio;
+
+    /** La fecha y hora de fin del fichaje (opcional, si el terminal ya conoce la salida). */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime fechaFin;
+}
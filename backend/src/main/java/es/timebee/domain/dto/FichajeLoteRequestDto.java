@@ -0,0 +1,25 @@
+package es.timebee.domain.dto;
+
+import es.timebee.domain.constantes.Numeros;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * {@code FichajeLoteRequestDto} es un Data Transfer Object (DTO)
+ * que encapsula un lote de eventos de fichaje enviados de una sola vez.
+ * <p>
+ * Los terminales de fichaje acumulan los eventos y los suben periódicamente,
+ * de modo que un cambio de turno se resuelve con unas pocas peticiones
+ * en lugar de una por cada trabajador.
+ */
+@Data
+public class FichajeLoteRequestDto {
+
+    /** Los eventos de fichaje del lote (entre 1 y 5000). */
+    @NotEmpty(message = "El lote debe contener al menos un fichaje")
+    @Size(max = Numeros.CINCO_MIL, message = "El lote no puede contener más de 5000 fichajes")
+    private List<FichajeLoteEventoDto> eventos;
+}
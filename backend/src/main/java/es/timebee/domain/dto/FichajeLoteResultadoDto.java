@@ -0,0 +1,34 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code FichajeLoteResultadoDto} es un Data Transfer Object (DTO)
+ * que indica qué ha pasado con cada evento de un lote de fichajes.
+ * <p>
+ * El {@code indice} corresponde a la posición del evento en el lote enviado,
+ * para que el terminal sepa qué eventos puede descartar y cuáles debe revisar.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FichajeLoteResultadoDto {
+
+    /** La posición del evento dentro del lote (empezando en 0). */
+    private int indice;
+
+    /** El identificador del trabajador del evento. */
+    private Long trabajadorId;
+
+    /** Indica si el evento se ha registrado correctamente. */
+    private boolean correcto;
+
+    /** El motivo del rechazo (nulo si el evento se ha registrado). */
+    private String mensaje;
+}
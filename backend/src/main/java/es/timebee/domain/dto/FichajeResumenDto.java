@@ -0,0 +1,50 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * {@code FichajeResumenDto} es un Data Transfer Object (DTO) plano
+ * que representa una fila de un listado de fichajes en el sistema TimeBee.
+ * <p>
+ * A diferencia de {@link FichajesDto}, no embebe al trabajador ni a la empresa:
+ * solo lleva sus identificadores y el nombre del trabajador. Se construye
+ * directamente en la consulta JPQL ({@code select new ...}), de modo que un listado
+ * completo se resuelve con una única sentencia SQL y sin cargas perezosas.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FichajeResumenDto implements Serializable {
+
+    private static final long serialVersionUID = -3318710432593960452L;
+
+    /** El identificador único del fichaje. */
+    private Long id;
+
+    /** El identificador del trabajador que realizó el fichaje. */
+    private Long trabajadorId;
+
+    /** El identificador de la empresa en la que se realizó el fichaje. */
+    private Long empresaId;
+
+    /** El nombre del trabajador. */
+    private String nombre;
+
+    /** Los apellidos del trabajador. */
+    private String apellidos;
+
+    /** La fecha y hora en que comenzó el fichaje. */
+    private LocalDateTime fechaInicio;
+
+    /** La fecha y hora en que terminó el fichaje (puede ser nula si no se ha cerrado). */
+    private LocalDateTime fechaFin;
+}
@@ -0,0 +1,41 @@
+package es.timebee.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import es.timebee.domain.constantes.Numeros;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code FichajesPaginaRequestDto} es un Data Transfer Object (DTO)
+ * que encapsula los parámetros necesarios para pedir una página de fichajes
+ * de una empresa en el sistema TimeBee.
+ * <p>
+ * La paginación es por cursor: el cliente no indica un número de página, sino que
+ * devuelve el {@code cursor} que recibió en la página anterior. Así la consulta
+ * cuesta lo mismo en la primera página que en la milésima.
+ */
+@Data
+public class FichajesPaginaRequestDto {
+
+    /** El cursor devuelto por la página anterior (nulo para pedir la primera página). */
+    private String cursor;
+
+    /** El número máximo de fichajes que se quieren recibir (entre 1 y 500, por defecto 50). */
+    @Min(value = 1, message = "El tamaño de página mínimo es 1")
+    @Max(value = Numeros.QUINIENTOS, message = "El tamaño de página máximo es 500")
+    private Integer tamano;
+
+    /** Filtro opcional: solo fichajes que empiezan en esta fecha o después. */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime desde;
+
+    /** Filtro opcional: solo fichajes que empiezan antes de esta fecha. */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime hasta;
+
+    /** Filtro opcional: solo fichajes de este trabajador. */
+    private Long trabajadorId;
+}
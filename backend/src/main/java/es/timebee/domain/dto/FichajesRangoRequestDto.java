@@ -0,0 +1,32 @@
+package es.timebee.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code FichajesRangoRequestDto} es un Data Transfer Object (DTO)
+ * que encapsula el rango de fechas de una consulta de fichajes en el sistema TimeBee.
+ * <p>
+ * Se devuelven los fichajes que empiezan entre {@code desde} (incluida) y {@code hasta}
+ * (excluida). El rango no puede superar los 31 días; para recorrer periodos más largos
+ * está la paginación por cursor.
+ */
+@Data
+public class FichajesRangoRequestDto {
+
+    /** Fecha de inicio mínima, inclusive. */
+    @NotNull(message = "La fecha desde es obligatoria")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime desde;
+
+    /** Fecha de inicio máxima, exclusiva. */
+    @NotNull(message = "La fecha hasta es obligatoria")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime hasta;
+
+    /** Filtro opcional (solo para empresas): solo fichajes de este trabajador. */
+    private Long trabajadorId;
+}
@@ -0,0 +1,25 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * {@code HorasDiaDto} es un Data Transfer Object (DTO)
+ * con los minutos trabajados en un día concreto.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HorasDiaDto {
+
+    /** El día. */
+    private LocalDate fecha;
+
+    /** Los minutos trabajados ese día. */
+    private Long minutos;
+}
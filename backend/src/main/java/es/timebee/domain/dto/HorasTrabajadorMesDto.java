@@ -0,0 +1,29 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code HorasTrabajadorMesDto} es un Data Transfer Object (DTO)
+ * con los minutos trabajados por un trabajador durante un mes.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HorasTrabajadorMesDto {
+
+    /** El identificador del trabajador. */
+    private Long trabajadorId;
+
+    /** El nombre del trabajador. */
+    private String nombre;
+
+    /** Los apellidos del trabajador. */
+    private String apellidos;
+
+    /** Los minutos trabajados en el mes. */
+    private Long minutos;
+}
@@ -0,0 +1,32 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code NominaArchivoDto} es un Data Transfer Object (DTO)
+ * con lo que hace falta para servir el PDF de una nómina, sin el PDF.
+ * <p>
+ * Lo devuelve la consulta que comprueba a la vez que la nómina existe y que el
+ * usuario autenticado puede verla; el PDF se busca después, solo si puede.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NominaArchivoDto {
+
+    /** El identificador único de la nómina. */
+    private Long id;
+
+    /** El nombre original del archivo PDF. */
+    private String nombreArchivo;
+
+    /** El tipo MIME del archivo. */
+    private String contentType;
+
+    /** El SHA-256 del PDF en el almacén (nulo si el PDF aún está en la base de datos). */
+    private String huella;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.core.io.Resource;
 
 /**
  * {@code NominaDownloadDto} es un Data Transfer Object (DTO)
@@ -11,8 +12,8 @@ import lombok.NoArgsConstructor;
  * en el sistema TimeBee.
  * <p>
  * Este objeto transporta el nombre del archivo, su tipo de contenido
- * (MIME type) y el contenido binario del PDF para que el cliente pueda
- * generar la descarga correctamente.
+ * (MIME type) y el PDF como {@link Resource}: el contenido no se lee
+ * hasta que se escribe en la respuesta, y se escribe por bloques.
  */
 @Data
 @Builder
@@ -26,6 +27,9 @@ public class NominaDownloadDto {
     /** El tipo de contenido del archivo (MIME type, p.ej. “application/pdf”). */
     private String contentType;
 
-    /** El contenido binario del archivo PDF. */
-    private byte[] archivoPdf;
+    /** El SHA-256 del PDF (nulo en las nóminas antiguas aún no migradas al almacén). */
+    private String huella;
+
+    /** El PDF, listo para enviarse en streaming. */
+    private Resource archivo;
 }
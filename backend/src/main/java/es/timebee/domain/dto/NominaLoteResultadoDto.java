@@ -0,0 +1,37 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code NominaLoteResultadoDto} es un Data Transfer Object (DTO)
+ * que indica qué ha pasado con cada archivo de un ZIP de nóminas.
+ * <p>
+ * Los resultados van en el mismo orden que los archivos dentro del ZIP,
+ * para que la empresa sepa qué nóminas se han subido y cuáles debe revisar.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NominaLoteResultadoDto {
+
+    /** El nombre del archivo dentro del ZIP. */
+    private String archivo;
+
+    /** El identificador del trabajador reconocido por el nombre del archivo (nulo si no se reconoce). */
+    private Long trabajadorId;
+
+    /** El identificador de la nómina creada (nulo si no se ha subido). */
+    private Long nominaId;
+
+    /** Indica si la nómina se ha subido correctamente. */
+    private boolean correcto;
+
+    /** El motivo del rechazo (nulo si la nómina se ha subido). */
+    private String mensaje;
+}
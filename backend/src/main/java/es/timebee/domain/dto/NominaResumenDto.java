@@ -0,0 +1,45 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * {@code NominaResumenDto} es un Data Transfer Object (DTO) plano
+ * que representa una nómina en la sincronización incremental.
+ * <p>
+ * Solo lleva los metadatos: el PDF se descarga aparte cuando se necesita.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NominaResumenDto implements Serializable {
+
+    private static final long serialVersionUID = -6927315540148276731L;
+
+    /** El identificador único de la nómina. */
+    private Long id;
+
+    /** El identificador del trabajador al que pertenece la nómina. */
+    private Long trabajadorId;
+
+    /** El periodo al que corresponde la nómina. */
+    private LocalDate periodo;
+
+    /** El nombre del archivo PDF. */
+    private String nombreArchivo;
+
+    /** El tamaño del archivo en bytes. */
+    private Long tamano;
+
+    /** La fecha y hora en que se subió la nómina. */
+    private LocalDateTime fechaSubida;
+}
@@ -0,0 +1,25 @@
+package es.timebee.domain.dto;
+
+import es.timebee.domain.constantes.Numeros;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * {@code NominasPeriodoRequestDto} es un Data Transfer Object (DTO)
+ * que indica el mes del que una empresa quiere descargar todas las nóminas.
+ */
+@Data
+public class NominasPeriodoRequestDto {
+
+    /** El año (por ejemplo, 2025). */
+    @NotNull(message = "El año es obligatorio")
+    private Integer anio;
+
+    /** El mes, de 1 (enero) a 12 (diciembre). */
+    @NotNull(message = "El mes es obligatorio")
+    @Min(value = 1, message = "El mes debe estar entre 1 y 12")
+    @Max(value = Numeros.DOCE, message = "El mes debe estar entre 1 y 12")
+    private Integer mes;
+}
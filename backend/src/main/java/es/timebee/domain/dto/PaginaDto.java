@@ -0,0 +1,35 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * {@code PaginaDto} es un Data Transfer Object (DTO) genérico que representa
+ * una página de resultados obtenida mediante paginación por cursor.
+ * <p>
+ * Además del contenido, incluye el cursor que el cliente debe enviar para
+ * pedir la siguiente página y un indicador de si quedan más resultados.
+ *
+ * @param <T> el tipo de los elementos de la página
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaDto<T> {
+
+    /** Los elementos de esta página. */
+    private List<T> contenido;
+
+    /** El cursor para pedir la siguiente página (nulo si no hay más). */
+    private String siguienteCursor;
+
+    /** Indica si existen más resultados después de esta página. */
+    private boolean hayMas;
+}
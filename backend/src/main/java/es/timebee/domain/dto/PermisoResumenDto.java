@@ -0,0 +1,47 @@
+package es.timebee.domain.dto;
+
+import es.timebee.domain.enumeration.EstadoPermiso;
+import es.timebee.domain.enumeration.TipoPermiso;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * {@code PermisoResumenDto} es un Data Transfer Object (DTO) plano
+ * que representa un permiso en la sincronización incremental.
+ * <p>
+ * A diferencia de {@link PermisosDto}, no embebe al trabajador: solo lleva su id,
+ * así que cada cambio ocupa unos pocos bytes.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PermisoResumenDto implements Serializable {
+
+    private static final long serialVersionUID = 5180321957346402218L;
+
+    /** El identificador único del permiso. */
+    private Long id;
+
+    /** El identificador del trabajador que solicitó el permiso. */
+    private Long trabajadorId;
+
+    /** El tipo de permiso solicitado. */
+    private TipoPermiso permiso;
+
+    /** La fecha para la que se solicita el permiso. */
+    private LocalDate fecha;
+
+    /** La cantidad de horas solicitadas. */
+    private float hora;
+
+    /** El estado actual del permiso. */
+    private EstadoPermiso estado;
+}
@@ -0,0 +1,30 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * {@code PresentesDto} es un Data Transfer Object (DTO) que responde a
+ * "¿quién está fichado ahora mismo en la empresa?".
+ * <p>
+ * Incluye cuántos trabajadores tienen un fichaje abierto y cuáles son esos fichajes,
+ * del que entró antes al que entró después.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresentesDto {
+
+    /** El número de trabajadores con un fichaje abierto. */
+    private int total;
+
+    /** Los fichajes abiertos (sin fecha de fin), uno por trabajador. */
+    private List<FichajeResumenDto> fichajes;
+}
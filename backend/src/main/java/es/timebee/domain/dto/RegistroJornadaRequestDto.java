@@ -0,0 +1,28 @@
+package es.timebee.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * {@code RegistroJornadaRequestDto} es un Data Transfer Object (DTO)
+ * que indica el periodo del registro de jornada que una empresa quiere exportar.
+ * <p>
+ * Ambas fechas se incluyen en el periodo, que puede abarcar hasta cuatro años
+ * (el tiempo que hay que conservar el registro).
+ */
+@Data
+public class RegistroJornadaRequestDto {
+
+    /** Primer día del periodo, inclusive. */
+    @NotNull(message = "La fecha desde es obligatoria")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate desde;
+
+    /** Último día del periodo, inclusive. */
+    @NotNull(message = "La fecha hasta es obligatoria")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate hasta;
+}
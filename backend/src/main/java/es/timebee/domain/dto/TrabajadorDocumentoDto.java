@@ -0,0 +1,29 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code TrabajadorDocumentoDto} es un Data Transfer Object (DTO) mínimo
+ * con los documentos que identifican a un trabajador: su DNI y su NAF.
+ * <p>
+ * Se construye directamente en consultas JPQL para reconocer al trabajador
+ * por el nombre de un archivo (por ejemplo, las nóminas de un ZIP).
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrabajadorDocumentoDto {
+
+    /** El identificador único del trabajador. */
+    private Long id;
+
+    /** El DNI del trabajador. */
+    private String dni;
+
+    /** El NAF (número de afiliación a la Seguridad Social) del trabajador. */
+    private String naf;
+}
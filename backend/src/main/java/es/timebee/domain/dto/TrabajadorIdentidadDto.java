@@ -0,0 +1,47 @@
+package es.timebee.domain.dto;
+
+import es.timebee.domain.entity.Trabajador;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code TrabajadorIdentidadDto} es un Data Transfer Object (DTO) mínimo
+ * con lo necesario para registrar un marcaje de un trabajador: su id, el de su
+ * empresa, su correo, su nombre y sus apellidos.
+ * <p>
+ * Se construye directamente en consultas JPQL, o desde la entidad si ya está cargada.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrabajadorIdentidadDto {
+
+    /** El identificador único del trabajador. */
+    private Long id;
+
+    /** El identificador de la empresa del trabajador. */
+    private Long empresaId;
+
+    /** El correo del trabajador (con el que se autentica). */
+    private String email;
+
+    /** El nombre del trabajador. */
+    private String nombre;
+
+    /** Los apellidos del trabajador. */
+    private String apellidos;
+
+    /**
+     * Construye la identidad a partir de la entidad.
+     *
+     * @param trabajador el trabajador
+     * @return su identidad
+     */
+    public static TrabajadorIdentidadDto de(Trabajador trabajador) {
+        return new TrabajadorIdentidadDto(trabajador.getId(), trabajador.getEmpresa().getId(),
+                trabajador.getEmail(), trabajador.getNombre(), trabajador.getApellidos());
+    }
+}
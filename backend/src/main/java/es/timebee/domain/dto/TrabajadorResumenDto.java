@@ -0,0 +1,29 @@
+package es.timebee.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code TrabajadorResumenDto} es un Data Transfer Object (DTO) mínimo
+ * con la identidad de un trabajador: su id, nombre y apellidos.
+ * <p>
+ * Se construye directamente en consultas JPQL cuando solo hace falta saber
+ * quién es el trabajador, sin cargar la entidad completa.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrabajadorResumenDto {
+
+    /** El identificador único del trabajador. */
+    private Long id;
+
+    /** El nombre del trabajador. */
+    private String nombre;
+
+    /** Los apellidos del trabajador. */
+    private String apellidos;
+}
@@ -0,0 +1,43 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code BloqueoTarea} es una entidad JPA que representa la concesión (lease) de una
+ * tarea programada a una instancia de la aplicación.
+ * <p>
+ * Cuando hay varias instancias, solo la que tiene la concesión vigente ejecuta la tarea.
+ * La concesión caduca sola en {@code hasta}, así que si esa instancia se cae, otra la
+ * recoge en la siguiente ejecución.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BaseDeDatos.Tablas.BLOQUEO_TAREA)
+public class BloqueoTarea {
+
+    /** El nombre de la tarea (clave primaria). */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.NOMBRE, nullable = false)
+    private String nombre;
+
+    /** La instancia que tiene la concesión. */
+    @Column(name = BaseDeDatos.Columnas.PROPIETARIO)
+    private String propietario;
+
+    /** Momento, en hora de la base de datos, en que caduca la concesión. */
+    @Column(name = BaseDeDatos.Columnas.HASTA, nullable = false)
+    private LocalDateTime hasta;
+}
@@ -0,0 +1,51 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code ContenidoNomina} es una entidad JPA que cuenta cuántas nóminas usan cada PDF
+ * del almacén de nóminas.
+ * <p>
+ * Un mismo PDF (misma huella) se guarda una sola vez aunque lo suban varias nóminas,
+ * como las plantillas que se repiten o las nóminas corregidas que se vuelven a subir.
+ * Cuando la última nómina que lo usa se elimina, el contador queda a cero y se apunta
+ * el momento; pasado un margen, la limpieza programada borra el PDF y la fila.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BaseDeDatos.Tablas.CONTENIDO_NOMINA,
+        indexes = @Index(name = BaseDeDatos.Restricciones.IDX_CONTENIDO_NOMINA_SIN_REFERENCIAS,
+                columnList = BaseDeDatos.Columnas.FECHA_SIN_REFERENCIAS))
+public class ContenidoNomina {
+
+    /** El SHA-256 del PDF en hexadecimal (clave primaria). */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.HUELLA, length = 64, columnDefinition = "CHAR(64)")
+    private String huella;
+
+    /** El tamaño del PDF en bytes, sin comprimir. */
+    @Column(name = BaseDeDatos.Columnas.TAMANO, nullable = false)
+    private Long tamano;
+
+    /** El número de nóminas que usan el PDF. */
+    @Column(name = BaseDeDatos.Columnas.REFERENCIAS, nullable = false)
+    private Integer referencias;
+
+    /** Momento, en hora de la base de datos, en que dejó de usarlo la última nómina (nulo si alguna lo usa). */
+    @Column(name = BaseDeDatos.Columnas.FECHA_SIN_REFERENCIAS)
+    private LocalDateTime fechaSinReferencias;
+}
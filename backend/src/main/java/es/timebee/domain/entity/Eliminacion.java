@@ -0,0 +1,77 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import es.timebee.domain.enumeration.EntidadSincronizada;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code Eliminacion} es una entidad JPA que deja constancia (lápida) de que un fichaje,
+ * un permiso o una nómina se ha eliminado.
+ * <p>
+ * La fila eliminada ya no existe, así que sin esta constancia un cliente que sincroniza
+ * solo los cambios no podría enterarse del borrado. Se guarda en la misma transacción
+ * que la eliminación y se purga pasado el periodo de retención.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BaseDeDatos.Tablas.ELIMINACION,
+        indexes = {
+                @Index(name = BaseDeDatos.Restricciones.IDX_ELIMINACION_EMPRESA,
+                        columnList = BaseDeDatos.Columnas.EMPRESA_ID + ", " + BaseDeDatos.Columnas.ENTIDAD
+                                + ", " + BaseDeDatos.Columnas.FECHA + ", " + BaseDeDatos.Columnas.ID),
+                @Index(name = BaseDeDatos.Restricciones.IDX_ELIMINACION_FECHA, columnList = BaseDeDatos.Columnas.FECHA)
+        })
+public class Eliminacion {
+
+    /** El identificador único de la eliminación (clave primaria, autogenerada). */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = BaseDeDatos.Secuencias.ELIMINACION)
+    @SequenceGenerator(name = BaseDeDatos.Secuencias.ELIMINACION, sequenceName = BaseDeDatos.Secuencias.ELIMINACION,
+            initialValue = BaseDeDatos.Secuencias.VALOR_INICIAL, allocationSize = BaseDeDatos.Secuencias.TAMANO_RESERVA)
+    @Column(name = BaseDeDatos.Columnas.ID, nullable = false)
+    private Long id;
+
+    /** El tipo de entidad eliminada. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = BaseDeDatos.Columnas.ENTIDAD, nullable = false)
+    private EntidadSincronizada entidad;
+
+    /** El id de la fila eliminada. */
+    @Column(name = BaseDeDatos.Columnas.ENTIDAD_ID, nullable = false)
+    private Long entidadId;
+
+    /** La empresa a la que pertenecía la fila. */
+    @Column(name = BaseDeDatos.Columnas.EMPRESA_ID, nullable = false)
+    private Long empresaId;
+
+    /** El trabajador al que pertenecía la fila. */
+    @Column(name = BaseDeDatos.Columnas.TRABAJADOR_ID, nullable = false)
+    private Long trabajadorId;
+
+    /** Momento de la eliminación, con el reloj de la base de datos (el mismo que {@code FECHA_MODIFICACION}). */
+    @Column(name = BaseDeDatos.Columnas.FECHA, insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime fecha;
+
+    /**
+     * Construye la constancia de una eliminación.
+     *
+     * @param entidad      el tipo de entidad eliminada
+     * @param entidadId    el id de la fila eliminada
+     * @param empresaId    la empresa a la que pertenecía
+     * @param trabajadorId el trabajador al que pertenecía
+     * @return la eliminación, lista para guardar
+     */
+    public static Eliminacion de(EntidadSincronizada entidad, Long entidadId, Long empresaId, Long trabajadorId) {
+        return new Eliminacion(null, entidad, entidadId, empresaId, trabajadorId, null);
+    }
+}
@@ -30,7 +30,9 @@ public class Empresa extends Usuario{
 
     /** El identificador único de la empresa (clave primaria, autogenerada). */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = BaseDeDatos.Secuencias.EMPRESA)
+    @SequenceGenerator(name = BaseDeDatos.Secuencias.EMPRESA, sequenceName = BaseDeDatos.Secuencias.EMPRESA,
+            initialValue = BaseDeDatos.Secuencias.VALOR_INICIAL, allocationSize = BaseDeDatos.Secuencias.TAMANO_RESERVA)
     @Column(name = BaseDeDatos.Columnas.ID, nullable = false)
     private Long id;
 
@@ -59,6 +61,13 @@ public class Empresa extends Usuario{
     @Column(name = BaseDeDatos.Columnas.TELEFONO)
     private int telefono;
 
+    /**
+     * Horas tras las que un fichaje que sigue abierto se cierra automáticamente.
+     * Si es nulo, se usa el valor por defecto de la aplicación.
+     */
+    @Column(name = BaseDeDatos.Columnas.HORAS_CIERRE_AUTOMATICO)
+    private Integer horasCierreAutomatico;
+
     /** Lista de trabajadores asociados a esta empresa. */
     @OneToMany(mappedBy = "empresa", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Trabajador> trabajadores;
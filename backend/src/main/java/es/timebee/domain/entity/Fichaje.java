@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 /**
@@ -14,18 +15,43 @@ import java.time.LocalDateTime;
  * <p>
  * Este objeto almacena cuándo un trabajador inicia y finaliza su jornada
  * o sesión laboral, y está asociado tanto al trabajador como a la empresa.
+ * <p>
+ * Los índices cubren las búsquedas habituales: los fichajes de un trabajador por fecha,
+ * los de una empresa por fecha (con el id para la paginación por cursor) y, mediante la
+ * restricción única de {@code TRABAJADOR_ABIERTO}, el fichaje abierto de cada trabajador.
+ * Los de {@code FECHA_MODIFICACION} sirven a la sincronización incremental por empresa y por trabajador,
+ * y el global a que cada instancia se entere de los cambios hechos por las demás.
  */
 @Getter
 @Setter
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = BaseDeDatos.Tablas.FICHAJE)
+@Table(name = BaseDeDatos.Tablas.FICHAJE,
+        uniqueConstraints = @UniqueConstraint(name = BaseDeDatos.Restricciones.UK_FICHAJE_ABIERTO_TRABAJADOR,
+                columnNames = BaseDeDatos.Columnas.TRABAJADOR_ABIERTO),
+        indexes = {
+                @Index(name = BaseDeDatos.Restricciones.IDX_FICHAJE_TRABAJADOR_INICIO,
+                        columnList = BaseDeDatos.Columnas.TRABAJADOR_ID + ", " + BaseDeDatos.Columnas.FECHA_INICIO),
+                @Index(name = BaseDeDatos.Restricciones.IDX_FICHAJE_EMPRESA_INICIO,
+                        columnList = BaseDeDatos.Columnas.EMPRESA_ID + ", " + BaseDeDatos.Columnas.FECHA_INICIO
+                                + ", " + BaseDeDatos.Columnas.ID),
+                @Index(name = BaseDeDatos.Restricciones.IDX_FICHAJE_EMPRESA_MODIFICACION,
+                        columnList = BaseDeDatos.Columnas.EMPRESA_ID + ", " + BaseDeDatos.Columnas.FECHA_MODIFICACION
+                                + ", " + BaseDeDatos.Columnas.ID),
+                @Index(name = BaseDeDatos.Restricciones.IDX_FICHAJE_TRABAJADOR_MODIFICACION,
+                        columnList = BaseDeDatos.Columnas.TRABAJADOR_ID + ", " + BaseDeDatos.Columnas.FECHA_MODIFICACION
+                                + ", " + BaseDeDatos.Columnas.ID),
+                @Index(name = BaseDeDatos.Restricciones.IDX_FICHAJE_MODIFICACION,
+                        columnList = BaseDeDatos.Columnas.FECHA_MODIFICACION + ", " + BaseDeDatos.Columnas.ID)
+        })
 public class Fichaje {
 
     /** El identificador único del fichaje (clave primaria, autogenerada). */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = BaseDeDatos.Secuencias.FICHAJE)
+    @SequenceGenerator(name = BaseDeDatos.Secuencias.FICHAJE, sequenceName = BaseDeDatos.Secuencias.FICHAJE,
+            initialValue = BaseDeDatos.Secuencias.VALOR_INICIAL, allocationSize = BaseDeDatos.Secuencias.TAMANO_RESERVA)
     @Column(name = BaseDeDatos.Columnas.ID, nullable = false)
     private Long id;
 
@@ -47,4 +73,28 @@ public class Fichaje {
     @Column(name = BaseDeDatos.Columnas.FECHA_FIN)
     private LocalDateTime fechaFin;
 
+    /** Indica si el fichaje lo cerró la tarea de cierre automático porque el trabajador olvidó fichar la salida. */
+    @ColumnDefault("0")
+    @Column(name = BaseDeDatos.Columnas.CERRADO_AUTOMATICAMENTE, nullable = false)
+    private boolean cerradoAutomaticamente;
+
+    /**
+     * Columna generada por la base de datos: el id del trabajador mientras el fichaje está abierto
+     * y {@code NULL} cuando se cierra. Su restricción única impide que un trabajador tenga dos
+     * fichajes abiertos a la vez, aunque lleguen dos entradas simultáneas desde nodos distintos.
+     */
+    @Column(name = BaseDeDatos.Columnas.TRABAJADOR_ABIERTO, insertable = false, updatable = false,
+            columnDefinition = "BIGINT GENERATED ALWAYS AS (CASE WHEN " + BaseDeDatos.Columnas.FECHA_FIN
+                    + " IS NULL THEN " + BaseDeDatos.Columnas.TRABAJADOR_ID + " END) STORED")
+    private Long trabajadorAbierto;
+
+    /**
+     * Momento de la última escritura de la fila. Lo mantiene la propia base de datos
+     * ({@code ON UPDATE}), así que también cambia con las actualizaciones masivas que no pasan
+     * por Hibernate. Es lo que permite sincronizar solo los cambios.
+     */
+    @Column(name = BaseDeDatos.Columnas.FECHA_MODIFICACION, insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime fechaModificacion;
+
 }
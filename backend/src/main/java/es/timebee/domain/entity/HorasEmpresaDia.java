@@ -0,0 +1,41 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * {@code HorasEmpresaDia} es una entidad JPA que acumula los minutos trabajados
+ * por toda la plantilla de una empresa en un día.
+ * <p>
+ * Igual que {@link HorasTrabajadorDia}, es una tabla resumen mantenida de forma incremental
+ * y reconstruible a partir de los fichajes.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(HorasEmpresaDiaId.class)
+@Table(name = BaseDeDatos.Tablas.HORAS_EMPRESA_DIA)
+public class HorasEmpresaDia {
+
+    /** El identificador de la empresa. */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.EMPRESA_ID, nullable = false)
+    private Long empresaId;
+
+    /** El día al que se imputan las horas. */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.FECHA, nullable = false)
+    private LocalDate fecha;
+
+    /** Los minutos trabajados ese día por toda la empresa. */
+    @Column(name = BaseDeDatos.Columnas.MINUTOS, nullable = false)
+    private long minutos;
+}
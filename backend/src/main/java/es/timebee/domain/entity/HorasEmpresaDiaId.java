@@ -0,0 +1,29 @@
+package es.timebee.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Clave primaria compuesta de {@link HorasEmpresaDia}: empresa y día.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class HorasEmpresaDiaId implements Serializable {
+
+    private static final long serialVersionUID = -2218790150036584671L;
+
+    /** El identificador de la empresa. */
+    private Long empresaId;
+
+    /** El día al que se imputan las horas. */
+    private LocalDate fecha;
+}
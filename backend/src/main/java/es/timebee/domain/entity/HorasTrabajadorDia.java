@@ -0,0 +1,50 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * {@code HorasTrabajadorDia} es una entidad JPA que acumula los minutos trabajados
+ * por un trabajador en un día.
+ * <p>
+ * Es una tabla resumen: no se edita a mano, sino que se actualiza de forma incremental
+ * cada vez que se confirma un cambio en los fichajes cerrados (y se puede reconstruir
+ * desde cero a partir de la tabla de fichajes). Los minutos de un fichaje se imputan
+ * al día en que empezó, aunque termine pasada la medianoche.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(HorasTrabajadorDiaId.class)
+@Table(name = BaseDeDatos.Tablas.HORAS_TRABAJADOR_DIA,
+        indexes = @Index(name = BaseDeDatos.Restricciones.IDX_HORAS_TRABAJADOR_DIA_EMPRESA,
+                columnList = BaseDeDatos.Columnas.EMPRESA_ID + ", " + BaseDeDatos.Columnas.FECHA))
+public class HorasTrabajadorDia {
+
+    /** El identificador del trabajador. */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.TRABAJADOR_ID, nullable = false)
+    private Long trabajadorId;
+
+    /** El día al que se imputan las horas. */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.FECHA, nullable = false)
+    private LocalDate fecha;
+
+    /** El identificador de la empresa en la que se trabajaron las horas. */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.EMPRESA_ID, nullable = false)
+    private Long empresaId;
+
+    /** Los minutos trabajados ese día. */
+    @Column(name = BaseDeDatos.Columnas.MINUTOS, nullable = false)
+    private long minutos;
+}
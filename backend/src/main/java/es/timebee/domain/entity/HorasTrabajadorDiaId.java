@@ -0,0 +1,32 @@
+package es.timebee.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Clave primaria compuesta de {@link HorasTrabajadorDia}: trabajador, día y empresa.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class HorasTrabajadorDiaId implements Serializable {
+
+    private static final long serialVersionUID = 6409154817313270428L;
+
+    /** El identificador del trabajador. */
+    private Long trabajadorId;
+
+    /** El día al que se imputan las horas. */
+    private LocalDate fecha;
+
+    /** El identificador de la empresa. */
+    private Long empresaId;
+}
@@ -17,18 +17,33 @@ import java.time.LocalDateTime;
  * Este objeto almacena toda la información relevante de una nómina,
  * incluyendo el archivo PDF, su tamaño, la fecha de subida, el periodo
  * al que corresponde y las relaciones con el trabajador y la empresa.
+ * <p>
+ * El PDF vive en el almacén de nóminas y la fila solo guarda su huella. Las nóminas
+ * anteriores al almacén conservan el PDF en {@code archivoPdf} hasta que la migración
+ * las mueve.
  */
 @Getter
 @Setter
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = BaseDeDatos.Tablas.NOMINA)
+@Table(name = BaseDeDatos.Tablas.NOMINA,
+        indexes = {
+                @Index(name = BaseDeDatos.Restricciones.IDX_NOMINA_EMPRESA_MODIFICACION,
+                        columnList = BaseDeDatos.Columnas.EMPRESA_ID + ", " + BaseDeDatos.Columnas.FECHA_MODIFICACION
+                                + ", " + BaseDeDatos.Columnas.ID),
+                @Index(name = BaseDeDatos.Restricciones.IDX_NOMINA_HUELLA, columnList = BaseDeDatos.Columnas.HUELLA),
+                @Index(name = BaseDeDatos.Restricciones.IDX_NOMINA_EMPRESA_PERIODO,
+                        columnList = BaseDeDatos.Columnas.EMPRESA_ID + ", " + BaseDeDatos.Columnas.PERIODO
+                                + ", " + BaseDeDatos.Columnas.ID)
+        })
 public class Nomina {
 
     /** El identificador único de la nómina (clave primaria, autogenerada). */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = BaseDeDatos.Secuencias.NOMINA)
+    @SequenceGenerator(name = BaseDeDatos.Secuencias.NOMINA, sequenceName = BaseDeDatos.Secuencias.NOMINA,
+            initialValue = BaseDeDatos.Secuencias.VALOR_INICIAL, allocationSize = BaseDeDatos.Secuencias.TAMANO_RESERVA)
     @Column(name = BaseDeDatos.Columnas.ID, nullable = false)
     private Long id;
 
@@ -36,12 +51,19 @@ public class Nomina {
     @Column(name = BaseDeDatos.Columnas.NOMBRE_ARCHIVO, nullable = false)
     private String nombreArchivo;
 
-    /** El contenido binario del archivo PDF de la nómina (almacenado como LONGBLOB). */
+    /**
+     * El contenido binario del PDF de las nóminas antiguas (LONGBLOB). Queda a {@code null}
+     * cuando la nómina se ha movido al almacén.
+     */
     @Lob
     @Basic(fetch = FetchType.LAZY)
-    @Column(name = BaseDeDatos.Columnas.ARCHIVO_PDF, nullable = false, columnDefinition = "LONGBLOB")
+    @Column(name = BaseDeDatos.Columnas.ARCHIVO_PDF, columnDefinition = "LONGBLOB")
     private byte[] archivoPdf;
 
+    /** El SHA-256 del PDF en hexadecimal: su dirección en el almacén de nóminas. */
+    @Column(name = BaseDeDatos.Columnas.HUELLA, length = 64, columnDefinition = "CHAR(64)")
+    private String huella;
+
     /** El tipo de contenido del archivo (MIME type, p.ej. “application/pdf”). */
     @Column(name = BaseDeDatos.Columnas.CONTENT_TYPE, nullable = false)
     private String contentType;
@@ -69,4 +91,13 @@ public class Nomina {
     @JoinColumn(name = BaseDeDatos.Columnas.EMPRESA_ID, nullable = false)
     private Empresa empresa;
 
+    /**
+     * Momento de la última escritura de la fila. Lo mantiene la propia base de datos
+     * ({@code ON UPDATE}), así que también cambia con las actualizaciones masivas que no pasan
+     * por Hibernate. Es lo que permite sincronizar solo los cambios.
+     */
+    @Column(name = BaseDeDatos.Columnas.FECHA_MODIFICACION, insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime fechaModificacion;
+
 }
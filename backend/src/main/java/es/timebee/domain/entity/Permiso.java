@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * {@code Permiso} es una entidad JPA que representa una solicitud de permiso
@@ -24,12 +25,16 @@ import java.time.LocalDate;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = BaseDeDatos.Tablas.PERMISO)
+@Table(name = BaseDeDatos.Tablas.PERMISO,
+        indexes = @Index(name = BaseDeDatos.Restricciones.IDX_PERMISO_MODIFICACION,
+                columnList = BaseDeDatos.Columnas.FECHA_MODIFICACION + ", " + BaseDeDatos.Columnas.ID))
 public class Permiso {
 
     /** El identificador único del permiso (clave primaria, autogenerada). */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = BaseDeDatos.Secuencias.PERMISO)
+    @SequenceGenerator(name = BaseDeDatos.Secuencias.PERMISO, sequenceName = BaseDeDatos.Secuencias.PERMISO,
+            initialValue = BaseDeDatos.Secuencias.VALOR_INICIAL, allocationSize = BaseDeDatos.Secuencias.TAMANO_RESERVA)
     @Column(name = BaseDeDatos.Columnas.ID, nullable = false)
     private Long id;
 
@@ -55,4 +60,13 @@ public class Permiso {
     @Enumerated(EnumType.STRING)
     @Column(name = BaseDeDatos.Columnas.ESTADO, nullable = false)
     private EstadoPermiso estado = EstadoPermiso.SOLICITADO;
+
+    /**
+     * Momento de la última escritura de la fila. Lo mantiene la propia base de datos
+     * ({@code ON UPDATE}), así que también cambia con las actualizaciones masivas que no pasan
+     * por Hibernate. Es lo que permite sincronizar solo los cambios.
+     */
+    @Column(name = BaseDeDatos.Columnas.FECHA_MODIFICACION, insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime fechaModificacion;
 }
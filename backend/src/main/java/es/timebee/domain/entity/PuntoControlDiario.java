@@ -0,0 +1,36 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * {@code PuntoControlDiario} es una entidad JPA que guarda, para cada instancia de la
+ * aplicación, el último marcaje de su diario local que ya está escrito en la base de datos.
+ * <p>
+ * Se actualiza en la misma transacción que escribe los fichajes, así que al reproducir
+ * el diario tras un reinicio no se duplica ni se pierde ningún marcaje.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BaseDeDatos.Tablas.PUNTO_CONTROL_DIARIO)
+public class PuntoControlDiario {
+
+    /** El nombre de la instancia dueña del diario (clave primaria). */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.NODO, nullable = false)
+    private String nodo;
+
+    /** La secuencia del último marcaje escrito en la base de datos. */
+    @Column(name = BaseDeDatos.Columnas.SECUENCIA, nullable = false)
+    private long secuencia;
+}
@@ -0,0 +1,66 @@
+package es.timebee.domain.entity;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code RespuestaIdempotente} es una entidad JPA que guarda la respuesta de una petición
+ * enviada con cabecera {@code Idempotency-Key}.
+ * <p>
+ * Si el cliente repite la petición con la misma clave (por ejemplo, tras un timeout),
+ * se le devuelve esta respuesta en lugar de volver a ejecutarla, aunque el reintento
+ * llegue a otra instancia de la aplicación. Mientras la primera petición se está
+ * ejecutando, la fila existe pero sin código ni cuerpo, y la instancia que la ejecuta
+ * renueva {@code fechaRenovacion} para que nadie la dé por abandonada.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BaseDeDatos.Tablas.RESPUESTA_IDEMPOTENTE,
+        indexes = @Index(name = BaseDeDatos.Restricciones.IDX_RESPUESTA_IDEMPOTENTE_FECHA,
+                columnList = BaseDeDatos.Columnas.FECHA_CREACION))
+public class RespuestaIdempotente {
+
+    /** Resumen SHA-256 del usuario, la ruta y la clave enviada por el cliente (clave primaria). */
+    @Id
+    @Column(name = BaseDeDatos.Columnas.CLAVE, length = 64, nullable = false)
+    private String clave;
+
+    /** El código de estado HTTP de la respuesta (nulo mientras la petición está en curso). */
+    @Column(name = BaseDeDatos.Columnas.CODIGO)
+    private Integer codigo;
+
+    /** El tipo de contenido de la respuesta. */
+    @Column(name = BaseDeDatos.Columnas.CONTENT_TYPE)
+    private String contentType;
+
+    /** El cuerpo de la respuesta tal como se envió. */
+    @Lob
+    @Column(name = BaseDeDatos.Columnas.CUERPO, columnDefinition = "MEDIUMBLOB")
+    private byte[] cuerpo;
+
+    /** Resumen SHA-256 del cuerpo y los parámetros de la primera petición. */
+    @Column(name = BaseDeDatos.Columnas.HUELLA_PETICION, length = 64)
+    private String huellaPeticion;
+
+    /** Momento, en hora de la base de datos, en que llegó la primera petición. */
+    @Column(name = BaseDeDatos.Columnas.FECHA_CREACION, nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /** Última vez que la instancia que ejecuta la petición confirmó que sigue en curso. */
+    @Column(name = BaseDeDatos.Columnas.FECHA_RENOVACION, nullable = false)
+    private LocalDateTime fechaRenovacion;
+}
@@ -33,7 +33,9 @@ public class Trabajador extends Usuario {
 
     /** El identificador único del trabajador (clave primaria, autogenerada). */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = BaseDeDatos.Secuencias.TRABAJADOR)
+    @SequenceGenerator(name = BaseDeDatos.Secuencias.TRABAJADOR, sequenceName = BaseDeDatos.Secuencias.TRABAJADOR,
+            initialValue = BaseDeDatos.Secuencias.VALOR_INICIAL, allocationSize = BaseDeDatos.Secuencias.TAMANO_RESERVA)
     @Column(name = BaseDeDatos.Columnas.ID, nullable = false)
     private Long id;
 
@@ -0,0 +1,19 @@
+package es.timebee.domain.enumeration;
+
+/**
+ * {@code EntidadSincronizada} es un enumerado con las entidades cuyos cambios se pueden
+ * sincronizar de forma incremental.
+ * <p>
+ * Indica a qué tabla pertenece cada {@code Eliminacion} registrada.
+ */
+public enum EntidadSincronizada {
+
+    /** Un fichaje. */
+    FICHAJE,
+
+    /** Un permiso. */
+    PERMISO,
+
+    /** Una nómina. */
+    NOMINA
+}
@@ -0,0 +1,26 @@
+package es.timebee.domain.enumeration;
+
+/**
+ * {@code TipoEventoFichaje} es un enumerado que indica qué le ha ocurrido a un fichaje
+ * dentro de una transacción ya confirmada.
+ * <p>
+ * Lo usan los componentes que necesitan enterarse de los cambios en los fichajes
+ * sin volver a consultar la base de datos (por ejemplo, el registro de fichajes abiertos).
+ */
+public enum TipoEventoFichaje {
+
+    /** El trabajador ha iniciado su fichaje (entrada). */
+    INICIADO,
+
+    /** El trabajador ha finalizado su fichaje abierto (salida). */
+    FINALIZADO,
+
+    /** La empresa ha creado un fichaje (individualmente o en un lote). */
+    CREADO,
+
+    /** La empresa ha editado un fichaje existente. */
+    EDITADO,
+
+    /** La empresa ha eliminado un fichaje. */
+    ELIMINADO
+}
@@ -0,0 +1,17 @@
+package es.timebee.domain.enumeration;
+
+/**
+ * {@code TipoMarcaje} es un enumerado que indica si un marcaje del trabajador
+ * es una entrada o una salida.
+ * <p>
+ * Lo usa la escritura diferida de fichajes, que guarda los marcajes antes de
+ * convertirlos en fichajes de la base de datos.
+ */
+public enum TipoMarcaje {
+
+    /** El trabajador inicia su fichaje. */
+    ENTRADA,
+
+    /** El trabajador finaliza su fichaje abierto. */
+    SALIDA
+}
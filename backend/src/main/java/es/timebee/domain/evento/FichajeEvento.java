@@ -0,0 +1,29 @@
+package es.timebee.domain.evento;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+
+/**
+ * {@code FichajeEvento} es el evento de dominio que se publica cada vez que
+ * un fichaje se inicia, se finaliza, se crea, se edita o se elimina.
+ * <p>
+ * Se publica dentro de la transacción del servicio, pero quienes lo escuchan con
+ * {@code @TransactionalEventListener} solo lo reciben si la transacción se confirma:
+ * si hay rollback, el evento nunca llega y nadie se entera de un cambio que no existió.
+ *
+ * @param tipo     qué le ha ocurrido al fichaje
+ * @param fichaje  el estado del fichaje tras el cambio (en una eliminación, el fichaje eliminado)
+ * @param anterior el estado del fichaje antes de una edición (nulo en el resto de casos)
+ */
+public record FichajeEvento(TipoEventoFichaje tipo, FichajeResumenDto fichaje, FichajeResumenDto anterior) {
+
+    /**
+     * Crea un evento sin estado anterior (todo salvo las ediciones).
+     *
+     * @param tipo    qué le ha ocurrido al fichaje
+     * @param fichaje el estado del fichaje tras el cambio
+     */
+    public FichajeEvento(TipoEventoFichaje tipo, FichajeResumenDto fichaje) {
+        this(tipo, fichaje, null);
+    }
+}
@@ -0,0 +1,18 @@
+package es.timebee.domain.evento;
+
+/**
+ * {@code FichajeSondeadoEvento} es un cambio de fichaje ya confirmado que
+ * {@link es.timebee.registro.SondeoFichajes} ha leído de la base de datos.
+ * <p>
+ * Así se enteran de los cambios hechos por otras instancias de la aplicación (o por procesos
+ * que no publican {@link FichajeEvento}, como el cierre automático). Puede repetir cambios
+ * que esta misma instancia ya ha publicado, así que quien lo escucha debe tolerarlo.
+ * <p>
+ * Solo se sabe el estado actual del fichaje: el tipo es {@code INICIADO} si sigue abierto,
+ * {@code FINALIZADO} si está cerrado y {@code ELIMINADO} si se ha borrado, y nunca hay estado
+ * anterior.
+ *
+ * @param cambio el cambio, con la forma de un {@link FichajeEvento}
+ */
+public record FichajeSondeadoEvento(FichajeEvento cambio) {
+}
@@ -0,0 +1,11 @@
+package es.timebee.domain.repository;
+
+import es.timebee.domain.entity.Eliminacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * {@code EliminacionRepository} es la interfaz que gestiona el acceso a las
+ * constancias de eliminación ({@link Eliminacion}) que usa la sincronización incremental.
+ */
+public interface EliminacionRepository extends JpaRepository<Eliminacion, Long> {
+}
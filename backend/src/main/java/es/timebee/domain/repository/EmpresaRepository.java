@@ -1,7 +1,7 @@
 package es.timebee.domain.repository;
 
+import es.timebee.domain.dto.FichajeResumenDto;
 import es.timebee.domain.entity.Empresa;
-import es.timebee.domain.entity.Fichaje;
 import es.timebee.domain.entity.Trabajador;
 import es.timebee.domain.enumeration.FormaJuridica;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -44,12 +44,18 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
 
     /**
      * Obtiene todos los fichajes asociados a una empresa dado su correo electrónico.
+     * <p>
+     * Devuelve filas planas construidas en la propia consulta, por lo que se resuelve
+     * con una única sentencia SQL sin cargar trabajadores ni empresas completos.
      *
      * @param email el correo electrónico de la empresa.
-     * @return una lista de fichajes.
+     * @return una lista de fichajes en formato resumen.
      */
-    @Query("select f from Fichaje f where upper(f.empresa.email) = upper(?1)")
-    List<Fichaje> findByFichajes_Empresa_EmailEqualsIgnoreCase(String email);
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, e.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t join f.empresa e
+            where upper(e.email) = upper(?1)""")
+    List<FichajeResumenDto> findByFichajes_Empresa_EmailEqualsIgnoreCase(String email);
 
     /**
      * Verifica si existe una empresa con el correo electrónico dado (ignorando mayúsculas/minúsculas).
@@ -105,4 +111,16 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
             update Empresa e set e.password = ?1, e.email = ?2, e.nombre = ?3, e.formaJuridica = ?4, e.cif = ?5, e.direccion = ?6, e.telefono = ?7
             where upper(e.email) = upper(?8)""")
     void updateDatosPersonalesPasswordEmpresa(String password, String email, String nombre, FormaJuridica formaJuridica, String cif, String direccion, int telefono, String email1);
+
+    /**
+     * Actualiza el límite de horas del cierre automático de fichajes de una empresa.
+     *
+     * @param horas el nuevo límite (nulo para usar el valor por defecto).
+     * @param email el correo de la empresa.
+     * @return el número de empresas actualizadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Empresa e set e.horasCierreAutomatico = ?1 where upper(e.email) = upper(?2)")
+    int updateHorasCierreAutomatico(Integer horas, String email);
 }
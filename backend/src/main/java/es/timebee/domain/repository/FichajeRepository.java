@@ -1,6 +1,8 @@
 package es.timebee.domain.repository;
 
+import es.timebee.domain.dto.FichajeResumenDto;
 import es.timebee.domain.entity.Fichaje;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,30 +28,169 @@ public interface FichajeRepository extends JpaRepository<Fichaje, Long> {
     /**
      * Busca todos los fichajes abiertos (sin fecha de fin) para un trabajador específico,
      * ordenados por fecha de inicio de forma ascendente.
+     * <p>
+     * Filtra por la columna generada {@code trabajadorAbierto} para que la búsqueda use
+     * su índice único en lugar de recorrer todos los fichajes del trabajador.
      *
      * @param trabajadorId el identificador del trabajador.
      * @return una lista de fichajes abiertos.
      */
-    @Query("select f from Fichaje f where f.trabajador.id = ?1 and f.fechaFin is null order by f.fechaInicio")
+    @Query("select f from Fichaje f where f.trabajadorAbierto = ?1 order by f.fechaInicio")
     List<Fichaje> findByTrabajador_IdAndFechaFinIsNullOrderByFechaInicioAsc(Long trabajadorId);
 
     /**
-     * Guarda un nuevo fichaje sin fecha de salida (fichaje abierto) usando una consulta nativa.
+     * Obtiene todos los fichajes abiertos (sin fecha de fin) de todas las empresas.
+     * <p>
+     * Se usa para cargar el registro en memoria de fichajes abiertos al arrancar.
      *
-     * @param trabajadorId el identificador del trabajador.
-     * @param empresaId el identificador de la empresa.
-     * @param fechaInicio la fecha y hora de inicio del fichaje.
+     * @return los fichajes abiertos, en formato resumen.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, f.empresa.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t
+            where f.trabajadorAbierto is not null""")
+    List<FichajeResumenDto> findAbiertos();
+
+    /**
+     * Obtiene los fichajes abiertos de varios trabajadores con una sola consulta,
+     * usando el índice único de fichaje abierto.
+     *
+     * @param trabajadorIds los identificadores de los trabajadores.
+     * @return los fichajes abiertos (como mucho uno por trabajador).
+     */
+    List<Fichaje> findByTrabajadorAbiertoIn(Collection<Long> trabajadorIds);
+
+    /**
+     * Comprueba si un fichaje sigue abierto.
+     *
+     * @param id el identificador del fichaje.
+     * @return true si existe y no tiene fecha de fin.
+     */
+    boolean existsByIdAndFechaFinIsNull(Long id);
+
+    /**
+     * Cierra un fichaje abierto sin cargarlo, con un único {@code UPDATE}.
+     * <p>
+     * La condición {@code fechaFin is null} garantiza que un fichaje ya cerrado no se vuelve a cerrar.
+     *
+     * @param id       el identificador del fichaje.
+     * @param fechaFin la fecha y hora de salida.
+     * @return el número de fichajes cerrados (0 si ya estaba cerrado o no existe).
      */
     @Modifying
     @Transactional
-    @Query(
-            value = "INSERT INTO fichaje (trabajador_id, empresa_id, fecha_inicio) " +
-                    "VALUES (:trabajadorId, :empresaId, :fechaInicio)",
-            nativeQuery = true
-    )
-    void guardarFichajeSinCerrar(
-            @Param("trabajadorId") Long trabajadorId,
-            @Param("empresaId") Long empresaId,
-            @Param("fechaInicio") LocalDateTime fechaInicio
-    );
+    @Query("update Fichaje f set f.fechaFin = :fechaFin where f.id = :id and f.fechaFin is null")
+    int cerrarFichaje(@Param("id") Long id, @Param("fechaFin") LocalDateTime fechaFin);
+
+    /**
+     * Obtiene una página de fichajes de una empresa usando paginación por cursor (keyset),
+     * del más reciente al más antiguo y desempatando por id.
+     * <p>
+     * En lugar de un {@code OFFSET}, se continúa justo después de la última posición entregada
+     * ({@code cursorFecha}, {@code cursorId}), de modo que el coste no crece con el historial.
+     * El tamaño de la página lo marca el {@link Pageable} (siempre en su página 0).
+     * <p>
+     * Todos los filtros son obligatorios para que la sentencia tenga siempre la misma forma y
+     * se resuelva como un rango del índice {@code (EMPRESA_ID, FECHA_INICIO, ID)}: en la primera
+     * página el cursor es el límite superior del rango, y sin filtro de fechas se pasan los
+     * extremos. Para filtrar por trabajador está {@link #findPaginaTrabajador}.
+     *
+     * @param empresaId    el identificador de la empresa.
+     * @param desde        fecha de inicio mínima, inclusive.
+     * @param cursorFecha  fecha de inicio del último fichaje entregado.
+     * @param cursorId     id del último fichaje entregado.
+     * @param pageable     límite de resultados a devolver.
+     * @return la lista de fichajes de la página, en formato resumen.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, f.empresa.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t
+            where f.empresa.id = :empresaId
+              and f.fechaInicio >= :desde
+              and (f.fechaInicio < :cursorFecha
+                   or (f.fechaInicio = :cursorFecha and f.id < :cursorId))
+            order by f.fechaInicio desc, f.id desc""")
+    List<FichajeResumenDto> findPaginaEmpresa(@Param("empresaId") Long empresaId,
+                                    @Param("desde") LocalDateTime desde,
+                                    @Param("cursorFecha") LocalDateTime cursorFecha,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable pageable);
+
+    /**
+     * Igual que {@link #findPaginaEmpresa}, pero solo con los fichajes de un trabajador.
+     * <p>
+     * Se resuelve con el índice {@code (TRABAJADOR_ID, FECHA_INICIO)}; la empresa solo se
+     * comprueba sobre las filas ya encontradas.
+     *
+     * @param empresaId    el identificador de la empresa.
+     * @param trabajadorId el identificador del trabajador.
+     * @param desde        fecha de inicio mínima, inclusive.
+     * @param cursorFecha  fecha de inicio del último fichaje entregado.
+     * @param cursorId     id del último fichaje entregado.
+     * @param pageable     límite de resultados a devolver.
+     * @return la lista de fichajes de la página, en formato resumen.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, f.empresa.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t
+            where f.trabajador.id = :trabajadorId
+              and f.empresa.id = :empresaId
+              and f.fechaInicio >= :desde
+              and (f.fechaInicio < :cursorFecha
+                   or (f.fechaInicio = :cursorFecha and f.id < :cursorId))
+            order by f.fechaInicio desc, f.id desc""")
+    List<FichajeResumenDto> findPaginaTrabajador(@Param("empresaId") Long empresaId,
+                                       @Param("trabajadorId") Long trabajadorId,
+                                       @Param("desde") LocalDateTime desde,
+                                       @Param("cursorFecha") LocalDateTime cursorFecha,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
+
+    /**
+     * Obtiene los fichajes de una empresa que empiezan dentro de un rango de fechas,
+     * ordenados por fecha de inicio e id.
+     * <p>
+     * Se resuelve con el índice {@code (EMPRESA_ID, FECHA_INICIO, ID)}.
+     *
+     * @param empresaId el identificador de la empresa.
+     * @param desde     fecha de inicio mínima, inclusive.
+     * @param hasta     fecha de inicio máxima, exclusiva.
+     * @return los fichajes del rango, en formato resumen.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, f.empresa.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t
+            where f.empresa.id = :empresaId
+              and f.fechaInicio >= :desde
+              and f.fechaInicio < :hasta
+            order by f.fechaInicio, f.id""")
+    List<FichajeResumenDto> findRangoEmpresa(@Param("empresaId") Long empresaId,
+                                             @Param("desde") LocalDateTime desde,
+                                             @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene los fichajes de un trabajador en una empresa que empiezan dentro de un rango de fechas,
+     * ordenados por fecha de inicio e id.
+     * <p>
+     * Se resuelve con el índice {@code (TRABAJADOR_ID, FECHA_INICIO)}; la empresa solo se
+     * comprueba sobre las filas ya encontradas.
+     *
+     * @param empresaId    el identificador de la empresa.
+     * @param trabajadorId el identificador del trabajador.
+     * @param desde        fecha de inicio mínima, inclusive.
+     * @param hasta        fecha de inicio máxima, exclusiva.
+     * @return los fichajes del rango, en formato resumen.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, f.empresa.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t
+            where f.trabajador.id = :trabajadorId
+              and f.empresa.id = :empresaId
+              and f.fechaInicio >= :desde
+              and f.fechaInicio < :hasta
+            order by f.fechaInicio, f.id""")
+    List<FichajeResumenDto> findRangoTrabajador(@Param("empresaId") Long empresaId,
+                                                @Param("trabajadorId") Long trabajadorId,
+                                                @Param("desde") LocalDateTime desde,
+                                                @Param("hasta") LocalDateTime hasta);
 }
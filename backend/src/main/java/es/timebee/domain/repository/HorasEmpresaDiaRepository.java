@@ -0,0 +1,58 @@
+package es.timebee.domain.repository;
+
+import es.timebee.domain.dto.HorasDiaDto;
+import es.timebee.domain.entity.HorasEmpresaDia;
+import es.timebee.domain.entity.HorasEmpresaDiaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * {@code HorasEmpresaDiaRepository} da acceso a la tabla resumen de minutos
+ * trabajados por empresa y día ({@link HorasEmpresaDia}).
+ */
+public interface HorasEmpresaDiaRepository extends JpaRepository<HorasEmpresaDia, HorasEmpresaDiaId> {
+
+    /**
+     * Obtiene los minutos trabajados por toda la empresa, día a día, entre dos fechas.
+     *
+     * @param empresaId el identificador de la empresa.
+     * @param desde     primer día, inclusive.
+     * @param hasta     último día, exclusivo.
+     * @return los minutos de cada día con horas en el periodo.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.HorasDiaDto(h.fecha, h.minutos)
+            from HorasEmpresaDia h
+            where h.empresaId = :empresaId
+              and h.fecha >= :desde and h.fecha < :hasta
+            order by h.fecha""")
+    List<HorasDiaDto> findHorasEmpresaPorDia(@Param("empresaId") Long empresaId,
+                                            @Param("desde") LocalDate desde,
+                                            @Param("hasta") LocalDate hasta);
+
+    /**
+     * Vacía la tabla resumen antes de reconstruirla.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM horas_empresa_dia", nativeQuery = true)
+    void vaciar();
+
+    /**
+     * Reconstruye la tabla resumen a partir de todos los fichajes cerrados.
+     *
+     * @return el número de filas generadas.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO horas_empresa_dia (empresa_id, fecha, minutos)
+            SELECT empresa_id, DATE(fecha_inicio), SUM(TIMESTAMPDIFF(MINUTE, fecha_inicio, fecha_fin))
+            FROM fichaje
+            WHERE fecha_fin IS NOT NULL
+            GROUP BY empresa_id, DATE(fecha_inicio)""", nativeQuery = true)
+    int reconstruir();
+}
@@ -0,0 +1,83 @@
+package es.timebee.domain.repository;
+
+import es.timebee.domain.dto.HorasDiaDto;
+import es.timebee.domain.dto.HorasTrabajadorMesDto;
+import es.timebee.domain.entity.HorasTrabajadorDia;
+import es.timebee.domain.entity.HorasTrabajadorDiaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * {@code HorasTrabajadorDiaRepository} da acceso a la tabla resumen de minutos
+ * trabajados por trabajador y día ({@link HorasTrabajadorDia}).
+ * <p>
+ * Las consultas de horas leen como mucho una fila por trabajador y día,
+ * así que su coste no depende de cuántos fichajes haya en la tabla original.
+ */
+public interface HorasTrabajadorDiaRepository extends JpaRepository<HorasTrabajadorDia, HorasTrabajadorDiaId> {
+
+    /**
+     * Obtiene los minutos trabajados por cada trabajador de una empresa entre dos fechas.
+     *
+     * @param empresaId el identificador de la empresa.
+     * @param desde     primer día, inclusive.
+     * @param hasta     último día, exclusivo.
+     * @return los minutos de cada trabajador con horas en el periodo.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.HorasTrabajadorMesDto(t.id, t.nombre, t.apellidos, sum(h.minutos))
+            from HorasTrabajadorDia h, Trabajador t
+            where t.id = h.trabajadorId
+              and h.empresaId = :empresaId
+              and h.fecha >= :desde and h.fecha < :hasta
+            group by t.id, t.nombre, t.apellidos
+            order by t.apellidos, t.nombre""")
+    List<HorasTrabajadorMesDto> findHorasEmpresaPorTrabajador(@Param("empresaId") Long empresaId,
+                                                             @Param("desde") LocalDate desde,
+                                                             @Param("hasta") LocalDate hasta);
+
+    /**
+     * Obtiene los minutos trabajados por un trabajador, día a día, entre dos fechas.
+     *
+     * @param trabajadorId el identificador del trabajador.
+     * @param desde        primer día, inclusive.
+     * @param hasta        último día, exclusivo.
+     * @return los minutos de cada día con horas en el periodo.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.HorasDiaDto(h.fecha, sum(h.minutos))
+            from HorasTrabajadorDia h
+            where h.trabajadorId = :trabajadorId
+              and h.fecha >= :desde and h.fecha < :hasta
+            group by h.fecha
+            order by h.fecha""")
+    List<HorasDiaDto> findHorasTrabajadorPorDia(@Param("trabajadorId") Long trabajadorId,
+                                               @Param("desde") LocalDate desde,
+                                               @Param("hasta") LocalDate hasta);
+
+    /**
+     * Vacía la tabla resumen antes de reconstruirla.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM horas_trabajador_dia", nativeQuery = true)
+    void vaciar();
+
+    /**
+     * Reconstruye la tabla resumen a partir de todos los fichajes cerrados.
+     *
+     * @return el número de filas generadas.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO horas_trabajador_dia (trabajador_id, fecha, empresa_id, minutos)
+            SELECT trabajador_id, DATE(fecha_inicio), empresa_id, SUM(TIMESTAMPDIFF(MINUTE, fecha_inicio, fecha_fin))
+            FROM fichaje
+            WHERE fecha_fin IS NOT NULL
+            GROUP BY trabajador_id, DATE(fecha_inicio), empresa_id""", nativeQuery = true)
+    int reconstruir();
+}
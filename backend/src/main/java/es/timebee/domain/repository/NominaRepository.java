@@ -1,9 +1,14 @@
 package es.timebee.domain.repository;
 
+import es.timebee.domain.dto.NominaArchivoDto;
+import es.timebee.domain.dto.NominaMetadataDto;
 import es.timebee.domain.entity.Nomina;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * {@code NominaRepository} es la interfaz responsable de gestionar el acceso a los datos
@@ -14,23 +19,83 @@ import java.util.List;
  * <p>
  * Además, definimos métodos específicos para consultar nóminas por trabajador,
  * cubriendo así las principales necesidades de la aplicación TimeBee.
+ * <p>
+ * Las consultas "visibles" llevan dentro la comprobación de permisos: una empresa ve las
+ * nóminas de sus trabajadores y un trabajador solo las suyas. Se comparan los ids del usuario
+ * autenticado y de su empresa, que vienen en el token, con las claves ajenas de la nómina,
+ * sin unir con la tabla de empresas.
  */
 public interface NominaRepository extends JpaRepository<Nomina, Long> {
 
     /**
-     * Busca todas las nóminas de un trabajador específico, usando su identificador.
+     * Lista los metadatos de las nóminas de un trabajador específico, usando su identificador,
+     * si el usuario autenticado puede verlas.
+     * <p>
+     * Es una proyección y no carga entidades: sin mejora de bytecode, Hibernate ignora el
+     * {@code LAZY} de {@code archivoPdf} y cargar las nóminas traería también sus PDF.
      *
      * @param trabajadorId el id del trabajador.
-     * @return una lista con todas las nóminas del trabajador.
+     * @param empresaId    el id de la empresa del usuario autenticado.
+     * @param usuarioId    el id del usuario autenticado.
+     * @param esEmpresa    si el usuario autenticado es una empresa.
+     * @param esTrabajador si el usuario autenticado es un trabajador.
+     * @return los metadatos de las nóminas del trabajador, de la más reciente a la más antigua;
+     *         vacía si no tiene ninguna o si el usuario no puede verlas.
      */
-    List<Nomina> findByTrabajador_Id(Long trabajadorId);
+    @Query("""
+            select new es.timebee.domain.dto.NominaMetadataDto(n.id, n.periodo)
+            from Nomina n join n.trabajador t
+            where t.id = :trabajadorId
+              and ((:esEmpresa = true and t.empresa.id = :empresaId) or (:esTrabajador = true and t.id = :usuarioId))
+            order by n.periodo desc, n.id desc""")
+    List<NominaMetadataDto> findMetadatosVisibles(@Param("trabajadorId") Long trabajadorId,
+                                                  @Param("empresaId") Long empresaId,
+                                                  @Param("usuarioId") Long usuarioId,
+                                                  @Param("esEmpresa") boolean esEmpresa,
+                                                  @Param("esTrabajador") boolean esTrabajador);
 
     /**
-     * Busca todas las nóminas de un trabajador específico, usando su correo electrónico.
+     * Lista los metadatos de todas las nóminas de un trabajador, sin comprobar permisos.
+     * Igual que {@link #findMetadatosVisibles(Long, Long, Long, boolean, boolean)}, no carga los PDF.
      *
-     * @param trabajadorEmail el correo electrónico del trabajador.
-     * @return una lista con todas las nóminas del trabajador.
+     * @param trabajadorId el id del trabajador.
+     * @return los metadatos de las nóminas del trabajador, de la más reciente a la más antigua.
      */
-    List<Nomina> findByTrabajador_Email(String trabajadorEmail);
-}
+    @Query("""
+            select new es.timebee.domain.dto.NominaMetadataDto(n.id, n.periodo)
+            from Nomina n
+            where n.trabajador.id = :trabajadorId
+            order by n.periodo desc, n.id desc""")
+    List<NominaMetadataDto> findMetadatosByTrabajadorId(@Param("trabajadorId") Long trabajadorId);
 
+    /**
+     * Busca lo necesario para servir una nómina, si el usuario autenticado puede verla.
+     * Es una sola consulta por clave primaria, y no trae el PDF.
+     *
+     * @param id           el id de la nómina.
+     * @param empresaId    el id de la empresa del usuario autenticado.
+     * @param usuarioId    el id del usuario autenticado.
+     * @param esEmpresa    si el usuario autenticado es una empresa.
+     * @param esTrabajador si el usuario autenticado es un trabajador.
+     * @return los datos de la nómina, o vacío si no existe o el usuario no puede verla.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.NominaArchivoDto(n.id, n.nombreArchivo, n.contentType, n.huella)
+            from Nomina n join n.trabajador t
+            where n.id = :id
+              and ((:esEmpresa = true and t.empresa.id = :empresaId) or (:esTrabajador = true and t.id = :usuarioId))""")
+    Optional<NominaArchivoDto> findArchivoVisible(@Param("id") Long id,
+                                                  @Param("empresaId") Long empresaId,
+                                                  @Param("usuarioId") Long usuarioId,
+                                                  @Param("esEmpresa") boolean esEmpresa,
+                                                  @Param("esTrabajador") boolean esTrabajador);
+
+    /**
+     * Lee el PDF de una nómina antigua que aún lo tiene en la base de datos.
+     *
+     * @param id el id de la nómina.
+     * @return el contenido del PDF, o {@code null} si ya está en el almacén.
+     */
+    @Query("select n.archivoPdf from Nomina n where n.id = :id")
+    byte[] findArchivoPdfById(@Param("id") Long id);
+}
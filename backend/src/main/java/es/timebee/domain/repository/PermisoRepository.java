@@ -2,6 +2,8 @@ package es.timebee.domain.repository;
 
 import es.timebee.domain.entity.Permiso;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -33,4 +35,27 @@ public interface PermisoRepository extends JpaRepository<Permiso, Long> {
      * @return una lista de permisos asociados a ese trabajador.
      */
     List<Permiso> findByTrabajador_Id(Long trabajadorId);
+
+    /**
+     * Obtiene los permisos de un trabajador, usando su correo electrónico, si el usuario
+     * autenticado puede verlos: su empresa o él mismo.
+     * <p>
+     * Los permisos vienen con su trabajador ya cargado, para convertirlos a DTO sin
+     * más consultas. Los correos se comparan con {@code =}, que en MySQL no distingue
+     * mayúsculas con la collation por defecto.
+     *
+     * @param emailTrabajador el correo del trabajador.
+     * @param email           el correo del usuario autenticado.
+     * @param esEmpresa       si el usuario autenticado es una empresa.
+     * @param esTrabajador    si el usuario autenticado es un trabajador.
+     * @return los permisos del trabajador; vacía si no tiene ninguno o si el usuario no puede verlos.
+     */
+    @Query("""
+            select p from Permiso p join fetch p.trabajador t join t.empresa e
+            where t.email = :emailTrabajador
+              and ((:esEmpresa = true and e.email = :email) or (:esTrabajador = true and t.email = :email))""")
+    List<Permiso> findVisiblesDeTrabajador(@Param("emailTrabajador") String emailTrabajador,
+                                           @Param("email") String email,
+                                           @Param("esEmpresa") boolean esEmpresa,
+                                           @Param("esTrabajador") boolean esTrabajador);
 }
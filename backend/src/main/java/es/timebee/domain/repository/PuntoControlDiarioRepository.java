@@ -0,0 +1,11 @@
+package es.timebee.domain.repository;
+
+import es.timebee.domain.entity.PuntoControlDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * {@code PuntoControlDiarioRepository} es la interfaz que gestiona el acceso a los
+ * puntos de control de los diarios de marcajes ({@link PuntoControlDiario}).
+ */
+public interface PuntoControlDiarioRepository extends JpaRepository<PuntoControlDiario, String> {
+}
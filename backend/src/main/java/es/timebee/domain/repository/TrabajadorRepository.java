@@ -1,14 +1,19 @@
 package es.timebee.domain.repository;
 
-import es.timebee.domain.entity.Fichaje;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.TrabajadorDocumentoDto;
+import es.timebee.domain.dto.TrabajadorIdentidadDto;
+import es.timebee.domain.dto.TrabajadorResumenDto;
 import es.timebee.domain.entity.Trabajador;
 import es.timebee.domain.enumeration.Genero;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,12 +30,59 @@ public interface TrabajadorRepository extends JpaRepository<Trabajador, Long> {
 
     /**
      * Busca todos los fichajes asociados a un trabajador por su email (ignorando mayúsculas/minúsculas).
+     * <p>
+     * Devuelve filas planas construidas en la propia consulta (una única sentencia SQL).
      *
      * @param email el correo electrónico del trabajador.
-     * @return una lista de fichajes relacionados con ese trabajador.
+     * @return una lista de fichajes relacionados con ese trabajador, en formato resumen.
      */
-    @Query("select f from Fichaje f where upper(f.trabajador.email) = upper(?1)")
-    List<Fichaje> findByFichajes_Trabajador_EmailEqualsIgnoreCase(String email);
+    @Query("""
+            select new es.timebee.domain.dto.FichajeResumenDto(f.id, t.id, f.empresa.id, t.nombre, t.apellidos, f.fechaInicio, f.fechaFin)
+            from Fichaje f join f.trabajador t
+            where upper(t.email) = upper(?1)""")
+    List<FichajeResumenDto> findByFichajes_Trabajador_EmailEqualsIgnoreCase(String email);
+
+    /**
+     * De entre los identificadores indicados, devuelve los trabajadores que pertenecen a la empresa.
+     * <p>
+     * Permite validar la pertenencia de todo un lote de fichajes con una única consulta {@code IN}.
+     *
+     * @param empresaId el identificador de la empresa.
+     * @param ids       los identificadores de trabajador a comprobar.
+     * @return los trabajadores (id, nombre y apellidos) que pertenecen a la empresa.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.TrabajadorResumenDto(t.id, t.nombre, t.apellidos)
+            from Trabajador t
+            where t.empresa.id = :empresaId and t.id in :ids""")
+    List<TrabajadorResumenDto> findResumenesDeEmpresa(@Param("empresaId") Long empresaId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene el DNI y el NAF de todos los trabajadores de una empresa.
+     * <p>
+     * Permite reconocer a los trabajadores de todo un ZIP de nóminas con una única consulta.
+     *
+     * @param empresaId el identificador de la empresa.
+     * @return los documentos (id, DNI y NAF) de los trabajadores de la empresa.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.TrabajadorDocumentoDto(t.id, t.dni, t.naf)
+            from Trabajador t
+            where t.empresa.id = :empresaId""")
+    List<TrabajadorDocumentoDto> findDocumentosDeEmpresa(@Param("empresaId") Long empresaId);
+
+    /**
+     * Obtiene la identidad (id, empresa, correo y nombre) de todos los trabajadores activos.
+     * <p>
+     * Permite aceptar marcajes sin consultar la base de datos cuando esta no está disponible.
+     *
+     * @return las identidades de los trabajadores activos.
+     */
+    @Query("""
+            select new es.timebee.domain.dto.TrabajadorIdentidadDto(t.id, t.empresa.id, t.email, t.nombre, t.apellidos)
+            from Trabajador t
+            where t.activo = true""")
+    List<TrabajadorIdentidadDto> findIdentidadesActivas();
 
     /**
      * Actualiza los datos personales de un trabajador desde la empresa.
@@ -0,0 +1,23 @@
+package es.timebee.exception;
+
+/**
+ * {@code ClaveIdempotenciaReutilizadaException} se lanza cuando un cliente repite una
+ * cabecera {@code Idempotency-Key} con una petición distinta de la original (otro cuerpo,
+ * otros parámetros u otro archivo).
+ * <p>
+ * Devolver la respuesta guardada haría creer al cliente que su nueva petición se ha
+ * ejecutado, así que se rechaza con {@code 422 Unprocessable Entity}.
+ */
+public class ClaveIdempotenciaReutilizadaException extends ProcesoException {
+
+    private static final long serialVersionUID = -6203458186617325120L;
+
+    /**
+     * Crea la excepción con un mensaje descriptivo.
+     *
+     * @param message el mensaje de error
+     */
+    public ClaveIdempotenciaReutilizadaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+package es.timebee.horas;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene de forma incremental las tablas resumen de horas trabajadas
+ * ({@code HORAS_TRABAJADOR_DIA} y {@code HORAS_EMPRESA_DIA}).
+ * <p>
+ * Cada fichaje cerrado que se crea, se cierra, se edita o se elimina se convierte en una
+ * diferencia de minutos para su trabajador y su empresa en el día en que empezó. Las diferencias
+ * de una misma transacción se suman en memoria y se vuelcan justo antes del commit, dentro de
+ * la propia transacción, con un {@code INSERT ... ON DUPLICATE KEY UPDATE} por lotes: o se
+ * guardan el fichaje y su resumen, o ninguno de los dos.
+ */
+@Component
+public class AcumuladorHoras {
+
+    private static final String SUMAR_TRABAJADOR = """
+            INSERT INTO horas_trabajador_dia (trabajador_id, fecha, empresa_id, minutos) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE minutos = minutos + VALUES(minutos)""";
+
+    private static final String SUMAR_EMPRESA = """
+            INSERT INTO horas_empresa_dia (empresa_id, fecha, minutos) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE minutos = minutos + VALUES(minutos)""";
+
+    /**
+     * Día de un trabajador en una empresa.
+     *
+     * @param trabajadorId el id del trabajador
+     * @param fecha        el día
+     * @param empresaId    el id de la empresa
+     */
+    private record ClaveTrabajador(Long trabajadorId, LocalDate fecha, Long empresaId) {
+    }
+
+    /**
+     * Día de una empresa.
+     *
+     * @param empresaId el id de la empresa
+     * @param fecha     el día
+     */
+    private record ClaveEmpresa(Long empresaId, LocalDate fecha) {
+    }
+
+    /**
+     * Diferencias de minutos pendientes de volcar en una transacción.
+     */
+    private static final class Diferencias {
+        private final Map<ClaveTrabajador, Long> porTrabajador = new HashMap<>();
+        private final Map<ClaveEmpresa, Long> porEmpresa = new HashMap<>();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor que inyecta el {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate plantilla JDBC de Spring
+     */
+    public AcumuladorHoras(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Suma los minutos de un fichaje cerrado. Los fichajes abiertos se ignoran.
+     *
+     * @param fichaje el fichaje
+     */
+    public void sumar(FichajeResumenDto fichaje) {
+        acumular(fichaje, 1);
+    }
+
+    /**
+     * Resta los minutos de un fichaje cerrado. Los fichajes abiertos se ignoran.
+     *
+     * @param fichaje el fichaje
+     */
+    public void restar(FichajeResumenDto fichaje) {
+        acumular(fichaje, -1);
+    }
+
+    private void acumular(FichajeResumenDto fichaje, int signo) {
+        if (fichaje == null || fichaje.getFechaInicio() == null || fichaje.getFechaFin() == null) {
+            return;
+        }
+        long minutos = signo * Duration.between(fichaje.getFechaInicio(), fichaje.getFechaFin()).toMinutes();
+        if (minutos == 0) {
+            return;
+        }
+        LocalDate fecha = fichaje.getFechaInicio().toLocalDate();
+        Diferencias diferencias = diferenciasDeLaTransaccion();
+        diferencias.porTrabajador.merge(new ClaveTrabajador(fichaje.getTrabajadorId(), fecha, fichaje.getEmpresaId()),
+                minutos, Long::sum);
+        diferencias.porEmpresa.merge(new ClaveEmpresa(fichaje.getEmpresaId(), fecha), minutos, Long::sum);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            volcar(diferencias);
+        }
+    }
+
+    /**
+     * Devuelve las diferencias de la transacción en curso, creándolas (y programando su volcado
+     * antes del commit) la primera vez. Fuera de una transacción, devuelve unas nuevas.
+     */
+    private Diferencias diferenciasDeLaTransaccion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Diferencias();
+        }
+        Diferencias diferencias = (Diferencias) TransactionSynchronizationManager.getResource(this);
+        if (diferencias == null) {
+            Diferencias nuevas = new Diferencias();
+            TransactionSynchronizationManager.bindResource(this, nuevas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    volcar(nuevas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AcumuladorHoras.this);
+                }
+            });
+            diferencias = nuevas;
+        }
+        return diferencias;
+    }
+
+    /**
+     * Vuelca las diferencias en las tablas resumen, en orden de fecha e id para que dos
+     * transacciones concurrentes bloqueen las filas siempre en el mismo orden.
+     */
+    private void volcar(Diferencias diferencias) {
+        List<Map.Entry<ClaveTrabajador, Long>> trabajadores = diferencias.porTrabajador.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .sorted(Comparator.comparing((Map.Entry<ClaveTrabajador, Long> e) -> e.getKey().fecha())
+                        .thenComparing(e -> e.getKey().trabajadorId())
+                        .thenComparing(e -> e.getKey().empresaId()))
+                .toList();
+        List<Map.Entry<ClaveEmpresa, Long>> empresas = diferencias.porEmpresa.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .sorted(Comparator.comparing((Map.Entry<ClaveEmpresa, Long> e) -> e.getKey().fecha())
+                        .thenComparing(e -> e.getKey().empresaId()))
+                .toList();
+
+        if (!trabajadores.isEmpty()) {
+            jdbcTemplate.batchUpdate(SUMAR_TRABAJADOR, trabajadores, trabajadores.size(), (ps, e) -> {
+                ps.setLong(1, e.getKey().trabajadorId());
+                ps.setDate(2, Date.valueOf(e.getKey().fecha()));
+                ps.setLong(3, e.getKey().empresaId());
+                ps.setLong(4, e.getValue());
+            });
+        }
+        if (!empresas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SUMAR_EMPRESA, empresas, empresas.size(), (ps, e) -> {
+                ps.setLong(1, e.getKey().empresaId());
+                ps.setDate(2, Date.valueOf(e.getKey().fecha()));
+                ps.setLong(3, e.getValue());
+            });
+        }
+        diferencias.porTrabajador.clear();
+        diferencias.porEmpresa.clear();
+    }
+}
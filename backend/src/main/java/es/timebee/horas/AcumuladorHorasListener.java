@@ -0,0 +1,57 @@
+package es.timebee.horas;
+
+import es.timebee.domain.evento.FichajeEvento;
+import es.timebee.services.HorasService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traslada los cambios de fichajes al {@link AcumuladorHoras}.
+ * <p>
+ * Escucha los eventos de forma síncrona, dentro de la transacción que los publica,
+ * para que el resumen de horas se guarde en esa misma transacción. Al arrancar,
+ * si las tablas resumen están vacías, las reconstruye a partir de los fichajes.
+ */
+@Component
+public class AcumuladorHorasListener {
+
+    private final AcumuladorHoras acumuladorHoras;
+    private final HorasService horasService;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param acumuladorHoras acumulador de horas trabajadas
+     * @param horasService    servicio de horas trabajadas
+     */
+    public AcumuladorHorasListener(AcumuladorHoras acumuladorHoras, HorasService horasService) {
+        this.acumuladorHoras = acumuladorHoras;
+        this.horasService = horasService;
+    }
+
+    /**
+     * Reconstruye el resumen de horas al arrancar si todavía está vacío.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirSiVacio() {
+        horasService.reconstruirSiVacio();
+    }
+
+    /**
+     * Aplica un cambio de fichaje al resumen de horas.
+     *
+     * @param evento el evento del fichaje
+     */
+    @EventListener
+    public void aplicar(FichajeEvento evento) {
+        switch (evento.tipo()) {
+            case ELIMINADO -> acumuladorHoras.restar(evento.fichaje());
+            case EDITADO -> {
+                acumuladorHoras.restar(evento.anterior());
+                acumuladorHoras.sumar(evento.fichaje());
+            }
+            default -> acumuladorHoras.sumar(evento.fichaje());
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package es.timebee.idempotencia;
+
+import es.timebee.domain.entity.RespuestaIdempotente;
+import es.timebee.exception.ClaveIdempotenciaReutilizadaException;
+import es.timebee.exception.ProcesoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guarda las respuestas de las peticiones idempotentes.
+ * <p>
+ * Primero en memoria: un mapa acotado a {@code capacidad} entradas, que caducan a las
+ * {@code duracion} y del que sale la más antigua cuando se llena. Así un reintento en la
+ * misma instancia se responde sin tocar la base de datos.
+ * <p>
+ * Con varias instancias, el reintento puede llegar a otra, así que (si está activado) cada
+ * clave se reserva también en la tabla {@link RespuestaIdempotente}: el {@code INSERT IGNORE}
+ * de la reserva solo lo gana una petición, y las demás encuentran ahí la respuesta o saben
+ * que la primera sigue en curso. Si la base de datos no responde, se sigue solo con la memoria.
+ * <p>
+ * Cada reserva guarda la huella de su petición: reutilizar la clave con otra petición se
+ * rechaza. Mientras una petición se ejecuta, esta instancia renueva su reserva cada
+ * {@code renovacion}, de modo que solo se da por abandonada (y otra instancia puede
+ * ejecutar el reintento) si la instancia deja de renovarla durante {@code abandono}, y no
+ * simplemente porque la petición tarde, como una importación grande de nóminas.
+ */
+@Component
+public class AlmacenIdempotencia {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlmacenIdempotencia.class);
+
+    private static final String EN_CURSO = "La petición con esta clave de idempotencia todavía se está procesando";
+    private static final String REUTILIZADA = "La clave de idempotencia ya se usó con una petición distinta";
+    private static final int BORRADO_POR_LOTE = 1_000;
+
+    private static final String RESERVAR = """
+            INSERT IGNORE INTO respuesta_idempotente (clave, huella_peticion, fecha_creacion, fecha_renovacion)
+            VALUES (?, ?, NOW(6), NOW(6))""";
+
+    private static final String CONSULTAR = """
+            SELECT codigo, content_type, cuerpo, huella_peticion,
+                   fecha_creacion < DATE_SUB(NOW(6), INTERVAL ? SECOND) AS caducada,
+                   fecha_renovacion < DATE_SUB(NOW(6), INTERVAL ? SECOND) AS abandonada
+            FROM respuesta_idempotente WHERE clave = ?""";
+
+    private static final String GUARDAR = """
+            UPDATE respuesta_idempotente SET codigo = ?, content_type = ?, cuerpo = ? WHERE clave = ?""";
+
+    private static final String RENOVAR = """
+            UPDATE respuesta_idempotente SET fecha_renovacion = NOW(6) WHERE clave = ? AND codigo IS NULL""";
+
+    private static final String LIBERAR = """
+            DELETE FROM respuesta_idempotente WHERE clave = ? AND codigo IS NULL""";
+
+    private static final String BORRAR = """
+            DELETE FROM respuesta_idempotente WHERE clave = ?""";
+
+    private static final String PURGAR = """
+            DELETE FROM respuesta_idempotente WHERE fecha_creacion < DATE_SUB(NOW(6), INTERVAL ? SECOND) LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean baseDeDatos;
+    private final Duration duracion;
+    private final Duration abandono;
+    private final Map<String, Entrada> memoria;
+    /** Claves reservadas por esta instancia cuya petición todavía se está ejecutando. */
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración.
+     *
+     * @param jdbcTemplate plantilla JDBC de Spring
+     * @param baseDeDatos  si las claves se comparten entre instancias a través de la base de datos
+     * @param capacidad    número máximo de respuestas en memoria
+     * @param duracion     tiempo durante el que un reintento recibe la respuesta guardada
+     * @param abandono     tiempo tras el que una petición en curso se da por perdida (la instancia se cayó)
+     */
+    public AlmacenIdempotencia(JdbcTemplate jdbcTemplate,
+                               @Value("${timebee.idempotencia.base-de-datos:true}") boolean baseDeDatos,
+                               @Value("${timebee.idempotencia.capacidad:10000}") int capacidad,
+                               @Value("${timebee.idempotencia.duracion:PT24H}") Duration duracion,
+                               @Value("${timebee.idempotencia.abandono:PT2M}") Duration abandono) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.baseDeDatos = baseDeDatos;
+        this.duracion = duracion;
+        this.abandono = abandono;
+        this.memoria = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * Calcula la clave interna de una petición: un resumen del usuario, el endpoint y la
+     * clave del cliente, para que dos usuarios (o dos endpoints) nunca compartan respuesta.
+     *
+     * @param usuario  el usuario autenticado
+     * @param endpoint el método y la ruta de la petición
+     * @param clave    la cabecera {@code Idempotency-Key}
+     * @return la clave interna
+     */
+    public static String clave(String usuario, String endpoint, String clave) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] resumen = sha.digest((usuario + '\n' + endpoint + '\n' + clave).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(resumen);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reserva una clave para la petición que llega, o devuelve la respuesta ya guardada.
+     *
+     * @param clave  la clave interna
+     * @param huella la huella del cuerpo y los parámetros de la petición
+     * @return la respuesta guardada, o vacío si la clave queda reservada para esta petición
+     * @throws ClaveIdempotenciaReutilizadaException si la clave se usó con otra petición
+     * @throws ProcesoException si otra petición con la misma clave sigue en curso
+     */
+    public Optional<RespuestaGuardada> reservar(String clave, String huella) {
+        long ahora = System.nanoTime();
+        synchronized (memoria) {
+            Entrada entrada = memoria.get(clave);
+            if (entrada != null && entrada.caducada(ahora)) {
+                memoria.remove(clave);
+                entrada = null;
+            }
+            if (entrada != null) {
+                comprobarHuella(entrada.huella(), huella);
+                if (entrada.respuesta() == null) {
+                    throw new ProcesoException(EN_CURSO);
+                }
+                return Optional.of(entrada.respuesta());
+            }
+            memoria.put(clave, new Entrada(null, huella, ahora + abandono.toNanos()));
+        }
+        enCurso.add(clave);
+        if (!baseDeDatos) {
+            return Optional.empty();
+        }
+        try {
+            Optional<RespuestaGuardada> guardada = reservarEnBaseDeDatos(clave, huella);
+            guardada.ifPresent(respuesta -> recordar(clave, huella, respuesta));
+            return guardada;
+        } catch (ProcesoException e) {
+            olvidar(clave);
+            throw e;
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo reservar la clave de idempotencia en la base de datos; se sigue solo en memoria", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Guarda la respuesta de una petición para los reintentos.
+     *
+     * @param clave     la clave interna
+     * @param huella    la huella de la petición
+     * @param respuesta la respuesta enviada
+     */
+    public void guardar(String clave, String huella, RespuestaGuardada respuesta) {
+        recordar(clave, huella, respuesta);
+        if (!baseDeDatos) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(GUARDAR, respuesta.codigo(), respuesta.contentType(), respuesta.cuerpo(), clave);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo guardar la respuesta idempotente en la base de datos", e);
+        }
+    }
+
+    /**
+     * Libera una clave reservada cuya petición no terminó bien, para que el reintento se ejecute.
+     *
+     * @param clave la clave interna
+     */
+    public void liberar(String clave) {
+        olvidar(clave);
+        if (!baseDeDatos) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(LIBERAR, clave);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo liberar la clave de idempotencia en la base de datos", e);
+        }
+    }
+
+    /**
+     * Renueva las reservas de las peticiones que esta instancia sigue ejecutando, para que
+     * ninguna otra las dé por abandonadas.
+     */
+    @Scheduled(fixedDelayString = "${timebee.idempotencia.renovacion:PT30S}", initialDelayString = "${timebee.idempotencia.renovacion:PT30S}")
+    public void renovar() {
+        List<String> claves = List.copyOf(enCurso);
+        if (claves.isEmpty()) {
+            return;
+        }
+        long caduca = System.nanoTime() + abandono.toNanos();
+        synchronized (memoria) {
+            for (String clave : claves) {
+                memoria.computeIfPresent(clave, (c, entrada) ->
+                        entrada.respuesta() == null ? new Entrada(null, entrada.huella(), caduca) : entrada);
+            }
+        }
+        if (!baseDeDatos) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(RENOVAR, claves.stream().map(clave -> new Object[]{clave}).toList());
+        } catch (DataAccessException e) {
+            logger.warn("No se pudieron renovar las claves de idempotencia en curso", e);
+        }
+    }
+
+    /**
+     * Elimina las respuestas caducadas, en memoria y en la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${timebee.idempotencia.purga:PT1H}", initialDelayString = "${timebee.idempotencia.purga:PT1H}")
+    public void purgar() {
+        long ahora = System.nanoTime();
+        synchronized (memoria) {
+            Iterator<Entrada> entradas = memoria.values().iterator();
+            while (entradas.hasNext()) {
+                if (entradas.next().caducada(ahora)) {
+                    entradas.remove();
+                }
+            }
+        }
+        if (!baseDeDatos) {
+            return;
+        }
+        try {
+            int borradas;
+            do {
+                borradas = jdbcTemplate.update(PURGAR, duracion.toSeconds(), BORRADO_POR_LOTE);
+            } while (borradas == BORRADO_POR_LOTE);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudieron purgar las respuestas idempotentes caducadas", e);
+        }
+    }
+
+    /**
+     * Reserva la clave en la tabla. Si ya existe, devuelve su respuesta; si la fila está caducada
+     * o su petición se abandonó, la borra y vuelve a intentarlo una vez.
+     */
+    private Optional<RespuestaGuardada> reservarEnBaseDeDatos(String clave, String huella) {
+        for (int intento = 0; intento < 2; intento++) {
+            if (jdbcTemplate.update(RESERVAR, clave, huella) == 1) {
+                return Optional.empty();
+            }
+            List<FilaIdempotente> filas = jdbcTemplate.query(CONSULTAR, (rs, i) -> new FilaIdempotente(
+                            (Integer) rs.getObject(1), rs.getString(2), rs.getBytes(3), rs.getString(4),
+                            rs.getBoolean(5), rs.getBoolean(6)),
+                    duracion.toSeconds(), abandono.toSeconds(), clave);
+            if (filas.isEmpty()) {
+                continue;
+            }
+            FilaIdempotente fila = filas.get(0);
+            boolean vigente = fila.codigo() != null ? !fila.caducada() : !fila.abandonada();
+            if (vigente) {
+                comprobarHuella(fila.huella(), huella);
+            }
+            if (fila.codigo() != null && !fila.caducada()) {
+                return Optional.of(new RespuestaGuardada(fila.codigo(), fila.contentType(), fila.cuerpo()));
+            }
+            if (fila.codigo() == null && !fila.abandonada()) {
+                throw new ProcesoException(EN_CURSO);
+            }
+            jdbcTemplate.update(BORRAR, clave);
+        }
+        throw new ProcesoException(EN_CURSO);
+    }
+
+    /**
+     * Rechaza la petición si la clave ya se reservó con otra huella. Las filas guardadas antes
+     * de que existiera la huella no se comprueban.
+     */
+    private static void comprobarHuella(String guardada, String huella) {
+        if (guardada != null && !Objects.equals(guardada, huella)) {
+            throw new ClaveIdempotenciaReutilizadaException(REUTILIZADA);
+        }
+    }
+
+    private void recordar(String clave, String huella, RespuestaGuardada respuesta) {
+        enCurso.remove(clave);
+        synchronized (memoria) {
+            memoria.put(clave, new Entrada(respuesta, huella, System.nanoTime() + duracion.toNanos()));
+        }
+    }
+
+    private void olvidar(String clave) {
+        enCurso.remove(clave);
+        synchronized (memoria) {
+            Entrada entrada = memoria.get(clave);
+            if (entrada != null && entrada.respuesta() == null) {
+                memoria.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Entrada del mapa en memoria: la respuesta (nula si la petición está en curso), la huella
+     * de la petición y cuándo caduca.
+     */
+    private record Entrada(RespuestaGuardada respuesta, String huella, long caduca) {
+
+        boolean caducada(long ahora) {
+            return ahora - caduca > 0;
+        }
+    }
+
+    /**
+     * Fila de la tabla de respuestas, con su caducidad calculada por la base de datos.
+     */
+    private record FilaIdempotente(Integer codigo, String contentType, byte[] cuerpo, String huella,
+                                   boolean caducada, boolean abandonada) {
+    }
+}
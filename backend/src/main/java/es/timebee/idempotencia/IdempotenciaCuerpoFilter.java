@@ -0,0 +1,117 @@
+package es.timebee.idempotencia;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Filtro que lee entero el cuerpo de las peticiones con cabecera {@code Idempotency-Key}
+ * para que {@link IdempotenciaInterceptor} pueda calcular su huella antes de que el
+ * endpoint lo consuma.
+ * <p>
+ * Los formularios ({@code multipart/form-data} y {@code application/x-www-form-urlencoded})
+ * no se tocan: el contenedor ya los deja leídos en parámetros y partes, y la huella se
+ * calcula a partir de ellos.
+ */
+@Component
+public class IdempotenciaCuerpoFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String cabecera = request.getHeader(IdempotenciaInterceptor.CABECERA);
+        if (cabecera == null || cabecera.isBlank()) {
+            return true;
+        }
+        String tipo = request.getContentType();
+        if (tipo == null) {
+            return false;
+        }
+        tipo = tipo.toLowerCase(Locale.ROOT);
+        return tipo.startsWith("multipart/") || tipo.startsWith("application/x-www-form-urlencoded");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(new PeticionConCuerpo(request, request.getInputStream().readAllBytes()), response);
+    }
+
+    /**
+     * Petición cuyo cuerpo ya se ha leído y se puede volver a leer tantas veces como haga falta.
+     */
+    static final class PeticionConCuerpo extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        PeticionConCuerpo(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        byte[] cuerpo() {
+            return cuerpo;
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String codificacion = getCharacterEncoding();
+            Charset charset = codificacion == null ? StandardCharsets.UTF_8 : Charset.forName(codificacion);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package es.timebee.idempotencia;
+
+import es.timebee.domain.constantes.Numeros;
+import es.timebee.exception.ProcesoException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Interceptor que aplica la cabecera {@code Idempotency-Key} en los endpoints marcados
+ * con {@link Idempotente}.
+ * <p>
+ * Antes de ejecutar el endpoint reserva la clave: si ya hay una respuesta guardada, la
+ * escribe directamente y el endpoint no llega a ejecutarse. Junto a la clave se guarda la
+ * huella de la petición (su cuerpo, o sus parámetros y archivos si es un formulario), y un
+ * reintento con la misma clave pero otra huella se rechaza en lugar de recibir una
+ * respuesta que no es la suya. La respuesta nueva la guarda
+ * {@link IdempotenciaRespuestaAdvice}; si la petición falla, al terminar se libera la clave
+ * para que el reintento se ejecute de verdad.
+ */
+@Component
+public class IdempotenciaInterceptor implements HandlerInterceptor {
+
+    /** Cabecera con la clave elegida por el cliente. */
+    public static final String CABECERA = "Idempotency-Key";
+
+    /** Cabecera que se añade a las respuestas repetidas. */
+    public static final String CABECERA_REPETIDA = "Idempotency-Replayed";
+
+    /** Atributo de la petición con la clave interna reservada, mientras la respuesta no se ha guardado. */
+    static final String ATRIBUTO_CLAVE = IdempotenciaInterceptor.class.getName() + ".clave";
+
+    /** Atributo de la petición con la huella de su cuerpo y sus parámetros. */
+    static final String ATRIBUTO_HUELLA = IdempotenciaInterceptor.class.getName() + ".huella";
+
+    private final AlmacenIdempotencia almacen;
+
+    /**
+     * Constructor que inyecta el almacén de respuestas.
+     *
+     * @param almacen almacén de respuestas idempotentes
+     */
+    public IdempotenciaInterceptor(AlmacenIdempotencia almacen) {
+        this.almacen = almacen;
+    }
+
+    /**
+     * Reserva la clave de la petición o responde con la respuesta ya guardada.
+     *
+     * @return false si la petición ya se ha respondido con la respuesta guardada
+     * @throws ProcesoException si la clave no es válida, su petición original sigue en curso
+     *                          o se reutiliza con una petición distinta
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod metodo) || !metodo.hasMethodAnnotation(Idempotente.class)) {
+            return true;
+        }
+        String cabecera = request.getHeader(CABECERA);
+        if (cabecera == null || cabecera.isBlank()) {
+            return true;
+        }
+        if (cabecera.length() > Numeros.DOSCIENTOSCINCUENTAYCINCO) {
+            throw new ProcesoException("La clave de idempotencia no puede superar los 255 caracteres");
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String usuario = auth == null ? "" : auth.getName();
+        String clave = AlmacenIdempotencia.clave(usuario, request.getMethod() + " " + request.getRequestURI(), cabecera);
+
+        String huella = huellaPeticion(request);
+
+        Optional<RespuestaGuardada> guardada = almacen.reservar(clave, huella);
+        if (guardada.isPresent()) {
+            RespuestaGuardada respuesta = guardada.get();
+            response.setStatus(respuesta.codigo());
+            response.setContentType(respuesta.contentType());
+            response.setHeader(CABECERA_REPETIDA, "true");
+            response.setContentLength(respuesta.cuerpo().length);
+            response.getOutputStream().write(respuesta.cuerpo());
+            return false;
+        }
+        request.setAttribute(ATRIBUTO_CLAVE, clave);
+        request.setAttribute(ATRIBUTO_HUELLA, huella);
+        return true;
+    }
+
+    /**
+     * Libera la clave si la respuesta no se llegó a guardar (la petición falló).
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object clave = request.getAttribute(ATRIBUTO_CLAVE);
+        if (clave != null) {
+            request.removeAttribute(ATRIBUTO_CLAVE);
+            almacen.liberar((String) clave);
+        }
+    }
+
+    /**
+     * Calcula la huella SHA-256 de lo que envía la petición. Si
+     * {@link IdempotenciaCuerpoFilter} ha leído su cuerpo, la query y el cuerpo tal cual;
+     * si es un formulario, sus parámetros y el contenido de sus archivos, porque el cuerpo
+     * crudo de un multipart cambia de frontera en cada envío.
+     */
+    private static String huellaPeticion(HttpServletRequest request) throws IOException {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        IdempotenciaCuerpoFilter.PeticionConCuerpo conCuerpo =
+                WebUtils.getNativeRequest(request, IdempotenciaCuerpoFilter.PeticionConCuerpo.class);
+        if (conCuerpo != null) {
+            anadir(sha, Objects.toString(request.getQueryString(), ""));
+            sha.update(conCuerpo.cuerpo());
+            return HexFormat.of().formatHex(sha.digest());
+        }
+        for (Map.Entry<String, String[]> parametro : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            anadir(sha, parametro.getKey());
+            for (String valor : parametro.getValue()) {
+                anadir(sha, valor);
+            }
+        }
+        MultipartHttpServletRequest multipart = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        if (multipart != null) {
+            for (Map.Entry<String, List<MultipartFile>> parte : new TreeMap<>(multipart.getMultiFileMap()).entrySet()) {
+                anadir(sha, parte.getKey());
+                for (MultipartFile archivo : parte.getValue()) {
+                    anadir(sha, Objects.toString(archivo.getOriginalFilename(), ""));
+                    anadir(sha, Long.toString(archivo.getSize()));
+                    try (InputStream contenido = archivo.getInputStream();
+                         OutputStream resumen = new DigestOutputStream(OutputStream.nullOutputStream(), sha)) {
+                        contenido.transferTo(resumen);
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private static void anadir(MessageDigest sha, String texto) {
+        sha.update(texto.getBytes(StandardCharsets.UTF_8));
+        sha.update((byte) 0);
+    }
+}
@@ -0,0 +1,72 @@
+package es.timebee.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Guarda la respuesta de los endpoints {@link Idempotente} que han terminado bien (código 2xx)
+ * para devolverla en los reintentos. Las respuestas de error no se guardan: el reintento
+ * vuelve a ejecutar la petición.
+ * <p>
+ * Solo actúa sobre peticiones cuya clave ha reservado {@link IdempotenciaInterceptor}.
+ */
+@RestControllerAdvice
+public class IdempotenciaRespuestaAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaRespuestaAdvice.class);
+
+    private final AlmacenIdempotencia almacen;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param almacen      almacén de respuestas idempotentes
+     * @param objectMapper el mismo serializador JSON que usan las respuestas
+     */
+    public IdempotenciaRespuestaAdvice(AlmacenIdempotencia almacen, ObjectMapper objectMapper) {
+        this.almacen = almacen;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        Object clave = servletRequest.getServletRequest().getAttribute(IdempotenciaInterceptor.ATRIBUTO_CLAVE);
+        int codigo = servletResponse.getServletResponse().getStatus();
+        if (clave == null || !HttpStatusCode.valueOf(codigo).is2xxSuccessful()) {
+            return body;
+        }
+        try {
+            String huella = (String) servletRequest.getServletRequest().getAttribute(IdempotenciaInterceptor.ATRIBUTO_HUELLA);
+            almacen.guardar((String) clave, huella, new RespuestaGuardada(codigo,
+                    MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(body)));
+            servletRequest.getServletRequest().removeAttribute(IdempotenciaInterceptor.ATRIBUTO_CLAVE);
+        } catch (JsonProcessingException e) {
+            logger.warn("No se pudo guardar la respuesta idempotente", e);
+        }
+        return body;
+    }
+}
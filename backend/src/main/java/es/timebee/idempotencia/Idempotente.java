@@ -0,0 +1,25 @@
+package es.timebee.idempotencia;
+
+import java.lang.annotation.*;
+
+/**
+ * {@code Idempotente} marca un endpoint que modifica datos como seguro de reintentar.
+ * <p>
+ * Si la petición trae la cabecera {@code Idempotency-Key}, la primera respuesta correcta
+ * se guarda y cualquier reintento con la misma clave (del mismo usuario y al mismo endpoint)
+ * la recibe tal cual, sin volver a ejecutar el método. Sin la cabecera, el endpoint se
+ * comporta como siempre.
+ * <p>
+ * Ejemplo de uso:
+ * <pre>
+ * {@literal @}Idempotente
+ * {@literal @}PostMapping("/crear")
+ * public ResponseEntity&lt;ApiRespuesta&lt;Boolean&gt;&gt; crear(...) {
+ *     // lógica aquí
+ * }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotente {}
@@ -0,0 +1,11 @@
+package es.timebee.idempotencia;
+
+/**
+ * Respuesta de una petición idempotente, tal como se devolverá en los reintentos.
+ *
+ * @param codigo      el código de estado HTTP
+ * @param contentType el tipo de contenido
+ * @param cuerpo      el cuerpo de la respuesta
+ */
+public record RespuestaGuardada(int codigo, String contentType, byte[] cuerpo) {
+}
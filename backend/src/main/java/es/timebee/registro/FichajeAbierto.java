@@ -0,0 +1,52 @@
+package es.timebee.registro;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del {@link RegistroFichajesAbiertos}: un fichaje que todavía no tiene fecha de fin.
+ * <p>
+ * Una entrada sin {@code fichajeId} es una reserva: una entrada en curso cuya transacción
+ * todavía no se ha confirmado.
+ *
+ * @param fichajeId    el id del fichaje abierto
+ * @param trabajadorId el id del trabajador que lo abrió
+ * @param empresaId    el id de la empresa del trabajador
+ * @param nombre       el nombre del trabajador
+ * @param apellidos    los apellidos del trabajador
+ * @param fechaInicio  la fecha y hora de entrada
+ */
+public record FichajeAbierto(Long fichajeId, Long trabajadorId, Long empresaId,
+                             String nombre, String apellidos, LocalDateTime fechaInicio) {
+
+    /**
+     * Construye la reserva de un trabajador que está iniciando su fichaje.
+     *
+     * @param trabajadorId el id del trabajador
+     * @return la reserva
+     */
+    public static FichajeAbierto reserva(Long trabajadorId) {
+        return new FichajeAbierto(null, trabajadorId, null, null, null, null);
+    }
+
+    /**
+     * Indica si la entrada es una reserva (fichaje aún sin confirmar).
+     *
+     * @return true si es una reserva
+     */
+    public boolean esReserva() {
+        return fichajeId == null;
+    }
+
+    /**
+     * Construye la entrada a partir del resumen de un fichaje.
+     *
+     * @param fichaje el fichaje (abierto)
+     * @return la entrada del registro
+     */
+    public static FichajeAbierto de(FichajeResumenDto fichaje) {
+        return new FichajeAbierto(fichaje.getId(), fichaje.getTrabajadorId(), fichaje.getEmpresaId(),
+                fichaje.getNombre(), fichaje.getApellidos(), fichaje.getFechaInicio());
+    }
+}
@@ -0,0 +1,219 @@
+package es.timebee.registro;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registro en memoria de los fichajes abiertos (sin fecha de fin), indexado por trabajador y por empresa.
+ * <p>
+ * Responde a "¿este trabajador tiene un fichaje abierto?", "¿cuál es?" y "¿quién está dentro
+ * ahora en esta empresa?" sin tocar la base de datos.
+ * Se carga al arrancar ({@link RegistroFichajesAbiertosListener}) y se mantiene al día con los
+ * {@link es.timebee.domain.evento.FichajeEvento} de las transacciones confirmadas, así que un
+ * rollback nunca deja rastro aquí.
+ * <p>
+ * Internamente es un {@link ConcurrentHashMap}, que reparte los bloqueos por segmentos:
+ * trabajadores distintos nunca compiten entre sí. Dos entradas simultáneas del mismo trabajador
+ * se resuelven con {@link #reservar(Long)}, una operación atómica: solo una gana.
+ * El índice por empresa se actualiza dentro de la misma operación atómica sobre el trabajador,
+ * así que nunca se separa del índice principal. Las reservas no aparecen en él: todavía no
+ * son fichajes.
+ * Es un registro por instancia de la aplicación: lo que cambian las demás llega con
+ * {@link SondeoFichajes}, unos segundos más tarde. Si encuentra una entrada que ya no es
+ * cierta, quien la usa debe comprobarla y corregirla.
+ */
+@Component
+public class RegistroFichajesAbiertos {
+
+    private final Map<Long, FichajeAbierto> porTrabajador = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, FichajeAbierto>> porEmpresa = new ConcurrentHashMap<>();
+
+    /**
+     * Busca el fichaje abierto de un trabajador.
+     *
+     * @param trabajadorId el id del trabajador
+     * @return el fichaje abierto, si lo hay
+     */
+    public Optional<FichajeAbierto> buscar(Long trabajadorId) {
+        return Optional.ofNullable(porTrabajador.get(trabajadorId));
+    }
+
+    /**
+     * Registra (o reemplaza) el fichaje abierto de un trabajador.
+     *
+     * @param fichaje el fichaje abierto
+     */
+    public void registrar(FichajeAbierto fichaje) {
+        porTrabajador.compute(fichaje.trabajadorId(), (id, actual) -> {
+            desindexar(actual);
+            indexar(fichaje);
+            return fichaje;
+        });
+    }
+
+    /**
+     * Reserva atómicamente la entrada de un trabajador que no tiene fichaje abierto.
+     * <p>
+     * La reserva ocupa su sitio hasta que la transacción termina: si se confirma, el evento
+     * del fichaje la sustituye por la entrada real; si no, hay que liberarla con
+     * {@link #liberarReserva(Long)}.
+     *
+     * @param trabajadorId el id del trabajador
+     * @return true si se ha reservado; false si ya tenía un fichaje abierto o una reserva
+     */
+    public boolean reservar(Long trabajadorId) {
+        return porTrabajador.putIfAbsent(trabajadorId, FichajeAbierto.reserva(trabajadorId)) == null;
+    }
+
+    /**
+     * Libera la reserva de un trabajador, si todavía es una reserva.
+     *
+     * @param trabajadorId el id del trabajador
+     */
+    public void liberarReserva(Long trabajadorId) {
+        porTrabajador.computeIfPresent(trabajadorId, (id, actual) -> actual.esReserva() ? null : actual);
+    }
+
+    /**
+     * Retira atómicamente la entrada de un trabajador, sea un fichaje o una reserva.
+     * <p>
+     * De dos salidas simultáneas del mismo trabajador, solo una recibe la entrada.
+     *
+     * @param trabajadorId el id del trabajador
+     * @return la entrada retirada, o vacío si no había ninguna
+     */
+    public Optional<FichajeAbierto> retirar(Long trabajadorId) {
+        AtomicReference<FichajeAbierto> retirada = new AtomicReference<>();
+        porTrabajador.computeIfPresent(trabajadorId, (id, actual) -> {
+            desindexar(actual);
+            retirada.set(actual);
+            return null;
+        });
+        return Optional.ofNullable(retirada.get());
+    }
+
+    /**
+     * Quita el fichaje abierto de un trabajador, solo si es el indicado.
+     * <p>
+     * Así, un cierre que llega tarde no borra un fichaje abierto después.
+     *
+     * @param trabajadorId el id del trabajador
+     * @param fichajeId    el id del fichaje que se ha cerrado o eliminado
+     */
+    public void quitar(Long trabajadorId, Long fichajeId) {
+        porTrabajador.computeIfPresent(trabajadorId, (id, actual) -> {
+            if (!Objects.equals(actual.fichajeId(), fichajeId)) {
+                return actual;
+            }
+            desindexar(actual);
+            return null;
+        });
+    }
+
+    /**
+     * Quita un fichaje de la empresa sea cual sea su trabajador, salvo que sea el del
+     * trabajador indicado. Sirve para cuando otra instancia ha cambiado de trabajador un
+     * fichaje abierto; recorre solo los fichajes abiertos de la empresa.
+     *
+     * @param empresaId    el id de la empresa
+     * @param fichajeId    el id del fichaje
+     * @param trabajadorId el trabajador al que pertenece ahora (su entrada se conserva)
+     */
+    public void quitarDeOtroTrabajador(Long empresaId, Long fichajeId, Long trabajadorId) {
+        Map<Long, FichajeAbierto> deLaEmpresa = porEmpresa.get(empresaId);
+        if (deLaEmpresa == null) {
+            return;
+        }
+        deLaEmpresa.values().stream()
+                .filter(abierto -> Objects.equals(abierto.fichajeId(), fichajeId)
+                        && !Objects.equals(abierto.trabajadorId(), trabajadorId))
+                .map(FichajeAbierto::trabajadorId)
+                .toList()
+                .forEach(otro -> quitar(otro, fichajeId));
+    }
+
+    /**
+     * Sustituye todo el contenido del registro por los fichajes indicados.
+     *
+     * @param abiertos los fichajes abiertos según la base de datos
+     */
+    public void cargar(Collection<FichajeAbierto> abiertos) {
+        porTrabajador.clear();
+        porEmpresa.clear();
+        abiertos.forEach(this::registrar);
+    }
+
+    /**
+     * Fichajes abiertos de una empresa (quién está dentro ahora), del más antiguo al más reciente.
+     * <p>
+     * Solo recorre los fichajes abiertos de esa empresa, nunca el resto.
+     *
+     * @param empresaId el id de la empresa
+     * @return los fichajes abiertos
+     */
+    public List<FichajeAbierto> abiertosDeEmpresa(Long empresaId) {
+        Map<Long, FichajeAbierto> deLaEmpresa = porEmpresa.get(empresaId);
+        if (deLaEmpresa == null) {
+            return List.of();
+        }
+        List<FichajeAbierto> abiertos = new ArrayList<>(deLaEmpresa.values());
+        abiertos.sort(Comparator.comparing(FichajeAbierto::fechaInicio).thenComparing(FichajeAbierto::fichajeId));
+        return abiertos;
+    }
+
+    /**
+     * Número de fichajes abiertos de una empresa.
+     *
+     * @param empresaId el id de la empresa
+     * @return el número de trabajadores dentro
+     */
+    public int contarDeEmpresa(Long empresaId) {
+        Map<Long, FichajeAbierto> deLaEmpresa = porEmpresa.get(empresaId);
+        return deLaEmpresa == null ? 0 : deLaEmpresa.size();
+    }
+
+    /**
+     * Número de fichajes abiertos registrados.
+     *
+     * @return el número de entradas
+     */
+    public int tamano() {
+        return porTrabajador.size();
+    }
+
+    /**
+     * Añade un fichaje al índice por empresa. Se llama dentro de la operación atómica del trabajador.
+     */
+    private void indexar(FichajeAbierto fichaje) {
+        if (fichaje.esReserva() || fichaje.empresaId() == null) {
+            return;
+        }
+        porEmpresa.compute(fichaje.empresaId(), (id, actuales) -> {
+            Map<Long, FichajeAbierto> deLaEmpresa = actuales == null ? new ConcurrentHashMap<>() : actuales;
+            deLaEmpresa.put(fichaje.trabajadorId(), fichaje);
+            return deLaEmpresa;
+        });
+    }
+
+    /**
+     * Quita un fichaje del índice por empresa. Se llama dentro de la operación atómica del trabajador.
+     */
+    private void desindexar(FichajeAbierto fichaje) {
+        if (fichaje == null || fichaje.esReserva() || fichaje.empresaId() == null) {
+            return;
+        }
+        porEmpresa.computeIfPresent(fichaje.empresaId(), (id, deLaEmpresa) -> {
+            deLaEmpresa.remove(fichaje.trabajadorId(), fichaje);
+            return deLaEmpresa.isEmpty() ? null : deLaEmpresa;
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package es.timebee.registro;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+import es.timebee.domain.evento.FichajeEvento;
+import es.timebee.domain.evento.FichajeSondeadoEvento;
+import es.timebee.domain.repository.FichajeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Mantiene el {@link RegistroFichajesAbiertos} sincronizado con la base de datos.
+ * <p>
+ * Al arrancar lo llena con los fichajes abiertos; después aplica cada {@link FichajeEvento}
+ * solo cuando su transacción se ha confirmado ({@link TransactionPhase#AFTER_COMMIT}), y los
+ * cambios de las demás instancias que lee {@link SondeoFichajes}.
+ */
+@Component
+public class RegistroFichajesAbiertosListener {
+
+    private final RegistroFichajesAbiertos registro;
+    private final FichajeRepository fichajeRepository;
+    private final SondeoFichajes sondeoFichajes;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param registro          registro de fichajes abiertos
+     * @param fichajeRepository repositorio de fichajes
+     * @param sondeoFichajes    sondeo de los cambios de otras instancias
+     */
+    public RegistroFichajesAbiertosListener(RegistroFichajesAbiertos registro, FichajeRepository fichajeRepository,
+                                            SondeoFichajes sondeoFichajes) {
+        this.registro = registro;
+        this.fichajeRepository = fichajeRepository;
+        this.sondeoFichajes = sondeoFichajes;
+    }
+
+    /**
+     * Carga en el registro todos los fichajes abiertos cuando la aplicación está lista,
+     * antes que cualquier otro componente que lo use al arrancar. El sondeo empieza justo
+     * antes de la carga, para no perder lo que se confirme mientras tanto.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        sondeoFichajes.iniciar();
+        registro.cargar(fichajeRepository.findAbiertos().stream().map(FichajeAbierto::de).toList());
+    }
+
+    /**
+     * Aplica al registro un cambio de fichaje ya confirmado.
+     *
+     * @param evento el evento del fichaje
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aplicar(FichajeEvento evento) {
+        FichajeResumenDto fichaje = evento.fichaje();
+        if (evento.anterior() != null) {
+            registro.quitar(evento.anterior().getTrabajadorId(), fichaje.getId());
+        }
+        switch (evento.tipo()) {
+            case ELIMINADO -> registro.quitar(fichaje.getTrabajadorId(), fichaje.getId());
+            default -> {
+                if (fichaje.getFechaFin() == null) {
+                    registro.registrar(FichajeAbierto.de(fichaje));
+                } else {
+                    registro.quitar(fichaje.getTrabajadorId(), fichaje.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica al registro el estado actual de un fichaje leído de la base de datos. Como no
+     * trae el estado anterior, si el fichaje sigue abierto se quita antes de cualquier otro
+     * trabajador que lo tuviera (una edición en otra instancia).
+     * <p>
+     * Si el estado leído se ha quedado viejo porque esta instancia lo ha cambiado justo
+     * después, ese cambio tiene una fecha de modificación posterior y el siguiente sondeo
+     * lo vuelve a dejar bien.
+     *
+     * @param evento el cambio leído
+     */
+    @EventListener
+    public void aplicar(FichajeSondeadoEvento evento) {
+        FichajeResumenDto fichaje = evento.cambio().fichaje();
+        if (evento.cambio().tipo() == TipoEventoFichaje.ELIMINADO || fichaje.getFechaFin() != null) {
+            registro.quitar(fichaje.getTrabajadorId(), fichaje.getId());
+            return;
+        }
+        registro.quitarDeOtroTrabajador(fichaje.getEmpresaId(), fichaje.getId(), fichaje.getTrabajadorId());
+        if (registro.buscar(fichaje.getTrabajadorId())
+                .filter(abierto -> fichaje.getId().equals(abierto.fichajeId())
+                        && fichaje.getFechaInicio().equals(abierto.fechaInicio()))
+                .isEmpty()) {
+            registro.registrar(FichajeAbierto.de(fichaje));
+        }
+    }
+}
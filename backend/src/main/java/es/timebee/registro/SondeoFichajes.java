@@ -0,0 +1,167 @@
+package es.timebee.registro;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.enumeration.EntidadSincronizada;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+import es.timebee.domain.evento.FichajeEvento;
+import es.timebee.domain.evento.FichajeSondeadoEvento;
+import es.timebee.utils.CursorUtils;
+import es.timebee.utils.HorizonteCambios;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lee periódicamente de la base de datos los fichajes modificados y eliminados, para que
+ * esta instancia se entere de los cambios que hacen las demás.
+ * <p>
+ * Los componentes en memoria ({@link RegistroFichajesAbiertos}, la difusión en directo) se
+ * mantienen con los {@link FichajeEvento} de su propia instancia, que no ven lo que se
+ * confirma en otra ni lo que escriben los procesos JDBC sin evento. Este sondeo recorre
+ * {@code fichaje} por {@code fecha_modificacion} y {@code eliminacion} por fecha, cada uno
+ * desde su posición y hasta el {@link HorizonteCambios}, y publica cada cambio como un
+ * {@link FichajeSondeadoEvento}. Lo que hace otra instancia llega, por tanto, con el retraso
+ * del intervalo más el margen del horizonte.
+ * <p>
+ * Con una sola instancia se puede desactivar ({@code timebee.fichajes.sondeo.activo=false}).
+ */
+@Component
+public class SondeoFichajes {
+
+    private static final Logger logger = LoggerFactory.getLogger(SondeoFichajes.class);
+
+    private static final String MODIFICADOS = """
+            SELECT f.id, f.trabajador_id, f.empresa_id, t.nombre, t.apellidos, f.fecha_inicio, f.fecha_fin, f.fecha_modificacion
+            FROM fichaje f JOIN trabajador t ON t.id = f.trabajador_id
+            WHERE (f.fecha_modificacion > ? OR (f.fecha_modificacion = ? AND f.id > ?))
+              AND f.fecha_modificacion < ?
+            ORDER BY f.fecha_modificacion, f.id
+            LIMIT ?""";
+
+    private static final String ELIMINADOS = """
+            SELECT e.id, e.entidad_id, e.empresa_id, e.trabajador_id, e.fecha
+            FROM eliminacion e
+            WHERE e.entidad = ?
+              AND (e.fecha > ? OR (e.fecha = ? AND e.id > ?))
+              AND e.fecha < ?
+            ORDER BY e.fecha, e.id
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HorizonteCambios horizonteCambios;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean activo;
+    private final int tamanoLote;
+
+    // Solo los usa el hilo del sondeo, salvo al iniciarlas.
+    private volatile CursorUtils.Posicion modificados;
+    private volatile CursorUtils.Posicion eliminados;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración.
+     *
+     * @param jdbcTemplate     plantilla JDBC de Spring
+     * @param horizonteCambios límite hasta el que los cambios ya están confirmados
+     * @param eventPublisher   publicador de los cambios leídos
+     * @param activo           si se sondea (con una sola instancia no hace falta)
+     * @param tamanoLote       filas que se leen en cada consulta
+     */
+    public SondeoFichajes(JdbcTemplate jdbcTemplate,
+                          HorizonteCambios horizonteCambios,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${timebee.fichajes.sondeo.activo:true}") boolean activo,
+                          @Value("${timebee.fichajes.sondeo.tamano-lote:500}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.horizonteCambios = horizonteCambios;
+        this.eventPublisher = eventPublisher;
+        this.activo = activo;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Fija el punto de partida en el horizonte actual. Se llama justo antes de cargar el
+     * registro desde la base de datos: lo anterior al horizonte ya está en la carga y lo
+     * posterior lo leerá el sondeo (alguna fila puede llegar dos veces, nunca ninguna).
+     */
+    public void iniciar() {
+        if (!activo) {
+            return;
+        }
+        CursorUtils.Posicion inicio = new CursorUtils.Posicion(horizonteCambios.calcular(horizonteCambios.ahora()), 0L);
+        modificados = inicio;
+        eliminados = inicio;
+    }
+
+    /**
+     * Lee y publica los cambios confirmados desde el sondeo anterior. Si la base de datos no
+     * responde, las posiciones no avanzan y se reintenta en el siguiente.
+     */
+    @Scheduled(fixedDelayString = "${timebee.fichajes.sondeo.intervalo:PT2S}", initialDelayString = "${timebee.fichajes.sondeo.intervalo:PT2S}")
+    public void sondear() {
+        if (!activo || modificados == null) {
+            return;
+        }
+        try {
+            LocalDateTime horizonte = horizonteCambios.calcular(horizonteCambios.ahora());
+            leerModificados(horizonte);
+            leerEliminados(horizonte);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudieron leer los cambios de fichajes de otras instancias", e);
+        }
+    }
+
+    private void leerModificados(LocalDateTime horizonte) {
+        List<FilaModificada> filas;
+        do {
+            CursorUtils.Posicion desde = modificados;
+            filas = jdbcTemplate.query(MODIFICADOS, (rs, i) -> new FilaModificada(FichajeResumenDto.builder()
+                            .id(rs.getLong("id"))
+                            .trabajadorId(rs.getLong("trabajador_id"))
+                            .empresaId(rs.getLong("empresa_id"))
+                            .nombre(rs.getString("nombre"))
+                            .apellidos(rs.getString("apellidos"))
+                            .fechaInicio(rs.getObject("fecha_inicio", LocalDateTime.class))
+                            .fechaFin(rs.getObject("fecha_fin", LocalDateTime.class))
+                            .build(), rs.getObject("fecha_modificacion", LocalDateTime.class)),
+                    desde.fecha(), desde.fecha(), desde.id(), horizonte, tamanoLote);
+            for (FilaModificada fila : filas) {
+                FichajeResumenDto fichaje = fila.fichaje();
+                TipoEventoFichaje tipo = fichaje.getFechaFin() == null ? TipoEventoFichaje.INICIADO : TipoEventoFichaje.FINALIZADO;
+                eventPublisher.publishEvent(new FichajeSondeadoEvento(new FichajeEvento(tipo, fichaje)));
+                modificados = new CursorUtils.Posicion(fila.fecha(), fichaje.getId());
+            }
+        } while (filas.size() == tamanoLote);
+    }
+
+    private void leerEliminados(LocalDateTime horizonte) {
+        List<FilaEliminada> filas;
+        do {
+            CursorUtils.Posicion desde = eliminados;
+            filas = jdbcTemplate.query(ELIMINADOS, (rs, i) -> new FilaEliminada(rs.getLong("id"),
+                            FichajeResumenDto.builder()
+                                    .id(rs.getLong("entidad_id"))
+                                    .trabajadorId(rs.getLong("trabajador_id"))
+                                    .empresaId(rs.getLong("empresa_id"))
+                                    .build(), rs.getObject("fecha", LocalDateTime.class)),
+                    EntidadSincronizada.FICHAJE.name(), desde.fecha(), desde.fecha(), desde.id(), horizonte, tamanoLote);
+            for (FilaEliminada fila : filas) {
+                eventPublisher.publishEvent(new FichajeSondeadoEvento(new FichajeEvento(TipoEventoFichaje.ELIMINADO, fila.fichaje())));
+                eliminados = new CursorUtils.Posicion(fila.fecha(), fila.id());
+            }
+        } while (filas.size() == tamanoLote);
+    }
+
+    private record FilaModificada(FichajeResumenDto fichaje, LocalDateTime fecha) {
+    }
+
+    private record FilaEliminada(Long id, FichajeResumenDto fichaje, LocalDateTime fecha) {
+    }
+}
@@ -1,6 +1,7 @@
 package es.timebee.resources;
 
 import es.timebee.domain.dto.ApiRespuesta;
+import es.timebee.exception.ClaveIdempotenciaReutilizadaException;
 import es.timebee.exception.ProcesoException;
 import es.timebee.utils.ResponseUtils;
 import org.slf4j.Logger;
@@ -49,6 +50,22 @@ public class CustomControllerAdvice {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja la reutilización de una clave de idempotencia con una petición distinta
+     * ({@link ClaveIdempotenciaReutilizadaException}).
+     *
+     * @param ex      la excepción lanzada
+     * @param request el contexto web donde ocurrió el error
+     * @return una respuesta con estado {@code 422 Unprocessable Entity} y el mensaje de error
+     */
+    @ExceptionHandler(ClaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<ApiRespuesta<String>> handleClaveIdempotenciaReutilizada(ClaveIdempotenciaReutilizadaException ex, WebRequest request) {
+        logger.warn("Clave de idempotencia reutilizada: {}", ex.getMessage());
+
+        ApiRespuesta<String> response = ResponseUtils.generarRespuestaError(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
     /**
      * Maneja excepciones de autorización {@link AuthorizationDeniedException}.
      *
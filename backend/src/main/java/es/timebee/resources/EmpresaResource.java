@@ -5,15 +5,23 @@ import es.timebee.domain.request.EmailRequest;
 import es.timebee.security.annotations.PermisoAdmin;
 import es.timebee.security.annotations.PermisoEmpresa;
 import es.timebee.security.annotations.PermisoEmpresaAdmin;
+import es.timebee.security.UsuarioAutenticado;
 import es.timebee.services.EmpresaService;
+import es.timebee.services.RegistroJornadaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static es.timebee.utils.ResponseUtils.generarRespuesta;
@@ -35,14 +43,17 @@ import static es.timebee.utils.ResponseUtils.generarRespuesta;
 public class EmpresaResource {
 
     private final EmpresaService empresaService;
+    private final RegistroJornadaService registroJornadaService;
 
     /**
-     * Constructor que inyecta el servicio de empresa.
+     * Constructor que inyecta los servicios de empresa.
      *
-     * @param empresaService servicio que contiene la lógica de negocio para empresas
+     * @param empresaService         servicio que contiene la lógica de negocio para empresas
+     * @param registroJornadaService servicio que exporta el registro de jornada
      */
-    public EmpresaResource(EmpresaService empresaService) {
+    public EmpresaResource(EmpresaService empresaService, RegistroJornadaService registroJornadaService) {
         this.empresaService = empresaService;
+        this.registroJornadaService = registroJornadaService;
     }
 
     /**
@@ -107,52 +118,107 @@ public class EmpresaResource {
     @PermisoEmpresaAdmin
     @Operation(summary = "Obtener los fichajes de una empresa por email", description = "Obtener los fichajes de una empresa por email")
     @PostMapping("/fichajes")
-    public ResponseEntity<ApiRespuesta<List<FichajesDto>>> fichajesPorEmpresa (Authentication auth) {
+    public ResponseEntity<ApiRespuesta<List<FichajeResumenDto>>> fichajesPorEmpresa (Authentication auth) {
         return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.getFichajesEmpresaPorEmail(auth.getName())));
     }
 
+    /**
+     * Configura tras cuántas horas se cierran automáticamente los fichajes olvidados de la empresa.
+     *
+     * @param peticion el nuevo límite de horas (nulo para el valor por defecto)
+     * @param auth     autenticación del usuario
+     * @return resultado de la operación
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Configurar el cierre automático de fichajes", description = "Horas tras las que un fichaje abierto se cierra automáticamente")
+    @PostMapping("/cierre-automatico")
+    public ResponseEntity<ApiRespuesta<Boolean>> actualizarCierreAutomatico (@Valid @RequestBody CierreAutomaticoRequestDto peticion, Authentication auth) {
+        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.actualizarCierreAutomatico(peticion, auth.getName())));
+    }
+
+    /**
+     * Descarga en CSV el registro de jornada de la empresa autenticada para un periodo de hasta cuatro años.
+     * <p>
+     * La respuesta se va escribiendo mientras se leen los fichajes, sin el envoltorio
+     * {@link ApiRespuesta}: así sirve igual para mil fichajes que para diez millones.
+     *
+     * @param peticion periodo a exportar
+     * @param usuario  usuario autenticado
+     * @return el CSV del registro de jornada
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Exportar el registro de jornada", description = "Descarga en CSV todas las entradas y salidas de la empresa en un periodo de hasta cuatro años")
+    @PostMapping(value = "/registro-jornada", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportarRegistroJornada (@Valid @RequestBody RegistroJornadaRequestDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        StreamingResponseBody csv = registroJornadaService.exportarCsv(peticion, usuario);
+        String nombreArchivo = "registro-jornada-" + peticion.getDesde() + "-" + peticion.getHasta() + ".csv";
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition
+                                .attachment()
+                                .filename(nombreArchivo)
+                                .build()
+                                .toString())
+                .body(csv);
+    }
+
+    /**
+     * Obtiene una página de los fichajes de la empresa autenticada, del más reciente al más antiguo.
+     *
+     * @param peticion cursor, tamaño de página y filtros opcionales
+     * @param usuario  usuario autenticado
+     * @return página de fichajes con el cursor para pedir la siguiente
+     */
+    @PermisoEmpresaAdmin
+    @Operation(summary = "Obtener los fichajes de una empresa paginados", description = "Obtener los fichajes de una empresa paginados por cursor, con filtros opcionales de fechas y trabajador")
+    @PostMapping("/fichajes/pagina")
+    public ResponseEntity<ApiRespuesta<PaginaDto<FichajeResumenDto>>> fichajesPaginadosPorEmpresa (@Valid @RequestBody FichajesPaginaRequestDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.getFichajesEmpresaPaginados(peticion, usuario)));
+    }
+
     /**
      * Da de alta (registra) a un nuevo trabajador en la empresa.
      *
      * @param peticion datos del trabajador
-     * @param auth     autenticación del usuario
+     * @param usuario  usuario autenticado
      * @return resultado de la operación
      */
     @PermisoEmpresaAdmin
     @Operation(summary = "Dar de alta a un trabajador", description = "Dar de alta a un trabajador")
     @PostMapping("/altatrabajador")
     @Transactional
-    public ResponseEntity<ApiRespuesta<Boolean>> altaTrabajador (@Valid @RequestBody TrabajadorDto peticion, Authentication auth) {
-        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.altaTrabajador(peticion, auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> altaTrabajador (@Valid @RequestBody TrabajadorDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.altaTrabajador(peticion, usuario)));
     }
 
     /**
      * Da de baja (elimina/desactiva) a un trabajador por su email.
      *
      * @param emailTrabajador objeto que contiene el email del trabajador
-     * @param auth            autenticación del usuario
+     * @param usuario         usuario autenticado
      * @return resultado de la operación
      */
     @PermisoEmpresaAdmin
     @Operation(summary = "Dar de baja a un trabajador", description = "Dar de baja a un trabajador")
     @PostMapping("/bajatrabajador")
     @Transactional
-    public ResponseEntity<ApiRespuesta<Boolean>> bajaTrabajador (@Valid @RequestBody EmailRequest emailTrabajador, Authentication auth) {
-        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.bajaTrabajador(emailTrabajador.getEmail(), auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> bajaTrabajador (@Valid @RequestBody EmailRequest emailTrabajador, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.bajaTrabajador(emailTrabajador.getEmail(), usuario)));
     }
 
     /**
      * Actualiza los datos de un trabajador de la empresa.
      *
      * @param peticion datos actualizados del trabajador
-     * @param auth     autenticación del usuario
+     * @param usuario  usuario autenticado
      * @return resultado de la operación
      */
     @PermisoEmpresaAdmin
     @Operation(summary = "actualizar datos de un trabajador", description = "actualizar datos de un trabajador")
     @PostMapping("/actualizartrabajador")
     @Transactional
-    public ResponseEntity<ApiRespuesta<Boolean>> actualizarTrabajador (@Valid @RequestBody TrabajadorDto peticion, Authentication auth) {
-        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.actualizarTrabajador(peticion, auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> actualizarTrabajador (@Valid @RequestBody TrabajadorDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return  ResponseEntity.ok().body(generarRespuesta(this.empresaService.actualizarTrabajador(peticion, usuario)));
     }
 }
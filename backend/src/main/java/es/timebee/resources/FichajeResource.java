@@ -1,16 +1,25 @@
 package es.timebee.resources;
 
 import es.timebee.domain.dto.*;
+import es.timebee.idempotencia.Idempotente;
 import es.timebee.security.annotations.PermisoEmpresa;
 import es.timebee.security.annotations.PermisoTrabajador;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.CambiosService;
 import es.timebee.services.FichajeService;
+import es.timebee.services.MarcajeService;
 import es.timebee.utils.ResponseUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 /**
  * {@code FichajeResource} es el controlador REST encargado de manejar todas las operaciones
@@ -29,83 +38,200 @@ import org.springframework.web.bind.annotation.*;
 public class FichajeResource {
 
     private final FichajeService fichajeService;
+    private final MarcajeService marcajeService;
+    private final CambiosService cambiosService;
 
     /**
-     * Constructor que inyecta el servicio de fichajes.
+     * Constructor que inyecta los servicios de fichajes.
      *
      * @param fichajeService servicio que maneja la lógica de negocio de los fichajes
+     * @param marcajeService servicio de entradas y salidas, tolerante a caídas de la base de datos
+     * @param cambiosService servicio de sincronización incremental
      */
-    public FichajeResource(FichajeService fichajeService) {
+    public FichajeResource(FichajeService fichajeService, MarcajeService marcajeService, CambiosService cambiosService) {
         this.fichajeService = fichajeService;
+        this.marcajeService = marcajeService;
+        this.cambiosService = cambiosService;
     }
 
     /**
      * Permite a la empresa crear un nuevo fichaje para un trabajador.
      *
      * @param fichajeRequestDto datos del fichaje a crear
-     * @param auth              autenticación del usuario
+     * @param usuario           usuario autenticado
      * @return resultado de la operación (éxito o fallo)
      */
     @PermisoEmpresa
     @Operation(summary = "Crear un fichaje", description = "Permite a la empresa crear un nuevo fichaje para un trabajador")
+    @Idempotente
     @PostMapping("/crear")
-    public ResponseEntity<ApiRespuesta<Boolean>> crearFichaje(@Valid @RequestBody FichajeRequestDto fichajeRequestDto, Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.crearFichaje(fichajeRequestDto, auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> crearFichaje(@Valid @RequestBody FichajeRequestDto fichajeRequestDto, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.crearFichaje(fichajeRequestDto, usuario)));
+    }
+
+    /**
+     * Permite a la empresa registrar de una vez un lote de fichajes, normalmente
+     * enviado por un terminal o quiosco de fichaje que acumula los eventos.
+     *
+     * @param fichajeLoteRequestDto eventos del lote
+     * @param usuario               usuario autenticado
+     * @return el resultado de cada evento del lote
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Registrar un lote de fichajes", description = "Permite a la empresa registrar miles de fichajes en una sola petición, con un resultado por evento")
+    @Idempotente
+    @PostMapping("/lote")
+    public ResponseEntity<ApiRespuesta<List<FichajeLoteResultadoDto>>> registrarLoteFichajes(@Valid @RequestBody FichajeLoteRequestDto fichajeLoteRequestDto, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.registrarLote(fichajeLoteRequestDto, usuario)));
     }
 
     /**
      * Permite a la empresa editar un fichaje existente de un trabajador.
      *
      * @param fichajeEditRequestDto datos actualizados del fichaje
-     * @param auth                  autenticación del usuario
+     * @param usuario               usuario autenticado
      * @return resultado de la operación
      */
     @PermisoEmpresa
     @Operation(summary = "Editar un fichaje", description = "Permite a la empresa editar un fichaje existente de un trabajador")
+    @Idempotente
     @PostMapping("/editar")
-    public ResponseEntity<ApiRespuesta<Boolean>> editarFichaje(@Valid @RequestBody FichajeEditRequestDto fichajeEditRequestDto, Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.editarFichaje(fichajeEditRequestDto, auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> editarFichaje(@Valid @RequestBody FichajeEditRequestDto fichajeEditRequestDto, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.editarFichaje(fichajeEditRequestDto, usuario)));
     }
 
     /**
      * Permite a la empresa eliminar un fichaje de un trabajador mediante su id.
      *
      * @param request objeto que contiene el id del fichaje a eliminar
-     * @param auth    autenticación del usuario
+     * @param usuario usuario autenticado
      * @return resultado de la operación
      */
     @PermisoEmpresa
     @Operation(summary = "Eliminar un fichaje", description = "Permite a la empresa eliminar un fichaje de un trabajador mediante su id")
+    @Idempotente
     @PostMapping("/eliminar")
-    public ResponseEntity<ApiRespuesta<Boolean>> eliminarFichaje(@RequestBody IdRequestDto request, Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.eliminarFichaje(request.getId(), auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> eliminarFichaje(@RequestBody IdRequestDto request, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.eliminarFichaje(request.getId(), usuario)));
     }
 
     /**
      * Permite al trabajador iniciar su fichaje, es decir, marcar el momento de entrada.
      *
-     * @param auth autenticación del usuario
+     * @param usuario usuario autenticado
      * @return resultado de la operación
      */
     @PermisoTrabajador
     @Operation(summary = "Iniciar fichaje", description = "El trabajador inicia su fichaje (solo fechaInicio) mediante su id")
+    @Idempotente
     @PostMapping("/iniciar")
     public ResponseEntity<ApiRespuesta<Boolean>> iniciarFichaje(
-            Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.iniciarFichaje(auth.getName())));
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(marcajeService.entrada(usuario)));
     }
 
     /**
      * Permite al trabajador finalizar su último fichaje abierto, es decir, marcar el momento de salida.
      *
-     * @param auth autenticación del usuario
+     * @param usuario usuario autenticado
      * @return resultado de la operación
      */
     @PermisoTrabajador
     @Operation(summary = "Finalizar fichaje", description = "El trabajador cierra su último fichaje abierto mediante su id")
+    @Idempotente
     @PostMapping("/finalizar")
     public ResponseEntity<ApiRespuesta<Boolean>> finalizarFichaje(
-            Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.finalizarFichaje(auth.getName())));
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(marcajeService.salida(usuario)));
+    }
+
+    /**
+     * Sincronización incremental de los fichajes de la empresa: devuelve solo los creados,
+     * modificados o eliminados desde el token de la sincronización anterior.
+     *
+     * @param cambiosRequestDto token y tamaño máximo
+     * @param auth              autenticación del usuario
+     * @return los cambios y el token siguiente
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Cambios en los fichajes de la empresa", description = "Fichajes de la empresa creados, modificados o eliminados desde el token de la sincronización anterior")
+    @PostMapping("/empresa/cambios")
+    public ResponseEntity<ApiRespuesta<CambiosDto<FichajeResumenDto>>> cambiosEmpresa(@Valid @RequestBody CambiosRequestDto cambiosRequestDto, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(cambiosService.getCambiosFichajesEmpresa(cambiosRequestDto, auth.getName())));
+    }
+
+    /**
+     * Sincronización incremental de los fichajes del trabajador autenticado.
+     *
+     * @param cambiosRequestDto token y tamaño máximo
+     * @param auth              autenticación del usuario
+     * @return los cambios y el token siguiente
+     */
+    @PermisoTrabajador
+    @Operation(summary = "Cambios en mis fichajes", description = "Fichajes del trabajador creados, modificados o eliminados desde el token de la sincronización anterior")
+    @PostMapping("/trabajador/cambios")
+    public ResponseEntity<ApiRespuesta<CambiosDto<FichajeResumenDto>>> cambiosTrabajador(@Valid @RequestBody CambiosRequestDto cambiosRequestDto, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(cambiosService.getCambiosFichajesTrabajador(cambiosRequestDto, auth.getName())));
+    }
+
+    /**
+     * Permite a la empresa saber quién está fichado ahora mismo: cuántos trabajadores
+     * tienen un fichaje abierto y desde cuándo.
+     *
+     * @param usuario usuario autenticado
+     * @return los trabajadores dentro
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Quién está dentro", description = "Devuelve los trabajadores de la empresa con un fichaje abierto ahora mismo")
+    @PostMapping("/empresa/presentes")
+    public ResponseEntity<ApiRespuesta<PresentesDto>> presentesEmpresa(@AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.getPresentesEmpresa(usuario)));
+    }
+
+    /**
+     * Abre un feed en directo (Server-Sent Events) con cada entrada, salida, creación,
+     * edición o eliminación de fichajes de la empresa, según se confirman.
+     * <p>
+     * Cada evento lleva como nombre el tipo de cambio y como datos el fichaje (y su estado
+     * anterior en las ediciones). Si el cliente no da abasto, recibe {@code RESINCRONIZAR}
+     * y debe recargar el listado.
+     *
+     * @param usuario usuario autenticado
+     * @return la conexión SSE
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Fichajes en directo", description = "Feed SSE con los cambios de fichajes de la empresa según se producen")
+    @GetMapping(value = "/empresa/directo", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter fichajesEmpresaDirecto(@AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return fichajeService.suscribirFichajesEmpresa(usuario);
+    }
+
+    /**
+     * Permite a la empresa obtener sus fichajes de un rango de fechas,
+     * opcionalmente de un solo trabajador.
+     *
+     * @param peticion rango de fechas y trabajador opcional
+     * @param usuario  usuario autenticado
+     * @return los fichajes del rango
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Fichajes de la empresa en un rango", description = "Fichajes de la empresa que empiezan entre dos fechas (máximo 31 días), opcionalmente de un trabajador")
+    @PostMapping("/empresa/rango")
+    public ResponseEntity<ApiRespuesta<List<FichajeResumenDto>>> fichajesEmpresaRango(@Valid @RequestBody FichajesRangoRequestDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.getFichajesEmpresaRango(peticion, usuario)));
+    }
+
+    /**
+     * Permite al trabajador obtener sus fichajes de un rango de fechas.
+     *
+     * @param peticion rango de fechas
+     * @param usuario  usuario autenticado
+     * @return los fichajes del rango
+     */
+    @PermisoTrabajador
+    @Operation(summary = "Mis fichajes en un rango", description = "Fichajes del trabajador que empiezan entre dos fechas (máximo 31 días)")
+    @PostMapping("/trabajador/rango")
+    public ResponseEntity<ApiRespuesta<List<FichajeResumenDto>>> fichajesTrabajadorRango(@Valid @RequestBody FichajesRangoRequestDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(fichajeService.getFichajesTrabajadorRango(peticion, usuario)));
     }
 }
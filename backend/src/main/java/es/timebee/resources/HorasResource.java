@@ -0,0 +1,94 @@
+package es.timebee.resources;
+
+import es.timebee.domain.dto.*;
+import es.timebee.security.annotations.PermisoAdmin;
+import es.timebee.security.annotations.PermisoEmpresa;
+import es.timebee.security.annotations.PermisoTrabajador;
+import es.timebee.services.HorasService;
+import es.timebee.utils.ResponseUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * {@code HorasResource} es el controlador REST que responde a las consultas de horas trabajadas.
+ * <p>
+ * Las empresas pueden ver las horas de su plantilla por trabajador o por día, y cada trabajador
+ * las suyas. Todo sale de las tablas resumen, así que las respuestas son inmediatas
+ * aunque el histórico de fichajes sea enorme.
+ */
+@RestController
+@RequestMapping("/horas")
+@Tag(name = "Horas", description = "Consultas de horas trabajadas")
+public class HorasResource {
+
+    private final HorasService horasService;
+
+    /**
+     * Constructor que inyecta el servicio de horas.
+     *
+     * @param horasService servicio que maneja las consultas de horas trabajadas
+     */
+    public HorasResource(HorasService horasService) {
+        this.horasService = horasService;
+    }
+
+    /**
+     * Obtiene los minutos trabajados en un mes por cada trabajador de la empresa.
+     *
+     * @param peticion el mes a consultar
+     * @param auth     autenticación del usuario
+     * @return los minutos de cada trabajador
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Horas del mes por trabajador", description = "Minutos trabajados en un mes por cada trabajador de la empresa")
+    @PostMapping("/empresa/trabajadores")
+    public ResponseEntity<ApiRespuesta<List<HorasTrabajadorMesDto>>> horasEmpresaPorTrabajador(@Valid @RequestBody HorasMesRequestDto peticion, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(horasService.getHorasEmpresaPorTrabajador(peticion, auth.getName())));
+    }
+
+    /**
+     * Obtiene los minutos trabajados por toda la empresa, día a día, en un mes.
+     *
+     * @param peticion el mes a consultar
+     * @param auth     autenticación del usuario
+     * @return los minutos de cada día
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Horas del mes por día", description = "Minutos trabajados por toda la empresa en cada día del mes")
+    @PostMapping("/empresa/dias")
+    public ResponseEntity<ApiRespuesta<List<HorasDiaDto>>> horasEmpresaPorDia(@Valid @RequestBody HorasMesRequestDto peticion, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(horasService.getHorasEmpresaPorDia(peticion, auth.getName())));
+    }
+
+    /**
+     * Obtiene los minutos trabajados por el trabajador autenticado, día a día, en un mes.
+     *
+     * @param peticion el mes a consultar
+     * @param auth     autenticación del usuario
+     * @return los minutos de cada día
+     */
+    @PermisoTrabajador
+    @Operation(summary = "Mis horas del mes", description = "Minutos trabajados por el trabajador en cada día del mes")
+    @PostMapping("/trabajador/dias")
+    public ResponseEntity<ApiRespuesta<List<HorasDiaDto>>> horasTrabajadorPorDia(@Valid @RequestBody HorasMesRequestDto peticion, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(horasService.getHorasTrabajadorPorDia(peticion, auth.getName())));
+    }
+
+    /**
+     * Reconstruye desde cero el resumen de horas a partir de los fichajes.
+     *
+     * @return resultado de la operación
+     */
+    @PermisoAdmin
+    @Operation(summary = "Reconstruir el resumen de horas", description = "Vuelve a calcular las tablas resumen de horas a partir de todos los fichajes")
+    @PostMapping("/reconstruir")
+    public ResponseEntity<ApiRespuesta<Boolean>> reconstruir() {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(horasService.reconstruir()));
+    }
+}
@@ -1,22 +1,35 @@
 package es.timebee.resources;
 
 import es.timebee.domain.dto.*;
+import es.timebee.idempotencia.Idempotente;
 import es.timebee.security.annotations.*;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.CambiosService;
+import es.timebee.services.DescargaNominasService;
 import es.timebee.services.NominaService;
 import es.timebee.utils.ResponseUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -36,44 +49,81 @@ import java.util.List;
 @Tag(name = "Nominas", description = "Operaciones relacionadas con las nóminas de empleados")
 public class NominaResource {
 
+    /** Una nómina publicada no cambia: el navegador puede guardarla, pero solo para ese usuario. */
+    private static final CacheControl CACHE_NOMINA = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
     private final NominaService nominaService;
+    private final CambiosService cambiosService;
+    private final DescargaNominasService descargaNominasService;
 
     /**
      * Constructor que inyecta el servicio encargado de la lógica de nóminas.
      *
-     * @param nominaService servicio de nóminas
+     * @param nominaService          servicio de nóminas
+     * @param cambiosService         servicio de sincronización incremental
+     * @param descargaNominasService servicio de descarga de nóminas en ZIP
      */
-    public NominaResource(NominaService nominaService) {
+    public NominaResource(NominaService nominaService, CambiosService cambiosService,
+                          DescargaNominasService descargaNominasService) {
         this.nominaService = nominaService;
+        this.cambiosService = cambiosService;
+        this.descargaNominasService = descargaNominasService;
     }
 
     /**
      * Permite a la empresa subir una nómina (en formato PDF) para un trabajador.
      *
      * @param trabajadorId id del trabajador
-     * @param auth         información de autenticación
+     * @param usuario      usuario autenticado
      * @param periodo      periodo al que corresponde la nómina
      * @param file         archivo PDF de la nómina
      * @return respuesta indicando si se subió correctamente
      */
     @PermisoEmpresa
     @Operation(summary = "Subir una nómina", description = "Permite a la empresa subir una nómina en formato PDF para un trabajador")
+    @Idempotente
     @PostMapping(value = "/subir", consumes = "multipart/form-data")
     public ResponseEntity<ApiRespuesta<Boolean>> subirNomina(
             @RequestParam("trabajadorId") @NotNull Long trabajadorId,
-            Authentication auth,
+            @AuthenticationPrincipal UsuarioAutenticado usuario,
             @RequestParam("periodo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodo,
             @RequestParam("file") MultipartFile file) {
 
-        Boolean exito = nominaService.subirNomina(trabajadorId, periodo, file, auth.getName());
+        Boolean exito = nominaService.subirNomina(trabajadorId, periodo, file, usuario);
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(exito));
     }
 
+    /**
+     * Permite a la empresa subir de una vez las nóminas de un periodo en un ZIP. Cada PDF
+     * se llama como el DNI o el NAF de su trabajador (por ejemplo {@code 12345678Z.pdf}).
+     *
+     * @param usuario usuario autenticado
+     * @param periodo periodo al que corresponden las nóminas
+     * @param archivo ZIP con los PDF
+     * @return el resultado de cada archivo del ZIP
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Subir un lote de nóminas", description = "Permite a la empresa subir en un ZIP las nóminas de un periodo, un PDF por trabajador nombrado con su DNI o NAF")
+    @Idempotente
+    @PostMapping(value = "/lote", consumes = "multipart/form-data")
+    public ResponseEntity<ApiRespuesta<List<NominaLoteResultadoDto>>> subirLoteNominas(
+            @AuthenticationPrincipal UsuarioAutenticado usuario,
+            @RequestParam("periodo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodo,
+            @RequestParam("archivo") MultipartFile archivo) {
+
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(nominaService.subirLoteNominas(periodo, archivo, usuario)));
+    }
+
     /**
      * Permite a la empresa eliminar una nómina por su id.
      *
      * @param request objeto que contiene el id de la nómina
-     * @param auth    información de autenticación
+     * @param usuario usuario autenticado
      * @return respuesta indicando si se eliminó correctamente
      */
     @PermisoEmpresa
@@ -81,15 +131,17 @@ public class NominaResource {
             summary = "Eliminar una nómina",
             description = "Permite a la empresa eliminar una nómina de la base de datos mediante su id usando POST"
     )
+    @Idempotente
     @PostMapping("/eliminar")
-    public ResponseEntity<ApiRespuesta<Boolean>> eliminarNomina(@RequestBody IdRequestDto request, Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(nominaService.eliminarNomina(request.getId(), auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> eliminarNomina(@RequestBody IdRequestDto request, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(nominaService.eliminarNomina(request.getId(), usuario)));
     }
 
     /**
      * Devuelve una lista de los periodos de nóminas de un trabajador usando su id.
      *
      * @param request objeto que contiene el id del trabajador
+     * @param usuario usuario autenticado
      * @return lista con metadatos de nóminas (id y periodo)
      */
     @PermisoEmpresa
@@ -99,15 +151,15 @@ public class NominaResource {
     )
     @PostMapping("/trabajador")
     public ResponseEntity<ApiRespuesta<List<NominaMetadataDto>>> listarNominasDeTrabajador(
-            @RequestBody IdRequestDto request) {
-        List<NominaMetadataDto> lista = nominaService.obtenerNominasPorTrabajador(request.getId());
+            @RequestBody IdRequestDto request, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        List<NominaMetadataDto> lista = nominaService.obtenerNominasPorTrabajador(request.getId(), usuario);
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(lista));
     }
 
     /**
      * Devuelve una lista de los periodos de nóminas del trabajador autenticado.
      *
-     * @param auth información de autenticación
+     * @param usuario usuario autenticado
      * @return lista con metadatos de nóminas (id y periodo)
      */
     @PermisoTrabajador
@@ -117,8 +169,8 @@ public class NominaResource {
     )
     @PostMapping("/trabajador-email")
     public ResponseEntity<ApiRespuesta<List<NominaMetadataDto>>> listarNominasDeTrabajadorPorEmail(
-            Authentication auth) {
-        List<NominaMetadataDto> lista = nominaService.obtenerNominasPorTrabajadorEmail(auth.getName());
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        List<NominaMetadataDto> lista = nominaService.obtenerNominasPropias(usuario);
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(lista));
     }
 
@@ -126,6 +178,7 @@ public class NominaResource {
      * Permite descargar una nómina en formato PDF usando su id.
      *
      * @param request objeto que contiene el id de la nómina
+     * @param usuario usuario autenticado
      * @return recurso PDF listo para descargar
      */
     @PermisoEmpresaTrabajador
@@ -134,10 +187,9 @@ public class NominaResource {
             description = "Permite descargar el PDF de una nómina dada su id"
     )
     @PostMapping("/descargar")
-    public ResponseEntity<ByteArrayResource> descargarNomina(@RequestBody IdRequestDto request) {
-        NominaDownloadDto dto = nominaService.descargarNomina(request.getId());
+    public ResponseEntity<Resource> descargarNomina(@RequestBody IdRequestDto request, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        NominaDownloadDto dto = nominaService.descargarNomina(request.getId(), usuario);
 
-        ByteArrayResource resource = new ByteArrayResource(dto.getArchivoPdf());
         MediaType mediaType = MediaType.parseMediaType(dto.getContentType());
 
         return ResponseEntity.ok()
@@ -148,6 +200,147 @@ public class NominaResource {
                                 .filename(dto.getNombreArchivo())
                                 .build()
                                 .toString())
-                .body(resource);
+                .body(dto.getArchivo());
+    }
+
+    /**
+     * Descarga en un ZIP todas las nóminas de un trabajador de la empresa.
+     * <p>
+     * El ZIP se va escribiendo mientras se leen las nóminas, sin el envoltorio
+     * {@link ApiRespuesta}, así que no importa cuántas tenga.
+     *
+     * @param request objeto que contiene el id del trabajador
+     * @param usuario usuario autenticado
+     * @return el ZIP con los PDF
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Descargar las nóminas de un trabajador", description = "Descarga en un ZIP todas las nóminas de un trabajador de la empresa")
+    @PostMapping(value = "/zip/trabajador", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> zipDeTrabajador(@RequestBody IdRequestDto request, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return respuestaZip(descargaNominasService.zipDeTrabajador(request.getId(), usuario),
+                "nominas-trabajador-" + request.getId() + ".zip");
+    }
+
+    /**
+     * Descarga en un ZIP todas las nóminas del trabajador autenticado.
+     *
+     * @param usuario usuario autenticado
+     * @return el ZIP con los PDF
+     */
+    @PermisoTrabajador
+    @Operation(summary = "Descargar todas mis nóminas", description = "Descarga en un ZIP todas las nóminas del trabajador autenticado")
+    @PostMapping(value = "/zip/propias", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> zipPropio(@AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return respuestaZip(descargaNominasService.zipPropio(usuario), "mis-nominas.zip");
+    }
+
+    /**
+     * Descarga en un ZIP las nóminas de toda la empresa en un mes.
+     *
+     * @param peticion año y mes
+     * @param usuario  usuario autenticado
+     * @return el ZIP con los PDF
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Descargar las nóminas de un mes", description = "Descarga en un ZIP las nóminas de toda la empresa en un mes")
+    @PostMapping(value = "/zip/periodo", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> zipDePeriodo(@Valid @RequestBody NominasPeriodoRequestDto peticion, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return respuestaZip(descargaNominasService.zipDePeriodo(peticion, usuario),
+                String.format("nominas-%d-%02d.zip", peticion.getAnio(), peticion.getMes()));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> respuestaZip(StreamingResponseBody zip, String nombreArchivo) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition
+                                .attachment()
+                                .filename(nombreArchivo)
+                                .build()
+                                .toString())
+                .body(zip);
+    }
+
+    /**
+     * Sirve el PDF de una nómina para verlo o descargarlo, con las cabeceras HTTP de caché
+     * y de rangos.
+     * <p>
+     * La {@code ETag} es el SHA-256 del PDF, así que una segunda visita con
+     * {@code If-None-Match} se responde con un 304 sin enviar nada. Con {@code Range} se
+     * envía solo el trozo pedido (206). El PDF completo se envía con {@code sendfile} cuando
+     * el contenedor lo permite (el archivo pasa del disco al socket sin entrar en la
+     * aplicación) y, si no, por bloques desde el archivo.
+     *
+     * @param id       id de la nómina
+     * @param peticion la petición, para las cabeceras condicionales
+     * @param usuario  usuario autenticado
+     * @return el PDF, un trozo o un 304
+     * @throws IOException si no se puede obtener el tamaño del archivo
+     */
+    @PermisoEmpresaTrabajador
+    @Operation(
+            summary = "Ver el PDF de una nómina",
+            description = "Sirve el PDF de una nómina en streaming, con soporte de Range y caché por ETag"
+    )
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<Resource> pdfNomina(@PathVariable Long id, ServletWebRequest peticion,
+                                              @AuthenticationPrincipal UsuarioAutenticado usuario) throws IOException {
+        NominaDownloadDto dto = nominaService.descargarNomina(id, usuario);
+
+        String etag = dto.getHuella() != null ? "\"" + dto.getHuella() + "\"" : null;
+        if (etag != null && peticion.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(dto.getContentType()))
+                .cacheControl(CACHE_NOMINA)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition
+                                .inline()
+                                .filename(dto.getNombreArchivo())
+                                .build()
+                                .toString());
+        if (etag != null) {
+            respuesta.eTag(etag);
+        }
+        if (enviarConSendfile(dto.getArchivo(), peticion.getRequest())) {
+            return respuesta.contentLength(dto.getArchivo().contentLength()).build();
+        }
+        return respuesta.body(dto.getArchivo());
+    }
+
+    /**
+     * Pide a Tomcat que envíe el archivo entero con {@code sendfile} cuando la petición ya
+     * haya terminado: solo para un {@code GET} sin {@code Range} de un recurso que es un
+     * archivo, y si el conector lo admite. La respuesta se devuelve entonces sin cuerpo.
+     */
+    private static boolean enviarConSendfile(Resource archivo, HttpServletRequest request) throws IOException {
+        if (!archivo.isFile()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || request.getHeader(HttpHeaders.RANGE) != null
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_ARCHIVO, archivo.getFile().getAbsolutePath());
+        request.setAttribute(SENDFILE_INICIO, 0L);
+        request.setAttribute(SENDFILE_FIN, archivo.contentLength());
+        return true;
+    }
+
+    /**
+     * Sincronización incremental de las nóminas de la empresa: devuelve los metadatos de las
+     * subidas o modificadas y los ids de las eliminadas desde el token de la sincronización anterior.
+     *
+     * @param request token y tamaño máximo
+     * @param auth    autenticación del usuario
+     * @return los cambios y el token siguiente
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Cambios en las nóminas de la empresa", description = "Nóminas de la empresa subidas, modificadas o eliminadas desde el token de la sincronización anterior")
+    @PostMapping("/empresa/cambios")
+    public ResponseEntity<ApiRespuesta<CambiosDto<NominaResumenDto>>> cambiosEmpresa(@Valid @RequestBody CambiosRequestDto request, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(cambiosService.getCambiosNominasEmpresa(request, auth.getName())));
     }
 }
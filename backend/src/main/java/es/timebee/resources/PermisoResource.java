@@ -1,9 +1,12 @@
 package es.timebee.resources;
 
 import es.timebee.domain.dto.*;
+import es.timebee.idempotencia.Idempotente;
 import es.timebee.security.annotations.PermisoEmpresa;
 import es.timebee.security.annotations.PermisoEmpresaTrabajador;
 import es.timebee.security.annotations.PermisoTrabajador;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.CambiosService;
 import es.timebee.services.PermisoService;
 import es.timebee.utils.ResponseUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,6 +14,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -32,14 +36,17 @@ import java.util.List;
 public class PermisoResource {
 
     private final PermisoService permisoService;
+    private final CambiosService cambiosService;
 
     /**
      * Constructor que inyecta el servicio de permisos.
      *
      * @param permisoService servicio que maneja la lógica de permisos
+     * @param cambiosService servicio de sincronización incremental
      */
-    public PermisoResource(PermisoService permisoService) {
+    public PermisoResource(PermisoService permisoService, CambiosService cambiosService) {
         this.permisoService = permisoService;
+        this.cambiosService = cambiosService;
     }
 
     /**
@@ -67,6 +74,7 @@ public class PermisoResource {
      */
     @PermisoTrabajador
     @Operation(summary = "Solicitar permiso", description = "El trabajador solicita un permiso")
+    @Idempotente
     @PostMapping("/solicitar")
     public ResponseEntity<ApiRespuesta<Boolean>> solicitar(
             @Valid @RequestBody PermisoSolicitarDto dto, Authentication auth) {
@@ -84,6 +92,7 @@ public class PermisoResource {
      */
     @PermisoTrabajador
     @Operation(summary = "Editar permiso", description = "El trabajador edita un permiso si sigue en estado SOLICITADO")
+    @Idempotente
     @PostMapping("/editar")
     public ResponseEntity<ApiRespuesta<Boolean>> editar(
             @Valid @RequestBody PermisoEditarDto dto, Authentication auth) {
@@ -96,45 +105,62 @@ public class PermisoResource {
      * Permite a la empresa aprobar o rechazar un permiso.
      *
      * @param dto  datos de validación (aprobado/rechazado)
-     * @param auth autenticación del usuario
+     * @param usuario usuario autenticado
      * @return respuesta indicando si la validación fue exitosa
      */
     @PermisoEmpresa
     @Operation(summary = "Validar permiso", description = "La empresa aprueba o rechaza un permiso")
+    @Idempotente
     @PostMapping("/validar")
-    public ResponseEntity<ApiRespuesta<Boolean>> validar(@Valid @RequestBody PermisoValidarDto dto, Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(permisoService.validarPermiso(dto, auth.getName())));
+    public ResponseEntity<ApiRespuesta<Boolean>> validar(@Valid @RequestBody PermisoValidarDto dto, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(permisoService.validarPermiso(dto, usuario)));
     }
 
     /**
      * Permite al trabajador eliminar un permiso si aún está en estado SOLICITADO.
      *
      * @param request objeto con el id del permiso a eliminar
-     * @param auth    autenticación del usuario
+     * @param usuario usuario autenticado
      * @return respuesta indicando si la eliminación fue exitosa
      */
     @PermisoTrabajador
     @Operation(summary = "Eliminar permiso",description = "Permite al trabajador eliminar un permiso si aún está en estado SOLICITADO")
+    @Idempotente
     @PostMapping("/eliminar")
     public ResponseEntity<ApiRespuesta<Boolean>> eliminarPermiso(
-            @Valid @RequestBody IdRequestDto request, Authentication auth) {
-        Boolean ok = permisoService.eliminarPermiso(request.getId(),auth.getName());
+            @Valid @RequestBody IdRequestDto request, @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        Boolean ok = permisoService.eliminarPermiso(request.getId(),usuario);
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(ok));
     }
 
+    /**
+     * Sincronización incremental de los permisos de la empresa: devuelve solo los solicitados,
+     * editados, validados o eliminados desde el token de la sincronización anterior.
+     *
+     * @param dto  token y tamaño máximo
+     * @param auth autenticación del usuario
+     * @return los cambios y el token siguiente
+     */
+    @PermisoEmpresa
+    @Operation(summary = "Cambios en los permisos de la empresa", description = "Permisos de la empresa creados, modificados o eliminados desde el token de la sincronización anterior")
+    @PostMapping("/empresa/cambios")
+    public ResponseEntity<ApiRespuesta<CambiosDto<PermisoResumenDto>>> cambiosEmpresa(@Valid @RequestBody CambiosRequestDto dto, Authentication auth) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(cambiosService.getCambiosPermisosEmpresa(dto, auth.getName())));
+    }
+
     /**
      * Devuelve todos los permisos de los trabajadores de una empresa,
      * usando el id de la empresa.
      *
-     * @param auth autenticación del usuario
+     * @param usuario usuario autenticado
      * @return lista de permisos
      */
     @PermisoEmpresa
     @Operation(summary = "Permisos de todos los trabajadores por el id de la empresa",description = "Devuelve todos los permisos de los trabajadores  por el id de la empresa")
     @PostMapping("/empresa/id")
     public ResponseEntity<ApiRespuesta<List<PermisosDto>>> permisosPorEmpresaId(
-            Authentication auth) {
-        return ResponseEntity.ok(ResponseUtils.generarRespuesta(permisoService.obtenerPermisosPorEmpresaId(auth.getName())));
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(permisoService.obtenerPermisosPorEmpresaId(usuario)));
     }
 
     /**
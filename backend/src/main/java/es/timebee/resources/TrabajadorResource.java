@@ -51,7 +51,7 @@ public class TrabajadorResource {
     @PermisoEmpresaTrabajadorAdmin
     @Operation(summary = "Obtener los fichajes de un trabajador por email", description = "Obtener los fichajes de un trabajador por email")
     @PostMapping("/fichajes")
-    public ResponseEntity<ApiRespuesta<List<FichajesDto>>> fichajesPorEmailTrabajador (Authentication auth) {
+    public ResponseEntity<ApiRespuesta<List<FichajeResumenDto>>> fichajesPorEmailTrabajador (Authentication auth) {
         return  ResponseEntity.ok().body(generarRespuesta(this.trabajadorService.getFichajesPorEmailTrabajador(auth.getName())));
     }
 
@@ -7,14 +7,12 @@ import es.timebee.domain.repository.TrabajadorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -33,9 +31,9 @@ import java.util.Optional;
  *     <li>Si tampoco lo encuentra, lanza una {@code UsernameNotFoundException}.</li>
  * </ol>
  * <p>
- * Además, construye un objeto {@code UserDetails} que Spring Security
+ * Además, construye un {@link UsuarioAutenticado} que Spring Security
  * usa internamente para manejar las credenciales y los roles
- * (autorizaciones) del usuario.
+ * (autorizaciones) del usuario, y que guarda su id y el de su empresa.
  *
  * <p>Detalles clave:
  * <ul>
@@ -65,7 +63,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      * Busca al usuario por email en las entidades Empresa o Trabajador.
      *
      * @param email el email del usuario que intenta iniciar sesión.
-     * @return un {@code UserDetails} con los datos de autenticación.
+     * @return un {@link UsuarioAutenticado} con los datos de autenticación.
      * @throws UsernameNotFoundException si no se encuentra ningún usuario.
      */
     @Override
@@ -73,20 +71,12 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         Optional<Empresa> optE = empresaRepository.findByEmail(email);
         if (optE.isPresent()) {
-            Empresa e = optE.get();
-            List<GrantedAuthority> auths = List.of(
-                    new SimpleGrantedAuthority("ROLE_" + e.getRol().name())
-            );
-            return new User(e.getEmail(), e.getPassword(), auths);
+            return UsuarioAutenticado.de(optE.get());
         }
 
         Optional<Trabajador> optT = trabajadorRepository.findByEmailIgnoreCase(email);
         if (optT.isPresent()) {
-            Trabajador t = optT.get();
-            List<GrantedAuthority> auths = List.of(
-                    new SimpleGrantedAuthority("ROLE_" + t.getRol().name())
-            );
-            return new User(t.getEmail(), t.getPassword(), auths);
+            return UsuarioAutenticado.de(optT.get());
         }
 
         throw new UsernameNotFoundException("No existe usuario con email: " + email);
@@ -30,8 +30,9 @@ import java.io.IOException;
  * <p>Flujo básico:
  * <ol>
  *     <li>Extrae el token del header {@code Authorization}.</li>
- *     <li>Verifica el usuario dentro del token usando {@code JwtUtil}.</li>
- *     <li>Carga los detalles del usuario desde {@code UserDetailsService}.</li>
+ *     <li>Verifica el token y lee el usuario de sus claims usando {@code JwtUtil}.</li>
+ *     <li>Solo si el token es antiguo y no trae los ids, carga los detalles del usuario
+ *     desde {@code UserDetailsService}.</li>
  *     <li>Si todo cuadra, configura la autenticación en {@code SecurityContextHolder}.</li>
  * </ol>
  *
@@ -65,30 +66,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String header = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
 
-        if (header != null && header.startsWith("Bearer ")) {
-            token = header.substring(7);
-            username = jwtUtil.extractUsername(token);
-        }
-
-        if (username != null &&
+        if (header != null && header.startsWith("Bearer ") &&
                 SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                auth.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(auth);
+            String token = header.substring(7);
+            UserDetails userDetails = jwtUtil.extractUsuario(token);
+            if (userDetails == null) {
+                // Token emitido antes de llevar los ids: se carga el usuario como siempre.
+                userDetails = userDetailsService.loadUserByUsername(jwtUtil.extractUsername(token));
             }
+            UsernamePasswordAuthenticationToken auth =
+                    new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
+            auth.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
+            SecurityContextHolder.getContext().setAuthentication(auth);
         }
 
         chain.doFilter(request, response);
@@ -39,10 +39,18 @@ public class JwtUtil {
     // Tiempo de expiración en milisegundos (24 horas)
     private final long EXPIRATION_TIME = 24 * 60 * 60 * 1000;
 
-    // Genera un token JWT a partir del username
+    private static final String CLAIM_ROL = "role";
+    private static final String CLAIM_ID = "uid";
+    private static final String CLAIM_EMPRESA = "empresaId";
+
+    // Genera un token JWT a partir del username (y, si es un UsuarioAutenticado, de sus ids)
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("role", userDetails.getAuthorities().iterator().next().getAuthority());
+        claims.put(CLAIM_ROL, userDetails.getAuthorities().iterator().next().getAuthority());
+        if (userDetails instanceof UsuarioAutenticado usuario) {
+            claims.put(CLAIM_ID, usuario.getId());
+            claims.put(CLAIM_EMPRESA, usuario.getEmpresaId());
+        }
 
         Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
 
@@ -65,6 +73,26 @@ public class JwtUtil {
         return extractClaims(token).getSubject();
     }
 
+    /**
+     * Construye el usuario autenticado a partir de los claims del token, que se
+     * verifica (firma y expiración) una sola vez.
+     *
+     * @param token el JWT.
+     * @return el usuario, o {@code null} si el token es anterior a los claims de ids
+     *         y hay que cargar al usuario por su email.
+     * @throws io.jsonwebtoken.JwtException si el token no es válido o ha expirado.
+     */
+    public UsuarioAutenticado extractUsuario(String token) {
+        Claims claims = extractClaims(token);
+        Long id = claims.get(CLAIM_ID, Long.class);
+        Long empresaId = claims.get(CLAIM_EMPRESA, Long.class);
+        String rol = claims.get(CLAIM_ROL, String.class);
+        if (id == null || empresaId == null || rol == null) {
+            return null;
+        }
+        return new UsuarioAutenticado(id, claims.getSubject(), UsuarioAutenticado.rolDeAutoridad(rol), empresaId, null);
+    }
+
     /**
      * Valida que el token corresponde al usuario esperado y que no ha expirado.
      *
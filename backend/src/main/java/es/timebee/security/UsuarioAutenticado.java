@@ -0,0 +1,117 @@
+package es.timebee.security;
+
+import es.timebee.domain.entity.Empresa;
+import es.timebee.domain.entity.Trabajador;
+import es.timebee.domain.enumeration.Rol;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code UsuarioAutenticado} es el usuario que Spring Security deja en el contexto
+ * de cada petición: una empresa, un administrador o un trabajador.
+ * <p>
+ * Además del email y el rol, lleva el id del usuario y el de su empresa (el suyo propio
+ * si es una empresa). Todos salen de los claims del JWT, así que el filtro lo construye
+ * sin ir a la base de datos y los servicios pueden usar los ids directamente en lugar de
+ * volver a buscar al usuario por su email.
+ * <p>
+ * El username sigue siendo el email, de modo que {@code authentication.getName()}
+ * devuelve lo mismo que antes.
+ */
+public class UsuarioAutenticado implements UserDetails, CredentialsContainer {
+
+    private static final String PREFIJO_ROL = "ROLE_";
+
+    private final Long id;
+    private final String email;
+    private final Rol rol;
+    private final Long empresaId;
+    private String password;
+
+    /**
+     * Crea el usuario autenticado.
+     *
+     * @param id        id de la empresa o del trabajador
+     * @param email     email con el que inicia sesión
+     * @param rol       su rol
+     * @param empresaId id de su empresa (el propio si es una empresa)
+     * @param password  contraseña codificada, o {@code null} si viene de un token
+     */
+    public UsuarioAutenticado(Long id, String email, Rol rol, Long empresaId, String password) {
+        this.id = id;
+        this.email = email;
+        this.rol = rol;
+        this.empresaId = empresaId;
+        this.password = password;
+    }
+
+    /**
+     * Crea el usuario autenticado de una empresa (o de un administrador).
+     *
+     * @param empresa la empresa
+     * @return el usuario autenticado
+     */
+    public static UsuarioAutenticado de(Empresa empresa) {
+        return new UsuarioAutenticado(empresa.getId(), empresa.getEmail(), empresa.getRol(),
+                empresa.getId(), empresa.getPassword());
+    }
+
+    /**
+     * Crea el usuario autenticado de un trabajador. El id de su empresa se lee
+     * del proxy, sin cargarla.
+     *
+     * @param trabajador el trabajador
+     * @return el usuario autenticado
+     */
+    public static UsuarioAutenticado de(Trabajador trabajador) {
+        return new UsuarioAutenticado(trabajador.getId(), trabajador.getEmail(), trabajador.getRol(),
+                trabajador.getEmpresa().getId(), trabajador.getPassword());
+    }
+
+    /**
+     * Convierte una autoridad ({@code ROLE_EMPRESA}) en su rol.
+     *
+     * @param autoridad la autoridad
+     * @return el rol
+     */
+    static Rol rolDeAutoridad(String autoridad) {
+        return Rol.fromString(autoridad.startsWith(PREFIJO_ROL) ? autoridad.substring(PREFIJO_ROL.length()) : autoridad);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Rol getRol() {
+        return rol;
+    }
+
+    public Long getEmpresaId() {
+        return empresaId;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(PREFIJO_ROL + rol.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
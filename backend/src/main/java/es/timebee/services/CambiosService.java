@@ -0,0 +1,53 @@
+package es.timebee.services;
+
+import es.timebee.domain.dto.CambiosDto;
+import es.timebee.domain.dto.CambiosRequestDto;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.NominaResumenDto;
+import es.timebee.domain.dto.PermisoResumenDto;
+
+/**
+ * Servicio de sincronización incremental.
+ * <p>
+ * En lugar de volver a descargar listados completos para detectar qué ha cambiado,
+ * el cliente (el front de Angular, la integración de nóminas) envía el token de su
+ * última sincronización y recibe solo las altas, modificaciones y bajas posteriores.
+ */
+public interface CambiosService {
+
+    /**
+     * Devuelve los fichajes de la empresa creados, modificados o eliminados desde el token.
+     *
+     * @param peticion     token y tamaño máximo
+     * @param emailEmpresa correo de la empresa
+     * @return los cambios y el token siguiente
+     */
+    CambiosDto<FichajeResumenDto> getCambiosFichajesEmpresa(CambiosRequestDto peticion, String emailEmpresa);
+
+    /**
+     * Devuelve los fichajes del trabajador creados, modificados o eliminados desde el token.
+     *
+     * @param peticion        token y tamaño máximo
+     * @param emailTrabajador correo del trabajador
+     * @return los cambios y el token siguiente
+     */
+    CambiosDto<FichajeResumenDto> getCambiosFichajesTrabajador(CambiosRequestDto peticion, String emailTrabajador);
+
+    /**
+     * Devuelve los permisos de la empresa creados, modificados o eliminados desde el token.
+     *
+     * @param peticion     token y tamaño máximo
+     * @param emailEmpresa correo de la empresa
+     * @return los cambios y el token siguiente
+     */
+    CambiosDto<PermisoResumenDto> getCambiosPermisosEmpresa(CambiosRequestDto peticion, String emailEmpresa);
+
+    /**
+     * Devuelve las nóminas de la empresa subidas, modificadas o eliminadas desde el token.
+     *
+     * @param peticion     token y tamaño máximo
+     * @param emailEmpresa correo de la empresa
+     * @return los cambios y el token siguiente
+     */
+    CambiosDto<NominaResumenDto> getCambiosNominasEmpresa(CambiosRequestDto peticion, String emailEmpresa);
+}
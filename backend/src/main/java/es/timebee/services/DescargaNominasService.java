@@ -0,0 +1,42 @@
+package es.timebee.services;
+
+import es.timebee.domain.dto.NominasPeriodoRequestDto;
+import es.timebee.security.UsuarioAutenticado;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Servicio que descarga de una vez varias nóminas en un ZIP.
+ * <p>
+ * Sirve para lo que piden quien deja la empresa ("todas mis nóminas") y las
+ * auditorías ("todas las nóminas de marzo"). Los permisos se comprueban al llamar;
+ * el ZIP se escribe después, a medida que se envía la respuesta, con los PDF
+ * de uno en uno y sin cargarlos todos en memoria.
+ */
+public interface DescargaNominasService {
+
+    /**
+     * Prepara el ZIP con todas las nóminas de un trabajador de la empresa.
+     *
+     * @param trabajadorId id del trabajador
+     * @param usuario      la empresa autenticada
+     * @return el cuerpo de la respuesta, que escribe el ZIP
+     */
+    StreamingResponseBody zipDeTrabajador(Long trabajadorId, UsuarioAutenticado usuario);
+
+    /**
+     * Prepara el ZIP con todas las nóminas del trabajador autenticado.
+     *
+     * @param usuario el trabajador autenticado
+     * @return el cuerpo de la respuesta, que escribe el ZIP
+     */
+    StreamingResponseBody zipPropio(UsuarioAutenticado usuario);
+
+    /**
+     * Prepara el ZIP con las nóminas de toda la empresa en un mes.
+     *
+     * @param peticion año y mes
+     * @param usuario  la empresa autenticada
+     * @return el cuerpo de la respuesta, que escribe el ZIP
+     */
+    StreamingResponseBody zipDePeriodo(NominasPeriodoRequestDto peticion, UsuarioAutenticado usuario);
+}
@@ -1,9 +1,13 @@
 package es.timebee.services;
 
 import es.timebee.domain.dto.ActualizarEmpresaDto;
+import es.timebee.domain.dto.CierreAutomaticoRequestDto;
 import es.timebee.domain.dto.EmpresaDto;
-import es.timebee.domain.dto.FichajesDto;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.FichajesPaginaRequestDto;
+import es.timebee.domain.dto.PaginaDto;
 import es.timebee.domain.dto.TrabajadorDto;
+import es.timebee.security.UsuarioAutenticado;
 
 import java.util.List;
 
@@ -50,9 +54,22 @@ public interface EmpresaService {
      * Aquí vive el registro de actividad, ideal para análisis y control horario.
      *
      * @param email correo de la empresa
-     * @return lista de fichajes en formato DTO
+     * @return lista de fichajes en formato resumen
      */
-    List<FichajesDto> getFichajesEmpresaPorEmail(String email);
+    List<FichajeResumenDto> getFichajesEmpresaPorEmail(String email);
+
+    /**
+     * Obtiene una página de fichajes de la empresa, del más reciente al más antiguo.
+     * <p>
+     * Pensado para empresas con mucho historial: en vez de cargarlo todo,
+     * se recorre por trozos usando un cursor, con filtros opcionales
+     * por rango de fechas y trabajador.
+     *
+     * @param peticion parámetros de paginación y filtros
+     * @param usuario la empresa autenticada
+     * @return página de fichajes con el cursor para continuar
+     */
+    PaginaDto<FichajeResumenDto> getFichajesEmpresaPaginados(FichajesPaginaRequestDto peticion, UsuarioAutenticado usuario);
 
     /**
      * Da de alta a un nuevo trabajador en la empresa.
@@ -60,10 +77,10 @@ public interface EmpresaService {
      * Añade talento fresco al equipo, validando que todo esté correcto.
      *
      * @param peticion datos del trabajador a registrar
-     * @param emailEmpresa correo de la empresa que realiza la alta
+     * @param usuario la empresa autenticada que realiza la alta
      * @return true si se registra correctamente
      */
-    Boolean altaTrabajador(TrabajadorDto peticion, String emailEmpresa);
+    Boolean altaTrabajador(TrabajadorDto peticion, UsuarioAutenticado usuario);
 
     /**
      * Da de baja a un trabajador existente.
@@ -71,10 +88,10 @@ public interface EmpresaService {
      * Gestiona las salidas de personal, asegurando coherencia de datos.
      *
      * @param emailTrabajador correo del trabajador a dar de baja
-     * @param emailEmpresa correo de la empresa que solicita la baja
+     * @param usuario la empresa autenticada que solicita la baja
      * @return true si se da de baja correctamente
      */
-    Boolean bajaTrabajador(String emailTrabajador, String emailEmpresa);
+    Boolean bajaTrabajador(String emailTrabajador, UsuarioAutenticado usuario);
 
     /**
      * Actualiza la información de un trabajador específico.
@@ -82,10 +99,10 @@ public interface EmpresaService {
      * Cambios, ajustes, correcciones… todo queda reflejado aquí.
      *
      * @param peticion datos actualizados del trabajador
-     * @param emailEmpresa correo de la empresa que gestiona el cambio
+     * @param usuario la empresa autenticada que gestiona el cambio
      * @return true si la actualización fue exitosa
      */
-    boolean actualizarTrabajador(TrabajadorDto peticion, String emailEmpresa);
+    boolean actualizarTrabajador(TrabajadorDto peticion, UsuarioAutenticado usuario);
 
     /**
      * Actualiza la información de la propia empresa.
@@ -98,4 +115,13 @@ public interface EmpresaService {
      * @return true si la actualización fue exitosa
      */
     Boolean actualizarEmpresa(ActualizarEmpresaDto peticion, String emailEmpresa);
+
+    /**
+     * Configura tras cuántas horas se cierran solos los fichajes que la plantilla olvida cerrar.
+     *
+     * @param peticion     el nuevo límite de horas (nulo para el valor por defecto)
+     * @param emailEmpresa correo de la empresa
+     * @return true si se actualiza correctamente
+     */
+    Boolean actualizarCierreAutomatico(CierreAutomaticoRequestDto peticion, String emailEmpresa);
 }
@@ -1,7 +1,16 @@
 package es.timebee.services;
 
 import es.timebee.domain.dto.FichajeEditRequestDto;
+import es.timebee.domain.dto.FichajeLoteRequestDto;
+import es.timebee.domain.dto.FichajeLoteResultadoDto;
 import es.timebee.domain.dto.FichajeRequestDto;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.FichajesRangoRequestDto;
+import es.timebee.domain.dto.PresentesDto;
+import es.timebee.security.UsuarioAutenticado;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 /**
  * Servicio que define las operaciones clave para gestionar fichajes.
@@ -19,10 +28,22 @@ public interface FichajeService {
      * asegurando que los datos estén completos y validados.
      *
      * @param fichajeRequestDto datos del fichaje a crear
-     * @param emailEmpresa correo de la empresa responsable
+     * @param usuario la empresa autenticada responsable
      * @return true si se crea correctamente
      */
-    Boolean crearFichaje(FichajeRequestDto fichajeRequestDto, String emailEmpresa);
+    Boolean crearFichaje(FichajeRequestDto fichajeRequestDto, UsuarioAutenticado usuario);
+
+    /**
+     * Registra de una vez un lote de fichajes enviado por un terminal.
+     * <p>
+     * Cada evento se valida por separado: los correctos se guardan y los incorrectos
+     * se devuelven con el motivo del rechazo, sin que uno malo tumbe el lote entero.
+     *
+     * @param fichajeLoteRequestDto eventos del lote
+     * @param usuario la empresa autenticada responsable
+     * @return el resultado de cada evento, en el mismo orden del lote
+     */
+    List<FichajeLoteResultadoDto> registrarLote(FichajeLoteRequestDto fichajeLoteRequestDto, UsuarioAutenticado usuario);
 
     /**
      * Edita un fichaje existente.
@@ -30,10 +51,10 @@ public interface FichajeService {
      * Permite corregir errores o ajustar datos en fichajes ya registrados.
      *
      * @param fichajeEditRequestDto datos editados del fichaje
-     * @param emailEmpresa correo de la empresa responsable
+     * @param usuario la empresa autenticada responsable
      * @return true si se edita correctamente
      */
-    Boolean editarFichaje(FichajeEditRequestDto fichajeEditRequestDto, String emailEmpresa);
+    Boolean editarFichaje(FichajeEditRequestDto fichajeEditRequestDto, UsuarioAutenticado usuario);
 
     /**
      * Elimina un fichaje del sistema.
@@ -42,28 +63,63 @@ public interface FichajeService {
      * los fichajes autorizados.
      *
      * @param id identificador del fichaje
-     * @param emailEmpresa correo de la empresa responsable
+     * @param usuario la empresa autenticada responsable
      * @return true si se elimina correctamente
      */
-    Boolean eliminarFichaje(Long id, String emailEmpresa);
+    Boolean eliminarFichaje(Long id, UsuarioAutenticado usuario);
 
     /**
      * Inicia un nuevo fichaje (marca de entrada) para un trabajador.
      * <p>
      * Registra el momento en que la jornada laboral comienza.
      *
-     * @param trabajadorEmail correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return true si se inicia correctamente
      */
-    Boolean iniciarFichaje(String trabajadorEmail);
+    Boolean iniciarFichaje(UsuarioAutenticado usuario);
 
     /**
      * Finaliza el fichaje abierto (marca de salida) de un trabajador.
      * <p>
      * Cierra oficialmente la jornada laboral.
      *
-     * @param trabajadorEmail correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return true si se finaliza correctamente
      */
-    Boolean finalizarFichaje(String trabajadorEmail);
+    Boolean finalizarFichaje(UsuarioAutenticado usuario);
+
+    /**
+     * Obtiene los fichajes de la empresa que empiezan dentro de un rango de fechas,
+     * opcionalmente de un solo trabajador.
+     *
+     * @param peticion rango de fechas y trabajador opcional
+     * @param usuario  la empresa autenticada
+     * @return los fichajes del rango, del más antiguo al más reciente
+     */
+    List<FichajeResumenDto> getFichajesEmpresaRango(FichajesRangoRequestDto peticion, UsuarioAutenticado usuario);
+
+    /**
+     * Obtiene los fichajes de un trabajador que empiezan dentro de un rango de fechas.
+     *
+     * @param peticion rango de fechas
+     * @param usuario  el trabajador autenticado
+     * @return los fichajes del rango, del más antiguo al más reciente
+     */
+    List<FichajeResumenDto> getFichajesTrabajadorRango(FichajesRangoRequestDto peticion, UsuarioAutenticado usuario);
+
+    /**
+     * Obtiene los trabajadores de la empresa que tienen ahora mismo un fichaje abierto.
+     *
+     * @param usuario la empresa autenticada
+     * @return cuántos y cuáles están dentro
+     */
+    PresentesDto getPresentesEmpresa(UsuarioAutenticado usuario);
+
+    /**
+     * Abre una conexión al feed en directo de los cambios de fichajes de la empresa.
+     *
+     * @param usuario la empresa autenticada
+     * @return la conexión SSE por la que llegan los eventos
+     */
+    SseEmitter suscribirFichajesEmpresa(UsuarioAutenticado usuario);
 }
@@ -0,0 +1,58 @@
+package es.timebee.services;
+
+import es.timebee.domain.dto.HorasDiaDto;
+import es.timebee.domain.dto.HorasMesRequestDto;
+import es.timebee.domain.dto.HorasTrabajadorMesDto;
+
+import java.util.List;
+
+/**
+ * Servicio que responde a las consultas de horas trabajadas.
+ * <p>
+ * Todas las respuestas salen de las tablas resumen por día, nunca de sumar fichajes uno a uno,
+ * así que cuestan lo mismo con mil fichajes que con cien millones.
+ */
+public interface HorasService {
+
+    /**
+     * Obtiene los minutos trabajados en un mes por cada trabajador de la empresa.
+     *
+     * @param peticion     el mes a consultar
+     * @param emailEmpresa correo de la empresa
+     * @return los minutos de cada trabajador
+     */
+    List<HorasTrabajadorMesDto> getHorasEmpresaPorTrabajador(HorasMesRequestDto peticion, String emailEmpresa);
+
+    /**
+     * Obtiene los minutos trabajados por toda la empresa, día a día, en un mes.
+     *
+     * @param peticion     el mes a consultar
+     * @param emailEmpresa correo de la empresa
+     * @return los minutos de cada día
+     */
+    List<HorasDiaDto> getHorasEmpresaPorDia(HorasMesRequestDto peticion, String emailEmpresa);
+
+    /**
+     * Obtiene los minutos trabajados por un trabajador, día a día, en un mes.
+     *
+     * @param peticion        el mes a consultar
+     * @param emailTrabajador correo del trabajador
+     * @return los minutos de cada día
+     */
+    List<HorasDiaDto> getHorasTrabajadorPorDia(HorasMesRequestDto peticion, String emailTrabajador);
+
+    /**
+     * Reconstruye desde cero las tablas resumen de horas a partir de los fichajes cerrados.
+     * <p>
+     * Pensado para rellenar el histórico o corregir desviaciones; conviene lanzarlo
+     * cuando haya poca actividad de fichajes.
+     *
+     * @return true si se reconstruye correctamente
+     */
+    Boolean reconstruir();
+
+    /**
+     * Reconstruye las tablas resumen solo si están vacías (por ejemplo, al arrancar).
+     */
+    void reconstruirSiVacio();
+}
@@ -0,0 +1,29 @@
+package es.timebee.services;
+
+import es.timebee.security.UsuarioAutenticado;
+
+/**
+ * Servicio de entradas y salidas de los trabajadores.
+ * <p>
+ * Normalmente delega en {@link FichajeService}; si la base de datos no está disponible
+ * y el modo sin conexión está activado, las acepta igualmente en el diario local
+ * para escribirlas cuando vuelva.
+ */
+public interface MarcajeService {
+
+    /**
+     * Registra la entrada de un trabajador.
+     *
+     * @param usuario el trabajador autenticado
+     * @return true si se ha registrado
+     */
+    Boolean entrada(UsuarioAutenticado usuario);
+
+    /**
+     * Registra la salida de un trabajador.
+     *
+     * @param usuario el trabajador autenticado
+     * @return true si se ha registrado
+     */
+    Boolean salida(UsuarioAutenticado usuario);
+}
@@ -1,7 +1,9 @@
 package es.timebee.services;
 
 import es.timebee.domain.dto.NominaDownloadDto;
+import es.timebee.domain.dto.NominaLoteResultadoDto;
 import es.timebee.domain.dto.NominaMetadataDto;
+import es.timebee.security.UsuarioAutenticado;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -26,10 +28,23 @@ public interface NominaService {
      * @param trabajadorId id del trabajador
      * @param periodo mes/año al que pertenece la nómina
      * @param file archivo PDF de la nómina
-     * @param emailEmpresa correo de la empresa que sube el archivo
+     * @param usuario la empresa autenticada que sube el archivo
      * @return true si se guarda correctamente
      */
-    Boolean subirNomina(@NotNull Long trabajadorId, LocalDate periodo, MultipartFile file, String emailEmpresa);
+    Boolean subirNomina(@NotNull Long trabajadorId, LocalDate periodo, MultipartFile file, UsuarioAutenticado usuario);
+
+    /**
+     * Sube de una vez las nóminas de un periodo a partir de un ZIP con un PDF por trabajador,
+     * nombrado con su DNI o su NAF.
+     * <p>
+     * Cada archivo se valida y se guarda por separado: uno incorrecto no impide subir los demás.
+     *
+     * @param periodo mes/año al que pertenecen las nóminas
+     * @param zip archivo ZIP con los PDF
+     * @param usuario la empresa autenticada que sube el archivo
+     * @return el resultado de cada archivo del ZIP, en su orden
+     */
+    List<NominaLoteResultadoDto> subirLoteNominas(LocalDate periodo, MultipartFile zip, UsuarioAutenticado usuario);
 
     /**
      * Elimina una nómina del sistema.
@@ -37,10 +52,10 @@ public interface NominaService {
      * Solo empresas autorizadas pueden realizar esta operación.
      *
      * @param id id de la nómina
-     * @param emailEmpresa correo de la empresa que solicita la eliminación
+     * @param usuario la empresa autenticada que solicita la eliminación
      * @return true si se elimina correctamente
      */
-    Boolean eliminarNomina(Long id, String emailEmpresa);
+    Boolean eliminarNomina(Long id, UsuarioAutenticado usuario);
 
     /**
      * Obtiene la lista de nóminas asociadas a un trabajador (por id).
@@ -48,17 +63,18 @@ public interface NominaService {
      * Ideal para mostrar historiales, listados o reportes.
      *
      * @param trabajadorId id del trabajador
+     * @param usuario el usuario autenticado (empresa o trabajador)
      * @return lista de metadatos de nóminas
      */
-    List<NominaMetadataDto> obtenerNominasPorTrabajador(Long trabajadorId);
+    List<NominaMetadataDto> obtenerNominasPorTrabajador(Long trabajadorId, UsuarioAutenticado usuario);
 
     /**
-     * Obtiene la lista de nóminas asociadas a un trabajador (por email).
+     * Obtiene la lista de nóminas del trabajador autenticado.
      *
-     * @param trabajadorEmail correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return lista de metadatos de nóminas
      */
-    List<NominaMetadataDto> obtenerNominasPorTrabajadorEmail(String trabajadorEmail);
+    List<NominaMetadataDto> obtenerNominasPropias(UsuarioAutenticado usuario);
 
     /**
      * Descarga el archivo PDF de una nómina específica.
@@ -66,7 +82,8 @@ public interface NominaService {
      * Verifica permisos antes de entregar el documento.
      *
      * @param id id de la nómina
+     * @param usuario el usuario autenticado (empresa o trabajador)
      * @return DTO con el contenido del PDF y sus metadatos
      */
-    NominaDownloadDto descargarNomina(Long id);
+    NominaDownloadDto descargarNomina(Long id, UsuarioAutenticado usuario);
 }
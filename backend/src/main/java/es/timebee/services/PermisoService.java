@@ -1,6 +1,7 @@
 package es.timebee.services;
 
 import es.timebee.domain.dto.*;
+import es.timebee.security.UsuarioAutenticado;
 
 import java.util.List;
 
@@ -45,29 +46,29 @@ public interface PermisoService {
      * Permite a una empresa validar (aprobar o rechazar) un permiso.
      *
      * @param dto datos de validación
-     * @param emailEmpresa correo de la empresa que valida
+     * @param usuario la empresa autenticada que valida
      * @return true si la validación fue exitosa
      */
-    Boolean validarPermiso(PermisoValidarDto dto, String emailEmpresa);
+    Boolean validarPermiso(PermisoValidarDto dto, UsuarioAutenticado usuario);
 
     /**
      * Permite a un trabajador eliminar su propia solicitud de permiso.
      *
      * @param id id del permiso
-     * @param emailTrabajador correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return true si se elimina correctamente
      */
-    Boolean eliminarPermiso(Long id, String emailTrabajador);
+    Boolean eliminarPermiso(Long id, UsuarioAutenticado usuario);
 
     /**
      * Obtiene todos los permisos de una empresa.
      * <p>
      * Útil para informes, paneles de gestión y revisiones.
      *
-     * @param emailEmpresa correo de la empresa
+     * @param usuario la empresa autenticada
      * @return lista de permisos
      */
-    List<PermisosDto> obtenerPermisosPorEmpresaId(String emailEmpresa);
+    List<PermisosDto> obtenerPermisosPorEmpresaId(UsuarioAutenticado usuario);
 
     /**
      * Obtiene todos los permisos asociados a un trabajador.
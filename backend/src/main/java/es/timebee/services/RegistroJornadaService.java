@@ -0,0 +1,26 @@
+package es.timebee.services;
+
+import es.timebee.domain.dto.RegistroJornadaRequestDto;
+import es.timebee.security.UsuarioAutenticado;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Servicio que exporta el registro de jornada de una empresa.
+ * <p>
+ * Es el documento que piden los inspectores de trabajo: todas las entradas y salidas
+ * de la plantilla en un periodo, que puede ser de años.
+ */
+public interface RegistroJornadaService {
+
+    /**
+     * Prepara la exportación en CSV del registro de jornada de la empresa.
+     * <p>
+     * El periodo se valida al llamar; las filas se leen y se escriben
+     * después, a medida que se envía la respuesta, sin cargarlas todas en memoria.
+     *
+     * @param peticion periodo a exportar
+     * @param usuario  la empresa autenticada
+     * @return el cuerpo de la respuesta, que escribe el CSV
+     */
+    StreamingResponseBody exportarCsv(RegistroJornadaRequestDto peticion, UsuarioAutenticado usuario);
+}
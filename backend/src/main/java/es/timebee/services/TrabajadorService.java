@@ -1,7 +1,7 @@
 package es.timebee.services;
 
 import es.timebee.domain.dto.ActualizarTrabajadorDto;
-import es.timebee.domain.dto.FichajesDto;
+import es.timebee.domain.dto.FichajeResumenDto;
 import es.timebee.domain.dto.TrabajadorDto;
 import jakarta.validation.Valid;
 
@@ -23,9 +23,9 @@ public interface TrabajadorService {
      * o detalles de asistencia.
      *
      * @param email correo del trabajador
-     * @return lista de fichajes en formato DTO
+     * @return lista de fichajes en formato resumen
      */
-    List<FichajesDto> getFichajesPorEmailTrabajador(String email);
+    List<FichajeResumenDto> getFichajesPorEmailTrabajador(String email);
 
     /**
      * Obtiene los datos personales del trabajador.
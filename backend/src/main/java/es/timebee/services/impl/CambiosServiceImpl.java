@@ -0,0 +1,331 @@
+package es.timebee.services.impl;
+
+import es.timebee.domain.constantes.Numeros;
+import es.timebee.domain.dto.CambiosDto;
+import es.timebee.domain.dto.CambiosRequestDto;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.NominaResumenDto;
+import es.timebee.domain.dto.PermisoResumenDto;
+import es.timebee.domain.entity.Empresa;
+import es.timebee.domain.entity.Trabajador;
+import es.timebee.domain.enumeration.EntidadSincronizada;
+import es.timebee.domain.enumeration.EstadoPermiso;
+import es.timebee.domain.enumeration.TipoPermiso;
+import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.exception.ProcesoException;
+import es.timebee.services.CambiosService;
+import es.timebee.utils.CursorUtils;
+import es.timebee.utils.HorizonteCambios;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación del servicio de sincronización incremental.
+ * <p>
+ * Fichajes, permisos y nóminas llevan una columna {@code fecha_modificacion} que mantiene
+ * la propia base de datos en cada {@code INSERT} y {@code UPDATE}, también en los que no
+ * pasan por Hibernate (lotes JDBC, cierre automático). Las bajas dejan una fila en
+ * {@code eliminacion}. Un token son dos posiciones (fecha + id): la última fila modificada
+ * y la última eliminación entregadas; cada consulta continúa desde su posición por índice.
+ * <p>
+ * La fecha la pone cada transacción al escribir, no al confirmar, así que nunca se entrega
+ * nada posterior al {@link HorizonteCambios}: lo que quede por encima sale en una
+ * sincronización siguiente.
+ */
+@Service
+public class CambiosServiceImpl implements CambiosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CambiosServiceImpl.class);
+
+    private static final LocalDateTime ORIGEN = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String SEPARADOR_TOKEN = ".";
+    private static final int BORRADO_POR_LOTE = 1_000;
+
+    private static final String FICHAJES_EMPRESA = """
+            SELECT f.id, f.trabajador_id, f.empresa_id, t.nombre, t.apellidos, f.fecha_inicio, f.fecha_fin, f.fecha_modificacion
+            FROM fichaje f JOIN trabajador t ON t.id = f.trabajador_id
+            WHERE f.empresa_id = :empresaId
+              AND (f.fecha_modificacion > :fecha OR (f.fecha_modificacion = :fecha AND f.id > :id))
+              AND f.fecha_modificacion < :horizonte
+            ORDER BY f.fecha_modificacion, f.id
+            LIMIT :limite""";
+
+    private static final String FICHAJES_TRABAJADOR = """
+            SELECT f.id, f.trabajador_id, f.empresa_id, t.nombre, t.apellidos, f.fecha_inicio, f.fecha_fin, f.fecha_modificacion
+            FROM fichaje f JOIN trabajador t ON t.id = f.trabajador_id
+            WHERE f.trabajador_id = :trabajadorId
+              AND (f.fecha_modificacion > :fecha OR (f.fecha_modificacion = :fecha AND f.id > :id))
+              AND f.fecha_modificacion < :horizonte
+            ORDER BY f.fecha_modificacion, f.id
+            LIMIT :limite""";
+
+    private static final String PERMISOS_EMPRESA = """
+            SELECT p.id, p.trabajador_id, p.tipo_permiso, p.fecha, p.hora, p.estado, p.fecha_modificacion
+            FROM permiso p JOIN trabajador t ON t.id = p.trabajador_id
+            WHERE t.empresa_id = :empresaId
+              AND (p.fecha_modificacion > :fecha OR (p.fecha_modificacion = :fecha AND p.id > :id))
+              AND p.fecha_modificacion < :horizonte
+            ORDER BY p.fecha_modificacion, p.id
+            LIMIT :limite""";
+
+    private static final String NOMINAS_EMPRESA = """
+            SELECT n.id, n.trabajador_id, n.periodo, n.nombre_archivo, n.tamano, n.fecha_subida, n.fecha_modificacion
+            FROM nomina n
+            WHERE n.empresa_id = :empresaId
+              AND (n.fecha_modificacion > :fecha OR (n.fecha_modificacion = :fecha AND n.id > :id))
+              AND n.fecha_modificacion < :horizonte
+            ORDER BY n.fecha_modificacion, n.id
+            LIMIT :limite""";
+
+    private static final String ELIMINADOS_EMPRESA = """
+            SELECT e.id, e.entidad_id, e.fecha AS fecha_modificacion
+            FROM eliminacion e
+            WHERE e.empresa_id = :empresaId AND e.entidad = :entidad
+              AND (e.fecha > :fecha OR (e.fecha = :fecha AND e.id > :id))
+              AND e.fecha < :horizonte
+            ORDER BY e.fecha, e.id
+            LIMIT :limite""";
+
+    private static final String ELIMINADOS_TRABAJADOR = """
+            SELECT e.id, e.entidad_id, e.fecha AS fecha_modificacion
+            FROM eliminacion e
+            WHERE e.empresa_id = :empresaId AND e.entidad = :entidad AND e.trabajador_id = :trabajadorId
+              AND (e.fecha > :fecha OR (e.fecha = :fecha AND e.id > :id))
+              AND e.fecha < :horizonte
+            ORDER BY e.fecha, e.id
+            LIMIT :limite""";
+
+    private static final String PURGAR = """
+            DELETE FROM eliminacion WHERE fecha < DATE_SUB(NOW(6), INTERVAL :segundos SECOND) LIMIT :limite""";
+
+    private static final RowMapper<FichajeResumenDto> FICHAJE = (rs, fila) -> FichajeResumenDto.builder()
+            .id(rs.getLong("id"))
+            .trabajadorId(rs.getLong("trabajador_id"))
+            .empresaId(rs.getLong("empresa_id"))
+            .nombre(rs.getString("nombre"))
+            .apellidos(rs.getString("apellidos"))
+            .fechaInicio(rs.getObject("fecha_inicio", LocalDateTime.class))
+            .fechaFin(rs.getObject("fecha_fin", LocalDateTime.class))
+            .build();
+
+    private static final RowMapper<PermisoResumenDto> PERMISO = (rs, fila) -> PermisoResumenDto.builder()
+            .id(rs.getLong("id"))
+            .trabajadorId(rs.getLong("trabajador_id"))
+            .permiso(TipoPermiso.valueOf(rs.getString("tipo_permiso")))
+            .fecha(rs.getObject("fecha", LocalDate.class))
+            .hora(rs.getFloat("hora"))
+            .estado(EstadoPermiso.valueOf(rs.getString("estado")))
+            .build();
+
+    private static final RowMapper<NominaResumenDto> NOMINA = (rs, fila) -> NominaResumenDto.builder()
+            .id(rs.getLong("id"))
+            .trabajadorId(rs.getLong("trabajador_id"))
+            .periodo(rs.getObject("periodo", LocalDate.class))
+            .nombreArchivo(rs.getString("nombre_archivo"))
+            .tamano(rs.getLong("tamano"))
+            .fechaSubida(rs.getObject("fecha_subida", LocalDateTime.class))
+            .build();
+
+    private static final RowMapper<Long> ELIMINADO = (rs, fila) -> rs.getLong("entidad_id");
+
+    private final EmpresaRepository empresaRepository;
+    private final TrabajadorRepository trabajadorRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HorizonteCambios horizonteCambios;
+    private final Duration retencion;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración de la sincronización.
+     *
+     * @param empresaRepository    repositorio de empresas
+     * @param trabajadorRepository repositorio de trabajadores
+     * @param jdbcTemplate         plantilla JDBC con parámetros con nombre
+     * @param horizonteCambios     límite hasta el que los cambios ya están confirmados
+     * @param retencion            tiempo que se conservan las eliminaciones (y validez de un token)
+     */
+    public CambiosServiceImpl(EmpresaRepository empresaRepository,
+                              TrabajadorRepository trabajadorRepository,
+                              NamedParameterJdbcTemplate jdbcTemplate,
+                              HorizonteCambios horizonteCambios,
+                              @Value("${timebee.cambios.retencion:P90D}") Duration retencion) {
+        this.empresaRepository = empresaRepository;
+        this.trabajadorRepository = trabajadorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.horizonteCambios = horizonteCambios;
+        this.retencion = retencion;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CambiosDto<FichajeResumenDto> getCambiosFichajesEmpresa(CambiosRequestDto peticion, String emailEmpresa) {
+        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
+                .orElseThrow(() -> new ProcesoException("Empresa no encontrada"));
+        MapSqlParameterSource filtro = new MapSqlParameterSource()
+                .addValue("empresaId", empresa.getId())
+                .addValue("entidad", EntidadSincronizada.FICHAJE.name());
+        return cambios(peticion, filtro, FICHAJES_EMPRESA, FICHAJE, ELIMINADOS_EMPRESA);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CambiosDto<FichajeResumenDto> getCambiosFichajesTrabajador(CambiosRequestDto peticion, String emailTrabajador) {
+        Trabajador trabajador = trabajadorRepository.findByEmailIgnoreCase(emailTrabajador)
+                .orElseThrow(() -> new ProcesoException("Trabajador no encontrado"));
+        MapSqlParameterSource filtro = new MapSqlParameterSource()
+                .addValue("empresaId", trabajador.getEmpresa().getId())
+                .addValue("trabajadorId", trabajador.getId())
+                .addValue("entidad", EntidadSincronizada.FICHAJE.name());
+        return cambios(peticion, filtro, FICHAJES_TRABAJADOR, FICHAJE, ELIMINADOS_TRABAJADOR);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CambiosDto<PermisoResumenDto> getCambiosPermisosEmpresa(CambiosRequestDto peticion, String emailEmpresa) {
+        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
+                .orElseThrow(() -> new ProcesoException("Empresa no encontrada"));
+        MapSqlParameterSource filtro = new MapSqlParameterSource()
+                .addValue("empresaId", empresa.getId())
+                .addValue("entidad", EntidadSincronizada.PERMISO.name());
+        return cambios(peticion, filtro, PERMISOS_EMPRESA, PERMISO, ELIMINADOS_EMPRESA);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CambiosDto<NominaResumenDto> getCambiosNominasEmpresa(CambiosRequestDto peticion, String emailEmpresa) {
+        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
+                .orElseThrow(() -> new ProcesoException("Empresa no encontrada"));
+        MapSqlParameterSource filtro = new MapSqlParameterSource()
+                .addValue("empresaId", empresa.getId())
+                .addValue("entidad", EntidadSincronizada.NOMINA.name());
+        return cambios(peticion, filtro, NOMINAS_EMPRESA, NOMINA, ELIMINADOS_EMPRESA);
+    }
+
+    /**
+     * Elimina por lotes las eliminaciones más antiguas que el periodo de retención.
+     * <p>
+     * Un cliente con un token anterior a ese periodo ya no puede saber qué se borró,
+     * así que {@link #cambios} le obliga a sincronizar desde cero.
+     */
+    @Scheduled(fixedDelayString = "${timebee.cambios.purga:PT6H}", initialDelayString = "${timebee.cambios.purga:PT6H}")
+    public void purgarEliminaciones() {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("segundos", retencion.toSeconds())
+                .addValue("limite", BORRADO_POR_LOTE);
+        try {
+            int borradas;
+            do {
+                borradas = jdbcTemplate.update(PURGAR, parametros);
+            } while (borradas == BORRADO_POR_LOTE);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudieron purgar las eliminaciones caducadas", e);
+        }
+    }
+
+    /**
+     * Lee los cambios posteriores al token: modificados y eliminados, cada uno desde su
+     * posición y hasta {@code tamano} filas, y calcula el token siguiente.
+     * <p>
+     * Si una de las dos consultas no llena la página, ya no queda nada anterior al horizonte
+     * y su posición avanza hasta él; así el token refleja la hora de la última sincronización
+     * aunque no haya habido cambios, y solo caduca si el cliente deja de sincronizar.
+     */
+    private <T> CambiosDto<T> cambios(CambiosRequestDto peticion, MapSqlParameterSource filtro,
+                                      String consultaModificados, RowMapper<T> mapper, String consultaEliminados) {
+        int tamano = peticion.getTamano() != null ? peticion.getTamano() : Numeros.QUINIENTOS;
+        LocalDateTime ahora = horizonteCambios.ahora();
+        LocalDateTime horizonte = horizonteCambios.calcular(ahora);
+        CursorUtils.Posicion[] token = decodificarToken(peticion.getToken());
+        if (token[1].fecha().isAfter(ORIGEN) && token[1].fecha().isBefore(ahora.minus(retencion))) {
+            throw new ProcesoException("El token de sincronización ha caducado, hay que sincronizar desde cero");
+        }
+
+        List<Fila<T>> modificados = leer(consultaModificados, mapper, filtro, token[0], horizonte, tamano);
+        List<Fila<Long>> eliminados = leer(consultaEliminados, ELIMINADO, filtro, token[1], horizonte, tamano);
+        boolean hayMasModificados = modificados.size() > tamano;
+        boolean hayMasEliminados = eliminados.size() > tamano;
+        if (hayMasModificados) {
+            modificados = modificados.subList(0, tamano);
+        }
+        if (hayMasEliminados) {
+            eliminados = eliminados.subList(0, tamano);
+        }
+
+        return CambiosDto.<T>builder()
+                .modificados(modificados.stream().map(Fila::valor).toList())
+                .eliminados(eliminados.stream().map(Fila::valor).toList())
+                .token(siguientePosicion(modificados, hayMasModificados, token[0], horizonte)
+                        + SEPARADOR_TOKEN
+                        + siguientePosicion(eliminados, hayMasEliminados, token[1], horizonte))
+                .hayMas(hayMasModificados || hayMasEliminados)
+                .build();
+    }
+
+    private <T> List<Fila<T>> leer(String consulta, RowMapper<T> mapper, MapSqlParameterSource filtro,
+                                   CursorUtils.Posicion desde, LocalDateTime horizonte, int tamano) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource(filtro.getValues())
+                .addValue("fecha", desde.fecha())
+                .addValue("id", desde.id())
+                .addValue("horizonte", horizonte)
+                .addValue("limite", tamano + 1);
+        return jdbcTemplate.query(consulta, parametros, (rs, fila) -> new Fila<>(
+                mapper.mapRow(rs, fila), rs.getObject("fecha_modificacion", LocalDateTime.class), rs.getLong("id")));
+    }
+
+    private static String siguientePosicion(List<? extends Fila<?>> filas, boolean hayMas,
+                                            CursorUtils.Posicion anterior, LocalDateTime horizonte) {
+        if (hayMas) {
+            Fila<?> ultima = filas.get(filas.size() - 1);
+            return CursorUtils.codificar(ultima.fecha(), ultima.id());
+        }
+        if (anterior.fecha().isAfter(horizonte)) {
+            return CursorUtils.codificar(anterior.fecha(), anterior.id());
+        }
+        return CursorUtils.codificar(horizonte, 0L);
+    }
+
+    private static CursorUtils.Posicion[] decodificarToken(String token) {
+        if (token == null || token.isBlank()) {
+            CursorUtils.Posicion origen = new CursorUtils.Posicion(ORIGEN, 0L);
+            return new CursorUtils.Posicion[]{origen, origen};
+        }
+        int separador = token.indexOf(SEPARADOR_TOKEN);
+        CursorUtils.Posicion modificados = separador > 0 ? CursorUtils.decodificar(token.substring(0, separador)) : null;
+        CursorUtils.Posicion eliminados = separador > 0 ? CursorUtils.decodificar(token.substring(separador + 1)) : null;
+        if (modificados == null || eliminados == null) {
+            throw new ProcesoException("El token de sincronización no es válido");
+        }
+        return new CursorUtils.Posicion[]{modificados, eliminados};
+    }
+
+    /**
+     * Una fila leída junto con su posición (fecha de modificación + id).
+     */
+    private record Fila<T>(T valor, LocalDateTime fecha, long id) {
+    }
+}
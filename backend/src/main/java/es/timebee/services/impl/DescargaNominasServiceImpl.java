@@ -0,0 +1,229 @@
+package es.timebee.services.impl;
+
+import es.timebee.almacenamiento.AlmacenNominas;
+import es.timebee.domain.dto.NominasPeriodoRequestDto;
+import es.timebee.domain.entity.Trabajador;
+import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.exception.ProcesoException;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.DescargaNominasService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Implementación del servicio de descarga de nóminas en ZIP.
+ * <p>
+ * Las nóminas se leen por lotes con paginación por clave ({@code periodo, id}): cada lote es
+ * una consulta corta que devuelve la conexión al pool antes de escribir nada, de modo que un
+ * cliente lento no retiene una conexión ni deja un cursor abierto esperando a la red
+ * ({@code net_write_timeout}). Los lotes solo traen id, periodo, huella y DNI; cada PDF se copia
+ * a la respuesta por bloques desde el almacén o, en las nóminas antiguas, se lee de su fila
+ * con una consulta propia. En memoria solo hay un lote de metadatos y un PDF a la vez.
+ * <p>
+ * Los PDF ya van comprimidos, así que entran en el ZIP sin comprimir ({@code STORED}).
+ * Una entrada {@code STORED} necesita su CRC-32 y su tamaño antes de escribirse: los del
+ * almacén se leen dos veces, una para calcularlos y otra para copiarlos.
+ */
+@Service
+public class DescargaNominasServiceImpl implements DescargaNominasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DescargaNominasServiceImpl.class);
+
+    // "antigua" marca las nóminas cuyo PDF sigue en la fila, sin leer el blob.
+    private static final String COLUMNAS = """
+            SELECT n.id, n.periodo, n.huella, n.huella IS NULL AND n.archivo_pdf IS NOT NULL AS antigua, t.dni
+            FROM nomina n JOIN trabajador t ON t.id = n.trabajador_id
+            """;
+
+    private static final String SIGUIENTES = """
+              AND (n.periodo > ? OR (n.periodo = ? AND n.id > ?))
+            ORDER BY n.periodo, n.id
+            LIMIT ?""";
+
+    private static final String DE_TRABAJADOR = COLUMNAS + """
+            WHERE n.trabajador_id = ?
+            """ + SIGUIENTES;
+
+    private static final String DE_PERIODO = COLUMNAS + """
+            WHERE n.empresa_id = ? AND n.periodo >= ? AND n.periodo < ?
+            """ + SIGUIENTES;
+
+    private static final String PDF_ANTIGUO = """
+            SELECT archivo_pdf FROM nomina WHERE id = ?""";
+
+    private static final Date PERIODO_INICIAL = Date.valueOf(LocalDate.of(1000, 1, 1));
+    private static final int TAMANO_LOTE = 500;
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final TrabajadorRepository trabajadorRepository;
+    private final AlmacenNominas almacenNominas;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param trabajadorRepository repositorio de trabajadores
+     * @param almacenNominas       almacén de los PDF de las nóminas
+     * @param jdbcTemplate         plantilla JDBC de Spring
+     */
+    public DescargaNominasServiceImpl(TrabajadorRepository trabajadorRepository,
+                                      AlmacenNominas almacenNominas,
+                                      JdbcTemplate jdbcTemplate) {
+        this.trabajadorRepository = trabajadorRepository;
+        this.almacenNominas = almacenNominas;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ProcesoException si no se encuentra el trabajador
+     * @throws AccessDeniedException si el trabajador es de otra empresa
+     */
+    @Override
+    public StreamingResponseBody zipDeTrabajador(Long trabajadorId, UsuarioAutenticado usuario) {
+        Trabajador trabajador = trabajadorRepository.findById(trabajadorId)
+                .orElseThrow(() -> new ProcesoException("No se encontró el trabajador con id: " + trabajadorId));
+        if (!trabajador.getEmpresa().getId().equals(usuario.getEmpresaId())) {
+            throw new AccessDeniedException("No puedes descargar nóminas de trabajadores de otra empresa");
+        }
+        return zip(DE_TRABAJADOR, trabajador.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamingResponseBody zipPropio(UsuarioAutenticado usuario) {
+        return zip(DE_TRABAJADOR, usuario.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StreamingResponseBody zipDePeriodo(NominasPeriodoRequestDto peticion, UsuarioAutenticado usuario) {
+        YearMonth mes = YearMonth.of(peticion.getAnio(), peticion.getMes());
+        return zip(DE_PERIODO, usuario.getEmpresaId(), Date.valueOf(mes.atDay(1)), Date.valueOf(mes.plusMonths(1).atDay(1)));
+    }
+
+    /**
+     * Devuelve el cuerpo de la respuesta que recorre la consulta por lotes y escribe en el
+     * ZIP una entrada por nómina.
+     *
+     * @param consulta   la consulta de nóminas
+     * @param parametros sus parámetros de filtro, en orden
+     * @return el cuerpo de la respuesta
+     */
+    private StreamingResponseBody zip(String consulta, Object... parametros) {
+        return salida -> {
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(salida, TAMANO_BUFFER));
+            byte[] buffer = new byte[TAMANO_BUFFER];
+            Object[] argumentos = Arrays.copyOf(parametros, parametros.length + 4);
+            Date periodo = PERIODO_INICIAL;
+            long id = 0;
+            List<FilaNomina> lote;
+            do {
+                argumentos[parametros.length] = periodo;
+                argumentos[parametros.length + 1] = periodo;
+                argumentos[parametros.length + 2] = id;
+                argumentos[parametros.length + 3] = TAMANO_LOTE;
+                lote = jdbcTemplate.query(consulta, (rs, i) -> new FilaNomina(
+                        rs.getLong(1), rs.getDate(2), rs.getString(3), rs.getBoolean(4), rs.getString(5)), argumentos);
+                for (FilaNomina fila : lote) {
+                    escribirNomina(fila, zip, buffer);
+                    periodo = fila.periodo();
+                    id = fila.id();
+                }
+            } while (lote.size() == TAMANO_LOTE);
+            zip.finish();
+            zip.flush();
+        };
+    }
+
+    /**
+     * Escribe en el ZIP una nómina, con el nombre {@code <año-mes>_<dni>_<id>.pdf} para que
+     * no se repita ninguno.
+     *
+     * @param fila   la nómina
+     * @param zip    el ZIP de la respuesta
+     * @param buffer buffer para copiar los PDF
+     * @throws IOException si el cliente ha cortado la descarga
+     */
+    private void escribirNomina(FilaNomina fila, ZipOutputStream zip, byte[] buffer) throws IOException {
+        String nombre = MES.format(fila.periodo().toLocalDate()) + "_" + fila.dni() + "_" + fila.id() + ".pdf";
+        if (fila.huella() != null) {
+            escribirDesdeAlmacen(zip, nombre, fila.huella(), buffer);
+        } else if (fila.antigua()) {
+            List<byte[]> pdfs = jdbcTemplate.query(PDF_ANTIGUO, (rs, i) -> rs.getBytes(1), fila.id());
+            byte[] pdf = pdfs.isEmpty() ? null : pdfs.get(0);
+            if (pdf != null) {
+                CRC32 crc = new CRC32();
+                crc.update(pdf);
+                zip.putNextEntry(entradaSinComprimir(nombre, pdf.length, crc.getValue()));
+                zip.write(pdf);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Copia al ZIP un PDF del almacén: primero lo lee para calcular su CRC-32 y su tamaño,
+     * y después lo vuelve a leer para escribirlo. Si el PDF falta en el almacén, la nómina
+     * se salta para no estropear el resto del ZIP.
+     */
+    private void escribirDesdeAlmacen(ZipOutputStream zip, String nombre, String huella, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        long tamano = 0;
+        try (InputStream pdf = almacenNominas.abrir(huella)) {
+            for (int leidos = pdf.read(buffer); leidos != -1; leidos = pdf.read(buffer)) {
+                crc.update(buffer, 0, leidos);
+                tamano += leidos;
+            }
+        } catch (NoSuchFileException e) {
+            logger.warn("No se encontró en el almacén el PDF de la nómina {}", nombre);
+            return;
+        }
+        zip.putNextEntry(entradaSinComprimir(nombre, tamano, crc.getValue()));
+        try (InputStream pdf = almacenNominas.abrir(huella)) {
+            for (int leidos = pdf.read(buffer); leidos != -1; leidos = pdf.read(buffer)) {
+                zip.write(buffer, 0, leidos);
+            }
+        }
+        zip.closeEntry();
+    }
+
+    private static ZipEntry entradaSinComprimir(String nombre, long tamano, long crc) {
+        ZipEntry entrada = new ZipEntry(nombre);
+        entrada.setMethod(ZipEntry.STORED);
+        entrada.setSize(tamano);
+        entrada.setCompressedSize(tamano);
+        entrada.setCrc(crc);
+        return entrada;
+    }
+
+    /**
+     * Metadatos de una nómina de la descarga, sin su PDF.
+     */
+    private record FilaNomina(long id, Date periodo, String huella, boolean antigua, String dni) {
+    }
+}
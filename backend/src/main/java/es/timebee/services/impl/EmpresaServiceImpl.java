@@ -1,24 +1,32 @@
 package es.timebee.services.impl;
 
 import es.timebee.domain.dto.ActualizarEmpresaDto;
+import es.timebee.domain.dto.CierreAutomaticoRequestDto;
 import es.timebee.domain.dto.EmpresaDto;
-import es.timebee.domain.dto.FichajesDto;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.FichajesPaginaRequestDto;
+import es.timebee.domain.dto.PaginaDto;
 import es.timebee.domain.dto.TrabajadorDto;
+import es.timebee.domain.constantes.Numeros;
 import es.timebee.domain.entity.Empresa;
 import es.timebee.domain.entity.Trabajador;
 import es.timebee.domain.enumeration.Rol;
 import es.timebee.domain.mapper.EmpresaMapper;
-import es.timebee.domain.mapper.FichajesMapper;
 import es.timebee.domain.mapper.TrabajadorMapper;
 import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.domain.repository.FichajeRepository;
 import es.timebee.domain.repository.TrabajadorRepository;
 import es.timebee.exception.ProcesoException;
+import es.timebee.security.UsuarioAutenticado;
 import es.timebee.services.EmpresaService;
+import es.timebee.utils.CursorUtils;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -39,11 +47,15 @@ import java.util.stream.Collectors;
 @Transactional
 public class EmpresaServiceImpl implements EmpresaService {
 
+    // Extremos del tipo DATETIME de MySQL, para paginar sin filtro de fechas.
+    private static final LocalDateTime PRIMERA_FECHA = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime ULTIMA_FECHA = LocalDateTime.of(9999, 12, 31, 23, 59);
+
     private final EmpresaRepository empresaRepository;
     private final EmpresaMapper empresaMapper;
     private final TrabajadorMapper trabajadorMapper;
-    private final FichajesMapper fichajesMapper;
     private final TrabajadorRepository trabajadorRepository;
+    private final FichajeRepository fichajeRepository;
     private final PasswordEncoder passwordEncoder;
 
     /**
@@ -52,18 +64,18 @@ public class EmpresaServiceImpl implements EmpresaService {
      * @param empresaRepository        repositorio JPA de empresas.
      * @param empresaMapper            mapper de empresa.
      * @param trabajadorMapper         mapper de trabajador.
-     * @param fichajesMapper           mapper de fichajes.
      * @param trabajadorRepository     repositorio JPA de trabajadores.
+     * @param fichajeRepository        repositorio JPA de fichajes.
      * @param passwordEncoder          codificador de contraseñas.
      */
     public EmpresaServiceImpl(EmpresaRepository empresaRepository, EmpresaMapper empresaMapper,
-                              TrabajadorMapper trabajadorMapper,
-                              FichajesMapper fichajesMapper, TrabajadorRepository trabajadorRepository, PasswordEncoder passwordEncoder) {
+                              TrabajadorMapper trabajadorMapper, TrabajadorRepository trabajadorRepository,
+                              FichajeRepository fichajeRepository, PasswordEncoder passwordEncoder) {
         this.empresaRepository = empresaRepository;
         this.empresaMapper = empresaMapper;
         this.trabajadorMapper = trabajadorMapper;
-        this.fichajesMapper = fichajesMapper;
         this.trabajadorRepository = trabajadorRepository;
+        this.fichajeRepository = fichajeRepository;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -112,26 +124,72 @@ public class EmpresaServiceImpl implements EmpresaService {
      * Obtiene todos los fichajes asociados a una empresa por su email.
      *
      * @param email el email de la empresa.
-     * @return lista de fichajes en formato DTO.
+     * @return lista de fichajes en formato resumen.
      */
     @Override
-    public List<FichajesDto> getFichajesEmpresaPorEmail(String email) {
-        return empresaRepository.findByFichajes_Empresa_EmailEqualsIgnoreCase(email)
-                .stream()
-                .map(fichajesMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<FichajeResumenDto> getFichajesEmpresaPorEmail(String email) {
+        return empresaRepository.findByFichajes_Empresa_EmailEqualsIgnoreCase(email);
+    }
+
+    /**
+     * Obtiene una página de fichajes de la empresa usando paginación por cursor.
+     * <p>
+     * Se pide un elemento más de los solicitados para saber si hay página siguiente
+     * sin necesidad de una consulta de conteo.
+     *
+     * @param peticion parámetros de paginación y filtros.
+     * @param usuario  la empresa autenticada.
+     * @return página de fichajes en formato resumen.
+     * @throws ProcesoException si el cursor no es válido.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDto<FichajeResumenDto> getFichajesEmpresaPaginados(FichajesPaginaRequestDto peticion, UsuarioAutenticado usuario) {
+        int tamano = peticion.getTamano() != null ? peticion.getTamano() : Numeros.CINCUENTA;
+        CursorUtils.Posicion posicion = CursorUtils.decodificar(peticion.getCursor());
+
+        // Los filtros que faltan se sustituyen por los extremos, y el "hasta" (exclusivo) es
+        // el cursor de la primera página: así la consulta tiene siempre la misma forma.
+        LocalDateTime desde = peticion.getDesde() != null ? peticion.getDesde() : PRIMERA_FECHA;
+        LocalDateTime hasta = peticion.getHasta() != null ? peticion.getHasta() : ULTIMA_FECHA;
+        LocalDateTime cursorFecha = hasta;
+        long cursorId = 0L;
+        if (posicion != null && posicion.fecha().isBefore(hasta)) {
+            cursorFecha = posicion.fecha();
+            cursorId = posicion.id();
+        }
+        PageRequest limite = PageRequest.of(0, tamano + 1);
+
+        List<FichajeResumenDto> fichajes = peticion.getTrabajadorId() != null
+                ? fichajeRepository.findPaginaTrabajador(usuario.getEmpresaId(), peticion.getTrabajadorId(), desde, cursorFecha, cursorId, limite)
+                : fichajeRepository.findPaginaEmpresa(usuario.getEmpresaId(), desde, cursorFecha, cursorId, limite);
+
+        boolean hayMas = fichajes.size() > tamano;
+        List<FichajeResumenDto> pagina = hayMas ? fichajes.subList(0, tamano) : fichajes;
+        String siguienteCursor = null;
+        if (hayMas) {
+            FichajeResumenDto ultimo = pagina.get(pagina.size() - 1);
+            siguienteCursor = CursorUtils.codificar(ultimo.getFechaInicio(), ultimo.getId());
+        }
+
+        return PaginaDto.<FichajeResumenDto>builder()
+                .contenido(List.copyOf(pagina))
+                .siguienteCursor(siguienteCursor)
+                .hayMas(hayMas)
+                .build();
     }
 
     /**
      * Da de alta a un nuevo trabajador en la empresa.
      *
      * @param peticion     los datos del trabajador.
-     * @param emailEmpresa el email de la empresa que lo registra.
+     * @param usuario      la empresa autenticada que lo registra.
      * @return {@code true} si se ha registrado correctamente.
      * @throws ProcesoException si hay datos duplicados o errores al guardar.
      */
     @Override
-    public Boolean altaTrabajador(TrabajadorDto peticion, String emailEmpresa) {
+    public Boolean altaTrabajador(TrabajadorDto peticion, UsuarioAutenticado usuario) {
         // Verifica si ya existe un trabajador con el mismo email
         if (trabajadorRepository.existsByEmailIgnoreCase(peticion.getEmail())) {
             throw new ProcesoException("El email " + peticion.getEmail() + " ya se encuentra en uso");
@@ -141,8 +199,7 @@ public class EmpresaServiceImpl implements EmpresaService {
             throw new ProcesoException("Ya existe un trabajador con el mismo DNI");
         }
 
-        Empresa empresa = empresaRepository.findByEmail(emailEmpresa)
-                .orElseThrow(() -> new ProcesoException("Empresa no encontrada"));
+        Empresa empresa = empresaRepository.getReferenceById(usuario.getEmpresaId());
 
         try {
             peticion.setRol(Rol.TRABAJADOR);
@@ -161,16 +218,16 @@ public class EmpresaServiceImpl implements EmpresaService {
      * Da de baja (inactiva) a un trabajador.
      *
      * @param trabajadorEmail el email del trabajador.
-     * @param empresaEmail    el email de la empresa.
+     * @param usuario         la empresa autenticada.
      * @return {@code true} si se ha dado de baja correctamente.
      * @throws ProcesoException        si no se encuentra el trabajador.
      * @throws AccessDeniedException   si la empresa no es la propietaria del trabajador.
      */
     @Override
-    public Boolean bajaTrabajador(String trabajadorEmail, String empresaEmail) {
+    public Boolean bajaTrabajador(String trabajadorEmail, UsuarioAutenticado usuario) {
         Trabajador t = trabajadorRepository.findByEmailIgnoreCase(trabajadorEmail)
                 .orElseThrow(() -> new ProcesoException("Trabajador no encontrado"));
-        if (!t.getEmpresa().getEmail().equalsIgnoreCase(empresaEmail)) {
+        if (!t.getEmpresa().getId().equals(usuario.getEmpresaId())) {
             throw new AccessDeniedException("No puedes dar de baja a un trabajador que no es tuyo");
         }
         trabajadorRepository.inactivarTrabajador(trabajadorEmail);
@@ -181,16 +238,16 @@ public class EmpresaServiceImpl implements EmpresaService {
      * Actualiza los datos personales de un trabajador.
      *
      * @param peticion      los nuevos datos del trabajador.
-     * @param emailEmpresa  el email de la empresa que lo solicita.
+     * @param usuario       la empresa autenticada que lo solicita.
      * @return {@code true} si se ha actualizado correctamente.
      * @throws ProcesoException      si no se encuentra el trabajador.
      * @throws AccessDeniedException si la empresa no es la propietaria.
      */
     @Override
-    public boolean actualizarTrabajador(TrabajadorDto peticion, String emailEmpresa) {
+    public boolean actualizarTrabajador(TrabajadorDto peticion, UsuarioAutenticado usuario) {
         Trabajador t = trabajadorRepository.findById(peticion.getId())
                 .orElseThrow(() -> new ProcesoException("Trabajador no encontrado"));
-        if (!t.getEmpresa().getEmail().equalsIgnoreCase(emailEmpresa)) {
+        if (!t.getEmpresa().getId().equals(usuario.getEmpresaId())) {
             throw new AccessDeniedException("No puedes modificar un trabajador que no es tuyo");
         }
         trabajadorRepository.updateDatosPersonalesTrabajadorDesdeEmpresa(
@@ -250,4 +307,22 @@ public class EmpresaServiceImpl implements EmpresaService {
        }
        return true;
     }
+
+    /**
+     * Configura el límite de horas del cierre automático de fichajes de la empresa.
+     * <p>
+     * La tarea programada lo aplicará en su siguiente ejecución.
+     *
+     * @param peticion     el nuevo límite de horas (nulo para el valor por defecto)
+     * @param emailEmpresa correo de la empresa
+     * @return true si se actualiza correctamente
+     * @throws ProcesoException si no se encuentra la empresa
+     */
+    @Override
+    public Boolean actualizarCierreAutomatico(CierreAutomaticoRequestDto peticion, String emailEmpresa) {
+        if (empresaRepository.updateHorasCierreAutomatico(peticion.getHoras(), emailEmpresa) == 0) {
+            throw new ProcesoException("Empresa no encontrada");
+        }
+        return true;
+    }
 }
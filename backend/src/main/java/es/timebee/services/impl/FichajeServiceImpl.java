@@ -1,22 +1,59 @@
 package es.timebee.services.impl;
 
 import es.timebee.domain.dto.FichajeEditRequestDto;
+import es.timebee.domain.dto.FichajeLoteEventoDto;
+import es.timebee.domain.dto.FichajeLoteRequestDto;
+import es.timebee.domain.dto.FichajeLoteResultadoDto;
 import es.timebee.domain.dto.FichajeRequestDto;
-import es.timebee.domain.entity.Empresa;
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.dto.FichajesRangoRequestDto;
+import es.timebee.domain.dto.PresentesDto;
+import es.timebee.domain.dto.TrabajadorIdentidadDto;
+import es.timebee.domain.dto.TrabajadorResumenDto;
+import es.timebee.domain.constantes.BaseDeDatos;
+import es.timebee.domain.constantes.Numeros;
+import es.timebee.domain.entity.Eliminacion;
 import es.timebee.domain.entity.Fichaje;
 import es.timebee.domain.entity.Trabajador;
+import es.timebee.diferido.EscrituraDiferidaFichajes;
+import es.timebee.directo.DifusionFichajes;
+import es.timebee.domain.enumeration.EntidadSincronizada;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+import es.timebee.domain.enumeration.TipoMarcaje;
+import es.timebee.domain.evento.FichajeEvento;
 import es.timebee.exception.ProcesoException;
-import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.domain.repository.EliminacionRepository;
 import es.timebee.domain.repository.FichajeRepository;
 import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.registro.FichajeAbierto;
+import es.timebee.registro.RegistroFichajesAbiertos;
 import es.timebee.services.FichajeService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio de fichajes.
@@ -33,9 +70,16 @@ import java.util.Optional;
 @Transactional
 public class FichajeServiceImpl implements FichajeService {
 
+    private static final String FICHAJE_YA_ABIERTO = "Ya existe un fichaje abierto para el trabajador";
+
     private final FichajeRepository fichajeRepository;
     private final TrabajadorRepository trabajadorRepository;
-    private final EmpresaRepository empresaRepository;
+    private final RegistroFichajesAbiertos registroFichajesAbiertos;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EscrituraDiferidaFichajes escrituraDiferida;
+    private final DifusionFichajes difusionFichajes;
+    private final EliminacionRepository eliminacionRepository;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Constructor que inyecta las dependencias necesarias.
@@ -43,14 +87,29 @@ public class FichajeServiceImpl implements FichajeService {
      *
      * @param fichajeRepository repositorio de fichajes
      * @param trabajadorRepository repositorio de trabajadores
-     * @param empresaRepository repositorio de empresas
+     * @param registroFichajesAbiertos registro en memoria de fichajes abiertos
+     * @param eventPublisher publicador de los eventos de fichaje
+     * @param escrituraDiferida escritura diferida de entradas y salidas (solo si está activada)
+     * @param difusionFichajes feed en directo de los fichajes de cada empresa
+     * @param eliminacionRepository repositorio de las constancias de eliminación
+     * @param transactionManager gestor de transacciones (para los lotes)
      */
     public FichajeServiceImpl(FichajeRepository fichajeRepository,
                               TrabajadorRepository trabajadorRepository,
-                              EmpresaRepository empresaRepository) {
+                              RegistroFichajesAbiertos registroFichajesAbiertos,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectProvider<EscrituraDiferidaFichajes> escrituraDiferida,
+                              DifusionFichajes difusionFichajes,
+                              EliminacionRepository eliminacionRepository,
+                              PlatformTransactionManager transactionManager) {
         this.fichajeRepository = fichajeRepository;
         this.trabajadorRepository = trabajadorRepository;
-        this.empresaRepository = empresaRepository;
+        this.registroFichajesAbiertos = registroFichajesAbiertos;
+        this.eventPublisher = eventPublisher;
+        this.escrituraDiferida = escrituraDiferida.getIfAvailable();
+        this.difusionFichajes = difusionFichajes;
+        this.eliminacionRepository = eliminacionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -60,48 +119,212 @@ public class FichajeServiceImpl implements FichajeService {
      * Si todo está bien… ¡lo guarda!
      *
      * @param fichajeRequestDto datos del fichaje a crear
-     * @param emailEmpresa correo de la empresa (usado para validación)
+     * @param usuario la empresa autenticada (usada para validación)
      * @return true si todo sale bien; lanza excepción si no
      */
     @Override
-    public Boolean crearFichaje(FichajeRequestDto fichajeRequestDto, String emailEmpresa) {
+    public Boolean crearFichaje(FichajeRequestDto fichajeRequestDto, UsuarioAutenticado usuario) {
         Optional<Trabajador> optTrabajador = trabajadorRepository.findById(fichajeRequestDto.getTrabajadorId());
         if(optTrabajador.isEmpty()){
             throw new ProcesoException("No se encontró el trabajador con id: " + fichajeRequestDto.getTrabajadorId());
         }
         Trabajador trabajador = optTrabajador.get();
 
-        Optional<Empresa> optEmpresa = empresaRepository.findByEmail(emailEmpresa);
-        if(optEmpresa.isEmpty()){
-            throw new ProcesoException("No se encontró la empresa con id: " + fichajeRequestDto.getEmpresaId());
-        }
-        Empresa empresa = optEmpresa.get();
-
-       if(!trabajador.getEmpresa().getId().equals(empresa.getId())){
+       if(!trabajador.getEmpresa().getId().equals(usuario.getEmpresaId())){
             throw new ProcesoException("El trabajador no pertenece a la empresa especificada.");
         }
 
         Fichaje fichaje = new Fichaje();
         fichaje.setTrabajador(trabajador);
-        fichaje.setEmpresa(empresa);
+        fichaje.setEmpresa(trabajador.getEmpresa());
         fichaje.setFechaInicio(fichajeRequestDto.getFechaInicio());
-        if (fichajeRequestDto.getFechaFin() != null) {
-            fichaje.setFechaFin(fichajeRequestDto.getFechaFin());
-        } else {
-            try {
-                fichajeRepository.guardarFichajeSinCerrar(trabajador.getId(), empresa.getId(), fichajeRequestDto.getFechaInicio());
-                return true;
-            } catch (Exception e) {
-                throw new ProcesoException("Hubo un error al guardar un fichaje.", e);
-            }
-        }
+        fichaje.setFechaFin(fichajeRequestDto.getFechaFin());
 
         try {
-            fichajeRepository.save(fichaje);
-            return true;
+            fichajeRepository.saveAndFlush(fichaje);
+        } catch (DataIntegrityViolationException e) {
+            throw new ProcesoException(esFichajeYaAbierto(e) ? FICHAJE_YA_ABIERTO : "Hubo un error al guardar un fichaje.", e);
         } catch (Exception e) {
             throw new ProcesoException("Hubo un error al guardar un fichaje.", e);
         }
+        eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.CREADO, resumen(fichaje, trabajador)));
+        return true;
+    }
+
+    /**
+     * Registra un lote de fichajes.
+     * <p>
+     * La empresa sale del usuario autenticado, una consulta ({@code IN}) comprueba qué trabajadores
+     * le pertenecen y los inserts de los eventos válidos, que Hibernate agrupa en lotes JDBC.
+     * Los trabajadores se referencian con {@code getReferenceById}, sin volver a cargarlos.
+     * Da igual que el lote traiga diez eventos o cinco mil.
+     * <p>
+     * Cada fichaje abierto reserva su entrada en el registro en memoria, igual que
+     * {@link #iniciarFichaje(String)}. Lo que el registro no ve (otra instancia) lo detiene la
+     * restricción única de fichaje abierto al volcar el lote; entonces el lote se repite fila a
+     * fila, cada una en su transacción, y solo fallan los eventos que chocan.
+     *
+     * @param fichajeLoteRequestDto eventos del lote
+     * @param usuario la empresa autenticada (usada para validación)
+     * @return el resultado de cada evento, en el mismo orden del lote
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<FichajeLoteResultadoDto> registrarLote(FichajeLoteRequestDto fichajeLoteRequestDto, UsuarioAutenticado usuario) {
+        Long empresaId = usuario.getEmpresaId();
+
+        List<FichajeLoteEventoDto> eventos = fichajeLoteRequestDto.getEventos();
+        Set<Long> idsSolicitados = new HashSet<>();
+        for (FichajeLoteEventoDto evento : eventos) {
+            if (evento != null && evento.getTrabajadorId() != null) {
+                idsSolicitados.add(evento.getTrabajadorId());
+            }
+        }
+        Map<Long, TrabajadorResumenDto> trabajadoresEmpresa = idsSolicitados.isEmpty()
+                ? Map.of()
+                : trabajadorRepository.findResumenesDeEmpresa(empresaId, idsSolicitados).stream()
+                        .collect(Collectors.toMap(TrabajadorResumenDto::getId, Function.identity()));
+
+        List<FichajeLoteResultadoDto> resultados = new ArrayList<>(eventos.size());
+        List<Integer> validos = new ArrayList<>(eventos.size());
+        Set<Long> abiertosEnLote = new HashSet<>();
+        for (int i = 0; i < eventos.size(); i++) {
+            FichajeLoteEventoDto evento = eventos.get(i);
+            String error = validarEventoLote(evento, trabajadoresEmpresa.keySet());
+            if (error == null && evento.getFechaFin() == null
+                    && (!abiertosEnLote.add(evento.getTrabajadorId())
+                        || tieneFichajeAbierto(evento.getTrabajadorId())
+                        || !registroFichajesAbiertos.reservar(evento.getTrabajadorId()))) {
+                error = FICHAJE_YA_ABIERTO;
+            }
+            if (error == null) {
+                validos.add(i);
+            }
+            resultados.add(resultadoLote(i, evento, error));
+        }
+
+        Set<Integer> guardados = new HashSet<>();
+        try {
+            if (!validos.isEmpty()) {
+                try {
+                    guardarLote(eventos, validos, empresaId, trabajadoresEmpresa);
+                    guardados.addAll(validos);
+                } catch (DataIntegrityViolationException e) {
+                    for (int i : validos) {
+                        try {
+                            guardarLote(eventos, List.of(i), empresaId, trabajadoresEmpresa);
+                            guardados.add(i);
+                        } catch (DataIntegrityViolationException ev) {
+                            FichajeLoteEventoDto evento = eventos.get(i);
+                            resultados.set(i, resultadoLote(i, evento, evento.getFechaFin() == null && esFichajeYaAbierto(ev)
+                                    ? FICHAJE_YA_ABIERTO : "No se pudo guardar el fichaje"));
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new ProcesoException("Hubo un error al guardar el lote de fichajes.", e);
+        } finally {
+            // Las entradas guardadas las sustituye su evento al confirmarse; el resto se liberan.
+            for (int i : validos) {
+                if (!guardados.contains(i) && eventos.get(i).getFechaFin() == null) {
+                    registroFichajesAbiertos.liberarReserva(eventos.get(i).getTrabajadorId());
+                }
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Guarda en una transacción los fichajes de los eventos indicados y publica sus eventos.
+     * El volcado se hace dentro, para que una violación de la restricción única salga aquí.
+     *
+     * @param eventos      los eventos del lote
+     * @param indices      posiciones de los eventos a guardar
+     * @param empresaId    id de la empresa
+     * @param trabajadores trabajadores de la empresa presentes en el lote
+     * @throws DataIntegrityViolationException si algún fichaje choca con la restricción única
+     */
+    private void guardarLote(List<FichajeLoteEventoDto> eventos, List<Integer> indices, Long empresaId,
+                             Map<Long, TrabajadorResumenDto> trabajadores) {
+        transactionTemplate.executeWithoutResult(estado -> {
+            Empresa empresa = empresaRepository.getReferenceById(empresaId);
+            List<Fichaje> nuevos = new ArrayList<>(indices.size());
+            for (int i : indices) {
+                FichajeLoteEventoDto evento = eventos.get(i);
+                Fichaje fichaje = new Fichaje();
+                fichaje.setTrabajador(trabajadorRepository.getReferenceById(evento.getTrabajadorId()));
+                fichaje.setEmpresa(empresa);
+                fichaje.setFechaInicio(evento.getFechaInicio());
+                fichaje.setFechaFin(evento.getFechaFin());
+                nuevos.add(fichaje);
+            }
+            fichajeRepository.saveAll(nuevos);
+            fichajeRepository.flush();
+            for (Fichaje fichaje : nuevos) {
+                TrabajadorResumenDto trabajador = trabajadores.get(fichaje.getTrabajador().getId());
+                eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.CREADO, FichajeResumenDto.builder()
+                        .id(fichaje.getId())
+                        .trabajadorId(trabajador.getId())
+                        .empresaId(empresaId)
+                        .nombre(trabajador.getNombre())
+                        .apellidos(trabajador.getApellidos())
+                        .fechaInicio(fichaje.getFechaInicio())
+                        .fechaFin(fichaje.getFechaFin())
+                        .build()));
+            }
+        });
+    }
+
+    /**
+     * Indica si la violación de integridad es la de la restricción única de fichaje abierto
+     * por trabajador, y no otra (una clave ajena o una columna obligatoria).
+     */
+    private static boolean esFichajeYaAbierto(DataIntegrityViolationException e) {
+        String restriccion = BaseDeDatos.Restricciones.UK_FICHAJE_ABIERTO_TRABAJADOR.toLowerCase(Locale.ROOT);
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion && violacion.getConstraintName() != null) {
+                return violacion.getConstraintName().toLowerCase(Locale.ROOT).contains(restriccion);
+            }
+            // MySQL: "Duplicate entry '...' for key 'fichaje.UK_FICHAJE_ABIERTO_TRABAJADOR'"
+            if (causa instanceof SQLException sql && sql.getMessage() != null
+                    && sql.getMessage().toLowerCase(Locale.ROOT).contains(restriccion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FichajeLoteResultadoDto resultadoLote(int indice, FichajeLoteEventoDto evento, String error) {
+        return FichajeLoteResultadoDto.builder()
+                .indice(indice)
+                .trabajadorId(evento != null ? evento.getTrabajadorId() : null)
+                .correcto(error == null)
+                .mensaje(error)
+                .build();
+    }
+
+    /**
+     * Valida un evento de un lote de fichajes.
+     *
+     * @param evento el evento a validar
+     * @param idsEmpresa identificadores de los trabajadores de la empresa presentes en el lote
+     * @return el motivo del rechazo, o {@code null} si el evento es válido
+     */
+    private String validarEventoLote(FichajeLoteEventoDto evento, Set<Long> idsEmpresa) {
+        if (evento == null || evento.getTrabajadorId() == null) {
+            return "El id del trabajador es obligatorio";
+        }
+        if (evento.getFechaInicio() == null) {
+            return "La fecha de inicio es obligatoria";
+        }
+        if (evento.getFechaFin() != null && evento.getFechaFin().isBefore(evento.getFechaInicio())) {
+            return "La fecha de fin no puede ser anterior a la fecha de inicio";
+        }
+        if (!idsEmpresa.contains(evento.getTrabajadorId())) {
+            return "El trabajador no pertenece a la empresa especificada.";
+        }
+        return null;
     }
 
     /**
@@ -111,11 +334,11 @@ public class FichajeServiceImpl implements FichajeService {
      * Cuando algo falla, lo dice bien claro.
      *
      * @param fichajeEditRequestDto datos a actualizar
-     * @param emailEmpresa correo de la empresa (para validar permisos)
+     * @param usuario la empresa autenticada (para validar permisos)
      * @return true si la edición fue exitosa; lanza excepción si algo falla
      */
     @Override
-    public Boolean editarFichaje(FichajeEditRequestDto fichajeEditRequestDto, String emailEmpresa) {
+    public Boolean editarFichaje(FichajeEditRequestDto fichajeEditRequestDto, UsuarioAutenticado usuario) {
         Optional<Fichaje> optFichaje = fichajeRepository.findById(fichajeEditRequestDto.getId());
         if (optFichaje.isEmpty()) {
             throw new ProcesoException("No se encontró el fichaje con id: " + fichajeEditRequestDto.getId());
@@ -128,124 +351,352 @@ public class FichajeServiceImpl implements FichajeService {
         }
         Trabajador trabajador = optTrabajador.get();
 
-        Optional<Empresa> optEmpresa = empresaRepository.findByEmail(emailEmpresa);
-        if (optEmpresa.isEmpty()) {
-            throw new ProcesoException("No se encontró la empresa con id: " + fichajeEditRequestDto.getEmpresaId());
-        }
-        Empresa empresa = optEmpresa.get();
-
-        if (!trabajador.getEmpresa().getId().equals(empresa.getId())) {
+        if (!trabajador.getEmpresa().getId().equals(usuario.getEmpresaId())) {
             throw new ProcesoException("El trabajador no pertenece a la empresa especificada.");
         }
 
+        FichajeResumenDto anterior = FichajeResumenDto.builder()
+                .id(fichajeExistente.getId())
+                .trabajadorId(fichajeExistente.getTrabajador().getId())
+                .empresaId(fichajeExistente.getEmpresa().getId())
+                .fechaInicio(fichajeExistente.getFechaInicio())
+                .fechaFin(fichajeExistente.getFechaFin())
+                .build();
         fichajeExistente.setTrabajador(trabajador);
-        fichajeExistente.setEmpresa(empresa);
+        fichajeExistente.setEmpresa(trabajador.getEmpresa());
         fichajeExistente.setFechaInicio(fichajeEditRequestDto.getFechaInicio());
         fichajeExistente.setFechaFin(fichajeEditRequestDto.getFechaFin());
 
         try {
-            fichajeRepository.save(fichajeExistente);
-            return true;
+            fichajeRepository.saveAndFlush(fichajeExistente);
+        } catch (DataIntegrityViolationException e) {
+            throw new ProcesoException(esFichajeYaAbierto(e) ? FICHAJE_YA_ABIERTO : "Hubo un error al editar el fichaje.", e);
         } catch (Exception e) {
             throw new ProcesoException("Hubo un error al editar el fichaje.");
         }
+        eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.EDITADO,
+                resumen(fichajeExistente, trabajador), anterior));
+        return true;
     }
 
     /**
      * Elimina un fichaje.
      * <p>
      * Este método no perdona errores: verifica que el fichaje exista y
-     * que realmente pertenezca a la empresa que lo solicita.
+     * que realmente pertenezca a la empresa que lo solicita. Deja constancia
+     * del borrado para la sincronización incremental.
      *
      * @param id identificador del fichaje
-     * @param emailEmpresa correo de la empresa
+     * @param usuario la empresa autenticada
      * @return true si el borrado fue exitoso; lanza excepción si no
      */
     @Override
-    public Boolean eliminarFichaje(Long id, String emailEmpresa) {
+    public Boolean eliminarFichaje(Long id, UsuarioAutenticado usuario) {
         Optional<Fichaje> optFichaje = fichajeRepository.findById(id);
         if (optFichaje.isEmpty()) {
             throw new ProcesoException("No se encontró el fichaje con id: " + id);
         }
-        if (!optFichaje.get().getEmpresa().getEmail().equalsIgnoreCase(emailEmpresa)) {
+        Fichaje fichaje = optFichaje.get();
+        if (!fichaje.getEmpresa().getId().equals(usuario.getEmpresaId())) {
             throw new ProcesoException("No tienes permisos para eliminar este fichaje.");
         }
         try {
             fichajeRepository.deleteById(id);
-            return true;
+            eliminacionRepository.save(Eliminacion.de(EntidadSincronizada.FICHAJE, id,
+                    fichaje.getEmpresa().getId(), fichaje.getTrabajador().getId()));
         } catch (Exception e) {
             throw new ProcesoException("Hubo un error al eliminar el fichaje.", e);
         }
+        eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.ELIMINADO, FichajeResumenDto.builder()
+                .id(fichaje.getId())
+                .trabajadorId(fichaje.getTrabajador().getId())
+                .empresaId(fichaje.getEmpresa().getId())
+                .fechaInicio(fichaje.getFechaInicio())
+                .fechaFin(fichaje.getFechaFin())
+                .build()));
+        return true;
     }
 
     /**
      * Inicia un nuevo fichaje para un trabajador.
      * <p>
-     * Busca al trabajador. Verifica que no haya otro fichaje abierto.
-     * Si todo está listo, ¡arranca!
+     * Carga al trabajador por su id. Reserva su entrada en el registro en memoria (sin consultas
+     * y de forma atómica: de dos clics simultáneos, solo uno pasa). La restricción única
+     * de fichaje abierto por trabajador en la base de datos cubre lo que el registro no ve,
+     * como otra instancia de la aplicación. Si todo está listo, ¡arranca!
+     * <p>
+     * Con la escritura diferida activada, la entrada se confirma en cuanto queda en el diario
+     * local y la base de datos se actualiza poco después, en segundo plano.
      *
-     * @param trabajadorEmail correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return true si el inicio fue exitoso; lanza excepción si no
      */
     @Override
-    public Boolean iniciarFichaje(String trabajadorEmail) {
-        Trabajador trab = trabajadorRepository.findByEmailIgnoreCase(trabajadorEmail)
+    public Boolean iniciarFichaje(UsuarioAutenticado usuario) {
+        Trabajador trab = trabajadorRepository.findById(usuario.getId())
                 .orElseThrow(() -> new ProcesoException("Trabajador no encontrado"));
+        LocalDateTime fechaInicio = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
 
-        boolean hayAbierto = !fichajeRepository
-                .findByTrabajador_IdAndFechaFinIsNullOrderByFechaInicioAsc(trab.getId())
-                .isEmpty();
-
-        if (hayAbierto) {
-            throw new ProcesoException("Ya existe un fichaje abierto para el trabajador");
+        if (escrituraDiferida != null && escrituraDiferida.siempre()) {
+            if (tieneFichajeAbierto(trab.getId()) || !registroFichajesAbiertos.reservar(trab.getId())) {
+                throw new ProcesoException(FICHAJE_YA_ABIERTO);
+            }
+            if (escrituraDiferida.encolar(TipoMarcaje.ENTRADA, TrabajadorIdentidadDto.de(trab), fechaInicio)) {
+                return true;
+            }
+            registroFichajesAbiertos.liberarReserva(trab.getId());
         }
 
+        reservarEntrada(trab.getId());
+
         Fichaje f = new Fichaje();
         f.setTrabajador(trab);
         f.setEmpresa(trab.getEmpresa());
-        f.setFechaInicio(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+        f.setFechaInicio(fechaInicio);
 
         try {
-            fichajeRepository.save(f);
-            return true;
+            fichajeRepository.saveAndFlush(f);
+        } catch (DataIntegrityViolationException e) {
+            throw new ProcesoException(esFichajeYaAbierto(e) ? FICHAJE_YA_ABIERTO : "No se pudo iniciar el fichaje", e);
         } catch (Exception e) {
             throw new ProcesoException("No se pudo iniciar el fichaje",e);
         }
+        eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.INICIADO, resumen(f, trab)));
+        return true;
     }
 
     /**
      * Finaliza el fichaje abierto de un trabajador.
      * <p>
      * Busca. Encuentra. Cierra.
+     * El fichaje a cerrar sale del registro en memoria y se cierra con un único {@code UPDATE};
+     * solo si el registro no lo conoce (o está desfasado) se consulta la base de datos.
+     * Con la escritura diferida activada, la salida de un fichaje que el registro conoce
+     * se confirma en cuanto queda en el diario local.
      * Y si no hay nada que cerrar… te lo dice sin rodeos.
      *
-     * @param emailTrabajador correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return true si se finaliza correctamente; lanza excepción si algo falla
      */
     @Override
-    public Boolean finalizarFichaje(String emailTrabajador) {
-        Optional<Trabajador> trabajador = trabajadorRepository.findByEmailIgnoreCase(emailTrabajador);
+    public Boolean finalizarFichaje(UsuarioAutenticado usuario) {
+        Optional<Trabajador> trabajador = trabajadorRepository.findById(usuario.getId());
 
         if (trabajador.isEmpty()){
             throw new ProcesoException("No se ha encontrado ningún trabajador");
         }
 
-        Long trabajadorId = trabajador.get().getId();
+        Trabajador trab = trabajador.get();
+        LocalDateTime fechaFin = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+        if (escrituraDiferida != null && escrituraDiferida.siempre()) {
+            Optional<FichajeAbierto> retirado = registroFichajesAbiertos.retirar(trab.getId());
+            if (retirado.isPresent()) {
+                if (escrituraDiferida.encolar(TipoMarcaje.SALIDA, TrabajadorIdentidadDto.de(trab), fechaFin)) {
+                    return true;
+                }
+                registroFichajesAbiertos.registrar(retirado.get());
+            }
+        }
+
+        Optional<FichajeAbierto> registrado = registroFichajesAbiertos.buscar(trab.getId());
+        if (registrado.isPresent() && !registrado.get().esReserva()
+                && fichajeRepository.cerrarFichaje(registrado.get().fichajeId(), fechaFin) == 1) {
+            FichajeAbierto abierto = registrado.get();
+            eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.FINALIZADO, FichajeResumenDto.builder()
+                    .id(abierto.fichajeId())
+                    .trabajadorId(trab.getId())
+                    .empresaId(abierto.empresaId())
+                    .nombre(trab.getNombre())
+                    .apellidos(trab.getApellidos())
+                    .fechaInicio(abierto.fechaInicio())
+                    .fechaFin(fechaFin)
+                    .build()));
+            return true;
+        }
+        registrado.filter(abierto -> !abierto.esReserva())
+                .ifPresent(abierto -> registroFichajesAbiertos.quitar(trab.getId(), abierto.fichajeId()));
 
         List<Fichaje> abiertos = fichajeRepository
-                .findByTrabajador_IdAndFechaFinIsNullOrderByFechaInicioAsc(trabajadorId);
+                .findByTrabajador_IdAndFechaFinIsNullOrderByFechaInicioAsc(trab.getId());
 
         if (abiertos.isEmpty()) {
             throw new ProcesoException("No hay fichajes abiertos para el trabajador");
         }
         Fichaje f = abiertos.get(0);
-        f.setFechaFin(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+        f.setFechaFin(fechaFin);
         try {
             fichajeRepository.save(f);
-            return true;
         } catch (Exception e) {
             throw new ProcesoException("No se pudo finalizar el fichaje",e);
         }
+        eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.FINALIZADO, resumen(f, trab)));
+        return true;
+    }
+
+    /**
+     * Obtiene los fichajes de la empresa que empiezan dentro de un rango de fechas.
+     * <p>
+     * Con trabajador, la consulta entra por el índice del trabajador; sin él, por el de la empresa.
+     * Si el trabajador no es de la empresa, simplemente no sale nada.
+     *
+     * @param peticion rango de fechas y trabajador opcional
+     * @param usuario  la empresa autenticada
+     * @return los fichajes del rango, del más antiguo al más reciente
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<FichajeResumenDto> getFichajesEmpresaRango(FichajesRangoRequestDto peticion, UsuarioAutenticado usuario) {
+        validarRango(peticion);
+
+        if (peticion.getTrabajadorId() != null) {
+            return fichajeRepository.findRangoTrabajador(usuario.getEmpresaId(), peticion.getTrabajadorId(),
+                    peticion.getDesde(), peticion.getHasta());
+        }
+        return fichajeRepository.findRangoEmpresa(usuario.getEmpresaId(), peticion.getDesde(), peticion.getHasta());
+    }
+
+    /**
+     * Obtiene los trabajadores de la empresa que tienen ahora mismo un fichaje abierto.
+     * <p>
+     * La respuesta sale del {@link RegistroFichajesAbiertos}, que los tiene indexados por
+     * empresa, y la empresa del usuario autenticado: no se consulta la base de datos. Los
+     * fichajes de esta instancia están al momento; los de las demás llegan con el sondeo
+     * ({@code timebee.fichajes.sondeo.intervalo} más el margen de {@code /cambios}), así que
+     * con varias instancias la cifra puede ir unos segundos por detrás.
+     *
+     * @param usuario la empresa autenticada
+     * @return cuántos y cuáles están dentro
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PresentesDto getPresentesEmpresa(UsuarioAutenticado usuario) {
+        List<FichajeResumenDto> fichajes = registroFichajesAbiertos.abiertosDeEmpresa(usuario.getEmpresaId()).stream()
+                .map(abierto -> FichajeResumenDto.builder()
+                        .id(abierto.fichajeId())
+                        .trabajadorId(abierto.trabajadorId())
+                        .empresaId(abierto.empresaId())
+                        .nombre(abierto.nombre())
+                        .apellidos(abierto.apellidos())
+                        .fechaInicio(abierto.fechaInicio())
+                        .build())
+                .toList();
+        return PresentesDto.builder()
+                .total(fichajes.size())
+                .fichajes(fichajes)
+                .build();
+    }
+
+    /**
+     * Abre una conexión al feed en directo de los cambios de fichajes de la empresa.
+     * <p>
+     * No se consulta la base de datos: la empresa es la del usuario autenticado, y los
+     * eventos llegan de {@link DifusionFichajes} según se confirman.
+     *
+     * @param usuario la empresa autenticada
+     * @return la conexión SSE por la que llegan los eventos
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SseEmitter suscribirFichajesEmpresa(UsuarioAutenticado usuario) {
+        return difusionFichajes.suscribir(usuario.getEmpresaId());
+    }
+
+    /**
+     * Obtiene los fichajes del trabajador que empiezan dentro de un rango de fechas.
+     * <p>
+     * El filtro por trabajador de la petición se ignora: cada uno ve solo los suyos.
+     *
+     * @param peticion rango de fechas
+     * @param usuario  el trabajador autenticado
+     * @return los fichajes del rango, del más antiguo al más reciente
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<FichajeResumenDto> getFichajesTrabajadorRango(FichajesRangoRequestDto peticion, UsuarioAutenticado usuario) {
+        validarRango(peticion);
+
+        return fichajeRepository.findRangoTrabajador(usuario.getEmpresaId(), usuario.getId(),
+                peticion.getDesde(), peticion.getHasta());
+    }
+
+    /**
+     * Comprueba que el rango pedido es válido y no supera el máximo de días.
+     *
+     * @param peticion rango de fechas
+     * @throws ProcesoException si el rango no es válido o es demasiado largo
+     */
+    private void validarRango(FichajesRangoRequestDto peticion) {
+        if (!peticion.getDesde().isBefore(peticion.getHasta())) {
+            throw new ProcesoException("La fecha desde debe ser anterior a la fecha hasta");
+        }
+        if (peticion.getDesde().plusDays(Numeros.TREINTA_Y_UNO).isBefore(peticion.getHasta())) {
+            throw new ProcesoException("El rango de fechas no puede superar los 31 días");
+        }
+    }
+
+    /**
+     * Comprueba si el trabajador tiene un fichaje abierto (o una entrada en curso).
+     * <p>
+     * Si el registro en memoria no tiene nada, la respuesta es no, sin consultas.
+     * Si tiene un fichaje, se confirma contra la base de datos antes de rechazar la entrada,
+     * y una entrada desfasada se retira del registro.
+     *
+     * @param trabajadorId id del trabajador
+     * @return true si hay un fichaje abierto
+     */
+    private boolean tieneFichajeAbierto(Long trabajadorId) {
+        Optional<FichajeAbierto> registrado = registroFichajesAbiertos.buscar(trabajadorId);
+        if (registrado.isEmpty()) {
+            return false;
+        }
+        if (registrado.get().esReserva() || fichajeRepository.existsByIdAndFechaFinIsNull(registrado.get().fichajeId())) {
+            return true;
+        }
+        registroFichajesAbiertos.quitar(trabajadorId, registrado.get().fichajeId());
+        return false;
+    }
+
+    /**
+     * Reserva la entrada de un trabajador en el registro de fichajes abiertos.
+     * <p>
+     * Si la transacción no llega a confirmarse, la reserva se libera al terminar;
+     * si se confirma, el evento {@link TipoEventoFichaje#INICIADO} la sustituye por el fichaje real.
+     *
+     * @param trabajadorId id del trabajador
+     * @throws ProcesoException si el trabajador ya tiene un fichaje abierto o una entrada en curso
+     */
+    private void reservarEntrada(Long trabajadorId) {
+        if (tieneFichajeAbierto(trabajadorId) || !registroFichajesAbiertos.reservar(trabajadorId)) {
+            throw new ProcesoException(FICHAJE_YA_ABIERTO);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    registroFichajesAbiertos.liberarReserva(trabajadorId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Construye el resumen de un fichaje para publicarlo en un {@link FichajeEvento}.
+     *
+     * @param fichaje    el fichaje
+     * @param trabajador el trabajador del fichaje (ya cargado)
+     * @return el resumen del fichaje
+     */
+    private FichajeResumenDto resumen(Fichaje fichaje, Trabajador trabajador) {
+        return FichajeResumenDto.builder()
+                .id(fichaje.getId())
+                .trabajadorId(trabajador.getId())
+                .empresaId(fichaje.getEmpresa().getId())
+                .nombre(trabajador.getNombre())
+                .apellidos(trabajador.getApellidos())
+                .fechaInicio(fichaje.getFechaInicio())
+                .fechaFin(fichaje.getFechaFin())
+                .build();
     }
 
 }
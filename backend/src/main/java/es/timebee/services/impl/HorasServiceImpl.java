@@ -0,0 +1,160 @@
+package es.timebee.services.impl;
+
+import es.timebee.domain.dto.HorasDiaDto;
+import es.timebee.domain.dto.HorasMesRequestDto;
+import es.timebee.domain.dto.HorasTrabajadorMesDto;
+import es.timebee.domain.entity.Empresa;
+import es.timebee.domain.entity.Trabajador;
+import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.domain.repository.FichajeRepository;
+import es.timebee.domain.repository.HorasEmpresaDiaRepository;
+import es.timebee.domain.repository.HorasTrabajadorDiaRepository;
+import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.exception.ProcesoException;
+import es.timebee.services.HorasService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Implementación del servicio de horas trabajadas.
+ * <p>
+ * Traduce "el mes X" a un rango de días y lo consulta en las tablas resumen.
+ * También se encarga de reconstruirlas cuando hace falta.
+ */
+@Service
+@Transactional
+public class HorasServiceImpl implements HorasService {
+
+    private final HorasTrabajadorDiaRepository horasTrabajadorDiaRepository;
+    private final HorasEmpresaDiaRepository horasEmpresaDiaRepository;
+    private final EmpresaRepository empresaRepository;
+    private final TrabajadorRepository trabajadorRepository;
+    private final FichajeRepository fichajeRepository;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param horasTrabajadorDiaRepository repositorio del resumen por trabajador
+     * @param horasEmpresaDiaRepository    repositorio del resumen por empresa
+     * @param empresaRepository            repositorio de empresas
+     * @param trabajadorRepository         repositorio de trabajadores
+     * @param fichajeRepository            repositorio de fichajes
+     */
+    public HorasServiceImpl(HorasTrabajadorDiaRepository horasTrabajadorDiaRepository,
+                            HorasEmpresaDiaRepository horasEmpresaDiaRepository,
+                            EmpresaRepository empresaRepository,
+                            TrabajadorRepository trabajadorRepository,
+                            FichajeRepository fichajeRepository) {
+        this.horasTrabajadorDiaRepository = horasTrabajadorDiaRepository;
+        this.horasEmpresaDiaRepository = horasEmpresaDiaRepository;
+        this.empresaRepository = empresaRepository;
+        this.trabajadorRepository = trabajadorRepository;
+        this.fichajeRepository = fichajeRepository;
+    }
+
+    /**
+     * Obtiene los minutos trabajados en un mes por cada trabajador de la empresa.
+     *
+     * @param peticion     el mes a consultar
+     * @param emailEmpresa correo de la empresa
+     * @return los minutos de cada trabajador
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<HorasTrabajadorMesDto> getHorasEmpresaPorTrabajador(HorasMesRequestDto peticion, String emailEmpresa) {
+        LocalDate desde = inicioDeMes(peticion);
+        return horasTrabajadorDiaRepository.findHorasEmpresaPorTrabajador(
+                buscarEmpresa(emailEmpresa).getId(), desde, desde.plusMonths(1));
+    }
+
+    /**
+     * Obtiene los minutos trabajados por toda la empresa, día a día, en un mes.
+     *
+     * @param peticion     el mes a consultar
+     * @param emailEmpresa correo de la empresa
+     * @return los minutos de cada día
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<HorasDiaDto> getHorasEmpresaPorDia(HorasMesRequestDto peticion, String emailEmpresa) {
+        LocalDate desde = inicioDeMes(peticion);
+        return horasEmpresaDiaRepository.findHorasEmpresaPorDia(
+                buscarEmpresa(emailEmpresa).getId(), desde, desde.plusMonths(1));
+    }
+
+    /**
+     * Obtiene los minutos trabajados por un trabajador, día a día, en un mes.
+     *
+     * @param peticion        el mes a consultar
+     * @param emailTrabajador correo del trabajador
+     * @return los minutos de cada día
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<HorasDiaDto> getHorasTrabajadorPorDia(HorasMesRequestDto peticion, String emailTrabajador) {
+        Trabajador trabajador = trabajadorRepository.findByEmailIgnoreCase(emailTrabajador)
+                .orElseThrow(() -> new ProcesoException("Trabajador no encontrado"));
+        LocalDate desde = inicioDeMes(peticion);
+        return horasTrabajadorDiaRepository.findHorasTrabajadorPorDia(trabajador.getId(), desde, desde.plusMonths(1));
+    }
+
+    /**
+     * Reconstruye desde cero las tablas resumen de horas: las vacía y las vuelve a llenar
+     * con una sola sentencia {@code INSERT ... SELECT} por tabla.
+     *
+     * @return true si se reconstruye correctamente
+     */
+    @Override
+    public Boolean reconstruir() {
+        try {
+            horasTrabajadorDiaRepository.vaciar();
+            horasEmpresaDiaRepository.vaciar();
+            horasTrabajadorDiaRepository.reconstruir();
+            horasEmpresaDiaRepository.reconstruir();
+            return true;
+        } catch (Exception e) {
+            throw new ProcesoException("No se pudo reconstruir el resumen de horas", e);
+        }
+    }
+
+    /**
+     * Reconstruye las tablas resumen solo si están vacías y hay fichajes.
+     */
+    @Override
+    public void reconstruirSiVacio() {
+        if (horasEmpresaDiaRepository.count() == 0 && fichajeRepository.count() > 0) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Busca la empresa por su correo.
+     *
+     * @param emailEmpresa correo de la empresa
+     * @return la empresa
+     * @throws ProcesoException si no existe
+     */
+    private Empresa buscarEmpresa(String emailEmpresa) {
+        return empresaRepository.findByEmail(emailEmpresa)
+                .orElseThrow(() -> new ProcesoException("Empresa no encontrada"));
+    }
+
+    /**
+     * Primer día del mes pedido.
+     *
+     * @param peticion el mes a consultar
+     * @return el primer día del mes
+     * @throws ProcesoException si el año no es válido
+     */
+    private LocalDate inicioDeMes(HorasMesRequestDto peticion) {
+        try {
+            return LocalDate.of(peticion.getAnio(), peticion.getMes(), 1);
+        } catch (DateTimeException e) {
+            throw new ProcesoException("El mes solicitado no es válido", e);
+        }
+    }
+}
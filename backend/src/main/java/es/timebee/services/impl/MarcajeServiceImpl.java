@@ -0,0 +1,71 @@
+package es.timebee.services.impl;
+
+import es.timebee.diferido.EscrituraDiferidaFichajes;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.FichajeService;
+import es.timebee.services.MarcajeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementación del servicio de entradas y salidas.
+ * <p>
+ * No es transaccional a propósito: la transacción la abre {@link FichajeService}, y si lo que
+ * falla es precisamente abrirla (la base de datos no responde), aquí se recoge el error y el
+ * marcaje pasa al diario local de {@link EscrituraDiferidaFichajes}. Cualquier otro error
+ * (ya tiene un fichaje abierto, el trabajador no existe...) se propaga tal cual.
+ */
+@Service
+public class MarcajeServiceImpl implements MarcajeService {
+
+    private final FichajeService fichajeService;
+    private final EscrituraDiferidaFichajes escrituraDiferida;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param fichajeService    servicio de fichajes
+     * @param escrituraDiferida escritura diferida de entradas y salidas (si está activada)
+     */
+    public MarcajeServiceImpl(FichajeService fichajeService,
+                              ObjectProvider<EscrituraDiferidaFichajes> escrituraDiferida) {
+        this.fichajeService = fichajeService;
+        this.escrituraDiferida = escrituraDiferida.getIfAvailable();
+    }
+
+    /**
+     * Registra la entrada de un trabajador, sin conexión si hace falta.
+     *
+     * @param usuario el trabajador autenticado
+     * @return true si se ha registrado
+     */
+    @Override
+    public Boolean entrada(UsuarioAutenticado usuario) {
+        try {
+            return fichajeService.iniciarFichaje(usuario);
+        } catch (RuntimeException e) {
+            if (escrituraDiferida == null || !escrituraDiferida.aceptaSinConexion(e)) {
+                throw e;
+            }
+            return escrituraDiferida.entradaSinConexion(usuario.getId());
+        }
+    }
+
+    /**
+     * Registra la salida de un trabajador, sin conexión si hace falta.
+     *
+     * @param usuario el trabajador autenticado
+     * @return true si se ha registrado
+     */
+    @Override
+    public Boolean salida(UsuarioAutenticado usuario) {
+        try {
+            return fichajeService.finalizarFichaje(usuario);
+        } catch (RuntimeException e) {
+            if (escrituraDiferida == null || !escrituraDiferida.aceptaSinConexion(e)) {
+                throw e;
+            }
+            return escrituraDiferida.salidaSinConexion(usuario.getId());
+        }
+    }
+}
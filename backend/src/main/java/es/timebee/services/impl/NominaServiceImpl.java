@@ -1,27 +1,64 @@
 package es.timebee.services.impl;
 
+import es.timebee.almacenamiento.AlmacenNominas;
+import es.timebee.almacenamiento.ContenidoAlmacenado;
+import es.timebee.almacenamiento.ContenidoNoValidoException;
+import es.timebee.almacenamiento.ContenidoPreparado;
+import es.timebee.almacenamiento.FlujoPdf;
+import es.timebee.almacenamiento.ReferenciasContenido;
+import es.timebee.domain.dto.NominaArchivoDto;
 import es.timebee.domain.dto.NominaDownloadDto;
+import es.timebee.domain.dto.NominaLoteResultadoDto;
 import es.timebee.domain.dto.NominaMetadataDto;
+import es.timebee.domain.dto.TrabajadorDocumentoDto;
+import es.timebee.domain.entity.Eliminacion;
 import es.timebee.domain.entity.Empresa;
 import es.timebee.domain.entity.Nomina;
 import es.timebee.domain.entity.Trabajador;
+import es.timebee.domain.enumeration.EntidadSincronizada;
+import es.timebee.domain.enumeration.Rol;
 import es.timebee.exception.ProcesoException;
+import es.timebee.domain.repository.EliminacionRepository;
 import es.timebee.domain.repository.EmpresaRepository;
 import es.timebee.domain.repository.NominaRepository;
 import es.timebee.domain.repository.TrabajadorRepository;
+import es.timebee.security.UsuarioAutenticado;
 import es.timebee.services.NominaService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Servicio encargado de gestionar las nóminas.
@@ -37,9 +74,18 @@ import java.util.stream.Collectors;
 @Transactional
 public class NominaServiceImpl implements NominaService {
 
+    private static final String EXTENSION_PDF = ".pdf";
+
     private final NominaRepository nominaRepository;
     private final TrabajadorRepository trabajadorRepository;
     private final EmpresaRepository empresaRepository;
+    private final EliminacionRepository eliminacionRepository;
+    private final AlmacenNominas almacenNominas;
+    private final ReferenciasContenido referenciasContenido;
+    private final long tamanoMaximo;
+    private final TransactionTemplate transactionTemplate;
+    private final int paralelismoLote;
+    private final int maximoArchivosLote;
 
     /**
      * Constructor que inyecta las dependencias necesarias.
@@ -48,13 +94,34 @@ public class NominaServiceImpl implements NominaService {
      * @param nominaRepository repositorio de nóminas
      * @param trabajadorRepository repositorio de trabajadores
      * @param empresaRepository repositorio de empresas
+     * @param eliminacionRepository repositorio de las constancias de eliminación
+     * @param almacenNominas almacén donde se guardan los PDF
+     * @param referenciasContenido contador de referencias de los PDF del almacén
+     * @param tamanoMaximo tamaño máximo de un PDF
+     * @param transactionManager gestor de transacciones, para guardar un lote en una transacción corta
+     * @param paralelismoLote PDF de un ZIP que se validan y guardan a la vez
+     * @param maximoArchivosLote número máximo de archivos en un ZIP
      */
     public NominaServiceImpl(NominaRepository nominaRepository,
                              TrabajadorRepository trabajadorRepository,
-                             EmpresaRepository empresaRepository) {
+                             EmpresaRepository empresaRepository,
+                             EliminacionRepository eliminacionRepository,
+                             AlmacenNominas almacenNominas,
+                             ReferenciasContenido referenciasContenido,
+                             @Value("${timebee.nominas.tamano-maximo:10MB}") DataSize tamanoMaximo,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${timebee.nominas.lote.paralelismo:16}") int paralelismoLote,
+                             @Value("${timebee.nominas.lote.maximo-archivos:5000}") int maximoArchivosLote) {
         this.nominaRepository = nominaRepository;
         this.trabajadorRepository = trabajadorRepository;
         this.empresaRepository = empresaRepository;
+        this.eliminacionRepository = eliminacionRepository;
+        this.almacenNominas = almacenNominas;
+        this.referenciasContenido = referenciasContenido;
+        this.tamanoMaximo = tamanoMaximo.toBytes();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.paralelismoLote = paralelismoLote;
+        this.maximoArchivosLote = maximoArchivosLote;
     }
 
     /**
@@ -62,52 +129,277 @@ public class NominaServiceImpl implements NominaService {
      * <p>
      * Valida que el trabajador exista, que la empresa esté correcta,
      * que el archivo sea un PDF… y si todo encaja,la guarda.
+     * El PDF va al almacén de nóminas; en la fila solo queda su huella.
+     * <p>
+     * El archivo no se carga nunca entero en memoria: se copia al almacén por bloques
+     * y, mientras se copia, se calcula su SHA-256 y se comprueba que empieza como un PDF.
+     * La cabecera {@code Content-Type} del cliente no se tiene en cuenta.
      *
      * @param trabajadorId id del trabajador
      * @param periodo mes/año de la nómina
      * @param file archivo PDF a subir
-     * @param emailEmpresa correo de la empresa que sube la nómina
+     * @param usuario la empresa autenticada que sube la nómina
      * @return true si se guarda correctamente; lanza excepción si algo falla
      */
     @Override
-    public Boolean subirNomina(Long trabajadorId, LocalDate periodo, MultipartFile file, String emailEmpresa) {
+    public Boolean subirNomina(Long trabajadorId, LocalDate periodo, MultipartFile file, UsuarioAutenticado usuario) {
         Optional<Trabajador> optTrabajador = trabajadorRepository.findById(trabajadorId);
         if(optTrabajador.isEmpty()){
             throw new ProcesoException("No se encontró el trabajador con id: " + trabajadorId);
         }
         Trabajador trabajador = optTrabajador.get();
+        Empresa empresa = trabajador.getEmpresa();
 
-        Optional<Empresa> optEmpresa = empresaRepository.findByEmail(emailEmpresa);
-        if(optEmpresa.isEmpty()){
-            throw new ProcesoException("No se encontró la empresa");
+        if(!empresa.getId().equals(usuario.getEmpresaId())){
+            throw new ProcesoException("El trabajador no pertenece a la empresa especificada.");
         }
-        Empresa empresa = optEmpresa.get();
 
-        if(!trabajador.getEmpresa().getId().equals(empresa.getId())){
-            throw new ProcesoException("El trabajador no pertenece a la empresa especificada.");
+        try (InputStream entrada = new FlujoPdf(file.getInputStream(), tamanoMaximo);
+             ContenidoPreparado preparado = almacenNominas.preparar(entrada)) {
+            ContenidoAlmacenado contenido = preparado.contenido();
+            Nomina nomina = new Nomina();
+            nomina.setNombreArchivo(file.getOriginalFilename());
+            nomina.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            nomina.setTamano(contenido.tamano());
+            nomina.setHuella(contenido.huella());
+            nomina.setPeriodo(periodo);
+            nomina.setTrabajador(trabajador);
+            nomina.setEmpresa(empresa);
+
+            try {
+                nominaRepository.save(nomina);
+            } catch (Exception e) {
+                throw new ProcesoException("Error al guardar la nómina en la base de datos.", e);
+            }
+            referenciasContenido.referenciar(preparado);
+            return true;
+        } catch (ContenidoNoValidoException e) {
+            throw new ProcesoException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ProcesoException("Error al guardar el archivo PDF.", e);
+        }
+    }
+
+    /**
+     * Sube las nóminas de un periodo a partir de un ZIP con un PDF por trabajador.
+     * <p>
+     * Cada PDF se reconoce por su nombre, que es el DNI o el NAF del trabajador; los de toda la
+     * empresa se cargan con una sola consulta. El ZIP se vuelca a un archivo temporal para poder
+     * leer sus entradas a la vez: los PDF se validan y se guardan en el almacén en paralelo, en
+     * hilos virtuales y con un máximo de {@code paralelismoLote} a la vez. Al final, las nóminas
+     * correctas se insertan por lotes en una transacción corta; mientras se guardan los PDF no
+     * se retiene ninguna conexión a la base de datos.
+     *
+     * @param periodo mes/año de las nóminas
+     * @param zip archivo ZIP con los PDF
+     * @param usuario la empresa autenticada que sube las nóminas
+     * @return el resultado de cada archivo del ZIP, en su orden
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<NominaLoteResultadoDto> subirLoteNominas(LocalDate periodo, MultipartFile zip, UsuarioAutenticado usuario) {
+        Map<String, Long> trabajadoresPorDocumento = new HashMap<>();
+        for (TrabajadorDocumentoDto trabajador : trabajadorRepository.findDocumentosDeEmpresa(usuario.getEmpresaId())) {
+            trabajadoresPorDocumento.put(normalizarDocumento(trabajador.getDni()), trabajador.getId());
+            trabajadoresPorDocumento.put(normalizarDocumento(trabajador.getNaf()), trabajador.getId());
         }
 
-        Nomina nomina = new Nomina();
+        Path temporal = null;
+        List<ArchivoLote> archivos = List.of();
         try {
-            if (!"application/pdf".equalsIgnoreCase(file.getContentType())) {
-                throw new ProcesoException("El archivo no es PDF");
+            temporal = Files.createTempFile("nominas-", ".zip");
+            zip.transferTo(temporal);
+            try (ZipFile archivoZip = new ZipFile(temporal.toFile())) {
+                archivos = reconocerArchivos(archivoZip, trabajadoresPorDocumento);
+                guardarEnParalelo(archivoZip, archivos);
             }
-            nomina.setNombreArchivo(file.getOriginalFilename());
-            nomina.setContentType(file.getContentType());
-            nomina.setTamano(file.getSize());
-            nomina.setArchivoPdf(file.getBytes());
+            return registrarLote(archivos, periodo, usuario.getEmpresaId());
         } catch (IOException e) {
-            throw new ProcesoException("Error al leer el archivo PDF.", e);
+            throw new ProcesoException("No se pudo leer el ZIP de nóminas.", e);
+        } finally {
+            descartarPreparados(archivos);
+            borrarTemporal(temporal);
+        }
+    }
+
+    /**
+     * Recorre las entradas del ZIP y reconoce al trabajador de cada PDF por su nombre.
+     * Las carpetas y los archivos ocultos (como los que añade macOS) se ignoran.
+     */
+    private List<ArchivoLote> reconocerArchivos(ZipFile archivoZip, Map<String, Long> trabajadoresPorDocumento) {
+        List<ArchivoLote> archivos = new ArrayList<>();
+        Set<Long> trabajadoresEnZip = new HashSet<>();
+        Enumeration<? extends ZipEntry> entradas = archivoZip.entries();
+        while (entradas.hasMoreElements()) {
+            ZipEntry entrada = entradas.nextElement();
+            String nombre = entrada.getName().substring(entrada.getName().lastIndexOf('/') + 1);
+            if (entrada.isDirectory() || nombre.isEmpty() || nombre.startsWith(".") || entrada.getName().startsWith("__MACOSX/")) {
+                continue;
+            }
+            if (archivos.size() == maximoArchivosLote) {
+                throw new ProcesoException("El ZIP tiene más de " + maximoArchivosLote + " archivos.");
+            }
+            ArchivoLote archivo = new ArchivoLote(entrada, nombre);
+            archivos.add(archivo);
+            if (!nombre.toLowerCase(Locale.ROOT).endsWith(EXTENSION_PDF)) {
+                archivo.error = "El archivo no es PDF";
+                continue;
+            }
+            String documento = normalizarDocumento(nombre.substring(0, nombre.length() - EXTENSION_PDF.length()));
+            archivo.trabajadorId = trabajadoresPorDocumento.get(documento);
+            if (archivo.trabajadorId == null) {
+                archivo.error = "No hay ningún trabajador de la empresa con DNI o NAF " + documento;
+            } else if (!trabajadoresEnZip.add(archivo.trabajadorId)) {
+                archivo.error = "El ZIP ya tiene otra nómina de este trabajador";
+            }
         }
-        nomina.setPeriodo(periodo);
-        nomina.setTrabajador(trabajador);
-        nomina.setEmpresa(empresa);
+        return archivos;
+    }
 
+    /**
+     * Valida y prepara en el almacén los PDF reconocidos, varios a la vez.
+     * Se publican después, al registrar el lote.
+     */
+    private void guardarEnParalelo(ZipFile archivoZip, List<ArchivoLote> archivos) {
+        Semaphore permisos = new Semaphore(paralelismoLote);
+        List<Future<?>> tareas = new ArrayList<>(archivos.size());
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ArchivoLote archivo : archivos) {
+                if (archivo.error == null) {
+                    tareas.add(hilos.submit(() -> guardarArchivo(archivoZip, archivo, permisos)));
+                }
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcesoException("Se interrumpió la subida del lote de nóminas.", e);
+        } catch (ExecutionException e) {
+            throw new ProcesoException("Error al guardar el lote de nóminas.", e.getCause());
+        }
+    }
+
+    private void guardarArchivo(ZipFile archivoZip, ArchivoLote archivo, Semaphore permisos) {
         try {
-            nominaRepository.save(nomina);
-            return true;
-        } catch (Exception e) {
-            throw new ProcesoException("Error al guardar la nómina en la base de datos.", e);
+            permisos.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            archivo.error = "Se interrumpió la subida del archivo.";
+            return;
+        }
+        try (InputStream entrada = new FlujoPdf(archivoZip.getInputStream(archivo.entrada), tamanoMaximo)) {
+            archivo.preparado = almacenNominas.preparar(entrada);
+        } catch (ContenidoNoValidoException e) {
+            archivo.error = e.getMessage();
+        } catch (IOException e) {
+            archivo.error = "Error al guardar el archivo PDF.";
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Inserta de una vez las nóminas de los PDF guardados y compone el resultado de cada archivo.
+     */
+    private List<NominaLoteResultadoDto> registrarLote(List<ArchivoLote> archivos, LocalDate periodo, Long empresaId) {
+        List<Nomina> nuevas = new ArrayList<>();
+        Map<ArchivoLote, Nomina> nominaDeArchivo = new HashMap<>();
+        transactionTemplate.executeWithoutResult(estado -> {
+            Empresa empresa = empresaRepository.getReferenceById(empresaId);
+            for (ArchivoLote archivo : archivos) {
+                if (archivo.error == null) {
+                    Nomina nomina = new Nomina();
+                    nomina.setNombreArchivo(archivo.nombre);
+                    nomina.setContentType(MediaType.APPLICATION_PDF_VALUE);
+                    nomina.setTamano(archivo.preparado.contenido().tamano());
+                    nomina.setHuella(archivo.preparado.contenido().huella());
+                    nomina.setPeriodo(periodo);
+                    nomina.setTrabajador(trabajadorRepository.getReferenceById(archivo.trabajadorId));
+                    nomina.setEmpresa(empresa);
+                    nuevas.add(nomina);
+                    nominaDeArchivo.put(archivo, nomina);
+                }
+            }
+            try {
+                nominaRepository.saveAll(nuevas);
+            } catch (Exception e) {
+                throw new ProcesoException("Error al guardar las nóminas en la base de datos.", e);
+            }
+            List<ArchivoLote> porHuella = new ArrayList<>(nominaDeArchivo.keySet());
+            porHuella.sort(Comparator.comparing((ArchivoLote archivo) -> archivo.preparado.contenido().huella()));
+            try {
+                for (ArchivoLote archivo : porHuella) {
+                    referenciasContenido.referenciar(archivo.preparado);
+                }
+            } catch (IOException e) {
+                throw new ProcesoException("Error al guardar el archivo PDF.", e);
+            }
+        });
+
+        List<NominaLoteResultadoDto> resultados = new ArrayList<>(archivos.size());
+        for (ArchivoLote archivo : archivos) {
+            Nomina nomina = nominaDeArchivo.get(archivo);
+            resultados.add(NominaLoteResultadoDto.builder()
+                    .archivo(archivo.entrada.getName())
+                    .trabajadorId(archivo.trabajadorId)
+                    .nominaId(nomina != null ? nomina.getId() : null)
+                    .correcto(archivo.error == null)
+                    .mensaje(archivo.error)
+                    .build());
+        }
+        return resultados;
+    }
+
+    /**
+     * Deja un DNI o un NAF en la forma en que se comparan: sin espacios, guiones,
+     * barras ni puntos, y en mayúsculas.
+     */
+    private static String normalizarDocumento(String documento) {
+        return documento == null ? "" : documento.replaceAll("[^0-9A-Za-z]", "").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Borra los PDF preparados que no se han llegado a publicar (los publicados ya no
+     * están en los temporales y no se tocan).
+     */
+    private static void descartarPreparados(List<ArchivoLote> archivos) {
+        for (ArchivoLote archivo : archivos) {
+            if (archivo.preparado != null) {
+                try {
+                    archivo.preparado.close();
+                } catch (IOException e) {
+                    // El temporal se queda en el directorio tmp del almacén; no afecta a la subida.
+                }
+            }
+        }
+    }
+
+    private static void borrarTemporal(Path temporal) {
+        if (temporal == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException e) {
+            temporal.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Un archivo del ZIP y lo que se va sabiendo de él. Cada uno lo modifica un único hilo
+     * a la vez, y el {@link Future#get()} publica los cambios al hilo que compone el resultado.
+     */
+    private static final class ArchivoLote {
+        private final ZipEntry entrada;
+        private final String nombre;
+        private Long trabajadorId;
+        private ContenidoPreparado preparado;
+        private String error;
+
+        private ArchivoLote(ZipEntry entrada, String nombre) {
+            this.entrada = entrada;
+            this.nombre = nombre;
         }
     }
 
@@ -115,25 +407,33 @@ public class NominaServiceImpl implements NominaService {
      * Elimina una nómina del sistema.
      * <p>
      * Aquí no hay margen para errores: verifica que la empresa tenga permiso
-     * antes de proceder al borrado.
+     * antes de proceder al borrado, y deja constancia de él para la sincronización incremental.
+     * El PDF no se borra aquí: se resta una referencia a su contenido, que puede usar otra
+     * nómina, y la limpieza programada lo borra cuando no queda ninguna.
      *
      * @param id id de la nómina
-     * @param emailEmpresa correo de la empresa
+     * @param usuario la empresa autenticada
      * @return true si se elimina correctamente; lanza excepción si no
      */
     @Override
-    public Boolean eliminarNomina(Long id, String emailEmpresa) {
+    public Boolean eliminarNomina(Long id, UsuarioAutenticado usuario) {
         Optional<Nomina> opt = nominaRepository.findById(id);
         if (opt.isEmpty()) {
             throw new ProcesoException("No se encontró la nómina con id: " + id);
         }
 
-        if (!opt.get().getEmpresa().getEmail().equalsIgnoreCase(emailEmpresa)) {
+        Nomina nomina = opt.get();
+        if (!nomina.getEmpresa().getId().equals(usuario.getEmpresaId())) {
             throw new ProcesoException("No tienes permisos para eliminar esta nómina");
         }
 
         try {
             nominaRepository.deleteById(id);
+            if (nomina.getHuella() != null) {
+                referenciasContenido.liberar(nomina.getHuella());
+            }
+            eliminacionRepository.save(Eliminacion.de(EntidadSincronizada.NOMINA, id,
+                    nomina.getEmpresa().getId(), nomina.getTrabajador().getId()));
             return true;
         } catch (Exception e) {
             throw new ProcesoException("Hubo un error al eliminar la nómina.", e);
@@ -143,113 +443,121 @@ public class NominaServiceImpl implements NominaService {
     /**
      * Obtiene la lista de nóminas asociadas a un trabajador específico.
      * <p>
-     * Verifica los permisos según el rol autenticado. Una vez validado,
-     * construye una lista con los metadatos de las nóminas.
+     * Los permisos según el rol autenticado se comprueban en la misma consulta que
+     * obtiene los metadatos, con una proyección y sin cargar los PDF. Solo si no
+     * devuelve nada se averigua si es porque el trabajador no tiene nóminas, porque
+     * no existe o porque el usuario no puede verlas.
      *
      * @param trabajadorId id del trabajador
+     * @param usuario el usuario autenticado (empresa o trabajador)
      * @return lista de metadatos de nóminas
      */
     @Override
-    public List<NominaMetadataDto> obtenerNominasPorTrabajador(Long trabajadorId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String authEmail = auth.getName();
-        boolean isEmpresa = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_EMPRESA"));
-        boolean isTrabajador = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_TRABAJADOR"));
+    public List<NominaMetadataDto> obtenerNominasPorTrabajador(Long trabajadorId, UsuarioAutenticado usuario) {
+        boolean isEmpresa = usuario.getRol() == Rol.EMPRESA;
+        boolean isTrabajador = usuario.getRol() == Rol.TRABAJADOR;
+        if (!isEmpresa && !isTrabajador) {
+            throw new AccessDeniedException("Acceso no autorizado");
+        }
+
+        List<NominaMetadataDto> nominas = nominaRepository.findMetadatosVisibles(trabajadorId,
+                usuario.getEmpresaId(), usuario.getId(), isEmpresa, isTrabajador);
+        if (nominas.isEmpty()) {
+            comprobarTrabajadorVisible(trabajadorId, usuario, isEmpresa);
+        }
+        return nominas;
+    }
 
+    /**
+     * Explica por qué un trabajador no tiene nóminas visibles: lanza la excepción que
+     * corresponda si no existe o si el usuario no puede verlo, y no hace nada si
+     * simplemente no tiene nóminas.
+     */
+    private void comprobarTrabajadorVisible(Long trabajadorId, UsuarioAutenticado usuario, boolean isEmpresa) {
         Trabajador trabajador = trabajadorRepository.findById(trabajadorId)
                 .orElseThrow(() -> new ProcesoException("No se encontró el trabajador con id: " + trabajadorId));
-
         if (isEmpresa) {
-            Empresa miEmpresa = empresaRepository.findByEmail(authEmail)
-                    .orElseThrow(() -> new ProcesoException("Empresa no encontrada: " + authEmail));
-            if (!trabajador.getEmpresa().getId().equals(miEmpresa.getId())) {
+            if (!trabajador.getEmpresa().getId().equals(usuario.getEmpresaId())) {
                 throw new AccessDeniedException("No puedes ver nóminas de un trabajador de otra empresa");
             }
         }
-        else if (isTrabajador) {
-            if (!trabajador.getEmail().equalsIgnoreCase(authEmail)) {
-                throw new AccessDeniedException("Sólo puedes ver tus propias nóminas");
-            }
-        }
-        else {
-            throw new AccessDeniedException("Acceso no autorizado");
+        else if (!trabajador.getId().equals(usuario.getId())) {
+            throw new AccessDeniedException("Sólo puedes ver tus propias nóminas");
         }
-
-        return nominaRepository.findByTrabajador_Id(trabajadorId)
-                .stream()
-                .map(n -> NominaMetadataDto.builder()
-                        .id(n.getId())
-                        .periodo(n.getPeriodo())
-                        .build())
-                .collect(Collectors.toList());
     }
 
     /**
-     * Obtiene la lista de nóminas para un trabajador, usando su correo electrónico.
+     * Obtiene la lista de nóminas del trabajador autenticado.
      * <p>
-     * Más directo, pensado para usos internos.
+     * Más directo: el id viene en el token, así que no hay permisos que comprobar.
      *
-     * @param trabajadorEmail correo del trabajador
+     * @param usuario el trabajador autenticado
      * @return lista de metadatos de nóminas
      */
     @Override
-    public List<NominaMetadataDto> obtenerNominasPorTrabajadorEmail(String trabajadorEmail) {
-        return nominaRepository.findByTrabajador_Email(trabajadorEmail)
-                .stream()
-                .map(n -> NominaMetadataDto.builder()
-                        .id(n.getId())
-                        .periodo(n.getPeriodo())
-                        .build())
-                .collect(Collectors.toList());
+    public List<NominaMetadataDto> obtenerNominasPropias(UsuarioAutenticado usuario) {
+        return nominaRepository.findMetadatosByTrabajadorId(usuario.getId());
     }
 
     /**
      * Descarga una nómina específica.
      * <p>
      * Este método es cuidadoso: verifica permisos, roles y pertenencias
-     * antes de entregar el preciado PDF.
+     * antes de entregar el preciado PDF, que se devuelve sin leer.
+     * <p>
+     * La nómina y los permisos se comprueban en una sola consulta, que no trae el PDF;
+     * el PDF se busca solo después, si el usuario puede verlo.
      *
      * @param id id de la nómina
+     * @param usuario el usuario autenticado (empresa o trabajador)
      * @return DTO con el archivo PDF y sus metadatos
      */
     @Override
-    public NominaDownloadDto descargarNomina(Long id) {
-        Nomina nomina = nominaRepository.findById(id)
-                .orElseThrow(() -> new ProcesoException("No se encontró la nómina con id: " + id));
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String authEmail = auth.getName();
-        boolean isEmpresa = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_EMPRESA"));
-        boolean isTrabajador = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_TRABAJADOR"));
-
-        Trabajador trabajador = nomina.getTrabajador();
-        Empresa empresaPropietaria = trabajador.getEmpresa();
-
-        if (isEmpresa) {
-            Empresa miEmpresa = empresaRepository.findByEmail(authEmail)
-                    .orElseThrow(() -> new ProcesoException("Empresa no encontrada: " + authEmail));
-            if (!empresaPropietaria.getId().equals(miEmpresa.getId())) {
-                throw new AccessDeniedException("No puedes descargar nóminas de trabajadores de otra empresa");
-            }
-        }
-        else if (isTrabajador) {
-            if (!trabajador.getEmail().equalsIgnoreCase(authEmail)) {
-                throw new AccessDeniedException("Sólo puedes descargar tus propias nóminas");
-            }
-        }
-        else {
+    public NominaDownloadDto descargarNomina(Long id, UsuarioAutenticado usuario) {
+        boolean isEmpresa = usuario.getRol() == Rol.EMPRESA;
+        boolean isTrabajador = usuario.getRol() == Rol.TRABAJADOR;
+        if (!isEmpresa && !isTrabajador) {
             throw new AccessDeniedException("Acceso no autorizado");
         }
 
+        NominaArchivoDto nomina = nominaRepository.findArchivoVisible(id, usuario.getEmpresaId(), usuario.getId(),
+                        isEmpresa, isTrabajador)
+                .orElseThrow(() -> nominaNoVisible(id, isEmpresa));
+
         return NominaDownloadDto.builder()
                 .nombreArchivo(nomina.getNombreArchivo())
                 .contentType(nomina.getContentType())
-                .archivoPdf(nomina.getArchivoPdf())
+                .huella(nomina.getHuella())
+                .archivo(recursoPdf(nomina))
                 .build();
     }
 
+    /**
+     * La excepción para una nómina que la consulta de descarga no ha devuelto: solo
+     * entonces se mira si es porque no existe o porque el usuario no puede verla.
+     */
+    private RuntimeException nominaNoVisible(Long id, boolean isEmpresa) {
+        if (!nominaRepository.existsById(id)) {
+            return new ProcesoException("No se encontró la nómina con id: " + id);
+        }
+        return new AccessDeniedException(isEmpresa
+                ? "No puedes descargar nóminas de trabajadores de otra empresa"
+                : "Sólo puedes descargar tus propias nóminas");
+    }
+
+    /**
+     * Devuelve el PDF de una nómina sin leerlo: el archivo del almacén si ya está allí,
+     * o el contenido de la propia fila si es una nómina antigua que la migración aún no ha movido.
+     */
+    private Resource recursoPdf(NominaArchivoDto nomina) {
+        if (nomina.getHuella() == null) {
+            return new ByteArrayResource(nominaRepository.findArchivoPdfById(nomina.getId()));
+        }
+        Resource recurso = almacenNominas.recurso(nomina.getHuella());
+        if (!recurso.exists()) {
+            throw new ProcesoException("No se encontró el PDF de la nómina en el almacén.");
+        }
+        return recurso;
+    }
+
 }
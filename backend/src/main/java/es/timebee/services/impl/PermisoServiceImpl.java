@@ -1,20 +1,23 @@
 package es.timebee.services.impl;
 
 import es.timebee.domain.dto.*;
-import es.timebee.domain.entity.Empresa;
+import es.timebee.domain.entity.Eliminacion;
 import es.timebee.domain.entity.Permiso;
 import es.timebee.domain.entity.Trabajador;
+import es.timebee.domain.enumeration.EntidadSincronizada;
 import es.timebee.domain.enumeration.EstadoPermiso;
 import es.timebee.domain.enumeration.TipoPermiso;
 import es.timebee.domain.mapper.PermisosMapper;
-import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.domain.repository.EliminacionRepository;
 import es.timebee.domain.repository.PermisoRepository;
 import es.timebee.domain.repository.TrabajadorRepository;
 import es.timebee.exception.ProcesoException;
+import es.timebee.security.UsuarioAutenticado;
 import es.timebee.services.PermisoService;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
@@ -35,7 +38,7 @@ public class PermisoServiceImpl implements PermisoService {
     private final PermisoRepository permisoRepository;
     private final TrabajadorRepository trabajadorRepository;
     private final PermisosMapper permisosMapper;
-    private final EmpresaRepository empresaRepository;
+    private final EliminacionRepository eliminacionRepository;
 
     /**
      * Constructor que inyecta los repositorios y el mapper.
@@ -44,14 +47,14 @@ public class PermisoServiceImpl implements PermisoService {
      * @param permisoRepository repositorio de permisos
      * @param trabajadorRepository repositorio de trabajadores
      * @param permisosMapper mapper para transformar entidades a DTOs
-     * @param empresaRepository repositorio de empresas
+     * @param eliminacionRepository repositorio de las constancias de eliminación
      */
     public PermisoServiceImpl(PermisoRepository permisoRepository, TrabajadorRepository trabajadorRepository, PermisosMapper permisosMapper,
-                              EmpresaRepository empresaRepository) {
+                              EliminacionRepository eliminacionRepository) {
         this.permisoRepository = permisoRepository;
         this.trabajadorRepository = trabajadorRepository;
         this.permisosMapper = permisosMapper;
-        this.empresaRepository = empresaRepository;
+        this.eliminacionRepository = eliminacionRepository;
     }
 
     /**
@@ -142,11 +145,11 @@ public class PermisoServiceImpl implements PermisoService {
      * La empresa debe ser la misma a la que pertenece el trabajador.
      *
      * @param dto datos de validación
-     * @param emailEmpresa correo de la empresa que valida
+     * @param usuario la empresa autenticada que valida
      * @return true si la validación fue exitosa
      */
     @Override
-    public Boolean validarPermiso(PermisoValidarDto dto, String emailEmpresa) {
+    public Boolean validarPermiso(PermisoValidarDto dto, UsuarioAutenticado usuario) {
         Permiso p = permisoRepository.findById(dto.getId())
                 .orElseThrow(() -> new ProcesoException("Permiso no encontrado: " + dto.getId()));
 
@@ -154,8 +157,7 @@ public class PermisoServiceImpl implements PermisoService {
             throw new ProcesoException("Debe elegir APROBADO o RECHAZADO");
         }
         Long idEmpresaAlaQuePerteneceElTrabajadorDelPermiso = p.getTrabajador().getEmpresa().getId();
-        Optional<Empresa> empresa = empresaRepository.findByEmail(emailEmpresa);
-        Long idEmpresaQueRealizaOperacion = empresa.get().getId();
+        Long idEmpresaQueRealizaOperacion = usuario.getEmpresaId();
         if (!idEmpresaAlaQuePerteneceElTrabajadorDelPermiso.equals(idEmpresaQueRealizaOperacion)) {
             throw new ProcesoException("No tienes permiso para validar este permiso.");
         }
@@ -171,21 +173,23 @@ public class PermisoServiceImpl implements PermisoService {
 
     /**
      * Permite a un trabajador eliminar un permiso, solo si aún no ha sido aprobado o rechazado.
+     * <p>
+     * Deja constancia de la eliminación para la sincronización incremental.
      *
      * @param id id del permiso a eliminar
-     * @param emailTrabajador correo del trabajador que elimina
+     * @param usuario el trabajador autenticado que elimina
      * @return true si la eliminación fue exitosa
      */
     @Override
-    public Boolean eliminarPermiso(Long id,  String emailTrabajador) {
+    @Transactional
+    public Boolean eliminarPermiso(Long id, UsuarioAutenticado usuario) {
         Permiso p = permisoRepository.findById(id)
                 .orElseThrow(() -> new ProcesoException("Permiso no encontrado: " + id));
 
         if (p.getEstado() != EstadoPermiso.SOLICITADO) {
             throw new ProcesoException("No se puede eliminar un permiso que ya está " + p.getEstado().name());
         }
-        Optional<Trabajador> trabajador = trabajadorRepository.findByEmailIgnoreCase(emailTrabajador);
-        Long idTrabajadorQueRealizaOperacion = trabajador.get().getId();
+        Long idTrabajadorQueRealizaOperacion = usuario.getId();
         Long idTrabajadorQuePertenecePermiso = p.getTrabajador().getId();
         if(!idTrabajadorQueRealizaOperacion.equals(idTrabajadorQuePertenecePermiso)){
             throw new ProcesoException("No tienes permiso para eliminar este permiso.");
@@ -193,6 +197,8 @@ public class PermisoServiceImpl implements PermisoService {
 
         try {
             permisoRepository.delete(p);
+            eliminacionRepository.save(Eliminacion.de(EntidadSincronizada.PERMISO, p.getId(),
+                    p.getTrabajador().getEmpresa().getId(), idTrabajadorQuePertenecePermiso));
             return true;
         } catch (Exception e) {
             throw new ProcesoException("Error al eliminar el permiso", e);
@@ -202,16 +208,13 @@ public class PermisoServiceImpl implements PermisoService {
     /**
      * Obtiene todos los permisos asociados a una empresa.
      *
-     * @param emailEmpresa correo de la empresa
+     * @param usuario la empresa autenticada
      * @return lista de permisos en formato DTO
      */
     @Override
-    public List<PermisosDto> obtenerPermisosPorEmpresaId(String emailEmpresa) {
-
-        Optional<Empresa> empresa = empresaRepository.findByEmail(emailEmpresa);
-        Long empresaId = empresa.get().getId();
+    public List<PermisosDto> obtenerPermisosPorEmpresaId(UsuarioAutenticado usuario) {
         return permisoRepository
-                .findByTrabajador_Empresa_Id(empresaId)
+                .findByTrabajador_Empresa_Id(usuario.getEmpresaId())
                 .stream()
                 .map(permisosMapper::toDto)
                 .collect(Collectors.toList());
@@ -220,42 +223,50 @@ public class PermisoServiceImpl implements PermisoService {
     /**
      * Obtiene todos los permisos de un trabajador.
      * <p>
-     * Verifica los permisos del usuario autenticado antes de devolver los datos.
+     * Verifica los permisos del usuario autenticado antes de devolver los datos,
+     * en la misma consulta que los obtiene. Solo si no devuelve nada se averigua si es
+     * porque el trabajador no tiene permisos, porque no existe o porque el usuario no
+     * puede verlos.
      *
      * @param emailTrabajador correo del trabajador
      * @return lista de permisos en formato DTO
      */
     @Override
     public List<PermisosDto> obtenerPermisosPorTrabajadorId(String emailTrabajador) {
-        Trabajador trabajador = trabajadorRepository.findByEmailIgnoreCase(emailTrabajador)
-                .orElseThrow(() -> new ProcesoException("No se encontró el trabajador con email: " + emailTrabajador));
-
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String authEmail = auth.getName();
         boolean isEmpresa = auth.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_EMPRESA"));
         boolean isTrabajador = auth.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_TRABAJADOR"));
+        if (!isEmpresa && !isTrabajador) {
+            throw new ProcesoException("Acceso no autorizado");
+        }
+
+        List<Permiso> permisos = permisoRepository.findVisiblesDeTrabajador(emailTrabajador, authEmail, isEmpresa, isTrabajador);
+        if (permisos.isEmpty()) {
+            comprobarTrabajadorVisible(emailTrabajador, authEmail, isEmpresa);
+        }
+        return permisos.stream()
+                .map(permisosMapper::toDto)
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Explica por qué un trabajador no tiene permisos visibles: lanza la excepción que
+     * corresponda si no existe o si el usuario no puede verlo, y no hace nada si
+     * simplemente no tiene permisos.
+     */
+    private void comprobarTrabajadorVisible(String emailTrabajador, String authEmail, boolean isEmpresa) {
+        Trabajador trabajador = trabajadorRepository.findByEmailIgnoreCase(emailTrabajador)
+                .orElseThrow(() -> new ProcesoException("No se encontró el trabajador con email: " + emailTrabajador));
         if (isEmpresa) {
-            Empresa empresa = empresaRepository.findByEmail(authEmail)
-                    .orElseThrow(() -> new ProcesoException("Empresa no encontrada: " + authEmail));
-            if (!trabajador.getEmpresa().getId().equals(empresa.getId())) {
+            if (!trabajador.getEmpresa().getEmail().equalsIgnoreCase(authEmail)) {
                 throw new ProcesoException("No puedes ver permisos de trabajadores de otra empresa");
             }
         }
-        else if (isTrabajador) {
-            if (!trabajador.getEmail().equalsIgnoreCase(authEmail)) {
-                throw new ProcesoException("Sólo puedes ver tus propios permisos");
-            }
+        else if (!trabajador.getEmail().equalsIgnoreCase(authEmail)) {
+            throw new ProcesoException("Sólo puedes ver tus propios permisos");
         }
-        else {
-            throw new ProcesoException("Acceso no autorizado");
-        }
-
-        return permisoRepository.findByTrabajador_Id(trabajador.getId())
-                .stream()
-                .map(permisosMapper::toDto)
-                .collect(Collectors.toList());
     }
 }
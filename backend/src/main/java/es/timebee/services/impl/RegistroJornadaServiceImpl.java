@@ -0,0 +1,172 @@
+package es.timebee.services.impl;
+
+import es.timebee.domain.constantes.Numeros;
+import es.timebee.domain.dto.RegistroJornadaRequestDto;
+import es.timebee.exception.ProcesoException;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.RegistroJornadaService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Implementación del servicio de exportación del registro de jornada.
+ * <p>
+ * Las filas salen de un cursor JDBC de solo avance: con un {@code fetchSize} de
+ * {@link Integer#MIN_VALUE}, el driver de MySQL las entrega de una en una según llegan,
+ * en lugar de traer el resultado entero a memoria. Cada fila se escribe en la respuesta
+ * y se olvida, así que la memoria usada es la misma con mil fichajes que con diez millones.
+ */
+@Service
+public class RegistroJornadaServiceImpl implements RegistroJornadaService {
+
+    private static final String CONSULTA = """
+            SELECT t.dni, t.apellidos, t.nombre, f.fecha_inicio, f.fecha_fin
+            FROM fichaje f JOIN trabajador t ON t.id = f.trabajador_id
+            WHERE f.empresa_id = ? AND f.fecha_inicio >= ? AND f.fecha_inicio < ?
+            ORDER BY f.fecha_inicio, f.id""";
+
+    private static final String CABECERA = "DNI;Apellidos;Nombre;Fecha;Entrada;Salida;Minutos";
+    private static final String SEPARADOR = ";";
+    private static final char BOM = '\uFEFF';
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor que inyecta las dependencias necesarias.
+     *
+     * @param jdbcTemplate plantilla JDBC de Spring
+     */
+    public RegistroJornadaServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Prepara la exportación en CSV del registro de jornada de la empresa.
+     * <p>
+     * El CSV va en UTF-8 con BOM y separado por punto y coma, para que Excel en español
+     * lo abra directamente. Los fichajes abiertos salen con la salida y los minutos vacíos.
+     *
+     * @param peticion periodo a exportar
+     * @param usuario  la empresa autenticada
+     * @return el cuerpo de la respuesta, que escribe el CSV
+     * @throws ProcesoException si el periodo no es válido
+     */
+    @Override
+    public StreamingResponseBody exportarCsv(RegistroJornadaRequestDto peticion, UsuarioAutenticado usuario) {
+        validarPeriodo(peticion);
+
+        Long empresaId = usuario.getEmpresaId();
+        Timestamp desde = Timestamp.valueOf(peticion.getDesde().atStartOfDay());
+        Timestamp hasta = Timestamp.valueOf(peticion.getHasta().plusDays(1).atStartOfDay());
+
+        return salida -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+            writer.write(BOM);
+            writer.write(CABECERA);
+            writer.write('\n');
+            try {
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(CONSULTA,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                    ps.setLong(1, empresaId);
+                    ps.setTimestamp(2, desde);
+                    ps.setTimestamp(3, hasta);
+                    return ps;
+                }, (ResultSet rs) -> escribirFila(rs, writer));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    /**
+     * Escribe una fila del CSV.
+     *
+     * @param rs     el resultado, posicionado en la fila
+     * @param writer destino del CSV
+     * @throws SQLException si falla la lectura de la fila
+     */
+    private void escribirFila(ResultSet rs, Writer writer) throws SQLException {
+        LocalDateTime inicio = rs.getTimestamp(4).toLocalDateTime();
+        Timestamp finTs = rs.getTimestamp(5);
+        LocalDateTime fin = finTs != null ? finTs.toLocalDateTime() : null;
+        try {
+            writer.write(campo(rs.getString(1)));
+            writer.write(SEPARADOR);
+            writer.write(campo(rs.getString(2)));
+            writer.write(SEPARADOR);
+            writer.write(campo(rs.getString(3)));
+            writer.write(SEPARADOR);
+            writer.write(FECHA.format(inicio));
+            writer.write(SEPARADOR);
+            writer.write(HORA.format(inicio));
+            writer.write(SEPARADOR);
+            if (fin != null) {
+                writer.write(fin.toLocalDate().equals(inicio.toLocalDate()) ? HORA.format(fin) : FECHA.format(fin) + " " + HORA.format(fin));
+                writer.write(SEPARADOR);
+                writer.write(Long.toString(Duration.between(inicio, fin).toMinutes()));
+            } else {
+                writer.write(SEPARADOR);
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            // El cliente ha cortado la descarga: se para de leer el cursor.
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escapa un campo de texto para CSV: si contiene el separador, comillas o saltos
+     * de línea, se entrecomilla y se duplican las comillas.
+     *
+     * @param valor el valor (puede ser nulo)
+     * @return el campo listo para escribir
+     */
+    private static String campo(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.contains(SEPARADOR) || valor.contains("\"") || valor.contains("\n") || valor.contains("\r")) {
+            return "\"" + valor.replace("\"", "\"\"") + "\"";
+        }
+        return valor;
+    }
+
+    /**
+     * Comprueba que el periodo es válido y no supera los cuatro años.
+     *
+     * @param peticion periodo a exportar
+     * @throws ProcesoException si no es válido
+     */
+    private void validarPeriodo(RegistroJornadaRequestDto peticion) {
+        LocalDate desde = peticion.getDesde();
+        LocalDate hasta = peticion.getHasta();
+        if (hasta.isBefore(desde)) {
+            throw new ProcesoException("La fecha desde no puede ser posterior a la fecha hasta");
+        }
+        if (desde.plusYears(Numeros.CUATRO).isBefore(hasta)) {
+            throw new ProcesoException("El periodo no puede superar los cuatro años");
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package es.timebee.services.impl;
 
 import es.timebee.domain.dto.ActualizarTrabajadorDto;
-import es.timebee.domain.dto.FichajesDto;
+import es.timebee.domain.dto.FichajeResumenDto;
 import es.timebee.domain.dto.TrabajadorDto;
 import es.timebee.domain.entity.Trabajador;
-import es.timebee.domain.mapper.FichajesMapper;
 import es.timebee.domain.mapper.TrabajadorMapper;
 import es.timebee.domain.repository.TrabajadorRepository;
 import es.timebee.exception.ProcesoException;
@@ -14,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Servicio que gestiona la vida (digital) de los trabajadores.
@@ -29,7 +27,6 @@ public class TrabajadorServiceImpl implements TrabajadorService {
 
     private final TrabajadorRepository trabajadorRepository;
     private final TrabajadorMapper trabajadorMapper;
-    private final FichajesMapper fichajesMapper;
     private final PasswordEncoder passwordEncoder;
 
     /**
@@ -39,13 +36,11 @@ public class TrabajadorServiceImpl implements TrabajadorService {
      *
      * @param trabajadorRepository repositorio de trabajadores
      * @param trabajadorMapper mapper de trabajadores
-     * @param fichajesMapper mapper de fichajes
      * @param passwordEncoder codificador de contraseñas
      */
-    public TrabajadorServiceImpl(TrabajadorRepository trabajadorRepository, TrabajadorMapper trabajadorMapper, FichajesMapper fichajesMapper, PasswordEncoder passwordEncoder) {
+    public TrabajadorServiceImpl(TrabajadorRepository trabajadorRepository, TrabajadorMapper trabajadorMapper, PasswordEncoder passwordEncoder) {
         this.trabajadorRepository = trabajadorRepository;
         this.trabajadorMapper = trabajadorMapper;
-        this.fichajesMapper = fichajesMapper;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -56,14 +51,12 @@ public class TrabajadorServiceImpl implements TrabajadorService {
      * quizás, recordar sus jornadas.
      *
      * @param email correo del trabajador
-     * @return lista de fichajes en formato DTO
+     * @return lista de fichajes en formato resumen
      */
-   @Override
-    public List<FichajesDto> getFichajesPorEmailTrabajador(String email) {
-        return trabajadorRepository.findByFichajes_Trabajador_EmailEqualsIgnoreCase(email)
-                .stream()
-                .map(fichajesMapper::toDto)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<FichajeResumenDto> getFichajesPorEmailTrabajador(String email) {
+        return trabajadorRepository.findByFichajes_Trabajador_EmailEqualsIgnoreCase(email);
     }
 
     /**
@@ -0,0 +1,64 @@
+package es.timebee.tareas;
+
+import es.timebee.domain.entity.BloqueoTarea;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Reparte las tareas programadas entre las instancias de la aplicación mediante
+ * concesiones (leases) guardadas en la tabla {@link BloqueoTarea}.
+ * <p>
+ * Tomar o renovar una concesión es un único {@code UPDATE} condicionado: solo lo consigue
+ * quien ya la tiene o cualquiera si ha caducado. Los tiempos se miden con el reloj de la
+ * base de datos, que es el mismo para todas las instancias.
+ */
+@Component
+public class BloqueoTareas {
+
+    private static final String CREAR = """
+            INSERT IGNORE INTO bloqueo_tarea (nombre, propietario, hasta) VALUES (?, NULL, NOW(6))""";
+
+    private static final String ADQUIRIR = """
+            UPDATE bloqueo_tarea SET propietario = ?, hasta = DATE_ADD(NOW(6), INTERVAL ? SECOND)
+            WHERE nombre = ? AND (hasta <= NOW(6) OR propietario = ?)""";
+
+    private static final String LIBERAR = """
+            UPDATE bloqueo_tarea SET propietario = NULL, hasta = NOW(6)
+            WHERE nombre = ? AND propietario = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String propietario = UUID.randomUUID().toString();
+
+    /**
+     * Constructor que inyecta el {@link JdbcTemplate}.
+     *
+     * @param jdbcTemplate plantilla JDBC de Spring
+     */
+    public BloqueoTareas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Intenta tomar (o renovar, si ya es nuestra) la concesión de una tarea.
+     *
+     * @param tarea    nombre de la tarea
+     * @param duracion tiempo que dura la concesión si se consigue
+     * @return true si esta instancia tiene la concesión
+     */
+    public boolean adquirir(String tarea, Duration duracion) {
+        jdbcTemplate.update(CREAR, tarea);
+        return jdbcTemplate.update(ADQUIRIR, propietario, duracion.toSeconds(), tarea, propietario) == 1;
+    }
+
+    /**
+     * Suelta la concesión de una tarea para que otra instancia pueda tomarla sin esperar a que caduque.
+     *
+     * @param tarea nombre de la tarea
+     */
+    public void liberar(String tarea) {
+        jdbcTemplate.update(LIBERAR, tarea, propietario);
+    }
+}
@@ -0,0 +1,156 @@
+package es.timebee.tareas;
+
+import es.timebee.domain.dto.FichajeResumenDto;
+import es.timebee.domain.enumeration.TipoEventoFichaje;
+import es.timebee.domain.evento.FichajeEvento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tarea programada que cierra los fichajes que los trabajadores olvidaron cerrar.
+ * <p>
+ * Un fichaje abierto más horas de las que permite su empresa (o el valor por defecto)
+ * se cierra con la salida en {@code inicio + límite} y queda marcado como cerrado
+ * automáticamente. Se trabaja por lotes, cada uno en su transacción: se leen los ids
+ * de un lote (bloqueándolos), se cierran todos con un único {@code UPDATE} y se publica
+ * un evento por fichaje para que el resumen de horas y el registro de fichajes abiertos
+ * se enteren. En ningún momento se cargan entidades.
+ * <p>
+ * Con varias instancias, solo la que tiene la concesión de {@link BloqueoTareas} trabaja.
+ */
+@Component
+public class CierreAutomaticoFichajes {
+
+    private static final Logger logger = LoggerFactory.getLogger(CierreAutomaticoFichajes.class);
+
+    static final String TAREA = "CIERRE_AUTOMATICO_FICHAJES";
+
+    private static final String SELECCIONAR = """
+            SELECT f.id, f.trabajador_id, f.empresa_id, t.nombre, t.apellidos, f.fecha_inicio,
+                   DATE_ADD(f.fecha_inicio, INTERVAL COALESCE(e.horas_cierre_automatico, :horasPorDefecto) HOUR) AS fecha_fin
+            FROM fichaje f
+            JOIN empresa e ON e.id = f.empresa_id
+            JOIN trabajador t ON t.id = f.trabajador_id
+            WHERE f.trabajador_abierto IS NOT NULL
+              AND f.fecha_inicio < DATE_SUB(:ahora, INTERVAL COALESCE(e.horas_cierre_automatico, :horasPorDefecto) HOUR)
+            ORDER BY f.id
+            LIMIT :tamanoLote
+            FOR UPDATE OF f""";
+
+    private static final String CERRAR = """
+            UPDATE fichaje f JOIN empresa e ON e.id = f.empresa_id
+            SET f.fecha_fin = DATE_ADD(f.fecha_inicio, INTERVAL COALESCE(e.horas_cierre_automatico, :horasPorDefecto) HOUR),
+                f.cerrado_automaticamente = TRUE
+            WHERE f.id IN (:ids) AND f.fecha_fin IS NULL""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BloqueoTareas bloqueoTareas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean activo;
+    private final int horasPorDefecto;
+    private final int tamanoLote;
+    private final Duration duracionConcesion;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración de la tarea.
+     *
+     * @param jdbcTemplate       plantilla JDBC con parámetros con nombre
+     * @param transactionManager gestor de transacciones, para abrir una por lote
+     * @param bloqueoTareas      concesiones de tareas entre instancias
+     * @param eventPublisher     publicador de los eventos de fichaje
+     * @param activo             si la tarea está activada
+     * @param horasPorDefecto    límite de horas para las empresas que no tienen uno propio
+     * @param tamanoLote         fichajes que se cierran por transacción
+     * @param duracionConcesion  tiempo que se reserva la tarea en cada lote
+     */
+    public CierreAutomaticoFichajes(NamedParameterJdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    BloqueoTareas bloqueoTareas,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${timebee.fichajes.cierre-automatico.activo:true}") boolean activo,
+                                    @Value("${timebee.fichajes.cierre-automatico.horas-por-defecto:12}") int horasPorDefecto,
+                                    @Value("${timebee.fichajes.cierre-automatico.tamano-lote:500}") int tamanoLote,
+                                    @Value("${timebee.fichajes.cierre-automatico.duracion-concesion:PT5M}") Duration duracionConcesion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bloqueoTareas = bloqueoTareas;
+        this.eventPublisher = eventPublisher;
+        this.activo = activo;
+        this.horasPorDefecto = horasPorDefecto;
+        this.tamanoLote = tamanoLote;
+        this.duracionConcesion = duracionConcesion;
+    }
+
+    /**
+     * Ejecuta el cierre automático si esta instancia consigue la concesión.
+     * <p>
+     * Procesa lotes hasta que no quedan fichajes por cerrar, renovando la concesión antes
+     * de cada uno; si la pierde (por ejemplo, porque un lote tardó demasiado), para.
+     */
+    @Scheduled(cron = "${timebee.fichajes.cierre-automatico.cron:0 */15 * * * *}")
+    public void ejecutar() {
+        if (!activo) {
+            return;
+        }
+        int total = 0;
+        try {
+            while (bloqueoTareas.adquirir(TAREA, duracionConcesion)) {
+                Integer cerrados = transactionTemplate.execute(estado -> cerrarLote());
+                total += cerrados != null ? cerrados : 0;
+                if (cerrados == null || cerrados < tamanoLote) {
+                    break;
+                }
+            }
+        } finally {
+            bloqueoTareas.liberar(TAREA);
+        }
+        if (total > 0) {
+            logger.info("Cierre automático: {} fichajes cerrados", total);
+        }
+    }
+
+    /**
+     * Cierra un lote de fichajes caducados dentro de la transacción en curso.
+     *
+     * @return el número de fichajes leídos en el lote
+     */
+    private int cerrarLote() {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("horasPorDefecto", horasPorDefecto)
+                .addValue("ahora", LocalDateTime.now())
+                .addValue("tamanoLote", tamanoLote);
+
+        List<FichajeResumenDto> caducados = jdbcTemplate.query(SELECCIONAR, parametros, (rs, i) -> FichajeResumenDto.builder()
+                .id(rs.getLong(1))
+                .trabajadorId(rs.getLong(2))
+                .empresaId(rs.getLong(3))
+                .nombre(rs.getString(4))
+                .apellidos(rs.getString(5))
+                .fechaInicio(rs.getTimestamp(6).toLocalDateTime())
+                .fechaFin(rs.getTimestamp(7).toLocalDateTime())
+                .build());
+        if (caducados.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.update(CERRAR, new MapSqlParameterSource()
+                .addValue("horasPorDefecto", horasPorDefecto)
+                .addValue("ids", caducados.stream().map(FichajeResumenDto::getId).toList()));
+
+        caducados.forEach(fichaje -> eventPublisher.publishEvent(new FichajeEvento(TipoEventoFichaje.FINALIZADO, fichaje)));
+        return caducados.size();
+    }
+}
@@ -0,0 +1,97 @@
+package es.timebee.tareas;
+
+import es.timebee.almacenamiento.ReferenciasContenido;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tarea programada que borra del almacén los PDF que ya no usa ninguna nómina.
+ * <p>
+ * Solo toca los contenidos que llevan sin referencias más de {@code gracia}, por si la
+ * empresa vuelve a subir la misma nómina poco después de borrarla. Cada contenido se borra
+ * en su propia transacción corta, con la fila de {@code contenido_nomina} bloqueada (ver
+ * {@link ReferenciasContenido}). Con varias instancias, solo la que tiene la concesión de
+ * {@link BloqueoTareas} trabaja.
+ */
+@Component
+public class LimpiezaContenidoNominas {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimpiezaContenidoNominas.class);
+
+    static final String TAREA = "LIMPIEZA_CONTENIDO_NOMINAS";
+
+    private final ReferenciasContenido referenciasContenido;
+    private final BloqueoTareas bloqueoTareas;
+    private final Duration gracia;
+    private final int tamanoLote;
+    private final Duration duracionConcesion;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración de la limpieza.
+     *
+     * @param referenciasContenido contador de referencias de los contenidos
+     * @param bloqueoTareas        concesiones de tareas entre instancias
+     * @param gracia               tiempo sin referencias antes de borrar un contenido
+     * @param tamanoLote           contenidos que se seleccionan en cada lote
+     * @param duracionConcesion    tiempo que se reserva la tarea en cada lote
+     */
+    public LimpiezaContenidoNominas(ReferenciasContenido referenciasContenido,
+                                    BloqueoTareas bloqueoTareas,
+                                    @Value("${timebee.nominas.limpieza.gracia:P1D}") Duration gracia,
+                                    @Value("${timebee.nominas.limpieza.tamano-lote:100}") int tamanoLote,
+                                    @Value("${timebee.nominas.limpieza.duracion-concesion:PT5M}") Duration duracionConcesion) {
+        this.referenciasContenido = referenciasContenido;
+        this.bloqueoTareas = bloqueoTareas;
+        this.gracia = gracia;
+        this.tamanoLote = tamanoLote;
+        this.duracionConcesion = duracionConcesion;
+    }
+
+    /**
+     * Borra los contenidos sin referencias, lote a lote, mientras esta instancia tenga la concesión.
+     * Un contenido que no se puede borrar se deja para la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${timebee.nominas.limpieza.intervalo:PT1H}", initialDelayString = "${timebee.nominas.limpieza.intervalo:PT1H}")
+    public void ejecutar() {
+        int borrados = 0;
+        try {
+            while (bloqueoTareas.adquirir(TAREA, duracionConcesion)) {
+                List<String> huellas = referenciasContenido.sinReferencias(gracia, tamanoLote);
+                int fallidos = 0;
+                for (String huella : huellas) {
+                    if (eliminar(huella)) {
+                        borrados++;
+                    } else {
+                        fallidos++;
+                    }
+                }
+                // Si todo el lote ha fallado, volver a pedirlo daría las mismas huellas.
+                if (huellas.size() < tamanoLote || fallidos == huellas.size()) {
+                    break;
+                }
+            }
+        } finally {
+            bloqueoTareas.liberar(TAREA);
+        }
+        if (borrados > 0) {
+            logger.info("Limpieza de nóminas: {} PDF sin referencias borrados del almacén", borrados);
+        }
+    }
+
+    private boolean eliminar(String huella) {
+        try {
+            return referenciasContenido.eliminarSinReferencias(huella);
+        } catch (IOException | DataAccessException e) {
+            logger.warn("No se pudo borrar del almacén el PDF {}", huella, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package es.timebee.tareas;
+
+import es.timebee.almacenamiento.AlmacenNominas;
+import es.timebee.almacenamiento.ContenidoPreparado;
+import es.timebee.almacenamiento.ReferenciasContenido;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tarea programada que saca los PDF de las nóminas antiguas de la base de datos
+ * y los lleva al {@link AlmacenNominas}.
+ * <p>
+ * Trabaja por lotes de ids y mueve las nóminas de una en una, sin transacción larga:
+ * lee el blob, lo prepara en el almacén y, en una transacción corta, apunta la huella y
+ * vacía el blob con un único {@code UPDATE} condicionado, suma la referencia al contenido
+ * y lo publica. Mientras tanto el servicio sigue atendiendo, porque la descarga sabe leer
+ * de los dos sitios. Si la nómina se elimina a medias, el {@code UPDATE} no encuentra la
+ * fila y el contenido preparado se descarta.
+ * <p>
+ * Con varias instancias, solo la que tiene la concesión de {@link BloqueoTareas} trabaja.
+ */
+@Component
+public class MigracionNominas {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigracionNominas.class);
+
+    static final String TAREA = "MIGRACION_NOMINAS";
+
+    private static final String SELECCIONAR = """
+            SELECT id FROM nomina
+            WHERE huella IS NULL AND id > :desde
+            ORDER BY id
+            LIMIT :tamanoLote""";
+
+    private static final String LEER = """
+            SELECT archivo_pdf FROM nomina WHERE id = :id AND huella IS NULL""";
+
+    // fecha_modificacion se asigna a sí misma para que el ON UPDATE no la cambie:
+    // el contenido de la nómina es el mismo y no debe aparecer en la sincronización incremental.
+    private static final String MOVER = """
+            UPDATE nomina SET huella = :huella, archivo_pdf = NULL, fecha_modificacion = fecha_modificacion
+            WHERE id = :id AND huella IS NULL""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AlmacenNominas almacenNominas;
+    private final ReferenciasContenido referenciasContenido;
+    private final BloqueoTareas bloqueoTareas;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean activa;
+    private final int tamanoLote;
+    private final Duration duracionConcesion;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración de la migración.
+     *
+     * @param jdbcTemplate         plantilla JDBC con parámetros con nombre
+     * @param almacenNominas       almacén al que se mueven los PDF
+     * @param referenciasContenido contador de referencias de los PDF del almacén
+     * @param bloqueoTareas        concesiones de tareas entre instancias
+     * @param transactionManager   gestor de transacciones
+     * @param activa               si la migración está activada
+     * @param tamanoLote           nóminas que se seleccionan en cada lote
+     * @param duracionConcesion    tiempo que se reserva la tarea en cada lote
+     */
+    public MigracionNominas(NamedParameterJdbcTemplate jdbcTemplate,
+                            AlmacenNominas almacenNominas,
+                            ReferenciasContenido referenciasContenido,
+                            BloqueoTareas bloqueoTareas,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${timebee.nominas.migracion.activa:true}") boolean activa,
+                            @Value("${timebee.nominas.migracion.tamano-lote:50}") int tamanoLote,
+                            @Value("${timebee.nominas.migracion.duracion-concesion:PT5M}") Duration duracionConcesion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.almacenNominas = almacenNominas;
+        this.referenciasContenido = referenciasContenido;
+        this.bloqueoTareas = bloqueoTareas;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.activa = activa;
+        this.tamanoLote = tamanoLote;
+        this.duracionConcesion = duracionConcesion;
+    }
+
+    /**
+     * Mueve al almacén todas las nóminas que aún tienen el PDF en la base de datos,
+     * si esta instancia consigue la concesión.
+     * <p>
+     * Renueva la concesión antes de cada lote y para si la pierde. Una nómina que falla
+     * se salta y se reintenta en la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${timebee.nominas.migracion.intervalo:PT1M}", initialDelayString = "${timebee.nominas.migracion.intervalo:PT1M}")
+    public void ejecutar() {
+        if (!activa) {
+            return;
+        }
+        int movidas = 0;
+        long desde = 0;
+        try {
+            while (bloqueoTareas.adquirir(TAREA, duracionConcesion)) {
+                List<Long> ids = jdbcTemplate.queryForList(SELECCIONAR, new MapSqlParameterSource()
+                        .addValue("desde", desde)
+                        .addValue("tamanoLote", tamanoLote), Long.class);
+                for (Long id : ids) {
+                    if (mover(id)) {
+                        movidas++;
+                    }
+                }
+                if (ids.size() < tamanoLote) {
+                    break;
+                }
+                desde = ids.get(ids.size() - 1);
+            }
+        } finally {
+            bloqueoTareas.liberar(TAREA);
+        }
+        if (movidas > 0) {
+            logger.info("Migración de nóminas: {} PDF movidos al almacén", movidas);
+        }
+    }
+
+    /**
+     * Mueve el PDF de una nómina al almacén.
+     *
+     * @param id id de la nómina
+     * @return true si la fila ha quedado apuntando al almacén
+     */
+    private boolean mover(long id) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("id", id);
+        ContenidoPreparado preparado = null;
+        try {
+            preparado = jdbcTemplate.query(LEER, parametros, rs -> {
+                if (!rs.next()) {
+                    return null;
+                }
+                try (InputStream pdf = rs.getBinaryStream(1)) {
+                    return pdf != null ? almacenNominas.preparar(pdf) : null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (preparado == null) {
+                return false;
+            }
+            ContenidoPreparado contenido = preparado;
+            return Boolean.TRUE.equals(transactionTemplate.execute(estado -> {
+                if (jdbcTemplate.update(MOVER, parametros.addValue("huella", contenido.contenido().huella())) != 1) {
+                    return false;
+                }
+                try {
+                    referenciasContenido.referenciar(contenido);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }));
+        } catch (DataAccessException | UncheckedIOException e) {
+            logger.warn("No se pudo mover al almacén el PDF de la nómina {}", id, e);
+            return false;
+        } finally {
+            descartar(preparado);
+        }
+    }
+
+    private static void descartar(ContenidoPreparado preparado) {
+        if (preparado == null) {
+            return;
+        }
+        try {
+            preparado.close();
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar un temporal del almacén de nóminas", e);
+        }
+    }
+}
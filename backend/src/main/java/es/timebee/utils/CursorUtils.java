@@ -0,0 +1,70 @@
+package es.timebee.utils;
+
+import es.timebee.exception.ProcesoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Utilidad para codificar y decodificar los cursores de paginación.
+ * <p>
+ * Un cursor es la posición (fecha de inicio + id) del último elemento
+ * entregado, codificada en Base64 URL-safe para que el cliente la trate
+ * como un texto opaco y la devuelva tal cual en la siguiente petición.
+ */
+public class CursorUtils {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Constructor.
+     */
+    public CursorUtils() {
+        //Constructor
+    }
+
+    /**
+     * Posición decodificada de un cursor.
+     *
+     * @param fecha la fecha de inicio del último elemento entregado
+     * @param id    el id del último elemento entregado
+     */
+    public record Posicion(LocalDateTime fecha, Long id) {
+    }
+
+    /**
+     * Codifica una posición en un cursor opaco.
+     *
+     * @param fecha la fecha de inicio del último elemento
+     * @param id    el id del último elemento
+     * @return el cursor codificado
+     */
+    public static String codificar(LocalDateTime fecha, Long id) {
+        String valor = fecha + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param cursor el cursor (puede ser nulo o vacío)
+     * @return la posición, o {@code null} si no se envió cursor
+     * @throws ProcesoException si el cursor no es válido
+     */
+    public static Posicion decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new Posicion(
+                    LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ProcesoException("El cursor de paginación no es válido", e);
+        }
+    }
+}
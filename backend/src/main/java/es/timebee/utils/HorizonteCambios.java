@@ -0,0 +1,91 @@
+package es.timebee.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Calcula hasta dónde se pueden leer con seguridad los cambios marcados con
+ * {@code fecha_modificacion}.
+ * <p>
+ * La fecha la pone cada transacción al escribir, no al confirmar, así que una transacción
+ * lenta (una importación de nóminas, un lote de fichajes, el cierre automático) aparece con
+ * una fecha anterior a la de otras ya confirmadas. Para no saltársela, nunca se lee nada
+ * más reciente que {@code ahora - margen} ni que el inicio de la transacción de escritura más
+ * antigua que sigue abierta ({@code information_schema.innodb_trx}).
+ */
+@Component
+public class HorizonteCambios {
+
+    private static final Logger logger = LoggerFactory.getLogger(HorizonteCambios.class);
+
+    private static final String AHORA = "SELECT NOW(6)";
+
+    // El inicio de la transacción abierta más antigua que puede escribir, sin contar la propia.
+    // trx_started no tiene fracciones de segundo, así que se queda por debajo: nunca se pasa.
+    private static final String TRANSACCION_MAS_ANTIGUA = """
+            SELECT MIN(trx_started) FROM information_schema.innodb_trx
+            WHERE trx_mysql_thread_id <> CONNECTION_ID() AND trx_is_read_only = 0""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration margen;
+    // Si ya se ha avisado de que no se puede consultar innodb_trx; los siguientes fallos van a debug.
+    private volatile boolean avisado;
+
+    /**
+     * Constructor que inyecta las dependencias y la configuración.
+     *
+     * @param jdbcTemplate plantilla JDBC de Spring
+     * @param margen       antigüedad mínima de un cambio para leerlo
+     */
+    public HorizonteCambios(JdbcTemplate jdbcTemplate,
+                            @Value("${timebee.cambios.margen:PT5S}") Duration margen) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.margen = margen;
+    }
+
+    /**
+     * La hora actual de la base de datos.
+     *
+     * @return la hora de la base de datos
+     */
+    public LocalDateTime ahora() {
+        return jdbcTemplate.queryForObject(AHORA, LocalDateTime.class);
+    }
+
+    /**
+     * Calcula el horizonte: {@code ahora - margen}, o el inicio de la transacción de escritura
+     * abierta más antigua si es anterior.
+     * <p>
+     * Consultar {@code innodb_trx} necesita el privilegio {@code PROCESS}; sin él solo queda el
+     * margen, y se avisa en el log (una sola vez, porque se calcula en cada sondeo) de que las
+     * transacciones que lo superen se pueden perder.
+     *
+     * @param ahora la hora actual de la base de datos
+     * @return el horizonte; todo lo anterior ya está confirmado
+     */
+    public LocalDateTime calcular(LocalDateTime ahora) {
+        LocalDateTime horizonte = ahora.minus(margen);
+        try {
+            LocalDateTime masAntigua = jdbcTemplate.queryForObject(TRANSACCION_MAS_ANTIGUA, LocalDateTime.class);
+            if (masAntigua != null && masAntigua.isBefore(horizonte)) {
+                return masAntigua;
+            }
+        } catch (DataAccessException e) {
+            if (!avisado) {
+                avisado = true;
+                logger.warn("No se pudo consultar information_schema.innodb_trx (¿falta el privilegio PROCESS?); "
+                        + "los cambios solo se protegen con el margen", e);
+            } else {
+                logger.debug("No se pudo consultar information_schema.innodb_trx", e);
+            }
+        }
+        return horizonte;
+    }
+}
@@ -0,0 +1,161 @@
+package es.timebee;
+
+import es.timebee.domain.repository.FichajeRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con {@code EXPLAIN} que las consultas de fichajes usan los índices declarados
+ * en la entidad y no recorren la tabla entera.
+ * <p>
+ * Las sentencias no se escriben a mano: se ejecuta la consulta del repositorio, se recoge el SQL
+ * que genera Hibernate (con {@link CapturaSql}) y se le hace el {@code EXPLAIN} con los mismos
+ * parámetros. Se insertan antes unos miles de fichajes para que el optimizador de MySQL no
+ * prefiera un recorrido completo por tener la tabla casi vacía. Necesita la base de datos MySQL configurada, así que solo se
+ * ejecuta bajo demanda: {@code mvn test -Dexplain=true -Dtest=FichajeIndicesExplainTest}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=es.timebee.FichajeIndicesExplainTest$CapturaSql")
+@EnabledIfSystemProperty(named = "explain", matches = "true")
+class FichajeIndicesExplainTest {
+
+	private static final int TOTAL = 20_000;
+	private static final int TRABAJADORES = 20;
+	private static final long EMPRESA_ID = 1L;
+	private static final long ID_INICIAL = 800_000_000L;
+	private static final LocalDateTime INICIO = LocalDateTime.of(2090, 1, 1, 0, 0);
+
+	private static final String INSERTAR_FICHAJE = "INSERT INTO fichaje (id, trabajador_id, empresa_id, fecha_inicio, fecha_fin) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String BORRAR_FICHAJES = "DELETE FROM fichaje WHERE fecha_inicio >= ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private FichajeRepository fichajeRepository;
+
+	@BeforeEach
+	void insertarFichajes() {
+		List<Object[]> filas = new ArrayList<>(TOTAL);
+		for (int i = 0; i < TOTAL; i++) {
+			LocalDateTime fecha = INICIO.plusMinutes(i);
+			filas.add(new Object[]{ID_INICIAL + i, (long) (i % TRABAJADORES) + 1, EMPRESA_ID,
+					Timestamp.valueOf(fecha), Timestamp.valueOf(fecha.plusMinutes(1))});
+		}
+		jdbcTemplate.batchUpdate(INSERTAR_FICHAJE, filas);
+		jdbcTemplate.execute("ANALYZE TABLE fichaje");
+	}
+
+	@AfterEach
+	void limpiar() {
+		jdbcTemplate.update(BORRAR_FICHAJES, Timestamp.valueOf(INICIO));
+	}
+
+	@Test
+	void rangoDeEmpresaUsaIndiceDeEmpresa() {
+		LocalDateTime desde = INICIO;
+		LocalDateTime hasta = INICIO.plusHours(2);
+		assertIndice("IDX_FICHAJE_EMPRESA_INICIO",
+				sql(() -> fichajeRepository.findRangoEmpresa(EMPRESA_ID, desde, hasta)),
+				EMPRESA_ID, desde, hasta);
+	}
+
+	@Test
+	void rangoDeTrabajadorUsaIndiceDeTrabajador() {
+		LocalDateTime desde = INICIO;
+		LocalDateTime hasta = INICIO.plusDays(1);
+		assertIndice("IDX_FICHAJE_TRABAJADOR_INICIO",
+				sql(() -> fichajeRepository.findRangoTrabajador(EMPRESA_ID, 1L, desde, hasta)),
+				1L, EMPRESA_ID, desde, hasta);
+	}
+
+	@Test
+	void paginaDeEmpresaUsaIndiceDeEmpresa() {
+		LocalDateTime desde = INICIO;
+		LocalDateTime cursor = INICIO.plusMinutes(TOTAL / 2);
+		long cursorId = ID_INICIAL + TOTAL / 2;
+		assertIndice("IDX_FICHAJE_EMPRESA_INICIO",
+				sql(() -> fichajeRepository.findPaginaEmpresa(EMPRESA_ID, desde, cursor, cursorId, PageRequest.of(0, 51))),
+				EMPRESA_ID, desde, cursor, cursor, cursorId, 51);
+	}
+
+	@Test
+	void paginaDeTrabajadorUsaIndiceDeTrabajador() {
+		LocalDateTime desde = INICIO;
+		LocalDateTime cursor = INICIO.plusMinutes(TOTAL / 2);
+		long cursorId = ID_INICIAL + TOTAL / 2;
+		assertIndice("IDX_FICHAJE_TRABAJADOR_INICIO",
+				sql(() -> fichajeRepository.findPaginaTrabajador(EMPRESA_ID, 1L, desde, cursor, cursorId, PageRequest.of(0, 51))),
+				1L, EMPRESA_ID, desde, cursor, cursor, cursorId, 51);
+	}
+
+	@Test
+	void fichajeAbiertoUsaIndiceUnico() {
+		assertIndice("UK_FICHAJE_ABIERTO_TRABAJADOR",
+				sql(() -> fichajeRepository.findByTrabajador_IdAndFechaFinIsNullOrderByFechaInicioAsc(1L)),
+				1L);
+	}
+
+	/**
+	 * Ejecuta la consulta y devuelve la sentencia sobre {@code fichaje} que ha generado Hibernate.
+	 */
+	private String sql(Runnable consulta) {
+		CapturaSql.SENTENCIAS.clear();
+		consulta.run();
+		return CapturaSql.SENTENCIAS.stream()
+				.filter(sentencia -> sentencia.toLowerCase().contains(" from fichaje "))
+				.reduce((primera, ultima) -> ultima)
+				.orElseThrow();
+	}
+
+	/**
+	 * Ejecuta el {@code EXPLAIN} de la sentencia con los parámetros en el orden en que aparecen
+	 * y comprueba el índice elegido para la tabla {@code fichaje} (alias {@code f1_0}) y que no
+	 * se recorre entera.
+	 */
+	private void assertIndice(String indice, String sql, Object... parametros) {
+		for (int i = 0; i < parametros.length; i++) {
+			if (parametros[i] instanceof LocalDateTime fecha) {
+				parametros[i] = Timestamp.valueOf(fecha);
+			}
+		}
+		Map<String, Object> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parametros).stream()
+				.filter(fila -> String.valueOf(fila.get("table")).startsWith("f"))
+				.findFirst()
+				.orElseThrow();
+		assertEquals(indice.toLowerCase(), String.valueOf(plan.get("key")).toLowerCase(), () -> "Plan: " + plan);
+		assertTrue(!"ALL".equals(plan.get("type")), () -> "Recorrido completo de la tabla: " + plan);
+	}
+
+	/**
+	 * Recoge las sentencias SQL que prepara Hibernate. Se registra por nombre en la propiedad
+	 * {@code hibernate.session_factory.statement_inspector}, así que tiene que ser pública.
+	 */
+	public static class CapturaSql implements StatementInspector {
+
+		static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SENTENCIAS.add(sql);
+			return sql;
+		}
+	}
+}
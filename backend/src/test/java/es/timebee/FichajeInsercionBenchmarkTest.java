@@ -0,0 +1,163 @@
+package es.timebee;
+
+import es.timebee.domain.constantes.BaseDeDatos;
+import es.timebee.domain.entity.Empresa;
+import es.timebee.domain.entity.Fichaje;
+import es.timebee.domain.repository.EmpresaRepository;
+import es.timebee.domain.repository.FichajeRepository;
+import es.timebee.domain.repository.TrabajadorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de inserción de 100.000 fichajes contra la base de datos configurada.
+ * <p>
+ * Compara lo que obligaba {@code IDENTITY} con el guardado por lotes de Hibernate que permiten
+ * los ids de secuencia. La referencia se mide sobre una copia de la tabla de fichajes (mismos
+ * índices) con el id {@code AUTO_INCREMENT}: un {@code INSERT} por fila y la lectura de la clave
+ * generada, que es lo que hace Hibernate con {@code IDENTITY}. Los lotes van a la tabla real.
+ * Solo se ejecuta bajo demanda: {@code mvn test -Dbenchmark=true -Dtest=FichajeInsercionBenchmarkTest}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FichajeInsercionBenchmarkTest {
+
+	private static final int TOTAL = 100_000;
+	private static final int BLOQUE = 1_000;
+	private static final long EMPRESA_ID = 1L;
+	private static final long TRABAJADOR_ID = 1L;
+	private static final LocalDateTime INICIO = LocalDateTime.of(2090, 1, 1, 0, 0);
+
+	private static final Logger logger = LoggerFactory.getLogger(FichajeInsercionBenchmarkTest.class);
+
+	private static final String TABLA_IDENTITY = BaseDeDatos.Tablas.FICHAJE + "_BENCHMARK_IDENTITY";
+
+	private static final String CREAR_TABLA_IDENTITY = "CREATE TABLE " + TABLA_IDENTITY
+			+ " LIKE " + BaseDeDatos.Tablas.FICHAJE;
+
+	private static final String ID_AUTO_INCREMENT = "ALTER TABLE " + TABLA_IDENTITY
+			+ " MODIFY " + BaseDeDatos.Columnas.ID + " BIGINT NOT NULL AUTO_INCREMENT";
+
+	private static final String BORRAR_TABLA_IDENTITY = "DROP TABLE IF EXISTS " + TABLA_IDENTITY;
+
+	private static final String INSERTAR_FICHAJE_IDENTITY = "INSERT INTO " + TABLA_IDENTITY + " ("
+			+ BaseDeDatos.Columnas.TRABAJADOR_ID + ", "
+			+ BaseDeDatos.Columnas.EMPRESA_ID + ", "
+			+ BaseDeDatos.Columnas.FECHA_INICIO + ", "
+			+ BaseDeDatos.Columnas.FECHA_FIN + ") VALUES (?, ?, ?, ?)";
+
+	private static final String CONTAR_FICHAJES_IDENTITY = "SELECT COUNT(*) FROM " + TABLA_IDENTITY
+			+ " WHERE " + BaseDeDatos.Columnas.FECHA_INICIO + " >= ?";
+
+	private static final String CONTAR_FICHAJES = "SELECT COUNT(*) FROM " + BaseDeDatos.Tablas.FICHAJE
+			+ " WHERE " + BaseDeDatos.Columnas.FECHA_INICIO + " >= ?";
+
+	private static final String BORRAR_FICHAJES = "DELETE FROM " + BaseDeDatos.Tablas.FICHAJE
+			+ " WHERE " + BaseDeDatos.Columnas.FECHA_INICIO + " >= ?";
+
+	@Autowired
+	private FichajeRepository fichajeRepository;
+
+	@Autowired
+	private EmpresaRepository empresaRepository;
+
+	@Autowired
+	private TrabajadorRepository trabajadorRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	void limpiar() {
+		jdbcTemplate.update(BORRAR_FICHAJES, Timestamp.valueOf(INICIO));
+		jdbcTemplate.execute(BORRAR_TABLA_IDENTITY);
+	}
+
+	@Test
+	void insercionesPorSegundo() {
+		jdbcTemplate.execute(BORRAR_TABLA_IDENTITY);
+		jdbcTemplate.execute(CREAR_TABLA_IDENTITY);
+		jdbcTemplate.execute(ID_AUTO_INCREMENT);
+		double identity = medir(this::insertarConIdentity, CONTAR_FICHAJES_IDENTITY);
+		double porLotes = medir(this::insertarPorLotes, CONTAR_FICHAJES);
+
+		logger.info("Inserción de {} fichajes: IDENTITY fila a fila {}/s, secuencia por lotes {}/s (x{})",
+				TOTAL, Math.round(identity), Math.round(porLotes), String.format("%.1f", porLotes / identity));
+		assertTrue(porLotes > identity,
+				() -> "Los lotes (" + Math.round(porLotes) + "/s) no superan a IDENTITY (" + Math.round(identity) + "/s)");
+	}
+
+	private double medir(Runnable insercion, String contar) {
+		long inicio = System.nanoTime();
+		insercion.run();
+		double segundos = (System.nanoTime() - inicio) / 1_000_000_000d;
+		Long insertados = jdbcTemplate.queryForObject(contar, Long.class, Timestamp.valueOf(INICIO));
+		assertEquals(TOTAL, insertados);
+		return TOTAL / segundos;
+	}
+
+	/**
+	 * Un {@code INSERT} por fila leyendo la clave generada, como hace Hibernate con {@code IDENTITY}.
+	 */
+	private void insertarConIdentity() {
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+		for (int desde = 0; desde < TOTAL; desde += BLOQUE) {
+			int inicioBloque = desde;
+			transaccion.executeWithoutResult(estado -> {
+				for (int i = inicioBloque; i < inicioBloque + BLOQUE; i++) {
+					LocalDateTime fecha = INICIO.plusMinutes(i);
+					jdbcTemplate.update(con -> {
+						PreparedStatement ps = con.prepareStatement(INSERTAR_FICHAJE_IDENTITY, Statement.RETURN_GENERATED_KEYS);
+						ps.setLong(1, TRABAJADOR_ID);
+						ps.setLong(2, EMPRESA_ID);
+						ps.setTimestamp(3, Timestamp.valueOf(fecha));
+						ps.setTimestamp(4, Timestamp.valueOf(fecha.plusSeconds(30)));
+						return ps;
+					}, new GeneratedKeyHolder());
+				}
+			});
+		}
+	}
+
+	private void insertarPorLotes() {
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+		for (int desde = 0; desde < TOTAL; desde += BLOQUE) {
+			int inicioBloque = desde;
+			transaccion.executeWithoutResult(estado -> {
+				Empresa empresa = empresaRepository.getReferenceById(EMPRESA_ID);
+				List<Fichaje> fichajes = new ArrayList<>(BLOQUE);
+				for (int i = inicioBloque; i < inicioBloque + BLOQUE; i++) {
+					Fichaje fichaje = new Fichaje();
+					fichaje.setTrabajador(trabajadorRepository.getReferenceById(TRABAJADOR_ID));
+					fichaje.setEmpresa(empresa);
+					fichaje.setFechaInicio(INICIO.plusMinutes(i));
+					fichaje.setFechaFin(INICIO.plusMinutes(i).plusSeconds(30));
+					fichajes.add(fichaje);
+				}
+				fichajeRepository.saveAll(fichajes);
+			});
+		}
+	}
+}
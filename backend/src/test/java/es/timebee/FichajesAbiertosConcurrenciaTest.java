@@ -0,0 +1,151 @@
+package es.timebee;
+
+import es.timebee.domain.enumeration.Rol;
+import es.timebee.exception.ProcesoException;
+import es.timebee.registro.FichajeAbierto;
+import es.timebee.registro.RegistroFichajesAbiertos;
+import es.timebee.registro.RegistroFichajesAbiertosListener;
+import es.timebee.security.UsuarioAutenticado;
+import es.timebee.services.FichajeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de estrés de las entradas y salidas reales: 10.000 llamadas concurrentes a
+ * {@link FichajeService#iniciarFichaje(UsuarioAutenticado)} y {@link FichajeService#finalizarFichaje(UsuarioAutenticado)}
+ * sobre unos pocos trabajadores, contra la base de datos.
+ * <p>
+ * Al terminar, ningún trabajador puede tener más de un fichaje sin fecha de fin, y el
+ * {@link RegistroFichajesAbiertos} tiene que coincidir con la tabla. Se usan trabajadores de la
+ * empresa 1 sin fichajes abiertos y al final se borran los fichajes creados. Necesita la base
+ * de datos MySQL configurada, así que solo se ejecuta bajo demanda:
+ * {@code mvn test -Dbd=true -Dtest=FichajesAbiertosConcurrenciaTest}.
+ */
+@SpringBootTest(properties = {"timebee.nominas.migracion.activa=false", "timebee.fichajes.cierre-automatico.activo=false"})
+@EnabledIfSystemProperty(named = "bd", matches = "true")
+class FichajesAbiertosConcurrenciaTest {
+
+	private static final int OPERACIONES = 10_000;
+	private static final int HILOS = 32;
+	private static final int TRABAJADORES = 8;
+	private static final long EMPRESA_ID = 1L;
+
+	private static final String TRABAJADORES_SIN_ABIERTOS = """
+			SELECT t.id, t.email FROM trabajador t
+			WHERE t.empresa_id = ?
+			  AND NOT EXISTS (SELECT 1 FROM fichaje f WHERE f.trabajador_id = t.id AND f.fecha_fin IS NULL)
+			ORDER BY t.id
+			LIMIT ?""";
+
+	private static final String ULTIMO_FICHAJE = "SELECT COALESCE(MAX(id), 0) FROM fichaje";
+
+	private static final String ABIERTOS_POR_TRABAJADOR = """
+			SELECT trabajador_id, COUNT(*) AS abiertos, MIN(id) AS fichaje_id
+			FROM fichaje
+			WHERE fecha_fin IS NULL AND trabajador_id IN (:trabajadores)
+			GROUP BY trabajador_id""";
+
+	private static final String BORRAR_FICHAJES = "DELETE FROM fichaje WHERE id > :ultimo AND trabajador_id IN (:trabajadores)";
+
+	@Autowired
+	private FichajeService fichajeService;
+
+	@Autowired
+	private RegistroFichajesAbiertos registro;
+
+	@Autowired
+	private RegistroFichajesAbiertosListener registroListener;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	private final Map<Long, UsuarioAutenticado> usuarios = new HashMap<>();
+	private long ultimoFichaje;
+
+	@BeforeEach
+	void elegirTrabajadores() {
+		jdbcTemplate.query(TRABAJADORES_SIN_ABIERTOS, rs -> {
+			usuarios.put(rs.getLong("id"), new UsuarioAutenticado(rs.getLong("id"), rs.getString("email"),
+					Rol.TRABAJADOR, EMPRESA_ID, null));
+		}, EMPRESA_ID, TRABAJADORES);
+		assertEquals(TRABAJADORES, usuarios.size(), "Hacen falta trabajadores de la empresa 1 sin fichajes abiertos");
+		ultimoFichaje = jdbcTemplate.queryForObject(ULTIMO_FICHAJE, Long.class);
+	}
+
+	@AfterEach
+	void limpiar() {
+		namedJdbcTemplate.update(BORRAR_FICHAJES, new MapSqlParameterSource()
+				.addValue("ultimo", ultimoFichaje)
+				.addValue("trabajadores", usuarios.keySet()));
+		registroListener.cargar();
+	}
+
+	@Test
+	void entradasYSalidasConcurrentesNoDuplicanFichajesAbiertos() throws Exception {
+		List<UsuarioAutenticado> trabajadores = List.copyOf(usuarios.values());
+		ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<?>> tareas = new ArrayList<>(OPERACIONES);
+		for (int i = 0; i < OPERACIONES; i++) {
+			tareas.add(ejecutor.submit(() -> {
+				salida.await();
+				UsuarioAutenticado usuario = trabajadores.get(ThreadLocalRandom.current().nextInt(trabajadores.size()));
+				try {
+					if (ThreadLocalRandom.current().nextBoolean()) {
+						fichajeService.iniciarFichaje(usuario);
+					} else {
+						fichajeService.finalizarFichaje(usuario);
+					}
+				} catch (ProcesoException e) {
+					// Ya tenía un fichaje abierto o no tenía ninguno que cerrar: es lo esperado
+				}
+				return null;
+			}));
+		}
+		salida.countDown();
+		for (Future<?> tarea : tareas) {
+			tarea.get(5, TimeUnit.MINUTES);
+		}
+		ejecutor.shutdown();
+
+		Map<Long, Long> abiertosEnBd = new HashMap<>();
+		namedJdbcTemplate.query(ABIERTOS_POR_TRABAJADOR, new MapSqlParameterSource("trabajadores", usuarios.keySet()), rs -> {
+			assertEquals(1, rs.getInt("abiertos"), "Fichajes abiertos del trabajador " + rs.getLong("trabajador_id"));
+			abiertosEnBd.put(rs.getLong("trabajador_id"), rs.getLong("fichaje_id"));
+		});
+		for (Long trabajadorId : usuarios.keySet()) {
+			Optional<FichajeAbierto> registrado = registro.buscar(trabajadorId);
+			assertFalse(registrado.map(FichajeAbierto::esReserva).orElse(false));
+			assertEquals(Optional.ofNullable(abiertosEnBd.get(trabajadorId)), registrado.map(FichajeAbierto::fichajeId));
+		}
+		assertTrue(registro.abiertosDeEmpresa(EMPRESA_ID).stream()
+				.filter(abierto -> usuarios.containsKey(abierto.trabajadorId()))
+				.allMatch(abierto -> abierto.fichajeId().equals(abiertosEnBd.get(abierto.trabajadorId()))));
+	}
+}
@@ -0,0 +1,99 @@
+package es.timebee;
+
+import es.timebee.domain.dto.NominaMetadataDto;
+import es.timebee.domain.repository.NominaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que listar las nóminas de un trabajador no trae sus PDF de la base de datos.
+ * <p>
+ * Se insertan 120 nóminas antiguas con el PDF todavía en la columna {@code archivo_pdf}
+ * (1 MB cada una) y se mide lo que reserva el hilo al listarlas: si se cargaran las
+ * entidades serían más de 120 MB; con la proyección no llega a lo que ocupa un solo PDF.
+ * Necesita la base de datos MySQL configurada, así que solo se ejecuta bajo demanda:
+ * {@code mvn test -Dbd=true -Dtest=NominaMetadatosTest}.
+ */
+@SpringBootTest(properties = "timebee.nominas.migracion.activa=false")
+@EnabledIfSystemProperty(named = "bd", matches = "true")
+class NominaMetadatosTest {
+
+	private static final int NOMINAS = 120;
+	private static final int TAMANO_PDF = 1024 * 1024;
+	private static final long EMPRESA_ID = 1L;
+	private static final long TRABAJADOR_ID = 2L;
+	private static final long ID_INICIAL = 700_000_000L;
+	private static final LocalDate PERIODO_INICIAL = LocalDate.of(2090, 1, 1);
+
+	private static final String INSERTAR_NOMINA = "INSERT INTO nomina (id, periodo, empresa_id, fecha_subida, tamano, "
+			+ "trabajador_id, content_type, nombre_archivo, archivo_pdf) VALUES (?, ?, ?, NOW(), ?, ?, 'application/pdf', ?, ?)";
+
+	private static final String BORRAR_NOMINAS = "DELETE FROM nomina WHERE id >= ?";
+
+	@Autowired
+	private NominaRepository nominaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void insertarNominas() {
+		byte[] pdf = new byte[TAMANO_PDF];
+		byte[] firma = "%PDF-1.7".getBytes(StandardCharsets.US_ASCII);
+		System.arraycopy(firma, 0, pdf, 0, firma.length);
+		for (int i = 0; i < NOMINAS; i++) {
+			jdbcTemplate.update(INSERTAR_NOMINA, ID_INICIAL + i, Date.valueOf(PERIODO_INICIAL.plusMonths(i)), EMPRESA_ID,
+					(long) TAMANO_PDF, TRABAJADOR_ID, "nomina-" + i + ".pdf", pdf);
+		}
+	}
+
+	@AfterEach
+	void limpiar() {
+		jdbcTemplate.update(BORRAR_NOMINAS, ID_INICIAL);
+	}
+
+	@Test
+	void listarPorTrabajadorNoCargaLosPdf() {
+		assertSinPdf(() -> nominaRepository.findMetadatosVisibles(TRABAJADOR_ID, EMPRESA_ID, TRABAJADOR_ID, false, true));
+	}
+
+	@Test
+	void otroTrabajadorNoVeLasNominas() {
+		assertTrue(nominaRepository.findMetadatosVisibles(TRABAJADOR_ID, EMPRESA_ID, TRABAJADOR_ID + 1, false, true).isEmpty());
+	}
+
+	@Test
+	void listarPropiasNoCargaLosPdf() {
+		assertSinPdf(() -> nominaRepository.findMetadatosByTrabajadorId(TRABAJADOR_ID));
+	}
+
+	/**
+	 * Ejecuta el listado una vez para calentar (plan de la consulta, conexiones) y otra midiendo
+	 * los bytes que reserva el hilo actual, que es el que lee el resultado del driver.
+	 */
+	private void assertSinPdf(Supplier<List<NominaMetadataDto>> listado) {
+		listado.get();
+		com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long antes = hilos.getCurrentThreadAllocatedBytes();
+		List<NominaMetadataDto> nominas = listado.get();
+		long reservados = hilos.getCurrentThreadAllocatedBytes() - antes;
+
+		assertEquals(NOMINAS, nominas.stream().filter(n -> n.getId() >= ID_INICIAL).count());
+		assertTrue(reservados < TAMANO_PDF, () -> "Se han reservado " + reservados + " bytes al listar " + NOMINAS + " nóminas");
+	}
+}
@@ -0,0 +1,149 @@
+package es.timebee.almacenamiento;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del {@link AlmacenNominasLocal}: cada contenido queda bajo su SHA-256 en un
+ * directorio repartido, un mismo contenido ocupa un único archivo, los grandes que lo
+ * merecen se guardan comprimidos y no quedan temporales.
+ */
+class AlmacenNominasLocalTest {
+
+	private static final byte[] PDF = "%PDF-1.7\nnomina de prueba\n%%EOF\n".getBytes(StandardCharsets.US_ASCII);
+
+	private static final DataSize UMBRAL_COMPRESION = DataSize.ofKilobytes(64);
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void guardaBajoSuHuellaEnDirectoriosRepartidos() throws Exception {
+		AlmacenNominasLocal almacen = almacen(false);
+
+		ContenidoAlmacenado contenido = almacen.guardar(new ByteArrayInputStream(PDF));
+
+		assertEquals(PDF.length, contenido.tamano());
+		assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PDF)), contenido.huella());
+		Path ruta = almacen.ruta(contenido.huella());
+		assertEquals(directorio.resolve(contenido.huella().substring(0, 2)).resolve(contenido.huella().substring(2, 4))
+				.resolve(contenido.huella()).toAbsolutePath(), ruta);
+		try (InputStream leido = almacen.abrir(contenido.huella())) {
+			assertArrayEquals(PDF, leido.readAllBytes());
+		}
+	}
+
+	@Test
+	void unMismoContenidoOcupaUnSoloArchivo() throws Exception {
+		AlmacenNominasLocal almacen = almacen(false);
+
+		String primera = almacen.guardar(new ByteArrayInputStream(PDF)).huella();
+		String segunda = almacen.guardar(new ByteArrayInputStream(PDF)).huella();
+
+		assertEquals(primera, segunda);
+		try (Stream<Path> archivos = Files.walk(directorio)) {
+			assertEquals(1, archivos.filter(Files::isRegularFile).count());
+		}
+		try (Stream<Path> temporales = Files.list(directorio.resolve("tmp"))) {
+			assertEquals(0, temporales.count());
+		}
+	}
+
+	@Test
+	void eliminarBorraElContenido() throws Exception {
+		AlmacenNominasLocal almacen = almacen(false);
+		String huella = almacen.guardar(new ByteArrayInputStream(PDF)).huella();
+
+		almacen.eliminar(huella);
+
+		assertFalse(almacen.existe(huella));
+	}
+
+	@Test
+	void rechazaHuellasQueNoSonSha256() throws Exception {
+		AlmacenNominasLocal almacen = almacen(false);
+		String huella = almacen.guardar(new ByteArrayInputStream(PDF)).huella();
+
+		assertTrue(almacen.existe(huella));
+		assertThrows(IllegalArgumentException.class, () -> almacen.abrir("../../etc/passwd"));
+		assertThrows(IllegalArgumentException.class, () -> almacen.existe(huella.toUpperCase()));
+	}
+
+	@Test
+	void noPublicaHastaQueSeLePide() throws Exception {
+		AlmacenNominasLocal almacen = almacen(false);
+
+		String huella;
+		try (ContenidoPreparado preparado = almacen.preparar(new ByteArrayInputStream(PDF))) {
+			huella = preparado.contenido().huella();
+			assertFalse(almacen.existe(huella));
+		}
+
+		assertFalse(almacen.existe(huella));
+		try (Stream<Path> archivos = Files.walk(directorio)) {
+			assertEquals(0, archivos.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	void comprimeLosContenidosGrandesQueLoMerecen() throws Exception {
+		AlmacenNominasLocal almacen = almacen(true);
+		byte[] grande = pdfGrande();
+
+		ContenidoAlmacenado contenido = almacen.guardar(new ByteArrayInputStream(grande));
+
+		assertEquals(grande.length, contenido.tamano());
+		assertFalse(Files.exists(almacen.ruta(contenido.huella())));
+		Path comprimido = almacen.ruta(contenido.huella()).resolveSibling(contenido.huella() + ".gz");
+		assertTrue(Files.size(comprimido) < grande.length / 2);
+		try (InputStream leido = almacen.abrir(contenido.huella())) {
+			assertArrayEquals(grande, leido.readAllBytes());
+		}
+		Resource recurso = almacen.recurso(contenido.huella());
+		assertEquals(grande.length, recurso.contentLength());
+		assertFalse(recurso.isFile());
+
+		almacen.eliminar(contenido.huella());
+		assertFalse(almacen.existe(contenido.huella()));
+	}
+
+	@Test
+	void noComprimeLosContenidosPequenos() throws Exception {
+		AlmacenNominasLocal almacen = almacen(true);
+
+		String huella = almacen.guardar(new ByteArrayInputStream(PDF)).huella();
+
+		assertTrue(Files.exists(almacen.ruta(huella)));
+		assertTrue(almacen.recurso(huella).isFile());
+	}
+
+	private AlmacenNominasLocal almacen(boolean comprimir) throws Exception {
+		return new AlmacenNominasLocal(directorio.toString(), comprimir, UMBRAL_COMPRESION);
+	}
+
+	/** Un PDF de 256 KB sin comprimir por dentro, con el mismo objeto repetido. */
+	private static byte[] pdfGrande() {
+		StringBuilder pdf = new StringBuilder("%PDF-1.7\n");
+		while (pdf.length() < 256 * 1024) {
+			pdf.append("1 0 obj << /Type /Page /Contents (nomina sin comprimir) >> endobj\n");
+		}
+		return pdf.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,64 @@
+package es.timebee.almacenamiento;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas del {@link FlujoPdf}: deja pasar un PDF entero y corta la lectura en cuanto
+ * el contenido no empieza como un PDF o se pasa del tamaño máximo.
+ */
+class FlujoPdfTest {
+
+	private static final byte[] PDF = "%PDF-1.7\nnomina de prueba\n%%EOF\n".getBytes(StandardCharsets.US_ASCII);
+
+	@Test
+	void dejaPasarUnPdf() throws IOException {
+		try (FlujoPdf flujo = new FlujoPdf(new ByteArrayInputStream(PDF), PDF.length)) {
+			assertEquals(PDF.length, flujo.transferTo(OutputStream.nullOutputStream()));
+		}
+	}
+
+	@Test
+	void rechazaLoQueNoEmpiezaComoUnPdf() {
+		byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+		assertThrows(ContenidoNoValidoException.class,
+				() -> new FlujoPdf(new ByteArrayInputStream(png), PDF.length).transferTo(OutputStream.nullOutputStream()));
+	}
+
+	@Test
+	void rechazaUnArchivoMasCortoQueLaFirma() {
+		byte[] corto = {'%', 'P', 'D'};
+		assertThrows(ContenidoNoValidoException.class,
+				() -> new FlujoPdf(new ByteArrayInputStream(corto), PDF.length).transferTo(OutputStream.nullOutputStream()));
+	}
+
+	@Test
+	void rechazaUnPdfDemasiadoGrande() {
+		assertThrows(ContenidoNoValidoException.class,
+				() -> new FlujoPdf(new ByteArrayInputStream(PDF), PDF.length - 1).transferTo(OutputStream.nullOutputStream()));
+	}
+
+	@Test
+	void validaLaFirmaAunqueSeLeaByteAByte() throws IOException {
+		try (FlujoPdf flujo = new FlujoPdf(new ByteArrayInputStream(PDF), PDF.length)) {
+			int leidos = 0;
+			while (flujo.read() >= 0) {
+				leidos++;
+			}
+			assertEquals(PDF.length, leidos);
+		}
+		FlujoPdf falso = new FlujoPdf(new ByteArrayInputStream("%PDX-".getBytes(StandardCharsets.US_ASCII)), PDF.length);
+		assertThrows(ContenidoNoValidoException.class, () -> {
+			while (falso.read() >= 0) {
+				// Lee hasta fallar
+			}
+		});
+	}
+}
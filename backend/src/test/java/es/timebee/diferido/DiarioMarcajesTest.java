@@ -0,0 +1,132 @@
+package es.timebee.diferido;
+
+import es.timebee.domain.enumeration.TipoMarcaje;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del {@link DiarioMarcajes}: lo que se confirma sobrevive a un reinicio, en orden y sin
+ * huecos, y lo que quedó a medias (un corte en mitad de una escritura o un registro dañado)
+ * se descarta sin llevarse por delante lo anterior.
+ * <p>
+ * Sustituye a parar y arrancar la base de datos: lo que se reproduce al volver es exactamente
+ * lo que el diario devuelve al abrirse, a partir del punto de control.
+ */
+class DiarioMarcajesTest {
+
+	private static final int MARCAJES = 2_000;
+	private static final int HILOS = 16;
+	private static final LocalDateTime MOMENTO = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void losMarcajesConfirmadosSobrevivenAlReinicioEnOrden() throws Exception {
+		Path archivo = directorio.resolve("marcajes.diario");
+		try (DiarioMarcajes diario = new DiarioMarcajes(archivo, 0)) {
+			ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+			List<Future<?>> tareas = new ArrayList<>();
+			for (int i = 0; i < MARCAJES; i++) {
+				long trabajador = i;
+				tareas.add(hilos.submit(() -> {
+					MarcajeDiferido marcaje = diario.anadir(marcaje(trabajador), m -> { });
+					diario.sincronizar(marcaje.secuencia());
+					return null;
+				}));
+			}
+			for (Future<?> tarea : tareas) {
+				tarea.get();
+			}
+			hilos.shutdown();
+		}
+
+		try (DiarioMarcajes reabierto = new DiarioMarcajes(archivo, 0)) {
+			List<MarcajeDiferido> leidos = reabierto.leidos();
+			assertEquals(MARCAJES, leidos.size());
+			for (int i = 0; i < leidos.size(); i++) {
+				assertEquals(i + 1L, leidos.get(i).secuencia());
+			}
+			assertEquals(MARCAJES + 1L, reabierto.anadir(marcaje(1), m -> { }).secuencia());
+		}
+	}
+
+	@Test
+	void seDescartaLaLineaCortadaYSeSigueEscribiendoDetras() throws IOException {
+		Path archivo = directorio.resolve("marcajes.diario");
+		try (DiarioMarcajes diario = new DiarioMarcajes(archivo, 0)) {
+			diario.anadir(marcaje(1), m -> { });
+			diario.anadir(marcaje(2), m -> { });
+			diario.sincronizar(2);
+		}
+		String cortada = DiarioMarcajes.registro(marcaje(3).conSecuencia(3));
+		Files.writeString(archivo, cortada.substring(0, cortada.length() - 1), StandardOpenOption.APPEND);
+
+		try (DiarioMarcajes reabierto = new DiarioMarcajes(archivo, 0)) {
+			assertEquals(2, reabierto.leidos().size());
+			reabierto.anadir(marcaje(3), m -> { });
+			reabierto.sincronizar(3);
+		}
+		try (DiarioMarcajes reabierto = new DiarioMarcajes(archivo, 0)) {
+			assertEquals(List.of(1L, 2L, 3L), reabierto.leidos().stream().map(MarcajeDiferido::secuencia).toList());
+		}
+	}
+
+	@Test
+	void unRegistroConCrcIncorrectoCortaLaLectura() throws IOException {
+		Path archivo = directorio.resolve("marcajes.diario");
+		try (DiarioMarcajes diario = new DiarioMarcajes(archivo, 0)) {
+			for (int i = 1; i <= 3; i++) {
+				diario.anadir(marcaje(i), m -> { });
+			}
+			diario.sincronizar(3);
+		}
+		List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+		lineas.set(1, lineas.get(1).replace("ENTRADA", "SALIDA"));
+		Files.write(archivo, lineas, StandardCharsets.UTF_8);
+
+		try (DiarioMarcajes reabierto = new DiarioMarcajes(archivo, 0)) {
+			assertEquals(1, reabierto.leidos().size());
+			assertEquals(TipoMarcaje.ENTRADA, reabierto.leidos().get(0).tipo());
+		}
+		assertThrows(IllegalArgumentException.class, () -> DiarioMarcajes.leerRegistro(lineas.get(1)));
+	}
+
+	@Test
+	void seVaciaSoloCuandoTodoEstaConfirmado() throws IOException {
+		Path archivo = directorio.resolve("marcajes.diario");
+		try (DiarioMarcajes diario = new DiarioMarcajes(archivo, 10)) {
+			diario.anadir(marcaje(1), m -> { });
+			diario.anadir(marcaje(2), m -> { });
+			diario.sincronizar(12);
+
+			assertTrue(!diario.vaciarSiConfirmado(11));
+			assertTrue(diario.vaciarSiConfirmado(12));
+			assertEquals(0, Files.size(archivo));
+		}
+		try (DiarioMarcajes reabierto = new DiarioMarcajes(archivo, 12)) {
+			assertTrue(reabierto.leidos().isEmpty());
+			assertEquals(13, reabierto.anadir(marcaje(3), m -> { }).secuencia());
+		}
+	}
+
+	private static MarcajeDiferido marcaje(long trabajadorId) {
+		return new MarcajeDiferido(0, TipoMarcaje.ENTRADA, trabajadorId, 1L, "Nombre", "Apellido Apellido", MOMENTO);
+	}
+}
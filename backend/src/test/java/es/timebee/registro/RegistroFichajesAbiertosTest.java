@@ -0,0 +1,49 @@
+package es.timebee.registro;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del {@link RegistroFichajesAbiertos}: reservas y el índice por empresa. La prueba de
+ * estrés con el servicio real y la base de datos es {@code FichajesAbiertosConcurrenciaTest}.
+ */
+class RegistroFichajesAbiertosTest {
+
+	private final RegistroFichajesAbiertos registro = new RegistroFichajesAbiertos();
+
+	@Test
+	void soloUnaReservaGanaYSeLiberaSiNoSeConfirma() {
+		assertTrue(registro.reservar(1L));
+		assertFalse(registro.reservar(1L));
+		registro.quitar(1L, 99L);
+		assertTrue(registro.buscar(1L).isPresent());
+		registro.liberarReserva(1L);
+		assertTrue(registro.buscar(1L).isEmpty());
+	}
+
+	@Test
+	void elIndicePorEmpresaSoloCuentaFichajesConfirmados() {
+		LocalDateTime ahora = LocalDateTime.now();
+		assertTrue(registro.reservar(1L));
+		assertEquals(0, registro.contarDeEmpresa(1L));
+
+		registro.registrar(new FichajeAbierto(10L, 1L, 1L, "Ana", "Uno", ahora));
+		registro.registrar(new FichajeAbierto(11L, 2L, 1L, "Luis", "Dos", ahora.minusHours(1)));
+		registro.registrar(new FichajeAbierto(12L, 3L, 2L, "Eva", "Tres", ahora));
+		assertEquals(List.of(11L, 10L), registro.abiertosDeEmpresa(1L).stream().map(FichajeAbierto::fichajeId).toList());
+		assertEquals(1, registro.contarDeEmpresa(2L));
+
+		registro.quitar(1L, 99L);
+		assertEquals(2, registro.contarDeEmpresa(1L));
+		registro.quitar(1L, 10L);
+		registro.retirar(2L);
+		assertTrue(registro.abiertosDeEmpresa(1L).isEmpty());
+		assertEquals(1, registro.contarDeEmpresa(2L));
+	}
+}
@@ -0,0 +1,54 @@
+package es.timebee.security;
+
+import es.timebee.domain.enumeration.Rol;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Pruebas de {@link JwtUtil}: el usuario autenticado se reconstruye entero a partir de los
+ * claims del token, sin base de datos, y los tokens sin ids piden cargarlo como antes.
+ */
+class JwtUtilTest {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+
+	@Test
+	void reconstruyeElTrabajadorDesdeLosClaims() {
+		UsuarioAutenticado trabajador = new UsuarioAutenticado(42L, "ana@timebee.es", Rol.TRABAJADOR, 7L, "codificada");
+
+		UsuarioAutenticado leido = jwtUtil.extractUsuario(jwtUtil.generateToken(trabajador));
+
+		assertEquals(42L, leido.getId());
+		assertEquals("ana@timebee.es", leido.getUsername());
+		assertEquals(Rol.TRABAJADOR, leido.getRol());
+		assertEquals(7L, leido.getEmpresaId());
+		assertEquals(trabajador.getAuthorities(), leido.getAuthorities());
+		assertNull(leido.getPassword());
+	}
+
+	@Test
+	void laEmpresaEsSuPropiaEmpresa() {
+		UsuarioAutenticado empresa = new UsuarioAutenticado(7L, "rrhh@timebee.es", Rol.EMPRESA, 7L, "codificada");
+
+		UsuarioAutenticado leido = jwtUtil.extractUsuario(jwtUtil.generateToken(empresa));
+
+		assertEquals(Rol.EMPRESA, leido.getRol());
+		assertEquals(leido.getId(), leido.getEmpresaId());
+	}
+
+	@Test
+	void unTokenSinIdsNoDevuelveUsuario() {
+		User antiguo = new User("rrhh@timebee.es", "codificada", List.of(new SimpleGrantedAuthority("ROLE_EMPRESA")));
+
+		String token = jwtUtil.generateToken(antiguo);
+
+		assertNull(jwtUtil.extractUsuario(token));
+		assertEquals("rrhh@timebee.es", jwtUtil.extractUsername(token));
+	}
+}
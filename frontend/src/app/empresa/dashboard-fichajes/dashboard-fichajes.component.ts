@@ -3,7 +3,7 @@ import {
   EmpresasService,
   FichajeEditRequestDto,
   FichajeRequestDto,
-  FichajesDto,
+  FichajeResumenDto,
   FichajesService
 } from "../../../openapi";
 import {NgForOf, NgIf} from "@angular/common";
@@ -136,7 +136,7 @@ export class DashboardFichajesComponent implements OnInit {
    * Abre el modal de confirmación de eliminación.
    * @param fichaje Fichaje seleccionado.
    */
-  abrirModalEliminar(fichaje: FichajesDto) {
+  abrirModalEliminar(fichaje: FichajeResumenDto) {
     this.currentId = fichaje.id!;
     this.modalEliminar.open();
   }
@@ -246,7 +246,7 @@ export class DashboardFichajesComponent implements OnInit {
    * Abre el modal de edición de fichaje.
    * @param fichaje Fichaje a editar.
    */
-  abrirModalEditar(fichaje: FichajesDto) {
+  abrirModalEditar(fichaje: FichajeResumenDto) {
     this.currentId = fichaje.id!;
     this.editarModel = fichaje;
     this.editarForm.patchValue(this.editarModel);
@@ -260,8 +260,8 @@ export class DashboardFichajesComponent implements OnInit {
     let request:FichajeEditRequestDto = {
       fechaInicio: this.editarModel.fechaInicio!,
       fechaFin: this.editarModel.fechaFin?? null,
-      trabajadorId: this.editarModel.trabajador.id,
-      empresaId: this.editarModel.empresa.id,
+      trabajadorId: this.editarModel.trabajadorId,
+      empresaId: this.editarModel.empresaId,
       id:this.editarModel.id
     };
 
@@ -513,8 +513,8 @@ export class DashboardFichajesComponent implements OnInit {
     }
     this.fichajes = this.allFichajes.filter(f =>
         [
-          f.trabajador?.nombre,
-          f.trabajador?.apellidos,
+          f.nombre,
+          f.apellidos,
           f.inicioFmt,
           f.finFmt,
           f.tiempoTrabajado,
@@ -526,9 +526,9 @@ export class DashboardFichajesComponent implements OnInit {
 }
 
 /**
- * Interfaz extendida de FichajesDto para la vista.
+ * Interfaz extendida de FichajeResumenDto para la vista.
  */
-interface FichajeView extends FichajesDto {
+interface FichajeView extends FichajeResumenDto {
   inicioFmt: string;
   finFmt: string;
   tiempoTrabajado: string;
@@ -801,7 +801,7 @@ export class DashboardTrabajadoresComponent implements OnInit, AfterViewInit {
         const data = resp.data ?? [];
 
         const recientes = data
-          .filter(f => f.trabajador?.id === t.id)
+          .filter(f => f.trabajadorId === t.id)
           .sort((a, b) =>
             new Date(b.fechaInicio!).getTime() - new Date(a.fechaInicio!).getTime()
           )
@@ -7,7 +7,7 @@
  * e iniciar/finalizar nuevos fichajes.
  */
 import {Component, OnInit} from '@angular/core';
-import {FichajesDto, FichajesService, TrabajadoresService} from "../../../openapi";
+import {FichajeResumenDto, FichajesService, TrabajadoresService} from "../../../openapi";
 import {MatSnackBar} from "@angular/material/snack-bar";
 import {FormControl, FormGroup, FormsModule, ReactiveFormsModule} from "@angular/forms";
 import {FormlyModule} from "@ngx-formly/core";
@@ -19,7 +19,7 @@ import {NgForOf} from "@angular/common";
  * Interfaz extendida para enriquecer los datos del fichaje con formatos
  * legibles para la interfaz.
  */
-interface FichajeView extends FichajesDto {
+interface FichajeView extends FichajeResumenDto {
   inicioFmt: string;
   finFmt: string;
   tiempoTrabajado: string;
@@ -99,7 +99,7 @@ export class DashboardFichajesTrabajadorComponent implements OnInit {
    * Transforma un fichaje original en un objeto extendido con
    * formatos legibles para la UI.
    */
-  private toView(f: FichajesDto):FichajeView {
+  private toView(f: FichajeResumenDto):FichajeView {
     const inicio = new Date(f.fechaInicio!);
     const fin = f.fechaFin ? new Date(f.fechaFin) : new Date();
     const pad = (n: number) => n.toString().padStart(2, '0');
@@ -25,7 +25,7 @@ import { ApiRespuestaEmpresaDto } from '../model/apiRespuestaEmpresaDto';
 // @ts-ignore
 import { ApiRespuestaListEmpresaDto } from '../model/apiRespuestaListEmpresaDto';
 // @ts-ignore
-import { ApiRespuestaListFichajesDto } from '../model/apiRespuestaListFichajesDto';
+import { ApiRespuestaListFichajeResumenDto } from '../model/apiRespuestaListFichajeResumenDto';
 // @ts-ignore
 import { ApiRespuestaListTrabajadorDto } from '../model/apiRespuestaListTrabajadorDto';
 // @ts-ignore
@@ -364,9 +364,9 @@ export class EmpresasService extends BaseService implements EmpresasServiceInter
      * @param observe set whether or not to return the data Observable as the body, response or events. defaults to returning the body.
      * @param reportProgress flag to report request and response progress.
      */
-    public fichajesPorEmpresa(observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ApiRespuestaListFichajesDto>;
-    public fichajesPorEmpresa(observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ApiRespuestaListFichajesDto>>;
-    public fichajesPorEmpresa(observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ApiRespuestaListFichajesDto>>;
+    public fichajesPorEmpresa(observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ApiRespuestaListFichajeResumenDto>;
+    public fichajesPorEmpresa(observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ApiRespuestaListFichajeResumenDto>>;
+    public fichajesPorEmpresa(observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ApiRespuestaListFichajeResumenDto>>;
     public fichajesPorEmpresa(observe: any = 'body', reportProgress: boolean = false, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<any> {
 
         let localVarHeaders = this.defaultHeaders;
@@ -395,7 +395,7 @@ export class EmpresasService extends BaseService implements EmpresasServiceInter
         }
 
         let localVarPath = `/empresa/fichajes`;
-        return this.httpClient.request<ApiRespuestaListFichajesDto>('post', `${this.configuration.basePath}${localVarPath}`,
+        return this.httpClient.request<ApiRespuestaListFichajeResumenDto>('post', `${this.configuration.basePath}${localVarPath}`,
             {
                 context: localVarHttpContext,
                 responseType: <any>responseType_,
@@ -15,7 +15,7 @@ import { ActualizarEmpresaDto } from '../model/models';
 import { ApiRespuestaBoolean } from '../model/models';
 import { ApiRespuestaEmpresaDto } from '../model/models';
 import { ApiRespuestaListEmpresaDto } from '../model/models';
-import { ApiRespuestaListFichajesDto } from '../model/models';
+import { ApiRespuestaListFichajeResumenDto } from '../model/models';
 import { ApiRespuestaListTrabajadorDto } from '../model/models';
 import { EmailRequest } from '../model/models';
 import { TrabajadorDto } from '../model/models';
@@ -67,7 +67,7 @@ export interface EmpresasServiceInterface {
      * Obtener los fichajes de una empresa por email
      * Obtener los fichajes de una empresa por email
      */
-    fichajesPorEmpresa(extraHttpRequestParams?: any): Observable<ApiRespuestaListFichajesDto>;
+    fichajesPorEmpresa(extraHttpRequestParams?: any): Observable<ApiRespuestaListFichajeResumenDto>;
 
     /**
      * Obtener listado de empresas
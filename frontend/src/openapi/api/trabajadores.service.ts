@@ -21,7 +21,7 @@ import { ActualizarTrabajadorDto } from '../model/actualizarTrabajadorDto';
 // @ts-ignore
 import { ApiRespuestaBoolean } from '../model/apiRespuestaBoolean';
 // @ts-ignore
-import { ApiRespuestaListFichajesDto } from '../model/apiRespuestaListFichajesDto';
+import { ApiRespuestaListFichajeResumenDto } from '../model/apiRespuestaListFichajeResumenDto';
 // @ts-ignore
 import { ApiRespuestaTrabajadorDto } from '../model/apiRespuestaTrabajadorDto';
 
@@ -114,9 +114,9 @@ export class TrabajadoresService extends BaseService implements TrabajadoresServ
      * @param observe set whether or not to return the data Observable as the body, response or events. defaults to returning the body.
      * @param reportProgress flag to report request and response progress.
      */
-    public fichajesPorEmailTrabajador(observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ApiRespuestaListFichajesDto>;
-    public fichajesPorEmailTrabajador(observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ApiRespuestaListFichajesDto>>;
-    public fichajesPorEmailTrabajador(observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ApiRespuestaListFichajesDto>>;
+    public fichajesPorEmailTrabajador(observe?: 'body', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<ApiRespuestaListFichajeResumenDto>;
+    public fichajesPorEmailTrabajador(observe?: 'response', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpResponse<ApiRespuestaListFichajeResumenDto>>;
+    public fichajesPorEmailTrabajador(observe?: 'events', reportProgress?: boolean, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<HttpEvent<ApiRespuestaListFichajeResumenDto>>;
     public fichajesPorEmailTrabajador(observe: any = 'body', reportProgress: boolean = false, options?: {httpHeaderAccept?: 'application/json', context?: HttpContext, transferCache?: boolean}): Observable<any> {
 
         let localVarHeaders = this.defaultHeaders;
@@ -145,7 +145,7 @@ export class TrabajadoresService extends BaseService implements TrabajadoresServ
         }
 
         let localVarPath = `/trabajador/fichajes`;
-        return this.httpClient.request<ApiRespuestaListFichajesDto>('post', `${this.configuration.basePath}${localVarPath}`,
+        return this.httpClient.request<ApiRespuestaListFichajeResumenDto>('post', `${this.configuration.basePath}${localVarPath}`,
             {
                 context: localVarHttpContext,
                 responseType: <any>responseType_,
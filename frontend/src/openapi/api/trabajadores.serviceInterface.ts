@@ -13,7 +13,7 @@ import { Observable }                                        from 'rxjs';
 
 import { ActualizarTrabajadorDto } from '../model/models';
 import { ApiRespuestaBoolean } from '../model/models';
-import { ApiRespuestaListFichajesDto } from '../model/models';
+import { ApiRespuestaListFichajeResumenDto } from '../model/models';
 import { ApiRespuestaTrabajadorDto } from '../model/models';
 
 
@@ -36,7 +36,7 @@ export interface TrabajadoresServiceInterface {
      * Obtener los fichajes de un trabajador por email
      * Obtener los fichajes de un trabajador por email
      */
-    fichajesPorEmailTrabajador(extraHttpRequestParams?: any): Observable<ApiRespuestaListFichajesDto>;
+    fichajesPorEmailTrabajador(extraHttpRequestParams?: any): Observable<ApiRespuestaListFichajeResumenDto>;
 
     /**
      * Obtener los datos de un trabajador por email
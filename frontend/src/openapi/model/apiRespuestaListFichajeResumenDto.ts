@@ -7,17 +7,17 @@
  * https://openapi-generator.tech
  * Do not edit the class manually.
  */
-import { FichajesDto } from './fichajesDto';
+import { FichajeResumenDto } from './fichajeResumenDto';
 
 
 /**
  * Respuestas estandarizadas de la api
  */
-export interface ApiRespuestaListFichajesDto { 
-    data?: Array<FichajesDto>;
-    estado?: ApiRespuestaListFichajesDto.EstadoEnum;
+export interface ApiRespuestaListFichajeResumenDto { 
+    data?: Array<FichajeResumenDto>;
+    estado?: ApiRespuestaListFichajeResumenDto.EstadoEnum;
 }
-export namespace ApiRespuestaListFichajesDto {
+export namespace ApiRespuestaListFichajeResumenDto {
     export type EstadoEnum = 'exito' | 'error';
     export const EstadoEnum = {
         Exito: 'exito' as EstadoEnum,
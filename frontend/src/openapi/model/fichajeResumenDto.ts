@@ -7,14 +7,14 @@
  * https://openapi-generator.tech
  * Do not edit the class manually.
  */
-import { EmpresaDto } from './empresaDto';
-import { TrabajadorDto } from './trabajadorDto';
 
 
-export interface FichajesDto { 
+export interface FichajeResumenDto { 
     id?: number;
-    trabajador?: TrabajadorDto;
-    empresa?: EmpresaDto;
+    trabajadorId?: number;
+    empresaId?: number;
+    nombre?: string;
+    apellidos?: string;
     fechaInicio?: string;
     fechaFin?: string;
 }
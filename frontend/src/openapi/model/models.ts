@@ -3,7 +3,7 @@ export * from './actualizarTrabajadorDto';
 export * from './apiRespuestaBoolean';
 export * from './apiRespuestaEmpresaDto';
 export * from './apiRespuestaListEmpresaDto';
-export * from './apiRespuestaListFichajesDto';
+export * from './apiRespuestaListFichajeResumenDto';
 export * from './apiRespuestaListFormaJuridicaDto';
 export * from './apiRespuestaListGeneroDto';
 export * from './apiRespuestaListNominaMetadataDto';
@@ -15,7 +15,7 @@ export * from './emailRequest';
 export * from './empresaDto';
 export * from './fichajeEditRequestDto';
 export * from './fichajeRequestDto';
-export * from './fichajesDto';
+export * from './fichajeResumenDto';
 export * from './formaJuridicaDto';
 export * from './generoDto';
 export * from './idRequestDto';